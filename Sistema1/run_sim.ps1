@@ -10,6 +10,6 @@ if ($LASTEXITCODE -ne 0) {
 }
 
 Write-Host "Ejecutando la simulación..."
-java -cp out/java simulation1.Main
+java -cp out/java simulation1.Main @args
 
 Write-Host "Script finalizado."
\ No newline at end of file
@@ -12,6 +12,6 @@ if [ $? -ne 0 ]; then
 fi
 
 echo "Ejecutando la simulación..."
-java -cp out/java simulation1.Main
+java -cp out/java simulation1.Main "$@"
 
 echo "Script finalizado."
\ No newline at end of file
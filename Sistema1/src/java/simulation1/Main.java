@@ -1,12 +1,25 @@
 package simulation1;
 
+import java.io.BufferedWriter;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import simulation1.integrators.Beeman;
 import simulation1.integrators.Gear;
 import simulation1.integrators.IIntegrator;
+import simulation1.integrators.OscillatorBank;
+import simulation1.integrators.Parareal;
 import simulation1.integrators.Verlet;
 import simulation1.utils.CSVWriter;
 
@@ -20,13 +33,165 @@ public class Main {
             1e-3, 1e-4, 1e-5, 1e-6, 1e-7
     );
 
+    /**
+     * Uso: Main [sim|scan [dt]|parareal [dt [tramos]]]
+     * - sim (por defecto): una corrida por algoritmo y por cada dt de DT_VALUES
+     * - scan: barrido de k y gamma por algoritmo (ver runParameterScan), con dt = 1e-5 si no se indica
+     * - parareal: corrida larga paralela en el tiempo por algoritmo (ver runPararealSimulation), con
+     *   dt = 1e-7 y cuatro tramos por núcleo si no se indican
+     */
     public static void main(String[] args) {
         String[] algorithms = {"Verlet", "Beeman", "Gear"};
+        String mode = args.length > 0 ? args[0] : "sim";
+
+        try {
+            switch (mode) {
+                case "sim":
+                    for (String algorithmName : algorithms) {
+                        for (double dt : DT_VALUES) {
+                            runSimulation(algorithmName, dt);
+                        }
+                    }
+                    break;
+                case "scan":
+                    double scanDt = args.length > 1 ? Double.parseDouble(args[1]) : 1e-5;
+                    for (String algorithmName : algorithms) {
+                        runParameterScan(algorithmName, scanDt);
+                    }
+                    break;
+                case "parareal":
+                    double pararealDt = args.length > 1 ? Double.parseDouble(args[1]) : 1e-7;
+                    int slices = args.length > 2 ? Integer.parseInt(args[2])
+                            : 4 * Runtime.getRuntime().availableProcessors();
+                    for (String algorithmName : algorithms) {
+                        runPararealSimulation(algorithmName, pararealDt, slices, 1000);
+                    }
+                    break;
+                default:
+                    usage();
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Número inválido: " + e.getMessage());
+            usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Uso: Main [sim|scan [dt]|parareal [dt [tramos]]]");
+        System.exit(1);
+    }
+
+    /**
+     * Barre k y gamma en una grilla integrando todos los osciladores juntos con un OscillatorBank,
+     * y guarda el error cuadrático medio de cada combinación.
+     * @param algorithmName El nombre del integrador.
+     * @param dt El paso temporal para el barrido.
+     */
+    private static void runParameterScan(String algorithmName, double dt) {
+        double[] kValues = {2500, 5000, 10000, 20000, 40000};
+        double[] gammaValues = {25, 50, 100, 200, 400};
+        int lanes = kValues.length * gammaValues.length;
+
+        double[] k = new double[lanes];
+        double[] gamma = new double[lanes];
+        double[] mass = new double[lanes];
+        double[] position = new double[lanes];
+        double[] velocity = new double[lanes];
+        for (int i = 0; i < kValues.length; i++) {
+            for (int j = 0; j < gammaValues.length; j++) {
+                int lane = i * gammaValues.length + j;
+                k[lane] = kValues[i];
+                gamma[lane] = gammaValues[j];
+                mass[lane] = MASS;
+                position[lane] = 1.0;
+                velocity[lane] = -gamma[lane] / (2 * MASS);
+            }
+        }
+
+        OscillatorBank bank = new OscillatorBank(algorithmName, k, gamma, mass, position, velocity);
+        bank.run(dt, TOTAL_TIME);
+        double[] mse = bank.getMeanSquaredErrors();
+
+        String filename = String.format(Locale.US, "./data/raw/%s_scan_%.0e.csv",
+                algorithmName.toLowerCase(), dt).replace("e-0", "e-");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
+            writer.write("k;gamma;mass;mse\n");
+            for (int lane = 0; lane < lanes; lane++) {
+                writer.write(String.format(Locale.US, "%.17e;%.17e;%.17e;%.17e\n",
+                        k[lane], gamma[lane], mass[lane], mse[lane]));
+            }
+        } catch (IOException e) {
+            System.err.println("Error al escribir el archivo " + filename + ": " + e.getMessage());
+        }
+    }
 
-        for (String algorithmName : algorithms) {
-            for (double dt : DT_VALUES) {
-                runSimulation(algorithmName, dt);
+    private static IIntegrator createIntegrator(String algorithmName, Particle particle) {
+        switch (algorithmName) {
+            case "Beeman":
+                return new Beeman(K, GAMMA);
+            case "Gear":
+                return new Gear(particle, K, GAMMA);
+            case "Verlet":
+            default:
+                return new Verlet(K, GAMMA);
+        }
+    }
+
+    /**
+     * Misma simulación que runSimulation pero paralela en el tiempo (ver Parareal): el grueso es el
+     * mismo algoritmo con coarseSteps pasos por tramo. Al converger, cada tramo se vuelve a integrar
+     * en paralelo escribiendo su parte del CSV, y las partes se concatenan en orden.
+     * @param algorithmName El nombre del integrador.
+     * @param dt El paso temporal fino.
+     * @param slices Cantidad de tramos (conviene uno o dos por núcleo).
+     */
+    private static void runPararealSimulation(String algorithmName, double dt, int slices, int coarseSteps) {
+        String filename = String.format(Locale.US, "./data/raw/%s_parareal_%.0e.csv",
+                algorithmName.toLowerCase(), dt).replace("e-0", "e-");
+        int threads = Runtime.getRuntime().availableProcessors();
+        long steps = Math.round(TOTAL_TIME / dt);
+        Parareal.IntegratorFactory factory = particle -> createIntegrator(algorithmName, particle);
+        Parareal parareal = new Parareal(factory, dt, steps, factory, coarseSteps, slices, 1e-10, threads);
+
+        double initialVelocity = -GAMMA / (2 * MASS);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            double[][] boundaries = parareal.solve(1.0, initialVelocity, MASS);
+            System.out.printf(Locale.US, "%s dt=%.0e: Parareal convergió en %d iteraciones (%d tramos, %.2f s)%n",
+                    algorithmName, dt, parareal.getIterations(), slices, (System.nanoTime() - start) * 1e-9);
+
+            List<Future<Path>> parts = new ArrayList<>();
+            for (int n = 0; n < slices; n++) {
+                int slice = n;
+                parts.add(executor.submit(() -> {
+                    Path part = Paths.get(filename + ".part" + slice);
+                    try (CSVWriter writer = new CSVWriter(part.toString(), false)) {
+                        parareal.propagateFine(slice, boundaries[slice], MASS, writer::writeData);
+                    }
+                    return part;
+                }));
+            }
+
+            try (CSVWriter writer = new CSVWriter(filename)) {
+                writer.writeData(0, new Particle(1.0, initialVelocity, MASS));
+            }
+            try (FileChannel out = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                for (Future<Path> future : parts) {
+                    Path part = future.get();
+                    try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                        long position = 0;
+                        while (position < in.size()) {
+                            position += in.transferTo(position, in.size() - position, out);
+                        }
+                    }
+                    Files.delete(part);
+                }
             }
+        } catch (Exception e) {
+            System.err.println("Error en la simulación Parareal " + filename + ": " + e.getMessage());
+        } finally {
+            executor.shutdownNow();
         }
     }
 
@@ -44,19 +209,7 @@ public class Main {
         double initialVelocity = -initialAmplitude * GAMMA / (2 * MASS);
         Particle particle = new Particle(initialPosition, initialVelocity, MASS);
 
-        IIntegrator integrator;
-        switch (algorithmName) {
-            case "Beeman":
-                integrator = new Beeman(K, GAMMA);
-                break;
-            case "Gear":
-                integrator = new Gear(particle, K, GAMMA);
-                break;
-            case "Verlet":
-            default:
-                integrator = new Verlet(K, GAMMA);
-                break;
-        }
+        IIntegrator integrator = createIntegrator(algorithmName, particle);
 
         try (CSVWriter writer = new CSVWriter(filename)) {
             writer.writeData(0, particle);
@@ -0,0 +1,258 @@
+package simulation1.integrators;
+
+/*
+ * Banco de osciladores amortiguados independientes integrados "por carriles" (lanes):
+ * cada carril tiene su propio k, gamma, masa y condiciones iniciales, y todo el estado
+ * vive en arreglos primitivos para que cada paso sea un loop plano sobre los carriles.
+ *
+ * Los esquemas son los mismos que Verlet, Beeman y Gear (carril a carril dan el mismo
+ * resultado que una corrida individual), así un barrido de parámetros cuesta una sola corrida.
+ */
+public class OscillatorBank {
+    private static final double[] FACTORIALS = {1.0, 1.0, 2.0, 6.0, 24.0, 120.0};
+
+    // Mismos coeficientes que Gear
+    private static final double[] ALPHA_COEFFICIENTS = {
+            3.0 / 16.0,
+            251.0 / 360.0,
+            1.0,
+            11.0 / 18.0,
+            1.0 / 6.0,
+            1.0 / 60.0
+    };
+
+    private final String algorithmName;
+    private final int lanes;
+
+    private final double[] k;
+    private final double[] gamma;
+    private final double[] mass;
+
+    private final double[] initialPosition;
+    private final double[] initialVelocity;
+    private final double[] position;
+    private final double[] velocity;
+
+    // estado propio de cada esquema
+    private double[] previousPosition;     // Verlet
+    private double[] previousAcceleration; // Beeman
+    private double[][] derivatives;        // Gear: r r1 r2 r3 r4 r5
+    private boolean initialized;
+
+    // error contra la solución analítica
+    private final double[] squaredErrorSum;
+    private final double[] maxError;
+    private long samples;
+
+    public OscillatorBank(String algorithmName, double[] k, double[] gamma, double[] mass,
+                          double[] initialPosition, double[] initialVelocity) {
+        this.lanes = k.length;
+        if (gamma.length != lanes || mass.length != lanes
+                || initialPosition.length != lanes || initialVelocity.length != lanes) {
+            throw new IllegalArgumentException("Todos los parámetros deben tener " + lanes + " carriles");
+        }
+        if (!algorithmName.equals("Verlet") && !algorithmName.equals("Beeman") && !algorithmName.equals("Gear")) {
+            throw new IllegalArgumentException("Algoritmo desconocido: " + algorithmName);
+        }
+        this.algorithmName = algorithmName;
+        this.k = k.clone();
+        this.gamma = gamma.clone();
+        this.mass = mass.clone();
+        this.initialPosition = initialPosition.clone();
+        this.initialVelocity = initialVelocity.clone();
+        this.position = initialPosition.clone();
+        this.velocity = initialVelocity.clone();
+        this.squaredErrorSum = new double[lanes];
+        this.maxError = new double[lanes];
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    public double[] getPositions() {
+        return position;
+    }
+
+    public double[] getVelocities() {
+        return velocity;
+    }
+
+    /**
+     * Integra desde t = 0 hasta totalTime igual que Main.runSimulation, acumulando el error en cada paso
+     */
+    public void run(double dt, double totalTime) {
+        accumulateError(0);
+        for (double t = dt; t <= totalTime; t += dt) {
+            step(dt);
+            accumulateError(t);
+        }
+    }
+
+    public void step(double dt) {
+        if (!initialized) {
+            initialize(dt);
+        }
+        switch (algorithmName) {
+            case "Beeman":
+                stepBeeman(dt);
+                break;
+            case "Gear":
+                stepGear(dt);
+                break;
+            case "Verlet":
+            default:
+                stepVerlet(dt);
+                break;
+        }
+    }
+
+    private void initialize(double dt) {
+        switch (algorithmName) {
+            case "Beeman":
+                // inicialmente la aceleración previa es la actual (igual que Beeman)
+                previousAcceleration = new double[lanes];
+                for (int i = 0; i < lanes; i++) {
+                    previousAcceleration[i] = (-k[i] * position[i] - gamma[i] * velocity[i]) / mass[i];
+                }
+                break;
+            case "Gear":
+                derivatives = new double[6][lanes];
+                for (int i = 0; i < lanes; i++) {
+                    double m = mass[i];
+                    derivatives[0][i] = position[i];
+                    derivatives[1][i] = velocity[i];
+                    for (int order = 2; order < 6; order++) {
+                        derivatives[order][i] = (-k[i] * derivatives[order - 2][i] - gamma[i] * derivatives[order - 1][i]) / m;
+                    }
+                }
+                break;
+            case "Verlet":
+            default:
+                previousPosition = new double[lanes];
+                for (int i = 0; i < lanes; i++) {
+                    double a0 = (-k[i] * position[i] - gamma[i] * velocity[i]) / mass[i];
+                    previousPosition[i] = position[i] - velocity[i] * dt + 0.5 * a0 * dt * dt;
+                }
+                break;
+        }
+        initialized = true;
+    }
+
+    private void stepVerlet(double dt) {
+        double dt2 = dt * dt;
+        double inverseTwoDt = 1.0 / (2 * dt);
+        for (int i = 0; i < lanes; i++) {
+            double current = position[i];
+            double acceleration = (-k[i] * current - gamma[i] * velocity[i]) / mass[i];
+            double next = 2 * current - previousPosition[i] + acceleration * dt2;
+
+            velocity[i] = (next - previousPosition[i]) * inverseTwoDt;
+            previousPosition[i] = current;
+            position[i] = next;
+        }
+    }
+
+    private void stepBeeman(double dt) {
+        double dt2 = dt * dt;
+        for (int i = 0; i < lanes; i++) {
+            double r = position[i];
+            double v = velocity[i];
+            double previous = previousAcceleration[i];
+            double current = (-k[i] * r - gamma[i] * v) / mass[i];
+
+            double nextPosition = r + v * dt + (2.0 / 3.0) * current * dt2 - (1.0 / 6.0) * previous * dt2;
+            double predictedVelocity = v + (3.0 / 2.0) * current * dt - (1.0 / 2.0) * previous * dt;
+            double next = (-k[i] * nextPosition - gamma[i] * predictedVelocity) / mass[i];
+
+            velocity[i] = v + (1.0 / 3.0) * next * dt + (5.0 / 6.0) * current * dt - (1.0 / 6.0) * previous * dt;
+            position[i] = nextPosition;
+            previousAcceleration[i] = current;
+        }
+    }
+
+    private void stepGear(double dt) {
+        // dt^n / n! y alpha_n * n! / dt^n son iguales para todos los carriles
+        double[] taylor = new double[6];
+        double[] correction = new double[6];
+        for (int n = 0; n < 6; n++) {
+            taylor[n] = Math.pow(dt, n) / FACTORIALS[n];
+            correction[n] = ALPHA_COEFFICIENTS[n] * FACTORIALS[n] / Math.pow(dt, n);
+        }
+        double[] d0 = derivatives[0], d1 = derivatives[1], d2 = derivatives[2];
+        double[] d3 = derivatives[3], d4 = derivatives[4], d5 = derivatives[5];
+
+        for (int i = 0; i < lanes; i++) {
+            // predicción
+            double p0 = d0[i] + d1[i] * taylor[1] + d2[i] * taylor[2] + d3[i] * taylor[3] + d4[i] * taylor[4] + d5[i] * taylor[5];
+            double p1 = d1[i] + d2[i] * taylor[1] + d3[i] * taylor[2] + d4[i] * taylor[3] + d5[i] * taylor[4];
+            double p2 = d2[i] + d3[i] * taylor[1] + d4[i] * taylor[2] + d5[i] * taylor[3];
+            double p3 = d3[i] + d4[i] * taylor[1] + d5[i] * taylor[2];
+            double p4 = d4[i] + d5[i] * taylor[1];
+            double p5 = d5[i];
+
+            // evaluación
+            double realAcceleration = (-k[i] * p0 - gamma[i] * p1) / mass[i];
+            double deltaR2 = (realAcceleration - p2) * taylor[2];
+
+            // corrección
+            d0[i] = p0 + correction[0] * deltaR2;
+            d1[i] = p1 + correction[1] * deltaR2;
+            d2[i] = p2 + correction[2] * deltaR2;
+            d3[i] = p3 + correction[3] * deltaR2;
+            d4[i] = p4 + correction[4] * deltaR2;
+            d5[i] = p5 + correction[5] * deltaR2;
+
+            position[i] = d0[i];
+            velocity[i] = d1[i];
+        }
+    }
+
+    /**
+     * Suma el error cuadrático de cada carril contra la solución analítica en el tiempo t
+     */
+    public void accumulateError(double t) {
+        for (int i = 0; i < lanes; i++) {
+            double error = position[i] - analyticalPosition(i, t);
+            squaredErrorSum[i] += error * error;
+            maxError[i] = Math.max(maxError[i], Math.abs(error));
+        }
+        samples++;
+    }
+
+    /**
+     * Solución analítica del oscilador amortiguado del carril i, para los tres regímenes
+     */
+    public double analyticalPosition(int lane, double t) {
+        double beta = gamma[lane] / (2 * mass[lane]);
+        double omega0Squared = k[lane] / mass[lane];
+        double x0 = initialPosition[lane];
+        double c = initialVelocity[lane] + beta * x0;
+        double decay = Math.exp(-beta * t);
+        double discriminant = omega0Squared - beta * beta;
+
+        if (discriminant > 0) {
+            double omega = Math.sqrt(discriminant);
+            return decay * (x0 * Math.cos(omega * t) + c / omega * Math.sin(omega * t));
+        } else if (discriminant < 0) {
+            double omega = Math.sqrt(-discriminant);
+            return decay * (x0 * Math.cosh(omega * t) + c / omega * Math.sinh(omega * t));
+        }
+        return decay * (x0 + c * t);
+    }
+
+    /**
+     * Error cuadrático medio de cada carril (mismo criterio que calculate_mse en el análisis de Python)
+     */
+    public double[] getMeanSquaredErrors() {
+        double[] mse = new double[lanes];
+        for (int i = 0; i < lanes; i++) {
+            mse[i] = samples == 0 ? 0 : squaredErrorSum[i] / samples;
+        }
+        return mse;
+    }
+
+    public double[] getMaxErrors() {
+        return maxError.clone();
+    }
+}
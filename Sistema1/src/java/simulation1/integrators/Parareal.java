@@ -0,0 +1,187 @@
+package simulation1.integrators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import simulation1.Particle;
+
+/*
+ * Integración paralela en el tiempo (Parareal): [0, totalTime] se corta en tramos, un integrador
+ * grueso (dt grande o esquema barato) propaga el estado de tramo en tramo en serie y el integrador
+ * fino (Verlet, Beeman, Gear con el dt de siempre) corrige todos los tramos a la vez en paralelo.
+ * En cada iteración
+ *     U[n+1] = G(U[n] nuevo) + F(U[n] anterior) - G(U[n] anterior)
+ * hasta que ningún estado de borde cambie más que tolerance. Después de k iteraciones los primeros k
+ * tramos ya son exactos, así que en el peor caso termina en slices iteraciones con el resultado serial.
+ *
+ * Los integradores guardan historia (posición o aceleración anterior, derivadas de Gear), así que se
+ * crea uno nuevo al comienzo de cada tramo: el resultado es el de la corrida fina reiniciada en cada
+ * borde de tramo.
+ */
+public class Parareal {
+    /**
+     * Crea un integrador que arranca en el estado de initial
+     */
+    public interface IntegratorFactory {
+        IIntegrator create(Particle initial);
+    }
+
+    /**
+     * Recibe cada paso fino de un tramo (ver propagateFine)
+     */
+    public interface StepObserver {
+        void onStep(double t, Particle p) throws Exception;
+    }
+
+    private final IntegratorFactory fine;
+    private final IntegratorFactory coarse;
+    private final double fineDt;
+    private final int coarseStepsPerSlice;
+    private final long totalSteps;
+    private final int slices;
+    private final double tolerance;
+    private final int threads;
+
+    private double[][] boundaries; // estado (pos, vel) al comienzo de cada tramo y al final
+    private int iterations;
+
+    /**
+     * @param totalSteps pasos finos en total (se reparten entre los tramos)
+     * @param coarseStepsPerSlice pasos del integrador grueso por tramo
+     * @param tolerance cambio máximo admitido en posición y velocidad entre dos iteraciones
+     */
+    public Parareal(IntegratorFactory fine, double fineDt, long totalSteps, IntegratorFactory coarse,
+                    int coarseStepsPerSlice, int slices, double tolerance, int threads) {
+        if (slices < 1 || totalSteps < slices) {
+            throw new IllegalArgumentException("Se necesita al menos un paso fino por tramo");
+        }
+        this.fine = fine;
+        this.coarse = coarse;
+        this.fineDt = fineDt;
+        this.coarseStepsPerSlice = Math.max(1, coarseStepsPerSlice);
+        this.totalSteps = totalSteps;
+        this.slices = slices;
+        this.tolerance = tolerance;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Primer paso fino del tramo n (el tramo n va de sliceStart(n) a sliceStart(n + 1))
+     */
+    public long sliceStart(int n) {
+        return totalSteps * n / slices;
+    }
+
+    /**
+     * Integra desde (position, velocity) hasta el final
+     * @return estado (pos, vel) en el borde de cada tramo, de 0 a slices
+     */
+    public double[][] solve(double position, double velocity, double mass) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            double[][] current = new double[slices + 1][];
+            double[][] coarseResults = new double[slices][];
+            double[][] fineResults = new double[slices][];
+            current[0] = new double[]{position, velocity};
+            for (int n = 0; n < slices; n++) {
+                coarseResults[n] = propagateCoarse(n, current[n], mass);
+                current[n + 1] = coarseResults[n];
+            }
+
+            iterations = 0;
+            while (iterations < slices) {
+                // 1. corrección fina de todos los tramos que todavía no son exactos, en paralelo
+                int first = iterations;
+                List<Callable<double[]>> tasks = new ArrayList<>();
+                for (int n = first; n < slices; n++) {
+                    int slice = n;
+                    double[] start = current[n];
+                    tasks.add(() -> propagateFine(slice, start, mass, null));
+                }
+                List<Future<double[]>> futures = executor.invokeAll(tasks);
+                for (int n = first; n < slices; n++) {
+                    fineResults[n] = get(futures.get(n - first));
+                }
+                iterations++;
+
+                // 2. barrido grueso en serie con la corrección
+                double[][] next = current.clone();
+                double change = 0;
+                for (int n = first; n < slices; n++) {
+                    double[] predicted = propagateCoarse(n, next[n], mass);
+                    double[] corrected = new double[2];
+                    for (int c = 0; c < 2; c++) {
+                        corrected[c] = predicted[c] + fineResults[n][c] - coarseResults[n][c];
+                        change = Math.max(change, Math.abs(corrected[c] - current[n + 1][c]));
+                    }
+                    coarseResults[n] = predicted;
+                    next[n + 1] = corrected;
+                }
+                current = next;
+                if (change <= tolerance) {
+                    break;
+                }
+            }
+            boundaries = current;
+            return current;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double[] get(Future<double[]> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error en un tramo fino", e.getCause());
+        }
+    }
+
+    private double[] propagateCoarse(int n, double[] start, double mass) {
+        double sliceLength = (sliceStart(n + 1) - sliceStart(n)) * fineDt;
+        Particle particle = new Particle(start[0], start[1], mass);
+        IIntegrator integrator = coarse.create(particle);
+        double dt = sliceLength / coarseStepsPerSlice;
+        for (int s = 0; s < coarseStepsPerSlice; s++) {
+            integrator.step(particle, dt);
+        }
+        return new double[]{particle.getPosition(), particle.getVelocity()};
+    }
+
+    /**
+     * Integra el tramo n con el integrador fino desde start
+     * @param observer recibe cada paso (puede ser null)
+     * @return estado al final del tramo
+     */
+    public double[] propagateFine(int n, double[] start, double mass, StepObserver observer) throws Exception {
+        Particle particle = new Particle(start[0], start[1], mass);
+        IIntegrator integrator = fine.create(particle);
+        for (long step = sliceStart(n) + 1; step <= sliceStart(n + 1); step++) {
+            integrator.step(particle, fineDt);
+            if (observer != null) {
+                observer.onStep(step * fineDt, particle);
+            }
+        }
+        return new double[]{particle.getPosition(), particle.getVelocity()};
+    }
+
+    /**
+     * Estados de borde de la última llamada a solve
+     */
+    public double[][] getBoundaries() {
+        return boundaries;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getSlices() {
+        return slices;
+    }
+}
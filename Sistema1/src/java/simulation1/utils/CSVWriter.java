@@ -1,26 +1,35 @@
 package simulation1.utils;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Locale;
+import java.nio.file.Paths;
 
 import simulation1.Particle;
 
 public class CSVWriter implements AutoCloseable {
-    private final BufferedWriter writer;
+    private final FastTextWriter writer;
 
     public CSVWriter(String filename) throws IOException {
-        this.writer = new BufferedWriter(new FileWriter(filename));
+        this(filename, true);
+    }
+
+    /**
+     * @param header si es false no se escribe el encabezado (para partes que después se concatenan)
+     */
+    public CSVWriter(String filename, boolean header) throws IOException {
+        this.writer = new FastTextWriter(Paths.get(filename), false);
 
-        writer.write("t;pos;vel\n");
+        if (header) {
+            writer.append("t;pos;vel\n");
+        }
     }
 
+    /**
+     * Misma salida que String.format(Locale.US, "%.17e;%.17e;%.17e\n", t, pos, vel)
+     */
     public void writeData(double t, Particle p) throws IOException {
-        double pos = p.getPosition();
-        double vel = p.getVelocity();
-
-        writer.write(String.format(Locale.US, "%.17e;%.17e;%.17e\n", t, pos, vel));
+        writer.appendScientific(t, 17).append(';')
+                .appendScientific(p.getPosition(), 17).append(';')
+                .appendScientific(p.getVelocity(), 17).newLine();
     }
 
     @Override
@@ -0,0 +1,33 @@
+"""
+Acceso aleatorio a los bloques de una simulación usando el índice sim.csv.idx
+que escribe CSVWriter2 (o que genera FrameIndex para archivos viejos).
+
+Cada línea del índice es t;galaxy;offset;stars, con offset en bytes.
+"""
+
+import numpy as np
+import pandas as pd
+
+
+def load_index(csv_file):
+    """Carga el índice del archivo como DataFrame con columnas t, galaxy, offset, stars"""
+    return pd.read_csv(str(csv_file) + '.idx', sep=';')
+
+
+def read_frame(csv_file, index, frame):
+    """
+    Lee sólo el bloque pedido: se posiciona en su offset y lee sus estrellas.
+    Retorna (t, galaxy, datos) con datos = array de filas id, x, y, z, vx, vy, vz, fx, fy, fz
+    """
+    row = index.iloc[frame]
+    with open(csv_file, 'rb') as f:
+        f.seek(int(row['offset']))
+        f.readline()  # encabezado del bloque
+        lines = [f.readline().decode().strip() for _ in range(int(row['stars']))]
+    data = np.array([[float(v) for v in line.split(';')] for line in lines])
+    return row['t'], row['galaxy'], data
+
+
+def frames_in_range(index, t_from, t_to):
+    """Números de bloque con tiempo en [t_from, t_to]"""
+    return index.index[(index['t'] >= t_from) & (index['t'] <= t_to)].tolist()
@@ -0,0 +1,86 @@
+"""
+Visor en vivo de Simulation2: lee con mmap el archivo que publica SharedStateExporter
+(Simulation2.enableLiveExport) y dibuja las posiciones a su propio ritmo, sin esperar al CSV.
+
+Uso: python live_view.py ../live.bin [fps]
+
+Layout (little endian): magic, versión, capacidad (int), secuencia (long en 16),
+buffer activo (int en 24); el buffer b empieza en 32 + b * (16 + 24 * capacidad) con
+t (double), cantidad de estrellas (int), relleno, y luego x, y, z de cada estrella.
+"""
+
+import mmap
+import struct
+import sys
+
+import numpy as np
+import matplotlib.pyplot as plt
+from matplotlib.animation import FuncAnimation
+
+MAGIC = 0x4C495645
+HEADER_SIZE = 32
+BUFFER_HEADER_SIZE = 16
+
+
+class LiveState:
+    def __init__(self, path):
+        self.file = open(path, 'rb')
+        self.map = mmap.mmap(self.file.fileno(), 0, access=mmap.ACCESS_READ)
+        magic, _, self.capacity = struct.unpack_from('<iii', self.map, 0)
+        if magic != MAGIC:
+            raise ValueError(f'{path} no es un archivo de SharedStateExporter')
+        self.buffer_size = BUFFER_HEADER_SIZE + 24 * self.capacity
+
+    def read(self):
+        """Último estado publicado: (secuencia, t, posiciones Nx3). Reintenta si la secuencia cambió"""
+        while True:
+            before, active = struct.unpack_from('<qi', self.map, 16)
+            offset = HEADER_SIZE + active * self.buffer_size
+            t, count = struct.unpack_from('<di', self.map, offset)
+            count = min(count, self.capacity)
+            positions = np.frombuffer(self.map, dtype='<f8', count=3 * count,
+                                      offset=offset + BUFFER_HEADER_SIZE).reshape(-1, 3).copy()
+            after = struct.unpack_from('<q', self.map, 16)[0]
+            if before == after:
+                return after, t, positions
+
+    def close(self):
+        self.map.close()
+        self.file.close()
+
+
+def main():
+    if len(sys.argv) < 2:
+        print('Uso: python live_view.py live.bin [fps]')
+        sys.exit(1)
+    state = LiveState(sys.argv[1])
+    fps = float(sys.argv[2]) if len(sys.argv) > 2 else 30
+
+    fig = plt.figure(figsize=(9, 9), facecolor='black')
+    ax = fig.add_subplot(111, projection='3d', facecolor='black')
+    _, t, positions = state.read()
+    scatter = ax.scatter(positions[:, 0], positions[:, 1], positions[:, 2], s=1, c='#00d4ff')
+    title = ax.set_title(f't = {t:.3f}', color='white')
+    last_sequence = [-1]
+
+    def update(_):
+        sequence, t, positions = state.read()
+        if sequence != last_sequence[0] and len(positions) > 0:
+            last_sequence[0] = sequence
+            scatter._offsets3d = (positions[:, 0], positions[:, 1], positions[:, 2])
+            center = positions.mean(axis=0)
+            radius = max(np.abs(positions - center).max(), 1e-3)
+            ax.set_xlim(center[0] - radius, center[0] + radius)
+            ax.set_ylim(center[1] - radius, center[1] + radius)
+            ax.set_zlim(center[2] - radius, center[2] + radius)
+            title.set_text(f't = {t:.3f}')
+        return scatter, title
+
+    animation = FuncAnimation(fig, update, interval=1000 / fps, cache_frame_data=False)
+    plt.show()
+    state.close()
+    return animation
+
+
+if __name__ == '__main__':
+    main()
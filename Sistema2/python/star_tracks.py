@@ -0,0 +1,98 @@
+"""
+Lectura de las trayectorias por estrella que escribe StarTrackWriter (sim.tracks).
+
+El archivo está cortado en ventanas de pasos y dentro de cada ventana la historia de
+cada estrella es contigua, así que leer una estrella (o un rango de estrellas
+consecutivas) es una lectura secuencial por ventana, sin recorrer el CSV.
+
+Para generar el archivo a partir de un CSV existente:
+    java -cp ... com.simulation2.utils.StarTrackWriter sim.csv [sim.tracks] [--window pasos]
+"""
+
+import struct
+
+import numpy as np
+import pandas as pd
+
+MAGIC = 0x54524B53
+VERSION = 1
+HEADER_SIZE = 32
+STAR_COLUMNS = ['x', 'y', 'z', 'vx', 'vy', 'vz', 'fx', 'fy', 'fz']
+
+
+def load_index(tracks_file):
+    """
+    Lee el índice del archivo. Retorna un dict con:
+    - steps: cantidad de pasos
+    - index_offset: posición del índice (donde terminan los datos)
+    - windows: DataFrame con offset, t0, steps y tracks de cada ventana
+    - tracks: DataFrame con galaxy e id de cada estrella (en el orden del archivo)
+    """
+    with open(tracks_file, 'rb') as f:
+        magic, version, track_count, window_count, steps, index_offset = struct.unpack('<iiiiqq', f.read(HEADER_SIZE))
+        if magic != MAGIC:
+            raise ValueError(f"{tracks_file} no es un archivo de trayectorias por estrella")
+        if version != VERSION:
+            raise ValueError(f"Versión no soportada: {version}")
+        f.seek(index_offset)
+        windows = np.frombuffer(f.read(24 * window_count),
+                                dtype=[('offset', '<i8'), ('t0', '<f8'), ('steps', '<i4'), ('tracks', '<i4')])
+        keys = np.frombuffer(f.read(8 * track_count), dtype=[('galaxy', '<i4'), ('id', '<i4')])
+        names = []
+        for _ in range(struct.unpack('<i', f.read(4))[0]):
+            length = struct.unpack('<i', f.read(4))[0]
+            names.append(f.read(length).decode('utf-8'))
+
+    tracks = pd.DataFrame({'galaxy': [names[g] for g in keys['galaxy']], 'id': keys['id']})
+    return {'steps': steps, 'index_offset': index_offset, 'windows': pd.DataFrame(windows), 'tracks': tracks}
+
+
+def find_track(index, galaxy, star_id):
+    """Número de la estrella star_id de galaxy, o -1 si no está"""
+    tracks = index['tracks']
+    match = tracks.index[(tracks['galaxy'] == galaxy) & (tracks['id'] == star_id)]
+    return int(match[0]) if len(match) else -1
+
+
+def read_tracks(tracks_file, index, first, count=1, t_from=-np.inf, t_to=np.inf):
+    """
+    Historia de las estrellas first .. first + count - 1 con t en [t_from, t_to].
+    Retorna un DataFrame con columnas galaxy, id, t, x, y, z, vx, vy, vz, fx, fy, fz
+    (NaN en los pasos en los que la estrella no estaba).
+    """
+    # sólo la parte de datos: el índice del final no tiene por qué ser múltiplo de 8 bytes
+    data = np.memmap(tracks_file, dtype='<f8', mode='r', shape=(index['index_offset'] // 8,))
+    frames = [[] for _ in range(count)]
+    for window in index['windows'].itertuples():
+        if window.t0 > t_to:
+            break
+        steps = int(window.steps)
+        start = int(window.offset) // 8
+        times = np.array(data[start:start + steps])
+        selected = (times >= t_from) & (times <= t_to)
+        if not selected.any():
+            continue
+        stored = max(0, min(count, int(window.tracks) - first))
+        block = np.full((count, len(STAR_COLUMNS), steps), np.nan)
+        if stored > 0:
+            # un solo tramo contiguo con todas las estrellas pedidas
+            begin = start + steps + first * len(STAR_COLUMNS) * steps
+            block[:stored] = data[begin:begin + stored * len(STAR_COLUMNS) * steps].reshape(stored, len(STAR_COLUMNS), steps)
+        for k in range(count):
+            frame = pd.DataFrame(block[k][:, selected].T, columns=STAR_COLUMNS)
+            frame.insert(0, 't', times[selected])
+            frame.insert(0, 'id', index['tracks']['id'].iloc[first + k])
+            frame.insert(0, 'galaxy', index['tracks']['galaxy'].iloc[first + k])
+            frames[k].append(frame)
+    frames = [frame for track in frames for frame in track]
+    if not frames:
+        return pd.DataFrame(columns=['galaxy', 'id', 't'] + STAR_COLUMNS)
+    return pd.concat(frames, ignore_index=True)
+
+
+def read_track(tracks_file, index, galaxy, star_id, t_from=-np.inf, t_to=np.inf):
+    """Historia de una estrella, identificada por su galaxia y su id"""
+    track = find_track(index, galaxy, star_id)
+    if track < 0:
+        raise KeyError(f"No está la estrella {star_id} de {galaxy}")
+    return read_tracks(tracks_file, index, track, 1, t_from, t_to)
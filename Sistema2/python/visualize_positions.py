@@ -3,6 +3,8 @@ import numpy as np
 import matplotlib.pyplot as plt
 import os
 
+import star_tracks
+
 def parse_simulation_output(filename="sim.csv"):
     """
     Procesa el archivo de salida CSV de la simulación.
@@ -60,6 +62,32 @@ def parse_simulation_output(filename="sim.csv"):
     print(f"Se procesaron {len(timesteps)} pasos de tiempo.")
     return timesteps
 
+def load_from_tracks(tracks_file):
+    """
+    Lee todas las estrellas desde el archivo por estrella (ver star_tracks.py): una lectura
+    secuencial por ventana, sin parsear el CSV ni agrupar por id.
+    Retorna un DataFrame con columnas galaxy, id, time, x, y (los ids se repiten entre galaxias).
+    """
+    index = star_tracks.load_index(tracks_file)
+    tracks = star_tracks.read_tracks(tracks_file, index, 0, len(index['tracks']))
+    return pd.DataFrame({'galaxy': tracks['galaxy'], 'id': tracks['id'], 'time': tracks['t'],
+                         'x': tracks['x'], 'y': tracks['y']}).dropna()
+
+
+def tracks_file_for(csv_file):
+    """
+    Archivo por estrella de csv_file (sim.tracks junto a sim.csv), sólo si existe y no es más
+    viejo que el CSV; si no, None
+    """
+    tracks_file = os.path.splitext(csv_file)[0] + '.tracks'
+    if not os.path.exists(tracks_file):
+        return None
+    if os.path.exists(csv_file) and os.path.getmtime(tracks_file) < os.path.getmtime(csv_file):
+        print(f"Se ignora {tracks_file}: es anterior a {csv_file}")
+        return None
+    return tracks_file
+
+
 def main():
     """
     Función principal para ejecutar el análisis y graficar las trayectorias.
@@ -72,6 +100,12 @@ def main():
         # Fallback para cuando se ejecuta en un entorno interactivo
         data_file_path = "python/data/sim.csv"
 
+    tracks_file = tracks_file_for(data_file_path)
+    if tracks_file is not None:
+        print(f"Usando el archivo por estrella: {tracks_file}")
+        plot_trajectories(load_from_tracks(tracks_file))
+        return
+
     try:
         print(f"Buscando archivo de datos en: {os.path.abspath(data_file_path)}")
         data_by_time = parse_simulation_output(data_file_path)
@@ -96,7 +130,15 @@ def main():
         return
 
     full_df = pd.concat(all_data_list, ignore_index=True)
+    plot_trajectories(full_df)
 
+
+def plot_trajectories(full_df):
+    """
+    Grafica x(t) e y(t) de cada partícula a partir de un DataFrame con columnas id, time, x, y
+    (y galaxy, si la tiene: entonces cada partícula es un par galaxia, id)
+    """
+    keys = ['galaxy', 'id'] if 'galaxy' in full_df.columns else ['id']
     # --- Configuración del Gráfico ---
     # Crear una figura con dos subplots apilados verticalmente que comparten el eje X
     fig, (ax1, ax2) = plt.subplots(2, 1, figsize=(14, 10), sharex=True)
@@ -104,15 +146,17 @@ def main():
     fig.suptitle('Evolución de las Posiciones de las Partículas en el Tiempo', fontsize=16)
 
     # Agrupar por ID de partícula y graficar la trayectoria de cada una
-    for particle_id, group in full_df.groupby('id'):
+    for key, group in full_df.groupby(keys):
+        key = key if isinstance(key, tuple) else (key,)
+        label = f'{key[0]} / Partícula {int(key[1])}' if len(key) == 2 else f'Partícula {int(key[0])}'
         # Ordenar por tiempo para que las líneas se dibujen correctamente
         sorted_group = group.sort_values('time')
 
         # Graficar Coordenada X vs. Tiempo
-        ax1.plot(sorted_group['time'], sorted_group['x'], label=f'Partícula {int(particle_id)}', alpha=0.8)
+        ax1.plot(sorted_group['time'], sorted_group['x'], label=label, alpha=0.8)
 
         # Graficar Coordenada Y vs. Tiempo
-        ax2.plot(sorted_group['time'], sorted_group['y'], label=f'Partícula {int(particle_id)}', alpha=0.8)
+        ax2.plot(sorted_group['time'], sorted_group['y'], label=label, alpha=0.8)
 
     # --- Estilo y Etiquetas ---
     ax1.set_ylabel('Coordenada X')
@@ -125,7 +169,7 @@ def main():
     ax2.grid(True, linestyle='--', alpha=0.6)
 
     # Mostrar una leyenda solo si hay pocas partículas para no saturar el gráfico
-    num_particles = len(full_df['id'].unique())
+    num_particles = len(full_df[keys].drop_duplicates())
     if num_particles <= 10:
         ax1.legend(loc='upper right')
         ax2.legend(loc='upper right')
@@ -1,12 +1,46 @@
 package com.simulation2;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import com.simulation2.analysis.CenterSeparationPlugin;
+import com.simulation2.analysis.CenterTrackingPlugin;
+import com.simulation2.analysis.HalfMassRadiusPlugin;
+import com.simulation2.analysis.InSituAnalysis;
+import com.simulation2.analysis.LagrangianRadiiPlugin;
+import com.simulation2.analysis.VelocityDispersionPlugin;
+import com.simulation2.distributed.DistributedIntegrator;
+import com.simulation2.integrators.BinaryVelocityVerlet;
+import com.simulation2.integrators.EnsembleVelocityVerlet;
+import com.simulation2.integrators.ForceEngineAutotuner;
+import com.simulation2.integrators.GalaxyInteraction;
 import com.simulation2.integrators.IIntegrator2;
+import com.simulation2.integrators.Parareal2;
+import com.simulation2.integrators.PrecisionReport;
+import com.simulation2.integrators.RespaVelocityVerlet;
+import com.simulation2.integrators.TiledVelocityVerlet;
 import com.simulation2.integrators.VelocityVerlet2;
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+import com.simulation2.models.ParticleEnsemble;
 import com.simulation2.models.Simulation2;
+import com.simulation2.recorder.FlightRecorder;
+import com.simulation2.recorder.Triggers;
+import com.simulation2.stopping.StopConditions;
+import com.simulation2.utils.CSVWriter2;
+import com.simulation2.utils.FrameIndex;
 
 public class Main {
     public static void main(String[] args) {
@@ -27,6 +61,254 @@ public class Main {
         s.run();
     }
 
+    /**
+     * Estudio de dt sobre muchas realizaciones de 2 cuerpos integradas juntas en un ParticleEnsemble.
+     * Reporta el error relativo medio de la energía al final de cada corrida.
+     */
+    public static void dtEnsembleRun(){
+        double G = 1.0;
+        double h = 0.05;
+        double maxTime = 5;
+        int realizations = 1000;
+        double[] timeSteps = {0.1, 0.01, 0.001, 0.0001};
+        EnsembleVelocityVerlet integrator = new EnsembleVelocityVerlet();
+
+        for (double timeStep : timeSteps) {
+            Particle[][] systems = new Particle[realizations][];
+            for (int s = 0; s < realizations; s++) {
+                systems[s] = new Galaxy2("Galaxy_" + (s + 1), 2, Vector3D.ZERO).getStars();
+            }
+            ParticleEnsemble ensemble = new ParticleEnsemble(systems);
+            integrator.initializeAccelerations(ensemble, G, h);
+
+            double[] initialEnergy = new double[realizations];
+            for (int s = 0; s < realizations; s++) {
+                initialEnergy[s] = ensemble.getTotalEnergy(s, G, h);
+            }
+
+            int steps = (int) Math.round(maxTime / timeStep);
+            for (int i = 0; i < steps; i++) {
+                integrator.step(ensemble, timeStep, G, h);
+            }
+
+            double meanError = 0;
+            for (int s = 0; s < realizations; s++) {
+                meanError += Math.abs((ensemble.getTotalEnergy(s, G, h) - initialEnergy[s]) / initialEnergy[s]);
+            }
+            meanError /= realizations;
+            System.out.println("dt=" + timeStep + " mean relative energy error=" + meanError);
+        }
+    }
+
+    /**
+     * Compara la deriva de energía de las fuerzas en double contra las fuerzas en precisión mixta
+     */
+    public static void precisionRun(){
+        double G = 1.0;
+        double h = 0.05;
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 1000, Vector3D.ZERO);
+        Particle[] stars = galaxy.getStars();
+        new VelocityVerlet2().calculateForcesBetweenParticles(stars, G, h);
+        for (Particle p : stars) {
+            p.updateAcceleration();
+        }
+        PrecisionReport report = PrecisionReport.compare(stars, 0.001, 1000, G, h);
+        System.out.println(report);
+    }
+
+    /**
+     * Corrida con las fuerzas repartidas entre varias JVMs locales (ver DistributedIntegrator)
+     */
+    public static void distributedRun() throws IOException {
+        int workers = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        try (DistributedIntegrator integrator = DistributedIntegrator.launchLocal(workers)) {
+            Simulation2 s = new Simulation2(2000, 2, 20, 10, 0.001, "sim_distributed.csv", integrator);
+            s.run();
+        }
+    }
+
+    /**
+     * Interacciones de pares por segundo del kernel de VelocityVerlet2 contra el de TiledVelocityVerlet
+     */
+    public static void tiledBenchmark(){
+        int n = 10000;
+        int repetitions = 5;
+        Particle[] stars = new Galaxy2("Galaxy_1", n, Vector3D.ZERO).getStars();
+        IIntegrator2[] integrators = {new VelocityVerlet2(), new TiledVelocityVerlet()};
+        double pairs = (double) n * (n - 1) / 2 * repetitions;
+        for (IIntegrator2 integrator : integrators) {
+            integrator.calculateForcesBetweenParticles(stars, 1.0, 0.05); // warm-up
+            long start = System.nanoTime();
+            for (int r = 0; r < repetitions; r++) {
+                integrator.calculateForcesBetweenParticles(stars, 1.0, 0.05);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s: %.3e pairs/s%n", integrator.getClass().getSimpleName(), pairs / seconds);
+        }
+    }
+
+    /**
+     * Corrida que sólo escribe estados completos alrededor de eventos (ver FlightRecorder)
+     */
+    public static void flightRecorderRun(){
+        double h = 0.05;
+        Simulation2 s = new Simulation2(1000, 1, 100, 60, 0.001, "sim_flight.csv", new TiledVelocityVerlet());
+        s.setCsvOutput(false);
+        FlightRecorder recorder = new FlightRecorder("sim_flight.csv", 200, 1, 1000, 200, 10)
+                .addTrigger(Triggers.closePair(2, h))
+                .addTrigger(Triggers.energyJump(1e-3, 1.0, h))
+                .addTrigger(Triggers.escaper(10));
+        s.setFlightRecorder(recorder);
+        s.run();
+    }
+
+    public static void inSituRun(){
+        Simulation2 s = new Simulation2(1000, 2, 10, 60, 0.001, "sim_insitu.csv", new TiledVelocityVerlet());
+        s.setCsvOutput(false);
+        InSituAnalysis analysis = new InSituAnalysis("sim_insitu.csv", 10, 4)
+                .addPlugin(new HalfMassRadiusPlugin())
+                .addPlugin(new LagrangianRadiiPlugin())
+                .addPlugin(new VelocityDispersionPlugin())
+                .addPlugin(new CenterTrackingPlugin())
+                .addPlugin(new CenterSeparationPlugin());
+        s.setInSituAnalysis(analysis);
+        s.run();
+    }
+
+    public static void earlyStopRun(){
+        Simulation2 s = new Simulation2(1000, 1, 100, 60, 0.001, "sim_stop.csv", new TiledVelocityVerlet());
+        s.addStopCondition(StopConditions.halfMassRadiusAbove());
+        s.addStopCondition(StopConditions.nonFinite());
+        s.addStopCondition(StopConditions.wallClock(3600));
+        s.run();
+        System.out.println("Stopped at t=" + s.getTotalTime() + ": " + s.getStopReason());
+    }
+
+    public static void escaperRun(){
+        Simulation2 s = new Simulation2(1000, 1, 100, 60, 0.001, "sim_escapers.csv", new TiledVelocityVerlet());
+        s.enableEscaperRemoval(10, 100);
+        s.run();
+    }
+
+    public static void tracerRun(){
+        Simulation2 s = new Simulation2(2000, 1, 100, 10, 0.001, "sim_tracers.csv", new TiledVelocityVerlet());
+        s.addTracers(100_000);
+        s.run();
+    }
+
+    public static void binaryRun(){
+        double h = 0.05;
+        IIntegrator2 integrator = new BinaryVelocityVerlet(h, BinaryVelocityVerlet.DEFAULT_SUBSTEPS_PER_PERIOD, new TiledVelocityVerlet());
+        Simulation2 s = new Simulation2(1000, 1, 100, 60, 0.001, "sim_binary.csv", integrator);
+        s.run();
+    }
+
+    public static void collisionRun(){
+        Simulation2 s = new Simulation2(2000, 2, 100, 200, 0.001, "sim_collision.csv", new TiledVelocityVerlet());
+        s.getGalaxies()[0].addGalaxyVelocity(new Vector3D(0.5, 0, 0));
+        s.getGalaxies()[1].addGalaxyVelocity(new Vector3D(-0.5, 0, 0));
+        s.enableGalaxyInteraction(GalaxyInteraction.DEFAULT_OPENING_FACTOR);
+        s.run();
+    }
+
+    public static void denseOutputRun(){
+        // paso grande y salida cada 0.05 unidades de tiempo, independiente de dt
+        Simulation2 s = new Simulation2(1000, 1, 100, 60, 0.004, "sim_dense.csv", new TiledVelocityVerlet());
+        s.enableDenseOutput(0.05);
+        s.run();
+    }
+
+    public static void autotunedRun(){
+        // mide los motores de fuerzas una vez por N y guarda la elección en force_engine.cache.csv
+        for (int n : new int[]{2, 200, 2000}) {
+            Simulation2 s = new Simulation2(n, 1, 100, 10, 0.001, String.format("sim_autotuned_%d.csv", n), new VelocityVerlet2());
+            s.enableAutotuning(new ForceEngineAutotuner());
+            s.run();
+        }
+    }
+
+    public static void respaRun(){
+        // fuerza lejana cada 0.004, cercana cada 0.001
+        IIntegrator2 integrator = new RespaVelocityVerlet(RespaVelocityVerlet.DEFAULT_CUTOFF,
+                RespaVelocityVerlet.DEFAULT_SWITCH_WIDTH, 4, RespaVelocityVerlet.DEFAULT_SKIN);
+        Simulation2 s = new Simulation2(2000, 1, 100, 60, 0.004, "sim_respa.csv", integrator);
+        s.run();
+    }
+
+    /**
+     * Una galaxia integrada en paralelo en el tiempo (ver Parareal2), como
+     * simulation1.Main.runPararealSimulation: el grueso es VelocityVerlet2 con dt diez veces mayor.
+     * Al converger, cada tramo se vuelve a integrar en paralelo escribiendo su parte del CSV cada
+     * printingStep pasos, y las partes se concatenan en orden. El índice se arma al final sobre el CSV
+     * completo, porque los offsets de cada parte no sirven una vez concatenadas.
+     */
+    public static void pararealRun(){
+        double G = 1.0;
+        double h = 0.05;
+        double dt = 0.001;
+        double maxTime = 10;
+        int printingStep = 50;
+        String filename = "sim_parareal.csv";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int slices = 4 * threads;
+        long steps = Math.round(maxTime / dt);
+        int coarseSteps = (int) Math.max(1, steps / slices / 10);
+        Parareal2 parareal = new Parareal2(new VelocityVerlet2(), dt, steps, new VelocityVerlet2(), coarseSteps, slices,
+                1e-8, threads, G, h);
+
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 500, Vector3D.ZERO);
+        Path csv = Paths.get(filename);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Files.deleteIfExists(csv);
+            try (CSVWriter2 writer = new CSVWriter2(filename, false)) {
+                writer.writeData(0, galaxy);
+            }
+
+            long start = System.nanoTime();
+            double[][] boundaries = parareal.solve(galaxy.getStars());
+            System.out.printf("Parareal finished in %d iterations (%d slices, %.2f s)%n",
+                    parareal.getIterations(), slices, (System.nanoTime() - start) * 1e-9);
+
+            List<Future<Path>> parts = new ArrayList<>();
+            for (int n = 0; n < slices; n++) {
+                int slice = n;
+                parts.add(executor.submit(() -> {
+                    Path part = Paths.get(filename + ".part" + slice);
+                    Files.deleteIfExists(part);
+                    Galaxy2 frame = new Galaxy2(galaxy.getName(), galaxy.getNumberOfStars(), Vector3D.ZERO);
+                    try (CSVWriter2 writer = new CSVWriter2(part.toString(), false)) {
+                        parareal.propagateFine(slice, boundaries[slice], (t, particles) -> {
+                            if (Math.round(t / dt) % printingStep == 0) {
+                                frame.setStars(particles);
+                                frame.calculateNewCenterPosition();
+                                writer.writeData(t, frame);
+                            }
+                        });
+                    }
+                    return part;
+                }));
+            }
+
+            try (FileChannel out = FileChannel.open(csv, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                for (Future<Path> future : parts) {
+                    Path part = future.get();
+                    try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                        long position = 0;
+                        while (position < in.size()) {
+                            position += in.transferTo(position, in.size() - position, out);
+                        }
+                    }
+                    Files.delete(part);
+                }
+            }
+            FrameIndex.build(csv).write(FrameIndex.indexPathFor(csv));
+        } catch (Exception e) {
+            System.err.println("Parareal run " + filename + " failed: " + e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
     public static void runfor2() {
         IIntegrator2 integrator = new VelocityVerlet2();
@@ -42,6 +324,7 @@ public class Main {
                 Runnable simulationTask = () -> {
                     Simulation2 s = new Simulation2(currentI, 1, 100, 60, 0.001,
                             String.format("sim_%d_%d.csv", currentI, currentJ), integrator);
+                    s.addStopCondition(StopConditions.nonFinite());
                     s.run();
                 };
                 executor.submit(simulationTask);
@@ -0,0 +1,46 @@
+package com.simulation2.analysis;
+
+import java.io.IOException;
+
+import com.simulation2.recorder.StateSnapshot;
+import com.simulation2.utils.TrajectoryFrame;
+
+/**
+ * Distancia y velocidad relativa entre los centros de masa de cada par de galaxias:
+ * t;galaxy_a;galaxy_b;distance;relative_speed
+ */
+public class CenterSeparationPlugin extends TimeSeriesPlugin {
+
+    public CenterSeparationPlugin() {
+        super("separation", "t;galaxy_a;galaxy_b;distance;relative_speed");
+    }
+
+    @Override
+    public void process(StateSnapshot snapshot) throws IOException {
+        int galaxies = snapshot.getGalaxyCount();
+        double[][] centers = new double[galaxies][];
+        double[][] velocities = new double[galaxies][];
+        String[] names = new String[galaxies];
+        for (int g = 0; g < galaxies; g++) {
+            TrajectoryFrame frame = snapshot.getFrame(g);
+            names[g] = frame.getGalaxyName();
+            centers[g] = Reductions.centerOfMass(frame.getX(), frame.getY(), frame.getZ());
+            velocities[g] = Reductions.centerOfMass(frame.getVx(), frame.getVy(), frame.getVz());
+        }
+        for (int a = 0; a < galaxies; a++) {
+            for (int b = a + 1; b < galaxies; b++) {
+                out.appendShortest(snapshot.getTime()).append(';').append(names[a]).append(';').append(names[b])
+                        .append(';').appendShortest(norm(centers[a], centers[b]))
+                        .append(';').appendShortest(norm(velocities[a], velocities[b]))
+                        .newLine();
+            }
+        }
+    }
+
+    private static double norm(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
@@ -0,0 +1,34 @@
+package com.simulation2.analysis;
+
+import java.io.IOException;
+
+import com.simulation2.recorder.StateSnapshot;
+import com.simulation2.utils.TrajectoryFrame;
+
+/**
+ * Posición y velocidad del centro de masa de cada galaxia (lo que calculan
+ * Galaxy2.calculateNewCenterPosition y getCenterVelocity): t;galaxy;cmx;cmy;cmz;vcmx;vcmy;vcmz
+ */
+public class CenterTrackingPlugin extends TimeSeriesPlugin {
+
+    public CenterTrackingPlugin() {
+        super("centers", "t;galaxy;cmx;cmy;cmz;vcmx;vcmy;vcmz");
+    }
+
+    @Override
+    public void process(StateSnapshot snapshot) throws IOException {
+        for (int g = 0; g < snapshot.getGalaxyCount(); g++) {
+            TrajectoryFrame frame = snapshot.getFrame(g);
+            double[] center = Reductions.centerOfMass(frame.getX(), frame.getY(), frame.getZ());
+            double[] velocity = Reductions.centerOfMass(frame.getVx(), frame.getVy(), frame.getVz());
+            out.appendShortest(frame.getTime()).append(';').append(frame.getGalaxyName());
+            for (double value : center) {
+                out.append(';').appendShortest(value);
+            }
+            for (double value : velocity) {
+                out.append(';').appendShortest(value);
+            }
+            out.newLine();
+        }
+    }
+}
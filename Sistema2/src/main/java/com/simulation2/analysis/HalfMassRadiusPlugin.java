@@ -0,0 +1,88 @@
+package com.simulation2.analysis;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.recorder.StateSnapshot;
+import com.simulation2.utils.FastTextWriter;
+import com.simulation2.utils.TrajectoryFrame;
+
+/**
+ * Radio de media masa de cada galaxia (t;galaxy;r_hm) y su tiempo de cruce: el primer t > minTime en
+ * que r_hm supera el umbral, como find_crossing_time de analysis_for23.py. Los tiempos de cruce se
+ * guardan al cerrar en baseFilename_crossing.csv (galaxy;t_star, NaN si no cruzó).
+ */
+public class HalfMassRadiusPlugin extends TimeSeriesPlugin {
+    private static final Logger logger = LoggerFactory.getLogger(HalfMassRadiusPlugin.class);
+
+    public static final double DEFAULT_THRESHOLD = 1.0;
+    public static final double DEFAULT_MIN_TIME = 0.2;
+
+    private final double threshold;
+    private final double minTime;
+    private final Map<String, Double> crossingTimes = new LinkedHashMap<>();
+    private String baseFilename;
+
+    /**
+     * @param threshold radio que define el cruce
+     * @param minTime los estados hasta este tiempo no cuentan para el cruce
+     */
+    public HalfMassRadiusPlugin(double threshold, double minTime) {
+        super("half_mass", "t;galaxy;r_hm");
+        this.threshold = threshold;
+        this.minTime = minTime;
+    }
+
+    public HalfMassRadiusPlugin() {
+        this(DEFAULT_THRESHOLD, DEFAULT_MIN_TIME);
+    }
+
+    @Override
+    public void open(String baseFilename) throws IOException {
+        super.open(baseFilename);
+        this.baseFilename = baseFilename;
+    }
+
+    @Override
+    public void process(StateSnapshot snapshot) throws IOException {
+        for (int g = 0; g < snapshot.getGalaxyCount(); g++) {
+            TrajectoryFrame frame = snapshot.getFrame(g);
+            double[] center = Reductions.centerOfMass(frame.getX(), frame.getY(), frame.getZ());
+            double radius = Reductions.halfMassRadius(frame.getX(), frame.getY(), frame.getZ(), center);
+            out.appendShortest(frame.getTime()).append(';').append(frame.getGalaxyName())
+                    .append(';').appendShortest(radius).newLine();
+
+            crossingTimes.putIfAbsent(frame.getGalaxyName(), Double.NaN);
+            if (frame.getTime() > minTime && radius > threshold && Double.isNaN(crossingTimes.get(frame.getGalaxyName()))) {
+                crossingTimes.put(frame.getGalaxyName(), frame.getTime());
+            }
+        }
+    }
+
+    /**
+     * Primer tiempo en que r_hm superó el umbral, o NaN
+     */
+    public double getCrossingTime(String galaxy) {
+        return crossingTimes.getOrDefault(galaxy, Double.NaN);
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        if (baseFilename == null) {
+            return;
+        }
+        try (FastTextWriter crossing = new FastTextWriter(Paths.get(outputFilename(baseFilename, "crossing")), false)) {
+            crossing.append("galaxy;t_star").newLine();
+            for (Map.Entry<String, Double> entry : crossingTimes.entrySet()) {
+                crossing.append(entry.getKey()).append(';').appendShortest(entry.getValue()).newLine();
+                logger.info("Crossing time of " + entry.getKey() + ": " + entry.getValue());
+            }
+        }
+    }
+}
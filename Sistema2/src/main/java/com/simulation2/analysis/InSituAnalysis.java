@@ -0,0 +1,173 @@
+package com.simulation2.analysis;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.recorder.StateSnapshot;
+
+/**
+ * Análisis durante la simulación: cada interval pasos Simulation2 copia el estado en un
+ * StateSnapshot y un thread aparte lo pasa por los InSituPlugin, que escriben series temporales
+ * chicas en lugar de depender de la salida completa de trayectorias.
+ *
+ * Los snapshots salen de un conjunto fijo de queueCapacity copias que se reutilizan: si el thread de
+ * análisis se atrasa, submit espera a que se libere una copia en lugar de acumular memoria.
+ * Si un plugin falla se deja de analizar y el error se relanza en close.
+ */
+public class InSituAnalysis implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InSituAnalysis.class);
+    private static final StateSnapshot END = new StateSnapshot();
+
+    private final String baseFilename;
+    private final int interval;
+    private final List<InSituPlugin> plugins = new ArrayList<>();
+    private final BlockingQueue<StateSnapshot> free;
+    private final BlockingQueue<StateSnapshot> pending;
+
+    private Thread worker;
+    private volatile Exception failure;
+    private long submitted;
+    private long processed;
+    private boolean closed;
+
+    /**
+     * @param baseFilename prefijo de los archivos de salida de los plugins
+     * @param interval cada cuántos pasos se analiza el estado
+     * @param queueCapacity cantidad de snapshots que pueden estar esperando o en proceso
+     */
+    public InSituAnalysis(String baseFilename, int interval, int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        }
+        this.baseFilename = baseFilename;
+        this.interval = Math.max(1, interval);
+        this.free = new ArrayBlockingQueue<>(queueCapacity);
+        this.pending = new ArrayBlockingQueue<>(queueCapacity + 1);
+        for (int i = 0; i < queueCapacity; i++) {
+            free.add(new StateSnapshot());
+        }
+    }
+
+    public InSituAnalysis addPlugin(InSituPlugin plugin) {
+        if (worker != null) {
+            throw new IllegalStateException("Plugins must be added before the first submit");
+        }
+        plugins.add(plugin);
+        return this;
+    }
+
+    public List<InSituPlugin> getPlugins() {
+        return plugins;
+    }
+
+    /**
+     * Se llama después de cada paso (step = 0 para el estado inicial). Copia el estado si toca
+     * analizarlo y vuelve enseguida, salvo que todas las copias estén ocupadas.
+     */
+    public void submit(long step, double t, Galaxy2[] galaxies) throws IOException {
+        if (step % interval != 0 || failure != null) {
+            return;
+        }
+        if (worker == null) {
+            start();
+        }
+        StateSnapshot snapshot;
+        try {
+            snapshot = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a free snapshot", e);
+        }
+        snapshot.capture(t, galaxies);
+        pending.add(snapshot);
+        submitted++;
+    }
+
+    private void start() throws IOException {
+        for (InSituPlugin plugin : plugins) {
+            plugin.open(baseFilename);
+        }
+        worker = new Thread(this::analyze, "in-situ-analysis");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void analyze() {
+        try {
+            while (true) {
+                StateSnapshot snapshot = pending.take();
+                if (snapshot == END) {
+                    return;
+                }
+                try {
+                    if (failure == null) {
+                        for (InSituPlugin plugin : plugins) {
+                            plugin.process(snapshot);
+                        }
+                        processed++;
+                    }
+                } catch (Exception e) {
+                    logger.error("In-situ analysis failed at t=" + snapshot.getTime() + ": " + e.getMessage());
+                    failure = e;
+                } finally {
+                    free.add(snapshot);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Estados analizados hasta el momento. Sólo es exacto después de close.
+     */
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * Espera a que se analicen los estados pendientes y cierra los plugins
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (worker != null) {
+            pending.add(END);
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the analysis thread", e);
+            }
+        }
+        IOException closeFailure = null;
+        for (InSituPlugin plugin : plugins) {
+            try {
+                plugin.close();
+            } catch (IOException e) {
+                closeFailure = e;
+            }
+        }
+        logger.info(String.format("In-situ analysis processed %d of %d states", processed, submitted));
+        if (failure != null) {
+            throw new IOException("In-situ analysis plugin failed", failure);
+        }
+        if (closeFailure != null) {
+            throw closeFailure;
+        }
+    }
+}
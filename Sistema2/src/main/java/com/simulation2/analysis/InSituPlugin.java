@@ -0,0 +1,21 @@
+package com.simulation2.analysis;
+
+import java.io.IOException;
+
+import com.simulation2.recorder.StateSnapshot;
+
+/**
+ * Reducción que se calcula durante la simulación sobre cada estado que recibe InSituAnalysis.
+ * Todos los métodos se llaman desde el thread de análisis, nunca desde el de la simulación,
+ * y el snapshot no cambia mientras se procesa.
+ */
+public interface InSituPlugin {
+    /**
+     * @param baseFilename prefijo de los archivos de salida de la corrida
+     */
+    void open(String baseFilename) throws IOException;
+
+    void process(StateSnapshot snapshot) throws IOException;
+
+    void close() throws IOException;
+}
@@ -0,0 +1,51 @@
+package com.simulation2.analysis;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.simulation2.recorder.StateSnapshot;
+import com.simulation2.utils.TrajectoryFrame;
+
+/**
+ * Radios lagrangianos de cada galaxia: t;galaxy;r_10;r_25;... para las fracciones de masa dadas
+ */
+public class LagrangianRadiiPlugin extends TimeSeriesPlugin {
+    private final double[] fractions;
+
+    public LagrangianRadiiPlugin(double... fractions) {
+        super("lagrangian", header(sorted(fractions)));
+        this.fractions = sorted(fractions);
+    }
+
+    public LagrangianRadiiPlugin() {
+        this(0.1, 0.25, 0.5, 0.75, 0.9);
+    }
+
+    private static double[] sorted(double[] fractions) {
+        double[] copy = fractions.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static String header(double[] fractions) {
+        StringBuilder header = new StringBuilder("t;galaxy");
+        for (double fraction : fractions) {
+            header.append(";r_").append(Math.round(fraction * 100));
+        }
+        return header.toString();
+    }
+
+    @Override
+    public void process(StateSnapshot snapshot) throws IOException {
+        for (int g = 0; g < snapshot.getGalaxyCount(); g++) {
+            TrajectoryFrame frame = snapshot.getFrame(g);
+            double[] center = Reductions.centerOfMass(frame.getX(), frame.getY(), frame.getZ());
+            double[] radii = Reductions.lagrangianRadii(frame.getX(), frame.getY(), frame.getZ(), center, fractions);
+            out.appendShortest(frame.getTime()).append(';').append(frame.getGalaxyName());
+            for (double radius : radii) {
+                out.append(';').appendShortest(radius);
+            }
+            out.newLine();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.simulation2.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Reducciones sobre las posiciones y velocidades de un conjunto de estrellas de masa unitaria
+ * (las mismas que calculan energy_analysis.py y analysis_for23.py).
+ */
+public final class Reductions {
+    public static final double MASS = 1.0;
+
+    private Reductions() {
+    }
+
+    /**
+     * @return {cx, cy, cz}
+     */
+    public static double[] centerOfMass(double[] x, double[] y, double[] z) {
+        int n = x.length;
+        double cx = 0, cy = 0, cz = 0;
+        for (int i = 0; i < n; i++) {
+            cx += x[i];
+            cy += y[i];
+            cz += z[i];
+        }
+        if (n > 0) {
+            cx /= n;
+            cy /= n;
+            cz /= n;
+        }
+        return new double[]{cx, cy, cz};
+    }
+
+    public static double kineticEnergy(double[] vx, double[] vy, double[] vz) {
+        double energy = 0;
+        for (int i = 0; i < vx.length; i++) {
+            energy += 0.5 * MASS * (vx[i] * vx[i] + vy[i] * vy[i] + vz[i] * vz[i]);
+        }
+        return energy;
+    }
+
+    /**
+     * Energía potencial suavizada: Σ_{i<j} -G m m / sqrt(r_ij^2 + h^2)
+     */
+    public static double potentialEnergy(double[] x, double[] y, double[] z, double G, double h) {
+        double h2 = h * h;
+        double energy = 0;
+        for (int i = 0; i < x.length; i++) {
+            for (int j = i + 1; j < x.length; j++) {
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                double dz = z[j] - z[i];
+                energy -= G * MASS * MASS / Math.sqrt(dx * dx + dy * dy + dz * dz + h2);
+            }
+        }
+        return energy;
+    }
+
+    /**
+     * Distancia de cada estrella a center
+     */
+    public static double[] distancesTo(double[] x, double[] y, double[] z, double[] center) {
+        double[] distances = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            double dx = x[i] - center[0];
+            double dy = y[i] - center[1];
+            double dz = z[i] - center[2];
+            distances[i] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+        return distances;
+    }
+
+    /**
+     * Radio de media masa: la distancia al centro de masa de la estrella en la posición N/2
+     * una vez ordenadas por distancia (mismo criterio que calculate_half_mass_radius).
+     * Usa selección en O(N) en lugar de ordenar.
+     */
+    public static double halfMassRadius(double[] x, double[] y, double[] z, double[] center) {
+        int n = x.length;
+        if (n == 0) {
+            return Double.NaN;
+        }
+        return select(distancesTo(x, y, z, center), 0, n, n / 2);
+    }
+
+    /**
+     * Radios lagrangianos: para cada fracción f, la distancia de la estrella en la posición f*N
+     * (f = 0.5 es el radio de media masa). Las fracciones tienen que estar en orden creciente.
+     */
+    public static double[] lagrangianRadii(double[] x, double[] y, double[] z, double[] center, double[] fractions) {
+        int n = x.length;
+        double[] radii = new double[fractions.length];
+        if (n == 0) {
+            Arrays.fill(radii, Double.NaN);
+            return radii;
+        }
+        double[] distances = distancesTo(x, y, z, center);
+        int from = 0;
+        for (int f = 0; f < fractions.length; f++) {
+            int rank = Math.min(n - 1, (int) (fractions[f] * n));
+            // después de seleccionar rank, todo lo que está desde rank en adelante es >= distances[rank]
+            radii[f] = select(distances, Math.min(from, rank), n, rank);
+            from = rank;
+        }
+        return radii;
+    }
+
+    /**
+     * Dispersión de velocidades alrededor de la velocidad media
+     * @return {sigma, sigma_x, sigma_y, sigma_z} con sigma^2 = sigma_x^2 + sigma_y^2 + sigma_z^2
+     */
+    public static double[] velocityDispersion(double[] vx, double[] vy, double[] vz) {
+        int n = vx.length;
+        if (n == 0) {
+            return new double[]{Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+        }
+        double[] mean = centerOfMass(vx, vy, vz);
+        double sx = 0, sy = 0, sz = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = vx[i] - mean[0];
+            double dy = vy[i] - mean[1];
+            double dz = vz[i] - mean[2];
+            sx += dx * dx;
+            sy += dy * dy;
+            sz += dz * dz;
+        }
+        sx /= n;
+        sy /= n;
+        sz /= n;
+        return new double[]{Math.sqrt(sx + sy + sz), Math.sqrt(sx), Math.sqrt(sy), Math.sqrt(sz)};
+    }
+
+    /**
+     * El k-ésimo menor valor de values[from, to) (quickselect, O(N) esperado). Reordena ese tramo:
+     * al terminar, values[k] queda en su lugar, lo anterior es <= y lo posterior es >=.
+     */
+    public static double select(double[] values, int from, int to, int k) {
+        int low = from;
+        int high = to - 1;
+        while (low < high) {
+            // pivote: mediana de tres
+            int middle = (low + high) >>> 1;
+            if (values[middle] < values[low]) swap(values, middle, low);
+            if (values[high] < values[low]) swap(values, high, low);
+            if (values[high] < values[middle]) swap(values, high, middle);
+            double pivot = values[middle];
+
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (values[i] < pivot) i++;
+                while (values[j] > pivot) j--;
+                if (i <= j) {
+                    swap(values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                break;
+            }
+        }
+        return values[k];
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
@@ -0,0 +1,45 @@
+package com.simulation2.analysis;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.simulation2.utils.FastTextWriter;
+
+/**
+ * Plugin que escribe una serie temporal en baseFilename_suffix.csv con el encabezado dado
+ */
+public abstract class TimeSeriesPlugin implements InSituPlugin {
+    private final String suffix;
+    private final String header;
+    protected FastTextWriter out;
+    private String filename;
+
+    protected TimeSeriesPlugin(String suffix, String header) {
+        this.suffix = suffix;
+        this.header = header;
+    }
+
+    public static String outputFilename(String baseFilename, String suffix) {
+        String base = baseFilename.endsWith(".csv") ? baseFilename.substring(0, baseFilename.length() - 4) : baseFilename;
+        return base + "_" + suffix + ".csv";
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public void open(String baseFilename) throws IOException {
+        filename = outputFilename(baseFilename, suffix);
+        out = new FastTextWriter(Paths.get(filename), false);
+        out.append(header).newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.simulation2.analysis;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.utils.TrajectoryFrame;
+import com.simulation2.utils.TrajectoryParser;
+
+/**
+ * Analizador de trayectorias por línea de comandos. Recorre el archivo de Simulation2 una sola vez,
+ * procesa los bloques en paralelo (con una cantidad acotada en memoria) y escribe dos tablas:
+ * - prefix_stats.csv:  t;galaxy;n;ke;pe;e;cmx;cmy;cmz;r_hm  (una fila por bloque)
+ * - prefix_tracks.csv: t;galaxy;id;x;y;z                    (sólo si se piden estrellas con --tracks)
+ *
+ * Uso: TrajectoryAnalyzer sim.csv [--out prefix] [--threads n] [--tracks all|id1,id2,...]
+ */
+public class TrajectoryAnalyzer {
+    private static final Logger logger = LoggerFactory.getLogger(TrajectoryAnalyzer.class);
+    private final double G = 1.0;
+    private final double h = 0.05;
+
+    private final int threads;
+    private final boolean trackAll;
+    private final Set<Integer> trackedIds;
+
+    /**
+     * @param threads hilos de análisis
+     * @param trackAll si es true se escriben las trayectorias de todas las estrellas
+     * @param trackedIds ids cuyas trayectorias se escriben (ignorado si trackAll)
+     */
+    public TrajectoryAnalyzer(int threads, boolean trackAll, Set<Integer> trackedIds) {
+        this.threads = Math.max(1, threads);
+        this.trackAll = trackAll;
+        this.trackedIds = trackedIds;
+    }
+
+    private boolean writesTracks() {
+        return trackAll || !trackedIds.isEmpty();
+    }
+
+    /**
+     * Analiza el archivo completo
+     * @return cantidad de bloques procesados
+     */
+    public long analyze(Path input, Path statsOutput, Path tracksOutput) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // como mucho 'window' bloques parseados en memoria a la vez
+        int window = threads * 2;
+        Deque<Future<FrameResult>> pending = new ArrayDeque<>();
+        long frames = 0;
+
+        try (TrajectoryParser parser = new TrajectoryParser(input);
+             BufferedWriter stats = Files.newBufferedWriter(statsOutput, StandardCharsets.UTF_8);
+             BufferedWriter tracks = writesTracks() ? Files.newBufferedWriter(tracksOutput, StandardCharsets.UTF_8) : null) {
+
+            stats.write("t;galaxy;n;ke;pe;e;cmx;cmy;cmz;r_hm\n");
+            if (tracks != null) {
+                tracks.write("t;galaxy;id;x;y;z\n");
+            }
+
+            TrajectoryFrame frame;
+            while ((frame = parser.next()) != null) {
+                final TrajectoryFrame current = frame;
+                pending.addLast(executor.submit(() -> analyzeFrame(current)));
+                if (pending.size() >= window) {
+                    write(pending.pollFirst(), stats, tracks);
+                }
+                frames++;
+            }
+            while (!pending.isEmpty()) {
+                write(pending.pollFirst(), stats, tracks);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Analyzed " + frames + " frames from " + input);
+        return frames;
+    }
+
+    private void write(Future<FrameResult> future, BufferedWriter stats, BufferedWriter tracks) throws IOException {
+        FrameResult result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Analysis interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error analyzing frame: " + e.getCause().getMessage(), e.getCause());
+        }
+        stats.write(result.statsLine);
+        if (tracks != null) {
+            tracks.write(result.trackLines);
+        }
+    }
+
+    private FrameResult analyzeFrame(TrajectoryFrame frame) {
+        double[] x = frame.getX(), y = frame.getY(), z = frame.getZ();
+        double ke = Reductions.kineticEnergy(frame.getVx(), frame.getVy(), frame.getVz());
+        double pe = Reductions.potentialEnergy(x, y, z, G, h);
+        double[] center = Reductions.centerOfMass(x, y, z);
+        double halfMassRadius = Reductions.halfMassRadius(x, y, z, center);
+
+        String statsLine = String.format(Locale.US, "%.10e;%s;%d;%.10e;%.10e;%.10e;%.10e;%.10e;%.10e;%.10e\n",
+                frame.getTime(), frame.getGalaxyName(), frame.getStarCount(),
+                ke, pe, ke + pe, center[0], center[1], center[2], halfMassRadius);
+
+        StringBuilder trackLines = new StringBuilder();
+        if (writesTracks()) {
+            int[] ids = frame.getIds();
+            for (int i = 0; i < ids.length; i++) {
+                if (trackAll || trackedIds.contains(ids[i])) {
+                    trackLines.append(String.format(Locale.US, "%.10e;%s;%d;%.10e;%.10e;%.10e\n",
+                            frame.getTime(), frame.getGalaxyName(), ids[i], x[i], y[i], z[i]));
+                }
+            }
+        }
+        return new FrameResult(statsLine, trackLines.toString());
+    }
+
+    private static class FrameResult {
+        private final String statsLine;
+        private final String trackLines;
+
+        private FrameResult(String statsLine, String trackLines) {
+            this.statsLine = statsLine;
+            this.trackLines = trackLines;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            usage();
+        }
+        Path input = Paths.get(args[0]);
+        String prefix = args[0].endsWith(".csv") ? args[0].substring(0, args[0].length() - 4) : args[0];
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean trackAll = false;
+        Set<Integer> trackedIds = new HashSet<>();
+
+        for (int i = 1; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                System.err.println("Falta el valor de " + args[i]);
+                usage();
+            }
+            switch (args[i]) {
+                case "--out":
+                    prefix = args[i + 1];
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--tracks":
+                    if (args[i + 1].equals("all")) {
+                        trackAll = true;
+                    } else {
+                        for (String id : args[i + 1].split(",")) {
+                            trackedIds.add(Integer.parseInt(id.trim()));
+                        }
+                    }
+                    break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        TrajectoryAnalyzer analyzer = new TrajectoryAnalyzer(threads, trackAll, trackedIds);
+        analyzer.analyze(input, Paths.get(prefix + "_stats.csv"), Paths.get(prefix + "_tracks.csv"));
+    }
+
+    private static void usage() {
+        System.err.println("Uso: TrajectoryAnalyzer sim.csv [--out prefix] [--threads n] [--tracks all|id1,id2,...]");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,30 @@
+package com.simulation2.analysis;
+
+import java.io.IOException;
+
+import com.simulation2.recorder.StateSnapshot;
+import com.simulation2.utils.TrajectoryFrame;
+
+/**
+ * Dispersión de velocidades de cada galaxia alrededor de su velocidad de centro de masa:
+ * t;galaxy;sigma;sigma_x;sigma_y;sigma_z
+ */
+public class VelocityDispersionPlugin extends TimeSeriesPlugin {
+
+    public VelocityDispersionPlugin() {
+        super("dispersion", "t;galaxy;sigma;sigma_x;sigma_y;sigma_z");
+    }
+
+    @Override
+    public void process(StateSnapshot snapshot) throws IOException {
+        for (int g = 0; g < snapshot.getGalaxyCount(); g++) {
+            TrajectoryFrame frame = snapshot.getFrame(g);
+            double[] sigma = Reductions.velocityDispersion(frame.getVx(), frame.getVy(), frame.getVz());
+            out.appendShortest(frame.getTime()).append(';').append(frame.getGalaxyName());
+            for (double value : sigma) {
+                out.append(';').appendShortest(value);
+            }
+            out.newLine();
+        }
+    }
+}
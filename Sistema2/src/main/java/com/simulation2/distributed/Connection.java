@@ -0,0 +1,106 @@
+package com.simulation2.distributed;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Mensajes entre el coordinador y los workers sobre un SocketChannel bloqueante.
+ * Cada mensaje es: largo (int), tipo (int) y el cuerpo. Los buffers se reutilizan entre mensajes.
+ */
+class Connection implements AutoCloseable {
+    static final int STEP = 1;
+    static final int POSITIONS = 2;
+    static final int FORCES = 3;
+    static final int SHUTDOWN = 4;
+    static final int STATE = 5;
+
+    private final SocketChannel channel;
+    private ByteBuffer outgoing = ByteBuffer.allocateDirect(1 << 16);
+    private ByteBuffer incoming = ByteBuffer.allocateDirect(1 << 16);
+    private final ByteBuffer header = ByteBuffer.allocateDirect(8);
+    private int lastType;
+
+    Connection(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(true);
+        channel.socket().setTcpNoDelay(true);
+    }
+
+    /**
+     * Buffer vacío con lugar para bytes bytes de cuerpo; se envía con send
+     */
+    ByteBuffer begin(int type, int bytes) {
+        if (outgoing.capacity() < bytes + 8) {
+            outgoing = ByteBuffer.allocateDirect(Math.max(bytes + 8, outgoing.capacity() * 2));
+        }
+        outgoing.clear();
+        outgoing.putInt(0);
+        outgoing.putInt(type);
+        return outgoing;
+    }
+
+    void send() throws IOException {
+        outgoing.putInt(0, outgoing.position() - 8);
+        outgoing.flip();
+        while (outgoing.hasRemaining()) {
+            channel.write(outgoing);
+        }
+    }
+
+    /**
+     * Lee un mensaje completo del tipo esperado y retorna su cuerpo
+     */
+    ByteBuffer receive(int expectedType) throws IOException {
+        header.clear();
+        readFully(header);
+        header.flip();
+        int length = header.getInt();
+        int type = header.getInt();
+        if (type != expectedType) {
+            throw new IOException("Unexpected message type " + type + ", expected " + expectedType);
+        }
+        return receiveBody(length);
+    }
+
+    /**
+     * Lee un mensaje de cualquier tipo; el tipo queda en getLastType()
+     */
+    ByteBuffer receiveAny() throws IOException {
+        header.clear();
+        readFully(header);
+        header.flip();
+        int length = header.getInt();
+        lastType = header.getInt();
+        return receiveBody(length);
+    }
+
+    int getLastType() {
+        return lastType;
+    }
+
+    private ByteBuffer receiveBody(int length) throws IOException {
+        if (incoming.capacity() < length) {
+            incoming = ByteBuffer.allocateDirect(Math.max(length, incoming.capacity() * 2));
+        }
+        incoming.clear();
+        incoming.limit(length);
+        readFully(incoming);
+        incoming.flip();
+        return incoming;
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
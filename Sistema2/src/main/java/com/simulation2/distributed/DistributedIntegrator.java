@@ -0,0 +1,239 @@
+package com.simulation2.distributed;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.integrators.IIntegrator2;
+import com.simulation2.models.Particle;
+import com.simulation2.utils.MortonOrder;
+
+/**
+ * Velocity Verlet con las estrellas repartidas entre varios procesos ForceWorker conectados por TCP.
+ * Se usa como cualquier IIntegrator2 (por ejemplo en Simulation2), así que la simulación sigue
+ * teniendo el estado completo en sus Particle después de cada paso.
+ *
+ * En cada paso las estrellas se ordenan por su clave de Morton y se cortan en un tramo contiguo por
+ * worker. Cada worker hace el drift de sus estrellas, el coordinador junta y reparte todas las
+ * posiciones, y cada worker calcula la fuerza directa sobre las suyas y el kick. Como los workers
+ * suman en el orden de índice global, el resultado es el mismo que el de VelocityVerlet2.
+ *
+ * Los workers pueden lanzarse como JVMs locales (launchLocal) o arrancarse a mano en otros nodos con
+ * ForceWorker host puerto apuntando al puerto del coordinador.
+ */
+public class DistributedIntegrator implements IIntegrator2, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedIntegrator.class);
+    private static final int ACCEPT_TIMEOUT_MS = 60_000;
+
+    private final ServerSocketChannel server;
+    private final List<Connection> workers = new ArrayList<>();
+    private final List<Process> processes = new ArrayList<>();
+
+    /**
+     * Escucha en port (0 = cualquiera libre) y espera a que se conecten workers procesos
+     */
+    public DistributedIntegrator(int port, int workers) throws IOException {
+        this(port, workers, null);
+    }
+
+    private DistributedIntegrator(int port, int workerCount, WorkerLauncher launcher) throws IOException {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.socket().setSoTimeout(ACCEPT_TIMEOUT_MS);
+        try {
+            if (launcher != null) {
+                for (int w = 0; w < workerCount; w++) {
+                    processes.add(launcher.launch(getPort()));
+                }
+            }
+            logger.info("Waiting for " + workerCount + " workers on port " + getPort());
+            for (int w = 0; w < workerCount; w++) {
+                SocketChannel channel = server.socket().accept().getChannel();
+                workers.add(new Connection(channel));
+            }
+        } catch (SocketTimeoutException e) {
+            close();
+            throw new IOException("Only " + workers.size() + " of " + workerCount + " workers connected", e);
+        }
+    }
+
+    /**
+     * Coordinador con workers JVMs locales lanzadas con el mismo classpath
+     */
+    public static DistributedIntegrator launchLocal(int workers) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("java.class.path");
+        return new DistributedIntegrator(0, workers, port -> new ProcessBuilder(java, "-cp", classpath,
+                ForceWorker.class.getName(), "localhost", Integer.toString(port))
+                .redirectErrorStream(true)
+                .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "force-worker-" + port + ".log"))
+                .start());
+    }
+
+    private interface WorkerLauncher {
+        Process launch(int port) throws IOException;
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    /** ----------------- IIntegrator2 ----------------- **/
+
+    @Override
+    public synchronized void step(Particle[] particles, double dt, double G, double h) {
+        try {
+            int n = particles.length;
+            int[] order = MortonOrder.order(particles);
+
+            // 1. drift en los workers
+            for (int w = 0; w < workers.size(); w++) {
+                int start = MortonOrder.partStart(n, workers.size(), w);
+                int end = MortonOrder.partStart(n, workers.size(), w + 1);
+                ByteBuffer message = workers.get(w).begin(Connection.STEP, 3 * Double.BYTES + Integer.BYTES
+                        + (end - start) * (Integer.BYTES + 9 * Double.BYTES));
+                message.putDouble(dt);
+                message.putDouble(G);
+                message.putDouble(h);
+                message.putInt(end - start);
+                for (int k = start; k < end; k++) {
+                    Particle particle = particles[order[k]];
+                    message.putInt(order[k]);
+                    ForceWorker.putVector(message, particle.getPosition());
+                    ForceWorker.putVector(message, particle.getVelocity());
+                    ForceWorker.putVector(message, particle.getAcceleration());
+                }
+                workers.get(w).send();
+            }
+
+            // 2. se juntan las posiciones nuevas y se reparten a todos
+            double[] positions = new double[3 * n];
+            for (int w = 0; w < workers.size(); w++) {
+                ByteBuffer reply = workers.get(w).receive(Connection.POSITIONS);
+                for (int k = MortonOrder.partStart(n, workers.size(), w); k < MortonOrder.partStart(n, workers.size(), w + 1); k++) {
+                    int i = order[k];
+                    positions[3 * i] = reply.getDouble();
+                    positions[3 * i + 1] = reply.getDouble();
+                    positions[3 * i + 2] = reply.getDouble();
+                }
+            }
+            for (Connection worker : workers) {
+                ByteBuffer message = worker.begin(Connection.POSITIONS, Integer.BYTES + positions.length * Double.BYTES);
+                putPositions(message, positions);
+                worker.send();
+            }
+
+            // 3. fuerzas y kick en los workers
+            for (int w = 0; w < workers.size(); w++) {
+                ByteBuffer reply = workers.get(w).receive(Connection.STATE);
+                for (int k = MortonOrder.partStart(n, workers.size(), w); k < MortonOrder.partStart(n, workers.size(), w + 1); k++) {
+                    int i = order[k];
+                    Particle particle = particles[i];
+                    particle.setOldAcceleration(particle.getAcceleration());
+                    particle.setPosition(new Vector3D(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]));
+                    particle.setVelocity(ForceWorker.getVector(reply));
+                    particle.setAcceleration(ForceWorker.getVector(reply));
+                    particle.resetForce();
+                    particle.addForce(ForceWorker.getVector(reply));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Distributed step failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void calculateForcesBetweenParticles(Particle[] particles, double G, double h) {
+        try {
+            int n = particles.length;
+            int[] order = MortonOrder.order(particles);
+            double[] positions = new double[3 * n];
+            for (int i = 0; i < n; i++) {
+                positions[3 * i] = particles[i].getPosition().getX();
+                positions[3 * i + 1] = particles[i].getPosition().getY();
+                positions[3 * i + 2] = particles[i].getPosition().getZ();
+            }
+
+            for (int w = 0; w < workers.size(); w++) {
+                int start = MortonOrder.partStart(n, workers.size(), w);
+                int end = MortonOrder.partStart(n, workers.size(), w + 1);
+                ByteBuffer message = workers.get(w).begin(Connection.FORCES, 2 * Double.BYTES
+                        + 2 * Integer.BYTES + positions.length * Double.BYTES + (end - start) * Integer.BYTES);
+                message.putDouble(G);
+                message.putDouble(h);
+                putPositions(message, positions);
+                message.putInt(end - start);
+                for (int k = start; k < end; k++) {
+                    message.putInt(order[k]);
+                }
+                workers.get(w).send();
+            }
+
+            for (int w = 0; w < workers.size(); w++) {
+                ByteBuffer reply = workers.get(w).receive(Connection.FORCES);
+                for (int k = MortonOrder.partStart(n, workers.size(), w); k < MortonOrder.partStart(n, workers.size(), w + 1); k++) {
+                    Particle particle = particles[order[k]];
+                    particle.resetForce();
+                    particle.addForce(ForceWorker.getVector(reply));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Distributed force calculation failed", e);
+        }
+    }
+
+    private static void putPositions(ByteBuffer message, double[] positions) {
+        message.putInt(positions.length / 3);
+        message.asDoubleBuffer().put(positions);
+        message.position(message.position() + positions.length * Double.BYTES);
+    }
+
+    /**
+     * Detiene los workers y espera a que terminen los procesos lanzados
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (Connection worker : workers) {
+            try {
+                worker.begin(Connection.SHUTDOWN, 0);
+                worker.send();
+                worker.close();
+            } catch (IOException e) {
+                logger.warn("Error stopping worker: " + e.getMessage());
+            }
+        }
+        workers.clear();
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        processes.clear();
+        server.close();
+    }
+}
@@ -0,0 +1,200 @@
+package com.simulation2.distributed;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.models.Particle;
+
+/**
+ * Proceso worker de DistributedIntegrator. Recibe en cada paso el estado de sus estrellas, hace el
+ * drift, devuelve las posiciones nuevas, recibe las posiciones de todas las estrellas y calcula la
+ * fuerza sobre las suyas y el kick.
+ *
+ * La fuerza sobre cada estrella se acumula en el orden de índice global, igual que
+ * VelocityVerlet2.calculateForcesBetweenParticles, así que el resultado no depende de la partición.
+ *
+ * Uso: ForceWorker host puerto
+ */
+public class ForceWorker {
+    private static final Logger logger = LoggerFactory.getLogger(ForceWorker.class);
+
+    private final Connection connection;
+    private Particle[] local = new Particle[0];
+    private int[] indices = new int[0];
+    private int count;
+    private double dt;
+    private double G;
+    private double h;
+
+    public ForceWorker(Connection connection) {
+        this.connection = connection;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ForceWorker host puerto");
+            System.exit(1);
+        }
+        InetSocketAddress address = new InetSocketAddress(args[0], Integer.parseInt(args[1]));
+        try (Connection connection = new Connection(SocketChannel.open(address))) {
+            new ForceWorker(connection).serve();
+        }
+    }
+
+    /**
+     * Atiende mensajes del coordinador hasta recibir SHUTDOWN
+     */
+    public void serve() throws IOException {
+        while (true) {
+            ByteBuffer message = connection.receiveAny();
+            switch (connection.getLastType()) {
+                case Connection.STEP:
+                    drift(message);
+                    break;
+                case Connection.POSITIONS:
+                    forcesAndKick(message);
+                    break;
+                case Connection.FORCES:
+                    forcesOnly(message);
+                    break;
+                case Connection.SHUTDOWN:
+                    logger.debug("Worker shutting down");
+                    return;
+                default:
+                    throw new IOException("Unknown message type " + connection.getLastType());
+            }
+        }
+    }
+
+    /**
+     * STEP: dt, G, h, cantidad y por estrella índice, posición, velocidad y aceleración.
+     * Responde POSITIONS con las posiciones después del drift.
+     */
+    private void drift(ByteBuffer message) throws IOException {
+        dt = message.getDouble();
+        G = message.getDouble();
+        h = message.getDouble();
+        readLocalParticles(message, true);
+
+        ByteBuffer reply = connection.begin(Connection.POSITIONS, count * 3 * Double.BYTES);
+        for (int k = 0; k < count; k++) {
+            Particle particle = local[k];
+            particle.setOldAcceleration(particle.getAcceleration());
+            Vector3D newPosition = particle.getPosition()
+                    .add(particle.getVelocity().scalarMultiply(dt))
+                    .add(particle.getAcceleration().scalarMultiply(Math.pow(dt, 2) / 2.0));
+            particle.setPosition(newPosition);
+            putVector(reply, newPosition);
+        }
+        connection.send();
+    }
+
+    /**
+     * POSITIONS: n y las posiciones de todas las estrellas. Responde STATE con velocidad,
+     * aceleración y fuerza de cada estrella propia.
+     */
+    private void forcesAndKick(ByteBuffer message) throws IOException {
+        double[] positions = readAllPositions(message);
+
+        ByteBuffer reply = connection.begin(Connection.STATE, count * 9 * Double.BYTES);
+        for (int k = 0; k < count; k++) {
+            Particle particle = local[k];
+            particle.resetForce();
+            particle.addForce(forceOn(indices[k], positions, G, h));
+            particle.updateAcceleration();
+            Vector3D accelerationSum = particle.getOldAcceleration().add(particle.getAcceleration());
+            particle.setVelocity(particle.getVelocity().add(accelerationSum.scalarMultiply(dt / 2.0)));
+
+            putVector(reply, particle.getVelocity());
+            putVector(reply, particle.getAcceleration());
+            putVector(reply, particle.getForce());
+        }
+        connection.send();
+    }
+
+    /**
+     * FORCES: G, h, n, posiciones de todas las estrellas, cantidad e índices propios.
+     * Responde FORCES con la fuerza sobre cada estrella propia.
+     */
+    private void forcesOnly(ByteBuffer message) throws IOException {
+        double G = message.getDouble();
+        double h = message.getDouble();
+        double[] positions = readAllPositions(message);
+        readLocalParticles(message, false);
+
+        ByteBuffer reply = connection.begin(Connection.FORCES, count * 3 * Double.BYTES);
+        for (int k = 0; k < count; k++) {
+            putVector(reply, forceOn(indices[k], positions, G, h));
+        }
+        connection.send();
+    }
+
+    /**
+     * Fuerza suavizada sobre la estrella k, sumando en el mismo orden y con las mismas operaciones
+     * que Particle.calculateForceFrom dentro de VelocityVerlet2
+     */
+    static Vector3D forceOn(int k, double[] positions, double G, double h) {
+        int n = positions.length / 3;
+        double xk = positions[3 * k];
+        double yk = positions[3 * k + 1];
+        double zk = positions[3 * k + 2];
+        double softening = Math.pow(h, 2);
+        double fx = 0;
+        double fy = 0;
+        double fz = 0;
+        for (int j = 0; j < n; j++) {
+            if (j == k) {
+                continue;
+            }
+            double rx = xk - positions[3 * j];
+            double ry = yk - positions[3 * j + 1];
+            double rz = zk - positions[3 * j + 2];
+            double denominator = Math.pow(rx * rx + ry * ry + rz * rz + softening, 3.0 / 2.0);
+            double forceMag = -G * 1.0 * 1.0 / denominator;
+            fx += rx * forceMag;
+            fy += ry * forceMag;
+            fz += rz * forceMag;
+        }
+        return new Vector3D(fx, fy, fz);
+    }
+
+    private void readLocalParticles(ByteBuffer message, boolean withState) {
+        count = message.getInt();
+        if (local.length < count) {
+            local = new Particle[count];
+            indices = new int[count];
+        }
+        for (int k = 0; k < count; k++) {
+            indices[k] = message.getInt();
+            if (withState) {
+                Particle particle = new Particle(indices[k], getVector(message), getVector(message));
+                particle.setAcceleration(getVector(message));
+                local[k] = particle;
+            }
+        }
+    }
+
+    private static double[] readAllPositions(ByteBuffer message) {
+        int n = message.getInt();
+        double[] positions = new double[3 * n];
+        message.asDoubleBuffer().get(positions);
+        message.position(message.position() + positions.length * Double.BYTES);
+        return positions;
+    }
+
+    static void putVector(ByteBuffer buffer, Vector3D v) {
+        buffer.putDouble(v.getX());
+        buffer.putDouble(v.getY());
+        buffer.putDouble(v.getZ());
+    }
+
+    static Vector3D getVector(ByteBuffer buffer) {
+        return new Vector3D(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+}
@@ -0,0 +1,245 @@
+package com.simulation2.integrators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import com.simulation2.metrics.Phase;
+import com.simulation2.metrics.SimulationMetrics;
+import com.simulation2.models.Particle;
+
+/**
+ * Velocity Verlet (en forma kick-drift-kick) que separa los pares ligados muy cercanos: al comienzo
+ * de cada paso busca pares de estrellas a menos de pairRadius con energía relativa negativa, y
+ * durante el drift avanza el movimiento relativo de cada par como un problema de dos cuerpos
+ * aislado, con tantos sub-pasos como haga falta para resolver su órbita. El centro de masa del par
+ * hace el drift normal, y los kicks de sus dos estrellas usan sólo la fuerza del resto del sistema
+ * (que incluye la perturbación de marea). Así unos pocos binarios no obligan a achicar el dt global.
+ *
+ * Con el suavizado h la fuerza del par no es kepleriana (dentro de h es casi armónica), así que en
+ * lugar de la solución analítica de Kepler el movimiento relativo se integra con leapfrog. Su
+ * frecuencia máxima es la del fondo del potencial suavizado, sqrt(G M / h^3), y con eso se fija la
+ * cantidad de sub-pasos por paso. Cada sub-paso cuesta O(1), contra O(N^2) de achicar dt.
+ */
+public class BinaryVelocityVerlet extends VelocityVerlet2 {
+    public static final int DEFAULT_SUBSTEPS_PER_PERIOD = 64;
+    private static final int MAX_SUBSTEPS = 1 << 16;
+
+    private final double pairRadius;
+    private final int substepsPerPeriod;
+    private final IIntegrator2 forceEngine; // null = el loop de pares de VelocityVerlet2
+
+    /**
+     * @param pairRadius separación máxima para tratar a un par como binario (por ejemplo h)
+     */
+    public BinaryVelocityVerlet(double pairRadius) {
+        this(pairRadius, DEFAULT_SUBSTEPS_PER_PERIOD, null);
+    }
+
+    /**
+     * @param substepsPerPeriod sub-pasos del movimiento relativo por período mínimo del par
+     * @param forceEngine integrador cuyo calculateForcesBetweenParticles se usa para las fuerzas (null = el de VelocityVerlet2)
+     */
+    public BinaryVelocityVerlet(double pairRadius, int substepsPerPeriod, IIntegrator2 forceEngine) {
+        if (substepsPerPeriod < 1) {
+            throw new IllegalArgumentException("substepsPerPeriod must be positive");
+        }
+        this.pairRadius = pairRadius;
+        this.substepsPerPeriod = substepsPerPeriod;
+        this.forceEngine = forceEngine;
+    }
+
+    @Override
+    public void step(Particle[] particles, double dt, double G, double h) {
+        List<int[]> pairs = findPairs(particles, G, h);
+        kick(particles, pairs, dt, G, h);
+        drift(particles, pairs, dt, G, h);
+        calculateForcesBetweenParticles(particles, G, h);
+        for (Particle particle : particles) {
+            particle.setOldAcceleration(particle.getAcceleration());
+            particle.updateAcceleration();
+        }
+        kick(particles, pairs, dt, G, h);
+    }
+
+    @Override
+    public void step(Particle[] particles, double dt, double G, double h, SimulationMetrics metrics) {
+        long start = System.nanoTime();
+        List<int[]> pairs = findPairs(particles, G, h);
+        kick(particles, pairs, dt, G, h);
+        drift(particles, pairs, dt, G, h);
+        long drifted = System.nanoTime();
+        calculateForcesBetweenParticles(particles, G, h);
+        long forces = System.nanoTime();
+        for (Particle particle : particles) {
+            particle.setOldAcceleration(particle.getAcceleration());
+            particle.updateAcceleration();
+        }
+        kick(particles, pairs, dt, G, h);
+        long end = System.nanoTime();
+
+        metrics.addPhaseTime(Phase.DRIFT, drifted - start);
+        metrics.addPhaseTime(Phase.FORCE, forces - drifted);
+        metrics.addPhaseTime(Phase.KICK, end - forces);
+    }
+
+    @Override
+    public void calculateForcesBetweenParticles(Particle[] particles, double G, double h) {
+        if (forceEngine == null) {
+            super.calculateForcesBetweenParticles(particles, G, h);
+        } else {
+            forceEngine.calculateForcesBetweenParticles(particles, G, h);
+        }
+    }
+
+    /** ----------------- Pares ----------------- **/
+
+    /**
+     * Pares ligados a menos de pairRadius, cada estrella en a lo sumo uno (se eligen de más cercano a
+     * más lejano). Recorre las estrellas ordenadas por x y sólo compara las que están a menos de
+     * pairRadius en x.
+     */
+    public List<int[]> findPairs(Particle[] particles, double G, double h) {
+        Integer[] order = new Integer[particles.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> particles[i].getPosition().getX()));
+
+        List<double[]> candidates = new ArrayList<>(); // {i, j, distancia}
+        for (int a = 0; a < order.length; a++) {
+            Particle pa = particles[order[a]];
+            for (int b = a + 1; b < order.length; b++) {
+                Particle pb = particles[order[b]];
+                if (pb.getPosition().getX() - pa.getPosition().getX() >= pairRadius) {
+                    break;
+                }
+                double distance = pa.distanceTo(pb);
+                if (distance < pairRadius && isBound(pa, pb, distance, G, h)) {
+                    candidates.add(new double[]{order[a], order[b], distance});
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(c -> c[2]));
+
+        boolean[] used = new boolean[particles.length];
+        List<int[]> pairs = new ArrayList<>();
+        for (double[] candidate : candidates) {
+            int i = (int) candidate[0];
+            int j = (int) candidate[1];
+            if (!used[i] && !used[j]) {
+                used[i] = true;
+                used[j] = true;
+                pairs.add(new int[]{i, j});
+            }
+        }
+        return pairs;
+    }
+
+    private static boolean isBound(Particle a, Particle b, double distance, double G, double h) {
+        double speed2 = b.getVelocity().subtract(a.getVelocity()).getNormSq();
+        double totalMass = a.getMass() + b.getMass();
+        return 0.5 * speed2 - G * totalMass / Math.sqrt(distance * distance + h * h) < 0;
+    }
+
+    /**
+     * Aceleración de a por b con el suavizado de Particle.calculateForceFrom
+     */
+    private static Vector3D pairAcceleration(Vector3D a, Vector3D b, double massB, double G, double h) {
+        Vector3D r = b.subtract(a);
+        double r2 = r.getNormSq() + h * h;
+        return r.scalarMultiply(G * massB / (r2 * Math.sqrt(r2)));
+    }
+
+    /** ----------------- Kick y drift ----------------- **/
+
+    /**
+     * Medio kick con la aceleración guardada, sin la parte interna de cada par
+     */
+    private static void kick(Particle[] particles, List<int[]> pairs, double dt, double G, double h) {
+        double halfDt = dt / 2.0;
+        Vector3D[] internal = new Vector3D[particles.length];
+        for (int[] pair : pairs) {
+            Particle a = particles[pair[0]];
+            Particle b = particles[pair[1]];
+            internal[pair[0]] = pairAcceleration(a.getPosition(), b.getPosition(), b.getMass(), G, h);
+            internal[pair[1]] = pairAcceleration(b.getPosition(), a.getPosition(), a.getMass(), G, h);
+        }
+        for (int i = 0; i < particles.length; i++) {
+            Particle particle = particles[i];
+            Vector3D acceleration = internal[i] == null ? particle.getAcceleration()
+                    : particle.getAcceleration().subtract(internal[i]);
+            particle.setVelocity(particle.getVelocity().add(halfDt, acceleration));
+        }
+    }
+
+    private void drift(Particle[] particles, List<int[]> pairs, double dt, double G, double h) {
+        boolean[] paired = new boolean[particles.length];
+        for (int[] pair : pairs) {
+            paired[pair[0]] = true;
+            paired[pair[1]] = true;
+            driftPair(particles[pair[0]], particles[pair[1]], dt, G, h);
+        }
+        for (int i = 0; i < particles.length; i++) {
+            if (!paired[i]) {
+                Particle particle = particles[i];
+                particle.setPosition(particle.getPosition().add(dt, particle.getVelocity()));
+            }
+        }
+    }
+
+    /**
+     * Drift del centro de masa del par y leapfrog del movimiento relativo aislado durante dt
+     */
+    private void driftPair(Particle a, Particle b, double dt, double G, double h) {
+        double ma = a.getMass();
+        double mb = b.getMass();
+        double totalMass = ma + mb;
+        Vector3D centerPosition = new Vector3D(ma / totalMass, a.getPosition(), mb / totalMass, b.getPosition());
+        Vector3D centerVelocity = new Vector3D(ma / totalMass, a.getVelocity(), mb / totalMass, b.getVelocity());
+        centerPosition = centerPosition.add(dt, centerVelocity);
+
+        double[] r = toArray(b.getPosition().subtract(a.getPosition()));
+        double[] v = toArray(b.getVelocity().subtract(a.getVelocity()));
+        double gm = G * totalMass;
+        double h2 = h * h;
+        double minimumPeriod = 2 * Math.PI * Math.sqrt(h2 * h / gm);
+        int substeps = (int) Math.min(MAX_SUBSTEPS, Math.ceil(dt / minimumPeriod * substepsPerPeriod));
+        double subDt = dt / substeps;
+
+        double[] acceleration = new double[3];
+        relativeAcceleration(r, gm, h2, acceleration);
+        for (int s = 0; s < substeps; s++) {
+            for (int k = 0; k < 3; k++) {
+                v[k] += 0.5 * subDt * acceleration[k];
+                r[k] += subDt * v[k];
+            }
+            relativeAcceleration(r, gm, h2, acceleration);
+            for (int k = 0; k < 3; k++) {
+                v[k] += 0.5 * subDt * acceleration[k];
+            }
+        }
+
+        Vector3D relativePosition = new Vector3D(r);
+        Vector3D relativeVelocity = new Vector3D(v);
+        a.setPosition(centerPosition.subtract(mb / totalMass, relativePosition));
+        b.setPosition(centerPosition.add(ma / totalMass, relativePosition));
+        a.setVelocity(centerVelocity.subtract(mb / totalMass, relativeVelocity));
+        b.setVelocity(centerVelocity.add(ma / totalMass, relativeVelocity));
+    }
+
+    private static void relativeAcceleration(double[] r, double gm, double h2, double[] out) {
+        double r2 = r[0] * r[0] + r[1] * r[1] + r[2] * r[2] + h2;
+        double factor = -gm / (r2 * Math.sqrt(r2));
+        out[0] = factor * r[0];
+        out[1] = factor * r[1];
+        out[2] = factor * r[2];
+    }
+
+    private static double[] toArray(Vector3D v) {
+        return new double[]{v.getX(), v.getY(), v.getZ()};
+    }
+}
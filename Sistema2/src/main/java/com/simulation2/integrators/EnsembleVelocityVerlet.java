@@ -0,0 +1,101 @@
+package com.simulation2.integrators;
+
+import com.simulation2.models.ParticleEnsemble;
+
+import java.util.Arrays;
+
+/**
+ * Velocity Verlet (mismo esquema que VelocityVerlet2) aplicado a todos los sistemas de un
+ * ParticleEnsemble a la vez. Las interacciones sólo se calculan entre partículas del mismo sistema.
+ */
+public class EnsembleVelocityVerlet {
+
+    /**
+     * Calcula la aceleración inicial de todas las partículas, equivalente a Simulation2.initializeStarsAcceleration
+     */
+    public void initializeAccelerations(ParticleEnsemble ensemble, double G, double h) {
+        calculateForces(ensemble, G, h);
+        updateAccelerations(ensemble);
+    }
+
+    public void step(ParticleEnsemble ensemble, double dt, double G, double h) {
+        double[] x = ensemble.getX(), y = ensemble.getY(), z = ensemble.getZ();
+        double[] vx = ensemble.getVx(), vy = ensemble.getVy(), vz = ensemble.getVz();
+        double[] ax = ensemble.getAx(), ay = ensemble.getAy(), az = ensemble.getAz();
+        double halfDt = dt / 2.0;
+
+        // 1. v(t+∆t/2) = v(t) + a(t) * ∆t/2  y  x(t+∆t) = x(t) + v(t+∆t/2) * ∆t  (= x + v∆t + a∆t²/2)
+        for (int k = 0; k < x.length; k++) {
+            vx[k] += ax[k] * halfDt;
+            vy[k] += ay[k] * halfDt;
+            vz[k] += az[k] * halfDt;
+            x[k] += vx[k] * dt;
+            y[k] += vy[k] * dt;
+            z[k] += vz[k] * dt;
+        }
+
+        // 2. recalculo las fuerzas dentro de cada sistema
+        calculateForces(ensemble, G, h);
+        updateAccelerations(ensemble);
+
+        // 3. v(t+∆t) = v(t+∆t/2) + a(t+∆t) * ∆t/2
+        for (int k = 0; k < x.length; k++) {
+            vx[k] += ax[k] * halfDt;
+            vy[k] += ay[k] * halfDt;
+            vz[k] += az[k] * halfDt;
+        }
+    }
+
+    /**
+     * Fuerzas de a pares restringidas a cada sistema. Para un par (i, j) fijo el loop interno
+     * recorre los M sistemas sobre memoria contigua.
+     */
+    public void calculateForces(ParticleEnsemble ensemble, double G, double h) {
+        double[] x = ensemble.getX(), y = ensemble.getY(), z = ensemble.getZ();
+        double[] fx = ensemble.getFx(), fy = ensemble.getFy(), fz = ensemble.getFz();
+        double[] mass = ensemble.getMass();
+        int m = ensemble.getNumSystems();
+        int n = ensemble.getParticlesPerSystem();
+        double h2 = h * h;
+
+        Arrays.fill(fx, 0.0);
+        Arrays.fill(fy, 0.0);
+        Arrays.fill(fz, 0.0);
+
+        for (int i = 0; i < n; i++) {
+            int bi = i * m;
+            for (int j = i + 1; j < n; j++) {
+                int bj = j * m;
+                for (int s = 0; s < m; s++) {
+                    int ki = bi + s;
+                    int kj = bj + s;
+                    double dx = x[kj] - x[ki];
+                    double dy = y[kj] - y[ki];
+                    double dz = z[kj] - z[ki];
+                    double r2 = dx * dx + dy * dy + dz * dz + h2;
+                    double forceMag = G * mass[ki] * mass[kj] / (r2 * Math.sqrt(r2));
+
+                    // fuerza atractiva: i hacia j, j hacia i
+                    fx[ki] += forceMag * dx;
+                    fy[ki] += forceMag * dy;
+                    fz[ki] += forceMag * dz;
+                    fx[kj] -= forceMag * dx;
+                    fy[kj] -= forceMag * dy;
+                    fz[kj] -= forceMag * dz;
+                }
+            }
+        }
+    }
+
+    private void updateAccelerations(ParticleEnsemble ensemble) {
+        double[] fx = ensemble.getFx(), fy = ensemble.getFy(), fz = ensemble.getFz();
+        double[] ax = ensemble.getAx(), ay = ensemble.getAy(), az = ensemble.getAz();
+        double[] mass = ensemble.getMass();
+        for (int k = 0; k < mass.length; k++) {
+            double invMass = 1.0 / mass[k];
+            ax[k] = fx[k] * invMass;
+            ay[k] = fy[k] * invMass;
+            az[k] = fz[k] * invMass;
+        }
+    }
+}
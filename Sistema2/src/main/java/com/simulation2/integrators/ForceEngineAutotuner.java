@@ -0,0 +1,279 @@
+package com.simulation2.integrators;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.models.Particle;
+
+/**
+ * Elige el cálculo de fuerzas más rápido para un conjunto de estrellas: mide cada motor candidato
+ * (loop de pares serial, por bloques, paralelo con distintas cantidades de threads y el de precisión
+ * mixta) sobre una copia de las estrellas reales y se queda con el más rápido cuyo error relativo
+ * de fuerza no supere tolerance. Todos los candidatos son VelocityVerlet2 con otro kernel de
+ * fuerzas, así que el paso es el mismo.
+ *
+ * La elección se guarda por (N, hardware, tolerance) en cacheFile (n;hardware;tolerance;engine;nanos)
+ * y las corridas siguientes con la misma clave no vuelven a medir.
+ */
+public class ForceEngineAutotuner {
+    private static final Logger logger = LoggerFactory.getLogger(ForceEngineAutotuner.class);
+    public static final Path DEFAULT_CACHE_FILE = Paths.get("force_engine.cache.csv");
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    private static final long DEFAULT_BUDGET_NANOS = 50_000_000L; // por candidato
+    private static final int MIN_REPETITIONS = 3;
+    private static final String HEADER = "n;hardware;tolerance;engine;nanos";
+
+    private final Path cacheFile;
+    private final double tolerance;
+    private final long budgetNanos;
+    private final String hardware;
+    private String lastEngine;
+    private boolean lastFromCache;
+
+    public ForceEngineAutotuner() {
+        this(DEFAULT_CACHE_FILE, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * @param cacheFile archivo de decisiones guardadas (null = no se guardan)
+     * @param tolerance error máximo de fuerza admitido, relativo a la fuerza RMS (el de precisión mixta
+     *                  es ~1e-7, los demás son exactos salvo por el orden de las sumas)
+     */
+    public ForceEngineAutotuner(Path cacheFile, double tolerance) {
+        this(cacheFile, tolerance, DEFAULT_BUDGET_NANOS, hardwareKey());
+    }
+
+    ForceEngineAutotuner(Path cacheFile, double tolerance, long budgetNanos, String hardware) {
+        this.cacheFile = cacheFile;
+        this.tolerance = tolerance;
+        this.budgetNanos = budgetNanos;
+        this.hardware = hardware;
+    }
+
+    /**
+     * Nombres de los motores que se miden en esta máquina
+     */
+    public static List<String> candidates() {
+        List<String> names = new ArrayList<>();
+        names.add("serial");
+        names.add("tiled");
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 2; threads < processors; threads *= 2) {
+            names.add("parallel-" + threads);
+        }
+        if (processors > 1) {
+            names.add("parallel-" + processors);
+        }
+        names.add("mixed");
+        return names;
+    }
+
+    /**
+     * Crea el motor con ese nombre (ver candidates)
+     */
+    public static VelocityVerlet2 createEngine(String name) {
+        if (name.equals("serial")) {
+            return new VelocityVerlet2();
+        }
+        if (name.equals("tiled")) {
+            return new TiledVelocityVerlet();
+        }
+        if (name.equals("mixed")) {
+            return new MixedPrecisionVelocityVerlet();
+        }
+        if (name.startsWith("parallel-")) {
+            return new ParallelVelocityVerlet(Integer.parseInt(name.substring("parallel-".length())));
+        }
+        throw new IllegalArgumentException("Unknown force engine: " + name);
+    }
+
+    /**
+     * Motor elegido para estas estrellas (no las modifica)
+     */
+    public VelocityVerlet2 select(Particle[] particles, double G, double h) {
+        int n = particles.length;
+        String cached = readCache(n);
+        if (cached != null) {
+            logger.info("Force engine for N=" + n + " from " + cacheFile + ": " + cached);
+            lastEngine = cached;
+            lastFromCache = true;
+            return createEngine(cached);
+        }
+
+        long start = System.nanoTime();
+        double[] reference = forces(new VelocityVerlet2(), particles, G, h);
+        double scale = rms(reference);
+        String best = null;
+        long bestNanos = Long.MAX_VALUE;
+        for (String name : candidates()) {
+            VelocityVerlet2 engine = createEngine(name);
+            double error = maxDifference(forces(engine, particles, G, h), reference) / scale;
+            if (!(error <= tolerance)) {
+                logger.debug(String.format(Locale.US, "Force engine %s rejected: error %.2e > %.2e", name, error, tolerance));
+                continue;
+            }
+            long nanos = time(engine, particles, G, h);
+            logger.debug(String.format(Locale.US, "Force engine %s: %.3f ms per evaluation, error %.2e", name, nanos / 1e6, error));
+            if (nanos < bestNanos) {
+                bestNanos = nanos;
+                best = name;
+            }
+        }
+        logger.info(String.format(Locale.US, "Force engine for N=%d: %s (%.3f ms per evaluation, calibrated in %.2f s)",
+                n, best, bestNanos / 1e6, (System.nanoTime() - start) * 1e-9));
+        writeCache(n, best, bestNanos);
+        lastEngine = best;
+        lastFromCache = false;
+        return createEngine(best);
+    }
+
+    public String getLastEngine() {
+        return lastEngine;
+    }
+
+    public boolean isLastFromCache() {
+        return lastFromCache;
+    }
+
+    /** ----------------- Medición ----------------- **/
+
+    /**
+     * Fuerzas (x, y, z por estrella) calculadas por engine sobre una copia
+     */
+    private static double[] forces(VelocityVerlet2 engine, Particle[] particles, double G, double h) {
+        Particle[] copies = Particle.copyAll(particles);
+        engine.calculateForcesBetweenParticles(copies, G, h);
+        double[] forces = new double[3 * copies.length];
+        for (int i = 0; i < copies.length; i++) {
+            Vector3D force = copies[i].getForce();
+            forces[3 * i] = force.getX();
+            forces[3 * i + 1] = force.getY();
+            forces[3 * i + 2] = force.getZ();
+        }
+        return forces;
+    }
+
+    private static double rms(double[] values) {
+        double sum = 0;
+        for (double v : values) {
+            sum += v * v;
+        }
+        double rms = Math.sqrt(sum / Math.max(1, values.length / 3));
+        return rms > 0 ? rms : 1;
+    }
+
+    private static double maxDifference(double[] a, double[] b) {
+        double max = 0;
+        for (int i = 0; i < a.length; i += 3) {
+            double dx = a[i] - b[i];
+            double dy = a[i + 1] - b[i + 1];
+            double dz = a[i + 2] - b[i + 2];
+            max = Math.max(max, Math.sqrt(dx * dx + dy * dy + dz * dz));
+        }
+        return max;
+    }
+
+    /**
+     * Mejor tiempo por evaluación después de una vuelta de calentamiento, repitiendo hasta gastar el presupuesto
+     */
+    private long time(VelocityVerlet2 engine, Particle[] particles, double G, double h) {
+        Particle[] copies = Particle.copyAll(particles);
+        engine.calculateForcesBetweenParticles(copies, G, h);
+        long best = Long.MAX_VALUE;
+        long spent = 0;
+        for (int repetition = 0; repetition < MIN_REPETITIONS || spent < budgetNanos; repetition++) {
+            long start = System.nanoTime();
+            engine.calculateForcesBetweenParticles(copies, G, h);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            spent += elapsed;
+        }
+        return best;
+    }
+
+    /** ----------------- Cache ----------------- **/
+
+    /**
+     * Procesadores, arquitectura y modelo de CPU (si se puede leer)
+     */
+    static String hardwareKey() {
+        String model = "unknown";
+        Path cpuinfo = Paths.get("/proc/cpuinfo");
+        if (Files.isReadable(cpuinfo)) {
+            try (BufferedReader reader = Files.newBufferedReader(cpuinfo, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("model name")) {
+                        model = line.substring(line.indexOf(':') + 1).trim();
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                // se queda con "unknown"
+            }
+        }
+        String key = Runtime.getRuntime().availableProcessors() + "x" + System.getProperty("os.arch") + " " + model;
+        return key.replace(';', ',');
+    }
+
+    private String toleranceKey() {
+        return String.format(Locale.US, "%.3e", tolerance);
+    }
+
+    private String readCache(int n) {
+        if (cacheFile == null || !Files.exists(cacheFile)) {
+            return null;
+        }
+        String engine = null;
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(";");
+                if (parts.length == 5 && parts[0].equals(Integer.toString(n)) && parts[1].equals(hardware)
+                        && parts[2].equals(toleranceKey())) {
+                    engine = parts[3]; // la última entrada gana
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Error reading force engine cache: " + e.getMessage());
+            return null;
+        }
+        if (engine != null) {
+            try {
+                createEngine(engine);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return engine;
+    }
+
+    private void writeCache(int n, String engine, long nanos) {
+        if (cacheFile == null) {
+            return;
+        }
+        boolean exists = Files.exists(cacheFile);
+        try (BufferedWriter writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (!exists) {
+                writer.write(HEADER + "\n");
+            }
+            writer.write(n + ";" + hardware + ";" + toleranceKey() + ";" + engine + ";" + nanos + "\n");
+        } catch (IOException e) {
+            logger.warn("Error writing force engine cache: " + e.getMessage());
+        }
+    }
+}
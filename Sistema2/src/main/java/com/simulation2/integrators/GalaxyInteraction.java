@@ -0,0 +1,298 @@
+package com.simulation2.integrators;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.analysis.Reductions;
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+/**
+ * Fuerza gravitatoria entre galaxias distintas, que Simulation2 aplica como dos medios kicks alrededor
+ * del paso interno de cada galaxia (el integrador sigue viendo cada galaxia por separado).
+ *
+ * Mientras dos galaxias están lejos, cada una ve a la otra como su monopolo más su cuadrupolo
+ * alrededor del centro de masa (el dipolo es nulo), con costo O(N_a + N_b):
+ *   a(r) = -G M r / |r|^3 + G Q r / |r|^5 - (5G/2) (r^T Q r) r / |r|^7,  Q_ij = sum m (3 x_i x_j - |x|^2 d_ij)
+ * Cuando la distancia entre centros baja de openingFactor * (R_a + R_b), con R el radio lagrangiano
+ * que contiene el 90% de la masa (así una estrella eyectada no deja el par en modo directo para
+ * siempre), se pasa a la suma directa estrella por estrella (N_a x N_b, con el suavizado h), y se
+ * vuelve al multipolo si se separan. Mientras tanto, las pocas estrellas de afuera de ese radio que
+ * queden a menos de openingFactor * R de la otra galaxia la ven con la suma directa.
+ */
+public class GalaxyInteraction {
+    private static final Logger logger = LoggerFactory.getLogger(GalaxyInteraction.class);
+    public static final double DEFAULT_OPENING_FACTOR = 2.0;
+    static final double RADIUS_MASS_FRACTION = 0.9;
+
+    private final double openingFactor;
+    private Particle[][] cachedStars = new Particle[0][];
+    private double[][] accelerations = new double[0][]; // por galaxia, x y z intercalados
+    private boolean[][] direct = new boolean[0][]; // modo actual de cada par de galaxias
+    private long directPairs;
+    private long multipoleEvaluations;
+
+    public GalaxyInteraction(double openingFactor) {
+        this.openingFactor = openingFactor;
+    }
+
+    public GalaxyInteraction() {
+        this(DEFAULT_OPENING_FACTOR);
+    }
+
+    /** ----------------- Kicks ----------------- **/
+
+    /**
+     * v += a_externa * dt / 2 para todas las estrellas, con las aceleraciones calculadas en el último
+     * update (o ahora mismo si cambió algún arreglo de estrellas desde entonces)
+     */
+    public void halfKick(Galaxy2[] galaxies, double dt, double G, double h) {
+        if (!isCacheValid(galaxies)) {
+            update(galaxies, G, h);
+        }
+        double halfDt = dt / 2.0;
+        for (int g = 0; g < galaxies.length; g++) {
+            Particle[] stars = galaxies[g].getStars();
+            double[] a = accelerations[g];
+            for (int i = 0; i < stars.length; i++) {
+                stars[i].setVelocity(stars[i].getVelocity().add(halfDt, new Vector3D(a[3 * i], a[3 * i + 1], a[3 * i + 2])));
+            }
+        }
+    }
+
+    /**
+     * Si las aceleraciones del último update corresponden a los arreglos de estrellas actuales
+     * (getAcceleration(g, i) es la de galaxies[g].getStars()[i])
+     */
+    public boolean isCacheValid(Galaxy2[] galaxies) {
+        if (cachedStars.length != galaxies.length) {
+            return false;
+        }
+        for (int g = 0; g < galaxies.length; g++) {
+            if (cachedStars[g] != galaxies[g].getStars()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Recalcula la aceleración de cada estrella debida a las otras galaxias con las posiciones actuales
+     */
+    public void update(Galaxy2[] galaxies, double G, double h) {
+        int count = galaxies.length;
+        if (direct.length != count) {
+            direct = new boolean[count][count];
+        }
+        cachedStars = new Particle[count][];
+        accelerations = new double[count][];
+        double[][] x = new double[count][];
+        double[] radius = new double[count];
+        Multipole[] multipoles = new Multipole[count];
+        for (int g = 0; g < count; g++) {
+            Particle[] stars = galaxies[g].getStars();
+            cachedStars[g] = stars;
+            accelerations[g] = new double[3 * stars.length];
+            x[g] = new double[4 * stars.length]; // x, y, z, masa
+            for (int i = 0; i < stars.length; i++) {
+                Vector3D position = stars[i].getPosition();
+                x[g][4 * i] = position.getX();
+                x[g][4 * i + 1] = position.getY();
+                x[g][4 * i + 2] = position.getZ();
+                x[g][4 * i + 3] = stars[i].getMass();
+            }
+            multipoles[g] = new Multipole(x[g]);
+            radius[g] = multipoles[g].radius;
+        }
+
+        for (int a = 0; a < count; a++) {
+            for (int b = a + 1; b < count; b++) {
+                double separation = distance(multipoles[a].center, multipoles[b].center);
+                boolean useDirect = separation < openingFactor * (radius[a] + radius[b]);
+                if (useDirect != direct[a][b]) {
+                    logger.info(String.format("%s - %s at distance %.4e: switching to %s interaction",
+                            galaxies[a].getName(), galaxies[b].getName(), separation, useDirect ? "direct" : "multipole"));
+                    direct[a][b] = useDirect;
+                }
+                if (useDirect) {
+                    addDirect(x[a], x[b], accelerations[a], accelerations[b], G, h);
+                    directPairs += (long) (x[a].length / 4) * (x[b].length / 4);
+                } else {
+                    addFar(x[a], accelerations[a], multipoles[b], x[b], G, h);
+                    addFar(x[b], accelerations[b], multipoles[a], x[a], G, h);
+                }
+            }
+        }
+    }
+
+    /**
+     * Aceleración de source sobre las estrellas de x: multipolo para las que están lejos de su centro
+     * y suma directa contra sus estrellas para las que están a menos de openingFactor * radius
+     */
+    private void addFar(double[] x, double[] acc, Multipole source, double[] sourceStars, double G, double h) {
+        double openingRadius = openingFactor * source.radius;
+        double openingRadius2 = openingRadius * openingRadius;
+        double h2 = h * h;
+        int n = x.length / 4;
+        int sources = sourceStars.length / 4;
+        for (int i = 0; i < n; i++) {
+            double rx = x[4 * i] - source.center[0];
+            double ry = x[4 * i + 1] - source.center[1];
+            double rz = x[4 * i + 2] - source.center[2];
+            if (rx * rx + ry * ry + rz * rz >= openingRadius2) {
+                source.addAcceleration(x, acc, i, G);
+                multipoleEvaluations++;
+                continue;
+            }
+            for (int j = 0; j < sources; j++) {
+                double dx = sourceStars[4 * j] - x[4 * i];
+                double dy = sourceStars[4 * j + 1] - x[4 * i + 1];
+                double dz = sourceStars[4 * j + 2] - x[4 * i + 2];
+                double r2 = dx * dx + dy * dy + dz * dz + h2;
+                double scale = G * sourceStars[4 * j + 3] / (r2 * Math.sqrt(r2));
+                acc[3 * i] += dx * scale;
+                acc[3 * i + 1] += dy * scale;
+                acc[3 * i + 2] += dz * scale;
+            }
+            directPairs += sources;
+        }
+    }
+
+    /**
+     * Suma directa entre dos galaxias con el mismo suavizado que Particle.calculateForceFrom
+     */
+    private static void addDirect(double[] xa, double[] xb, double[] accA, double[] accB, double G, double h) {
+        double h2 = h * h;
+        int na = xa.length / 4;
+        int nb = xb.length / 4;
+        for (int i = 0; i < na; i++) {
+            double xi = xa[4 * i];
+            double yi = xa[4 * i + 1];
+            double zi = xa[4 * i + 2];
+            double gmi = G * xa[4 * i + 3];
+            double axi = 0, ayi = 0, azi = 0;
+            for (int j = 0; j < nb; j++) {
+                double dx = xb[4 * j] - xi;
+                double dy = xb[4 * j + 1] - yi;
+                double dz = xb[4 * j + 2] - zi;
+                double r2 = dx * dx + dy * dy + dz * dz + h2;
+                double inverse = 1.0 / (r2 * Math.sqrt(r2));
+                double sa = G * xb[4 * j + 3] * inverse;
+                double sb = gmi * inverse;
+                axi += dx * sa;
+                ayi += dy * sa;
+                azi += dz * sa;
+                accB[3 * j] -= dx * sb;
+                accB[3 * j + 1] -= dy * sb;
+                accB[3 * j + 2] -= dz * sb;
+            }
+            accA[3 * i] += axi;
+            accA[3 * i + 1] += ayi;
+            accA[3 * i + 2] += azi;
+        }
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /** ----------------- Getters ----------------- **/
+
+    /**
+     * Aceleración externa de la estrella i de la galaxia g según el último update
+     */
+    public Vector3D getAcceleration(int g, int i) {
+        double[] a = accelerations[g];
+        return new Vector3D(a[3 * i], a[3 * i + 1], a[3 * i + 2]);
+    }
+
+    public boolean isDirect(int a, int b) {
+        return a < b ? direct[a][b] : direct[b][a];
+    }
+
+    /**
+     * Pares estrella-estrella evaluados en modo directo desde el comienzo
+     */
+    public long getDirectPairs() {
+        return directPairs;
+    }
+
+    /**
+     * Estrellas evaluadas contra un multipolo desde el comienzo
+     */
+    public long getMultipoleEvaluations() {
+        return multipoleEvaluations;
+    }
+
+    /**
+     * Monopolo y cuadrupolo de una galaxia alrededor de su centro de masa
+     */
+    static final class Multipole {
+        final double mass;
+        final double[] center = new double[3];
+        final double[] q = new double[6]; // xx, yy, zz, xy, xz, yz
+        final double radius;
+
+        Multipole(double[] x) {
+            int n = x.length / 4;
+            double m = 0;
+            for (int i = 0; i < n; i++) {
+                double mi = x[4 * i + 3];
+                m += mi;
+                center[0] += mi * x[4 * i];
+                center[1] += mi * x[4 * i + 1];
+                center[2] += mi * x[4 * i + 2];
+            }
+            this.mass = m;
+            if (m > 0) {
+                center[0] /= m;
+                center[1] /= m;
+                center[2] /= m;
+            }
+            double[] radius2 = new double[n];
+            for (int i = 0; i < n; i++) {
+                double mi = x[4 * i + 3];
+                double dx = x[4 * i] - center[0];
+                double dy = x[4 * i + 1] - center[1];
+                double dz = x[4 * i + 2] - center[2];
+                double r2 = dx * dx + dy * dy + dz * dz;
+                q[0] += mi * (3 * dx * dx - r2);
+                q[1] += mi * (3 * dy * dy - r2);
+                q[2] += mi * (3 * dz * dz - r2);
+                q[3] += mi * 3 * dx * dy;
+                q[4] += mi * 3 * dx * dz;
+                q[5] += mi * 3 * dy * dz;
+                radius2[i] = r2;
+            }
+            // estrellas de masa unitaria: el radio lagrangiano es la distancia de rango 0.9 N
+            this.radius = n == 0 ? 0
+                    : Math.sqrt(Reductions.select(radius2, 0, n, Math.min(n - 1, (int) (RADIUS_MASS_FRACTION * n))));
+        }
+
+        /**
+         * Suma a acc la aceleración del monopolo + cuadrupolo sobre el punto i de x
+         */
+        void addAcceleration(double[] x, double[] acc, int i, double G) {
+            double rx = x[4 * i] - center[0];
+            double ry = x[4 * i + 1] - center[1];
+            double rz = x[4 * i + 2] - center[2];
+            double r2 = rx * rx + ry * ry + rz * rz;
+            double inverse = 1.0 / Math.sqrt(r2);
+            double inverse2 = inverse * inverse;
+            double inverse3 = inverse2 * inverse;
+            double inverse5 = inverse3 * inverse2;
+            double qx = q[0] * rx + q[3] * ry + q[4] * rz;
+            double qy = q[3] * rx + q[1] * ry + q[5] * rz;
+            double qz = q[4] * rx + q[5] * ry + q[2] * rz;
+            double rQr = rx * qx + ry * qy + rz * qz;
+            double radial = -G * mass * inverse3 - 2.5 * G * rQr * inverse5 * inverse2;
+            acc[3 * i] += radial * rx + G * qx * inverse5;
+            acc[3 * i + 1] += radial * ry + G * qy * inverse5;
+            acc[3 * i + 2] += radial * rz + G * qz * inverse5;
+        }
+    }
+}
@@ -1,11 +1,26 @@
 package com.simulation2.integrators;
 
+import com.simulation2.metrics.Phase;
+import com.simulation2.metrics.SimulationMetrics;
 import com.simulation2.models.Particle;
 
 import java.util.List;
 
 public interface IIntegrator2 {
+    /**
+     * Avanza un paso dt las partículas del arreglo, sin cambiar su orden
+     */
     void step(Particle[] particles, double dt, double G, double h);
 
     void calculateForcesBetweenParticles(Particle[] particles, double G, double h);
-}
\ No newline at end of file
+
+    /**
+     * Igual que step, acumulando en metrics el tiempo de cada fase.
+     * Por defecto el paso completo se cuenta como FORCE.
+     */
+    default void step(Particle[] particles, double dt, double G, double h, SimulationMetrics metrics) {
+        long start = System.nanoTime();
+        step(particles, dt, G, h);
+        metrics.addPhaseTime(Phase.FORCE, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,75 @@
+package com.simulation2.integrators;
+
+import com.simulation2.models.Particle;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+/**
+ * VelocityVerlet2 con el cálculo de fuerzas en precisión mixta: las posiciones se copian a
+ * arreglos float (relativas al centroide, para no perder precisión cuando la galaxia está lejos
+ * del origen) y el loop de pares trabaja en float32. Las fuerzas se acumulan en double y
+ * posiciones, velocidades y aceleraciones siguen siendo double.
+ */
+public class MixedPrecisionVelocityVerlet extends VelocityVerlet2 {
+
+    @Override
+    public void calculateForcesBetweenParticles(Particle[] particles, double G, double h) {
+        int n = particles.length;
+        if (n == 0) {
+            return;
+        }
+
+        // 1. centroide en double, las posiciones float son relativas a él
+        double cx = 0, cy = 0, cz = 0;
+        for (Particle particle : particles) {
+            Vector3D position = particle.getPosition();
+            cx += position.getX();
+            cy += position.getY();
+            cz += position.getZ();
+        }
+        cx /= n;
+        cy /= n;
+        cz /= n;
+
+        // 2. espejo float32 (arreglos locales: el integrador puede compartirse entre hilos)
+        float[] px = new float[n], py = new float[n], pz = new float[n], pm = new float[n];
+        for (int i = 0; i < n; i++) {
+            Vector3D position = particles[i].getPosition();
+            px[i] = (float) (position.getX() - cx);
+            py[i] = (float) (position.getY() - cy);
+            pz[i] = (float) (position.getZ() - cz);
+            pm[i] = (float) particles[i].getMass();
+        }
+
+        // 3. loop de pares en float, acumulando en double
+        double[] fx = new double[n], fy = new double[n], fz = new double[n];
+        float h2 = (float) (h * h);
+        float g = (float) G;
+        for (int i = 0; i < n; i++) {
+            float xi = px[i], yi = py[i], zi = pz[i], gmi = g * pm[i];
+            double fxi = 0, fyi = 0, fzi = 0;
+            for (int j = i + 1; j < n; j++) {
+                float dx = px[j] - xi;
+                float dy = py[j] - yi;
+                float dz = pz[j] - zi;
+                float r2 = dx * dx + dy * dy + dz * dz + h2;
+                float forceMag = gmi * pm[j] / (r2 * (float) Math.sqrt(r2));
+
+                float cxij = forceMag * dx, cyij = forceMag * dy, czij = forceMag * dz;
+                fxi += cxij;
+                fyi += cyij;
+                fzi += czij;
+                fx[j] -= cxij;
+                fy[j] -= cyij;
+                fz[j] -= czij;
+            }
+            fx[i] += fxi;
+            fy[i] += fyi;
+            fz[i] += fzi;
+        }
+
+        for (int i = 0; i < n; i++) {
+            particles[i].resetForce();
+            particles[i].addForce(new Vector3D(fx[i], fy[i], fz[i]));
+        }
+    }
+}
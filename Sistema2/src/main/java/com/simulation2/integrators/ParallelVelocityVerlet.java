@@ -0,0 +1,108 @@
+package com.simulation2.integrators;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import com.simulation2.models.Particle;
+
+/**
+ * VelocityVerlet2 con el cálculo de fuerzas repartido entre threads threads: cada estrella suma la
+ * fuerza de todas las demás (sin aprovechar la simetría del par, así ningún thread escribe sobre la
+ * estrella de otro) y las estrellas se reparten en bloques de BLOCK_SIZE. El resultado no depende de
+ * la cantidad de threads.
+ *
+ * Los threads son de un ForkJoinPool propio (no el pool común), compartido por todas las instancias
+ * con la misma cantidad de threads: el autotuner crea un integrador por candidato y el servidor uno
+ * por trabajo, y ninguno tiene que cerrar nada. El integrador se puede compartir entre simulaciones.
+ */
+public class ParallelVelocityVerlet extends VelocityVerlet2 {
+    private static final int BLOCK_SIZE = 64;
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final int threads;
+    private final ForkJoinPool pool;
+
+    public ParallelVelocityVerlet() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelVelocityVerlet(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+        this.pool = threads > 1 ? POOLS.computeIfAbsent(threads, ForkJoinPool::new) : null;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    ForkJoinPool getPool() {
+        return pool;
+    }
+
+    @Override
+    public void calculateForcesBetweenParticles(Particle[] particles, double G, double h) {
+        int n = particles.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        double[] m = new double[n];
+        double[] fx = new double[n];
+        double[] fy = new double[n];
+        double[] fz = new double[n];
+        for (int i = 0; i < n; i++) {
+            Vector3D position = particles[i].getPosition();
+            x[i] = position.getX();
+            y[i] = position.getY();
+            z[i] = position.getZ();
+            m[i] = particles[i].getMass();
+        }
+
+        double h2 = h * h;
+        int blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream range = IntStream.range(0, blocks);
+        Runnable kernel = () -> (pool != null ? range.parallel() : range).forEach(b -> {
+            int end = Math.min(n, (b + 1) * BLOCK_SIZE);
+            for (int i = b * BLOCK_SIZE; i < end; i++) {
+                double xi = x[i];
+                double yi = y[i];
+                double zi = z[i];
+                double gmi = G * m[i];
+                double fxi = 0;
+                double fyi = 0;
+                double fzi = 0;
+                // j == i aporta 0 (dx = dy = dz = 0 y r2 = h2 > 0)
+                for (int j = 0; j < n; j++) {
+                    double dx = x[j] - xi;
+                    double dy = y[j] - yi;
+                    double dz = z[j] - zi;
+                    double r2 = dx * dx + dy * dy + dz * dz + h2;
+                    double magnitude = gmi * m[j] / (r2 * Math.sqrt(r2));
+                    fxi += dx * magnitude;
+                    fyi += dy * magnitude;
+                    fzi += dz * magnitude;
+                }
+                fx[i] = fxi;
+                fy[i] = fyi;
+                fz[i] = fzi;
+            }
+        });
+        if (pool != null) {
+            // un stream paralelo lanzado desde una tarea del pool usa los threads de ese pool
+            pool.submit(kernel).join();
+        } else {
+            kernel.run();
+        }
+
+        for (int i = 0; i < n; i++) {
+            particles[i].resetForce();
+            particles[i].addForce(new Vector3D(fx[i], fy[i], fz[i]));
+        }
+    }
+}
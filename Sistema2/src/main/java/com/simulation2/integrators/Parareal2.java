@@ -0,0 +1,235 @@
+package com.simulation2.integrators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.models.Particle;
+
+/**
+ * Integración paralela en el tiempo (Parareal) de un conjunto de estrellas, igual que
+ * simulation1.integrators.Parareal: un integrador grueso (dt grande, o un kernel barato como
+ * MixedPrecisionVelocityVerlet o RespaVelocityVerlet) propaga el estado de tramo en tramo en serie, y
+ * el fino (por ejemplo VelocityVerlet2 con el dt de siempre) corrige todos los tramos en paralelo con
+ *     U[n+1] = G(U[n] nuevo) + F(U[n] anterior) - G(U[n] anterior)
+ * hasta que ninguna posición o velocidad de borde cambie más que tolerance.
+ *
+ * Al comienzo de cada tramo las aceleraciones se recalculan a partir de las posiciones, que es lo
+ * mismo que hace VelocityVerlet2 entre pasos, así que al converger el resultado es el de la corrida
+ * fina serial. En sistemas caóticos la cantidad de iteraciones crece con la duración de cada tramo.
+ * Los integradores se comparten entre los threads (como en las simulaciones en paralelo de Main).
+ */
+public class Parareal2 {
+    private static final Logger logger = LoggerFactory.getLogger(Parareal2.class);
+
+    /**
+     * Recibe cada paso fino de un tramo (ver propagateFine)
+     */
+    public interface StepObserver {
+        void onStep(double t, Particle[] particles) throws Exception;
+    }
+
+    private final IIntegrator2 fine;
+    private final double fineDt;
+    private final long totalSteps;
+    private final IIntegrator2 coarse;
+    private final int coarseStepsPerSlice;
+    private final int slices;
+    private final double tolerance;
+    private final int threads;
+    private final double G;
+    private final double h;
+
+    private int[] ids;
+    private int iterations;
+
+    /**
+     * @param totalSteps pasos finos en total (se reparten entre los tramos)
+     * @param coarseStepsPerSlice pasos del integrador grueso por tramo
+     * @param tolerance cambio máximo admitido en posición y velocidad entre dos iteraciones
+     */
+    public Parareal2(IIntegrator2 fine, double fineDt, long totalSteps, IIntegrator2 coarse, int coarseStepsPerSlice,
+                     int slices, double tolerance, int threads, double G, double h) {
+        if (slices < 1 || totalSteps < slices) {
+            throw new IllegalArgumentException("At least one fine step per slice is required");
+        }
+        this.fine = fine;
+        this.fineDt = fineDt;
+        this.totalSteps = totalSteps;
+        this.coarse = coarse;
+        this.coarseStepsPerSlice = Math.max(1, coarseStepsPerSlice);
+        this.slices = slices;
+        this.tolerance = tolerance;
+        this.threads = Math.max(1, threads);
+        this.G = G;
+        this.h = h;
+    }
+
+    /**
+     * Primer paso fino del tramo n (el tramo n va de sliceStart(n) a sliceStart(n + 1))
+     */
+    public long sliceStart(int n) {
+        return totalSteps * n / slices;
+    }
+
+    /**
+     * Integra particles hasta el final y las deja en el estado final
+     * @return estado (x, y, z, vx, vy, vz por estrella) en el borde de cada tramo, de 0 a slices
+     */
+    public double[][] solve(Particle[] particles) throws InterruptedException {
+        ids = new int[particles.length];
+        for (int i = 0; i < particles.length; i++) {
+            ids[i] = particles[i].getId();
+        }
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            double[][] current = new double[slices + 1][];
+            double[][] coarseResults = new double[slices][];
+            double[][] fineResults = new double[slices][];
+            current[0] = toState(particles);
+            for (int n = 0; n < slices; n++) {
+                coarseResults[n] = propagate(coarse, n, current[n], coarseStepsPerSlice);
+                current[n + 1] = coarseResults[n];
+            }
+
+            iterations = 0;
+            double change = Double.POSITIVE_INFINITY;
+            while (iterations < slices) {
+                // 1. corrección fina de los tramos que todavía no son exactos, en paralelo
+                int first = iterations;
+                List<Callable<double[]>> tasks = new ArrayList<>();
+                for (int n = first; n < slices; n++) {
+                    int slice = n;
+                    double[] sliceStart = current[n];
+                    tasks.add(() -> propagateFine(slice, sliceStart, null));
+                }
+                List<Future<double[]>> futures = executor.invokeAll(tasks);
+                for (int n = first; n < slices; n++) {
+                    fineResults[n] = get(futures.get(n - first));
+                }
+                iterations++;
+
+                // 2. barrido grueso en serie con la corrección
+                double[][] next = current.clone();
+                change = 0;
+                for (int n = first; n < slices; n++) {
+                    double[] predicted = propagate(coarse, n, next[n], coarseStepsPerSlice);
+                    double[] corrected = new double[predicted.length];
+                    for (int c = 0; c < predicted.length; c++) {
+                        corrected[c] = predicted[c] + fineResults[n][c] - coarseResults[n][c];
+                        change = Math.max(change, Math.abs(corrected[c] - current[n + 1][c]));
+                    }
+                    coarseResults[n] = predicted;
+                    next[n + 1] = corrected;
+                }
+                current = next;
+                logger.debug(String.format("Parareal iteration %d: max change %.3e", iterations, change));
+                if (change <= tolerance) {
+                    break;
+                }
+            }
+            logger.info(String.format("Parareal: %d iterations over %d slices (max change %.3e) in %.2f s",
+                    iterations, slices, change, (System.nanoTime() - start) * 1e-9));
+            setState(particles, current[slices]);
+            return current;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double[] get(Future<double[]> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Fine propagation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Integra el tramo n con el integrador fino desde state
+     * @param observer recibe cada paso (puede ser null)
+     * @return estado al final del tramo
+     */
+    public double[] propagateFine(int n, double[] state, StepObserver observer) throws Exception {
+        Particle[] particles = toParticles(state);
+        for (long step = sliceStart(n) + 1; step <= sliceStart(n + 1); step++) {
+            fine.step(particles, fineDt, G, h);
+            if (observer != null) {
+                observer.onStep(step * fineDt, particles);
+            }
+        }
+        return toState(particles);
+    }
+
+    private double[] propagate(IIntegrator2 integrator, int n, double[] state, int steps) {
+        double dt = (sliceStart(n + 1) - sliceStart(n)) * fineDt / steps;
+        Particle[] particles = toParticles(state);
+        for (int s = 0; s < steps; s++) {
+            integrator.step(particles, dt, G, h);
+        }
+        return toState(particles);
+    }
+
+    /** ----------------- Estado ----------------- **/
+
+    private static double[] toState(Particle[] particles) {
+        double[] state = new double[6 * particles.length];
+        for (int i = 0; i < particles.length; i++) {
+            Vector3D position = particles[i].getPosition();
+            Vector3D velocity = particles[i].getVelocity();
+            state[6 * i] = position.getX();
+            state[6 * i + 1] = position.getY();
+            state[6 * i + 2] = position.getZ();
+            state[6 * i + 3] = velocity.getX();
+            state[6 * i + 4] = velocity.getY();
+            state[6 * i + 5] = velocity.getZ();
+        }
+        return state;
+    }
+
+    /**
+     * Estrellas nuevas en state, con las aceleraciones calculadas con el integrador fino
+     */
+    private Particle[] toParticles(double[] state) {
+        Particle[] particles = new Particle[ids.length];
+        for (int i = 0; i < particles.length; i++) {
+            particles[i] = new Particle(ids[i], new Vector3D(state[6 * i], state[6 * i + 1], state[6 * i + 2]),
+                    new Vector3D(state[6 * i + 3], state[6 * i + 4], state[6 * i + 5]));
+        }
+        fine.calculateForcesBetweenParticles(particles, G, h);
+        for (Particle p : particles) {
+            p.updateAcceleration();
+            p.setOldAcceleration(p.getAcceleration());
+        }
+        return particles;
+    }
+
+    private void setState(Particle[] particles, double[] state) {
+        Particle[] computed = toParticles(state);
+        for (int i = 0; i < particles.length; i++) {
+            particles[i].setOldAcceleration(particles[i].getAcceleration());
+            particles[i].setPosition(computed[i].getPosition());
+            particles[i].setVelocity(computed[i].getVelocity());
+            particles[i].resetForce();
+            particles[i].addForce(computed[i].getForce());
+            particles[i].updateAcceleration();
+        }
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getSlices() {
+        return slices;
+    }
+}
@@ -0,0 +1,115 @@
+package com.simulation2.integrators;
+
+import com.simulation2.models.Particle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compara la deriva de energía de VelocityVerlet2 (todo double) contra MixedPrecisionVelocityVerlet
+ * integrando dos copias del mismo conjunto de partículas.
+ */
+public class PrecisionReport {
+    private static final Logger logger = LoggerFactory.getLogger(PrecisionReport.class);
+
+    private final double initialEnergy;
+    private final double doubleDrift;
+    private final double mixedDrift;
+    private final double positionDeviation;
+    private final double doubleSeconds;
+    private final double mixedSeconds;
+
+    private PrecisionReport(double initialEnergy, double doubleDrift, double mixedDrift,
+                            double positionDeviation, double doubleSeconds, double mixedSeconds) {
+        this.initialEnergy = initialEnergy;
+        this.doubleDrift = doubleDrift;
+        this.mixedDrift = mixedDrift;
+        this.positionDeviation = positionDeviation;
+        this.doubleSeconds = doubleSeconds;
+        this.mixedSeconds = mixedSeconds;
+    }
+
+    /**
+     * Integra las dos copias durante steps pasos y mide la máxima deriva relativa de energía de cada una
+     * y la desviación cuadrática media final de las posiciones entre ambas
+     * @param initial partículas con la aceleración inicial ya calculada (no se modifican)
+     */
+    public static PrecisionReport compare(Particle[] initial, double dt, int steps, double G, double h) {
+        Particle[] reference = Particle.copyAll(initial);
+        Particle[] mixed = Particle.copyAll(initial);
+        IIntegrator2 doubleIntegrator = new VelocityVerlet2();
+        IIntegrator2 mixedIntegrator = new MixedPrecisionVelocityVerlet();
+
+        double initialEnergy = totalEnergy(reference, G, h);
+        double doubleDrift = 0;
+        double mixedDrift = 0;
+        long doubleNanos = 0;
+        long mixedNanos = 0;
+
+        for (int i = 0; i < steps; i++) {
+            long start = System.nanoTime();
+            doubleIntegrator.step(reference, dt, G, h);
+            long middle = System.nanoTime();
+            mixedIntegrator.step(mixed, dt, G, h);
+            long end = System.nanoTime();
+            doubleNanos += middle - start;
+            mixedNanos += end - middle;
+
+            doubleDrift = Math.max(doubleDrift, Math.abs((totalEnergy(reference, G, h) - initialEnergy) / initialEnergy));
+            mixedDrift = Math.max(mixedDrift, Math.abs((totalEnergy(mixed, G, h) - initialEnergy) / initialEnergy));
+        }
+
+        double squaredDeviation = 0;
+        for (int i = 0; i < reference.length; i++) {
+            squaredDeviation += reference[i].getPosition().distanceSq(mixed[i].getPosition());
+        }
+        double positionDeviation = Math.sqrt(squaredDeviation / Math.max(1, reference.length));
+
+        PrecisionReport report = new PrecisionReport(initialEnergy, doubleDrift, mixedDrift,
+                positionDeviation, doubleNanos / 1e9, mixedNanos / 1e9);
+        logger.info(report.toString());
+        return report;
+    }
+
+    private static double totalEnergy(Particle[] particles, double G, double h) {
+        double energy = 0;
+        for (int i = 0; i < particles.length; i++) {
+            energy += particles[i].getKineticEnergy();
+            for (int j = i + 1; j < particles.length; j++) {
+                energy += particles[i].getPotentialEnergyWith(particles[j], G, h);
+            }
+        }
+        return energy;
+    }
+
+    /** ----------------- Getters ----------------- **/
+
+    public double getInitialEnergy() {
+        return initialEnergy;
+    }
+
+    public double getDoubleDrift() {
+        return doubleDrift;
+    }
+
+    public double getMixedDrift() {
+        return mixedDrift;
+    }
+
+    public double getPositionDeviation() {
+        return positionDeviation;
+    }
+
+    public double getDoubleSeconds() {
+        return doubleSeconds;
+    }
+
+    public double getMixedSeconds() {
+        return mixedSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PrecisionReport{E0=%.6e, doubleDrift=%.3e, mixedDrift=%.3e, positionDeviation=%.3e, doubleTime=%.3fs, mixedTime=%.3fs}",
+                initialEnergy, doubleDrift, mixedDrift, positionDeviation, doubleSeconds, mixedSeconds);
+    }
+}
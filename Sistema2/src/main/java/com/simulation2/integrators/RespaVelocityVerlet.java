@@ -0,0 +1,400 @@
+package com.simulation2.integrators;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import com.simulation2.models.Particle;
+
+/**
+ * Velocity Verlet con pasos múltiples (RESPA por impulsos): la gravedad de cada par se divide con
+ * una función de corte suave S(r) en una parte cercana S(r) F(r) y una lejana (1 - S(r)) F(r).
+ * S vale 1 hasta cutoff - switchWidth, 0 desde cutoff y en el medio es el polinomio de grado 5 con
+ * derivadas primera y segunda nulas en los extremos.
+ *
+ * Cada paso dt es: medio kick con la fuerza lejana, innerSteps pasos de Velocity Verlet de dt /
+ * innerSteps con sólo la fuerza cercana, y medio kick con la fuerza lejana recalculada. Como las dos
+ * partes son fuerzas centrales (conservativas) el esquema sigue siendo simétrico y simpléctico, y la
+ * suma de todos los pares (la parte cara) se hace una vez por paso externo en lugar de una por paso
+ * interno.
+ *
+ * La fuerza cercana usa una lista de vecinos con margen skin, que se reconstruye (con celdas de lado
+ * cutoff + skin) cuando alguna estrella se movió más de skin / 2 desde la última construcción.
+ *
+ * Después de cada paso las Particle quedan con la fuerza y aceleración totales, como con VelocityVerlet2.
+ * Las partes cercana y lejana del último paso se guardan por arreglo de estrellas, así el integrador
+ * se puede compartir entre simulaciones.
+ */
+public class RespaVelocityVerlet implements IIntegrator2 {
+    public static final double DEFAULT_CUTOFF = 0.5;
+    public static final double DEFAULT_SWITCH_WIDTH = 0.1;
+    public static final int DEFAULT_INNER_STEPS = 4;
+    public static final double DEFAULT_SKIN = 0.1;
+
+    private final double cutoff;
+    private final double switchStart;
+    private final double switchWidth;
+    private final int innerSteps;
+    private final double skin;
+    private final Map<Particle[], State> states = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public RespaVelocityVerlet() {
+        this(DEFAULT_CUTOFF, DEFAULT_SWITCH_WIDTH, DEFAULT_INNER_STEPS, DEFAULT_SKIN);
+    }
+
+    /**
+     * @param cutoff distancia a partir de la cual un par es sólo fuerza lejana
+     * @param switchWidth ancho de la transición suave antes de cutoff
+     * @param innerSteps pasos con la fuerza cercana por cada evaluación de la lejana
+     * @param skin margen de la lista de vecinos
+     */
+    public RespaVelocityVerlet(double cutoff, double switchWidth, int innerSteps, double skin) {
+        if (!(cutoff > 0) || !(switchWidth > 0) || switchWidth > cutoff) {
+            throw new IllegalArgumentException("Required 0 < switchWidth <= cutoff");
+        }
+        if (innerSteps < 1) {
+            throw new IllegalArgumentException("innerSteps must be positive");
+        }
+        this.cutoff = cutoff;
+        this.switchWidth = switchWidth;
+        this.switchStart = cutoff - switchWidth;
+        this.innerSteps = innerSteps;
+        this.skin = Math.max(0, skin);
+    }
+
+    /**
+     * Estado del integrador para un arreglo de estrellas: posiciones y velocidades en arreglos,
+     * aceleraciones cercana y lejana, y la lista de vecinos
+     */
+    private static final class State {
+        final int n;
+        final Particle[] particles;
+        final double[] x, y, z, vx, vy, vz, m;
+        final double[] nearX, nearY, nearZ, farX, farY, farZ;
+        final double[] builtX, builtY, builtZ; // posiciones al construir la lista de vecinos
+        int[] neighbourStart;
+        int[] neighbours;
+        long neighbourRebuilds;
+
+        State(Particle[] particles) {
+            this.n = particles.length;
+            this.particles = particles.clone();
+            x = new double[n]; y = new double[n]; z = new double[n];
+            vx = new double[n]; vy = new double[n]; vz = new double[n];
+            m = new double[n];
+            nearX = new double[n]; nearY = new double[n]; nearZ = new double[n];
+            farX = new double[n]; farY = new double[n]; farZ = new double[n];
+            builtX = new double[n]; builtY = new double[n]; builtZ = new double[n];
+        }
+
+        /**
+         * true si son las mismas estrellas, en el mismo orden y en las posiciones del último paso
+         * (si alguien las movió, las aceleraciones guardadas ya no sirven)
+         */
+        boolean matches(Particle[] current) {
+            if (current.length != n) {
+                return false;
+            }
+            for (int i = 0; i < n; i++) {
+                Vector3D position = current[i].getPosition();
+                if (current[i] != particles[i] || position.getX() != x[i] || position.getY() != y[i] || position.getZ() != z[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void load() {
+            for (int i = 0; i < n; i++) {
+                Particle p = particles[i];
+                Vector3D position = p.getPosition();
+                Vector3D velocity = p.getVelocity();
+                x[i] = position.getX();
+                y[i] = position.getY();
+                z[i] = position.getZ();
+                vx[i] = velocity.getX();
+                vy[i] = velocity.getY();
+                vz[i] = velocity.getZ();
+                m[i] = p.getMass();
+            }
+        }
+    }
+
+    /** ----------------- IIntegrator2 ----------------- **/
+
+    @Override
+    public void step(Particle[] particles, double dt, double G, double h) {
+        State state = prepare(particles, G, h);
+        state.load(); // las velocidades pueden haber cambiado por fuera (por ejemplo GalaxyInteraction)
+        int n = state.n;
+        double[] x = state.x, y = state.y, z = state.z, vx = state.vx, vy = state.vy, vz = state.vz;
+
+        kick(state.vx, state.vy, state.vz, state.farX, state.farY, state.farZ, dt / 2, n);
+        double inner = dt / innerSteps;
+        for (int s = 0; s < innerSteps; s++) {
+            kick(vx, vy, vz, state.nearX, state.nearY, state.nearZ, inner / 2, n);
+            for (int i = 0; i < n; i++) {
+                x[i] += vx[i] * inner;
+                y[i] += vy[i] * inner;
+                z[i] += vz[i] * inner;
+            }
+            updateNeighbours(state);
+            nearAccelerations(state, G, h);
+            kick(vx, vy, vz, state.nearX, state.nearY, state.nearZ, inner / 2, n);
+        }
+        farAccelerations(state, G, h);
+        kick(vx, vy, vz, state.farX, state.farY, state.farZ, dt / 2, n);
+
+        store(state);
+    }
+
+    /**
+     * Fuerza total (cercana + lejana) sobre cada estrella; también deja preparadas las dos partes
+     * para el próximo step
+     */
+    @Override
+    public void calculateForcesBetweenParticles(Particle[] particles, double G, double h) {
+        State state = new State(particles);
+        state.load();
+        rebuildNeighbours(state);
+        nearAccelerations(state, G, h);
+        farAccelerations(state, G, h);
+        for (int i = 0; i < state.n; i++) {
+            Particle p = particles[i];
+            p.resetForce();
+            p.addForce(totalAcceleration(state, i).scalarMultiply(state.m[i]));
+        }
+        states.put(particles, state);
+    }
+
+    /**
+     * Estado guardado para particles, o uno nuevo si las estrellas cambiaron desde el último paso
+     */
+    private State prepare(Particle[] particles, double G, double h) {
+        State state = states.get(particles);
+        if (state == null || !state.matches(particles)) {
+            state = new State(particles);
+            state.load();
+            rebuildNeighbours(state);
+            nearAccelerations(state, G, h);
+            farAccelerations(state, G, h);
+            states.put(particles, state);
+        }
+        return state;
+    }
+
+    private static void kick(double[] vx, double[] vy, double[] vz, double[] ax, double[] ay, double[] az, double dt, int n) {
+        for (int i = 0; i < n; i++) {
+            vx[i] += ax[i] * dt;
+            vy[i] += ay[i] * dt;
+            vz[i] += az[i] * dt;
+        }
+    }
+
+    private static Vector3D totalAcceleration(State state, int i) {
+        return new Vector3D(state.nearX[i] + state.farX[i], state.nearY[i] + state.farY[i], state.nearZ[i] + state.farZ[i]);
+    }
+
+    private static void store(State state) {
+        for (int i = 0; i < state.n; i++) {
+            Particle p = state.particles[i];
+            p.setOldAcceleration(p.getAcceleration());
+            p.setPosition(new Vector3D(state.x[i], state.y[i], state.z[i]));
+            p.setVelocity(new Vector3D(state.vx[i], state.vy[i], state.vz[i]));
+            p.resetForce();
+            p.addForce(totalAcceleration(state, i).scalarMultiply(state.m[i]));
+            p.updateAcceleration();
+        }
+    }
+
+    /** ----------------- Fuerzas ----------------- **/
+
+    /**
+     * S(r): 1 hasta switchStart, 0 desde cutoff
+     */
+    double switchFunction(double r) {
+        if (r <= switchStart) {
+            return 1;
+        }
+        if (r >= cutoff) {
+            return 0;
+        }
+        double t = (r - switchStart) / switchWidth;
+        return 1 - t * t * t * (10 - 15 * t + 6 * t * t);
+    }
+
+    /**
+     * Parte cercana, sólo sobre los pares de la lista de vecinos
+     */
+    private void nearAccelerations(State state, double G, double h) {
+        int n = state.n;
+        double[] x = state.x, y = state.y, z = state.z, m = state.m;
+        double[] ax = state.nearX, ay = state.nearY, az = state.nearZ;
+        Arrays.fill(ax, 0);
+        Arrays.fill(ay, 0);
+        Arrays.fill(az, 0);
+        double h2 = h * h;
+        double cutoff2 = cutoff * cutoff;
+        for (int i = 0; i < n; i++) {
+            for (int k = state.neighbourStart[i]; k < state.neighbourStart[i + 1]; k++) {
+                int j = state.neighbours[k];
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                double dz = z[j] - z[i];
+                double d2 = dx * dx + dy * dy + dz * dz;
+                if (d2 >= cutoff2) {
+                    continue;
+                }
+                double r2 = d2 + h2;
+                double magnitude = G * switchFunction(Math.sqrt(d2)) / (r2 * Math.sqrt(r2));
+                ax[i] += dx * magnitude * m[j];
+                ay[i] += dy * magnitude * m[j];
+                az[i] += dz * magnitude * m[j];
+                ax[j] -= dx * magnitude * m[i];
+                ay[j] -= dy * magnitude * m[i];
+                az[j] -= dz * magnitude * m[i];
+            }
+        }
+    }
+
+    /**
+     * Parte lejana, sobre todos los pares
+     */
+    private void farAccelerations(State state, double G, double h) {
+        int n = state.n;
+        double[] x = state.x, y = state.y, z = state.z, m = state.m;
+        double[] ax = state.farX, ay = state.farY, az = state.farZ;
+        Arrays.fill(ax, 0);
+        Arrays.fill(ay, 0);
+        Arrays.fill(az, 0);
+        double h2 = h * h;
+        double switchStart2 = switchStart * switchStart;
+        for (int i = 0; i < n; i++) {
+            double xi = x[i], yi = y[i], zi = z[i];
+            double axi = 0, ayi = 0, azi = 0;
+            for (int j = i + 1; j < n; j++) {
+                double dx = x[j] - xi;
+                double dy = y[j] - yi;
+                double dz = z[j] - zi;
+                double d2 = dx * dx + dy * dy + dz * dz;
+                if (d2 <= switchStart2) {
+                    continue;
+                }
+                double r2 = d2 + h2;
+                double magnitude = G * (1 - switchFunction(Math.sqrt(d2))) / (r2 * Math.sqrt(r2));
+                axi += dx * magnitude * m[j];
+                ayi += dy * magnitude * m[j];
+                azi += dz * magnitude * m[j];
+                ax[j] -= dx * magnitude * m[i];
+                ay[j] -= dy * magnitude * m[i];
+                az[j] -= dz * magnitude * m[i];
+            }
+            ax[i] += axi;
+            ay[i] += ayi;
+            az[i] += azi;
+        }
+    }
+
+    /** ----------------- Lista de vecinos ----------------- **/
+
+    private void updateNeighbours(State state) {
+        double limit2 = skin * skin / 4;
+        for (int i = 0; i < state.n; i++) {
+            double dx = state.x[i] - state.builtX[i];
+            double dy = state.y[i] - state.builtY[i];
+            double dz = state.z[i] - state.builtZ[i];
+            if (dx * dx + dy * dy + dz * dz > limit2) {
+                rebuildNeighbours(state);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Pares (i, j) con i < j a menos de cutoff + skin, buscados en celdas de ese lado
+     */
+    private void rebuildNeighbours(State state) {
+        int n = state.n;
+        double range = cutoff + skin;
+        double range2 = range * range;
+        // cada celda es un int[] con la cantidad de estrellas en [0] y sus índices a continuación
+        Map<Long, int[]> cells = new HashMap<>();
+        long[] cx = new long[n];
+        long[] cy = new long[n];
+        long[] cz = new long[n];
+        for (int i = 0; i < n; i++) {
+            cx[i] = (long) Math.floor(state.x[i] / range);
+            cy[i] = (long) Math.floor(state.y[i] / range);
+            cz[i] = (long) Math.floor(state.z[i] / range);
+            long key = cellKey(cx[i], cy[i], cz[i]);
+            int[] cell = cells.get(key);
+            if (cell == null || cell[0] + 1 == cell.length) {
+                cell = cell == null ? new int[4] : Arrays.copyOf(cell, cell.length * 2);
+                cells.put(key, cell);
+            }
+            cell[++cell[0]] = i;
+        }
+
+        int[] start = new int[n + 1];
+        int[] list = new int[Math.max(16, 8 * n)];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            start[i] = size;
+            for (long ox = -1; ox <= 1; ox++) {
+                for (long oy = -1; oy <= 1; oy++) {
+                    for (long oz = -1; oz <= 1; oz++) {
+                        int[] cell = cells.get(cellKey(cx[i] + ox, cy[i] + oy, cz[i] + oz));
+                        if (cell == null) {
+                            continue;
+                        }
+                        for (int c = 1; c <= cell[0]; c++) {
+                            int j = cell[c];
+                            if (j <= i) {
+                                continue;
+                            }
+                            double dx = state.x[j] - state.x[i];
+                            double dy = state.y[j] - state.y[i];
+                            double dz = state.z[j] - state.z[i];
+                            if (dx * dx + dy * dy + dz * dz < range2) {
+                                if (size == list.length) {
+                                    list = Arrays.copyOf(list, list.length * 2);
+                                }
+                                list[size++] = j;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        start[n] = size;
+        state.neighbourStart = start;
+        state.neighbours = list;
+        System.arraycopy(state.x, 0, state.builtX, 0, n);
+        System.arraycopy(state.y, 0, state.builtY, 0, n);
+        System.arraycopy(state.z, 0, state.builtZ, 0, n);
+        state.neighbourRebuilds++;
+    }
+
+    private static long cellKey(long cx, long cy, long cz) {
+        // 21 bits por coordenada alcanzan para cualquier galaxia de la simulación
+        return ((cx & 0x1FFFFF) << 42) | ((cy & 0x1FFFFF) << 21) | (cz & 0x1FFFFF);
+    }
+
+    /** ----------------- Getters ----------------- **/
+
+    public int getInnerSteps() {
+        return innerSteps;
+    }
+
+    /**
+     * Veces que se reconstruyó la lista de vecinos de particles
+     */
+    public long getNeighbourRebuilds(Particle[] particles) {
+        State state = states.get(particles);
+        return state == null ? 0 : state.neighbourRebuilds;
+    }
+}
@@ -1,5 +1,7 @@
 package com.simulation2.integrators;
 
+import com.simulation2.metrics.Phase;
+import com.simulation2.metrics.SimulationMetrics;
 import com.simulation2.models.Particle;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
@@ -8,6 +10,30 @@ import java.util.List;
 public class VelocityVerlet2 implements IIntegrator2{
     @Override
     public void step(Particle[] particles, double dt, double G, double h) {
+        drift(particles, dt);
+
+        // 3. recalculo las fuerzas entre las partículas
+        calculateForcesBetweenParticles(particles, G, h);
+
+        kick(particles, dt);
+    }
+
+    @Override
+    public void step(Particle[] particles, double dt, double G, double h, SimulationMetrics metrics) {
+        long start = System.nanoTime();
+        drift(particles, dt);
+        long drifted = System.nanoTime();
+        calculateForcesBetweenParticles(particles, G, h);
+        long forces = System.nanoTime();
+        kick(particles, dt);
+        long end = System.nanoTime();
+
+        metrics.addPhaseTime(Phase.DRIFT, drifted - start);
+        metrics.addPhaseTime(Phase.FORCE, forces - drifted);
+        metrics.addPhaseTime(Phase.KICK, end - forces);
+    }
+
+    private void drift(Particle[] particles, double dt) {
         for(Particle particle: particles){
             // 1. backupeo la aceleración actual, se va a usar en el cálculo de la velocidad
             particle.setOldAcceleration(particle.getAcceleration());
@@ -18,10 +44,9 @@ public class VelocityVerlet2 implements IIntegrator2{
                     .add(particle.getAcceleration().scalarMultiply(Math.pow(dt, 2)/2.0)); // + a(t) * ∆t^2 * 1/2
             particle.setPosition(newPosition);
         }
+    }
 
-        // 3. recalculo las fuerzas entre las partículas
-        calculateForcesBetweenParticles(particles, G, h);
-
+    private void kick(Particle[] particles, double dt) {
         // 4. con la nueva fuerza calculada, actualizo las aceleraciones (tengo backupeada la anterior) y las velocidades
         for(Particle particle: particles){
             particle.updateAcceleration(); // a(t+∆t)
@@ -0,0 +1,22 @@
+package com.simulation2.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JFR por cada estado escrito a disco
+ */
+@Name("com.simulation2.Frame")
+@Label("Simulation Output Frame")
+@Category("Simulation2")
+@StackTrace(false)
+public class FrameEvent extends Event {
+    @Label("Simulation Time")
+    double simulationTime;
+
+    @Label("Stars")
+    int stars;
+}
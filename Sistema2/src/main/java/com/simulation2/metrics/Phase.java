@@ -0,0 +1,11 @@
+package com.simulation2.metrics;
+
+/**
+ * Fases de un paso de Simulation2 que se miden por separado
+ */
+public enum Phase {
+    DRIFT,  // actualización de posiciones
+    FORCE,  // cálculo de fuerzas de a pares
+    KICK,   // actualización de aceleraciones y velocidades
+    OUTPUT  // escritura de estados
+}
@@ -0,0 +1,250 @@
+package com.simulation2.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Métricas de una corrida de Simulation2: tiempo por fase, pasos/s, interacciones de pares/s e
+ * histograma de duración de los pasos. Se exponen por JMX, se resumen periódicamente en el log y
+ * cada paso/estado escrito genera un evento de JFR.
+ *
+ * Sólo existe si se habilita (Simulation2.enableMetrics o -Dsimulation2.metrics=true); deshabilitada,
+ * la simulación no llama a System.nanoTime ni crea eventos.
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+    private static final Logger logger = LoggerFactory.getLogger(SimulationMetrics.class);
+    public static final String ENABLED_PROPERTY = "simulation2.metrics";
+    private static final int HISTOGRAM_BUCKETS = 64;
+
+    private final String name;
+    private final long summaryIntervalNanos;
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray stepHistogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+    private final AtomicLong steps = new AtomicLong();
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong pairInteractions = new AtomicLong();
+    private final AtomicLong stepNanos = new AtomicLong();
+
+    private volatile long startNanos = System.nanoTime();
+    private long lastSummaryNanos = startNanos;
+    private ObjectName objectName;
+
+    /**
+     * @param name nombre de la corrida (se usa en el ObjectName de JMX y en el log)
+     * @param summaryIntervalSeconds cada cuánto se escribe una línea de resumen en el log (0 = nunca)
+     */
+    public SimulationMetrics(String name, double summaryIntervalSeconds) {
+        this.name = name;
+        this.summaryIntervalNanos = (long) (summaryIntervalSeconds * 1e9);
+    }
+
+    public static boolean enabledByProperty() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /** ----------------- Ciclo de vida ----------------- **/
+
+    /**
+     * Reinicia los contadores y registra el MBean. Si otra corrida con el mismo nombre sigue
+     * registrada, el ObjectName lleva además instance=2, 3, ...
+     */
+    public void start() {
+        reset();
+        if (objectName != null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (int instance = 1; objectName == null; instance++) {
+                ObjectName candidate = new ObjectName("com.simulation2:type=SimulationMetrics,name="
+                        + ObjectName.quote(name) + (instance > 1 ? ",instance=" + instance : ""));
+                try {
+                    server.registerMBean(this, candidate);
+                    objectName = candidate;
+                } catch (InstanceAlreadyExistsException e) {
+                    // lo registró otra corrida: se prueba con la instancia siguiente
+                }
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register metrics MBean: " + e.getMessage());
+            objectName = null;
+        }
+    }
+
+    /**
+     * Escribe el resumen final y quita el MBean que registró esta corrida
+     */
+    public void stop() {
+        logger.info(summary());
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                logger.warn("Could not unregister metrics MBean: " + e.getMessage());
+            }
+            objectName = null;
+        }
+    }
+
+    ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /** ----------------- Registro ----------------- **/
+
+    public void addPhaseTime(Phase phase, long nanos) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    public StepEvent beginStep() {
+        StepEvent event = new StepEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Cierra el paso iniciado en startNanos con beginStep
+     */
+    public void endStep(StepEvent event, long step, double simulationTime, long startNanos, long pairs) {
+        long nanos = System.nanoTime() - startNanos;
+        steps.incrementAndGet();
+        stepNanos.addAndGet(nanos);
+        pairInteractions.addAndGet(pairs);
+        stepHistogram.incrementAndGet(bucketFor(nanos));
+
+        if (event.shouldCommit()) {
+            event.step = step;
+            event.simulationTime = simulationTime;
+            event.pairInteractions = pairs;
+            event.commit();
+        }
+        maybeLogSummary();
+    }
+
+    public FrameEvent beginFrame() {
+        FrameEvent event = new FrameEvent();
+        event.begin();
+        return event;
+    }
+
+    public void endFrame(FrameEvent event, double simulationTime, int stars, long startNanos) {
+        addPhaseTime(Phase.OUTPUT, System.nanoTime() - startNanos);
+        frames.incrementAndGet();
+        if (event.shouldCommit()) {
+            event.simulationTime = simulationTime;
+            event.stars = stars;
+            event.commit();
+        }
+    }
+
+    static int bucketFor(long nanos) {
+        return nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private void maybeLogSummary() {
+        if (summaryIntervalNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - lastSummaryNanos >= summaryIntervalNanos) {
+            lastSummaryNanos = now;
+            logger.info(summary());
+        }
+    }
+
+    public String summary() {
+        return String.format("[%s] steps=%d (%.1f/s), pairs/s=%.3e, mean step=%.1fus, drift=%.2fs, force=%.2fs, kick=%.2fs, output=%.2fs (%d frames)",
+                name, getSteps(), getStepsPerSecond(), getPairInteractionsPerSecond(), getMeanStepMicros(),
+                getDriftSeconds(), getForceSeconds(), getKickSeconds(), getOutputSeconds(), getFrames());
+    }
+
+    /** ----------------- MBean ----------------- **/
+
+    @Override
+    public long getSteps() {
+        return steps.get();
+    }
+
+    @Override
+    public long getFrames() {
+        return frames.get();
+    }
+
+    @Override
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    @Override
+    public double getStepsPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? steps.get() / elapsed : 0;
+    }
+
+    @Override
+    public double getPairInteractionsPerSecond() {
+        double stepSeconds = stepNanos.get() / 1e9;
+        return stepSeconds > 0 ? pairInteractions.get() / stepSeconds : 0;
+    }
+
+    @Override
+    public double getMeanStepMicros() {
+        long count = steps.get();
+        return count > 0 ? stepNanos.get() / 1e3 / count : 0;
+    }
+
+    @Override
+    public double getDriftSeconds() {
+        return phaseNanos.get(Phase.DRIFT.ordinal()) / 1e9;
+    }
+
+    @Override
+    public double getForceSeconds() {
+        return phaseNanos.get(Phase.FORCE.ordinal()) / 1e9;
+    }
+
+    @Override
+    public double getKickSeconds() {
+        return phaseNanos.get(Phase.KICK.ordinal()) / 1e9;
+    }
+
+    @Override
+    public double getOutputSeconds() {
+        return phaseNanos.get(Phase.OUTPUT.ordinal()) / 1e9;
+    }
+
+    @Override
+    public long[] getStepTimeHistogram() {
+        long[] histogram = new long[HISTOGRAM_BUCKETS];
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            histogram[i] = stepHistogram.get(i);
+        }
+        return histogram;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < phaseNanos.length(); i++) {
+            phaseNanos.set(i, 0);
+        }
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            stepHistogram.set(i, 0);
+        }
+        steps.set(0);
+        frames.set(0);
+        pairInteractions.set(0);
+        stepNanos.set(0);
+        startNanos = System.nanoTime();
+        lastSummaryNanos = startNanos;
+    }
+}
@@ -0,0 +1,33 @@
+package com.simulation2.metrics;
+
+/**
+ * Atributos de SimulationMetrics expuestos por JMX (jconsole, VisualVM, etc.)
+ */
+public interface SimulationMetricsMBean {
+    long getSteps();
+
+    long getFrames();
+
+    double getElapsedSeconds();
+
+    double getStepsPerSecond();
+
+    double getPairInteractionsPerSecond();
+
+    double getMeanStepMicros();
+
+    double getDriftSeconds();
+
+    double getForceSeconds();
+
+    double getKickSeconds();
+
+    double getOutputSeconds();
+
+    /**
+     * Histograma de la duración de los pasos: el bucket i cuenta los pasos que tardaron entre 2^i y 2^(i+1) ns
+     */
+    long[] getStepTimeHistogram();
+
+    void reset();
+}
@@ -0,0 +1,25 @@
+package com.simulation2.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JFR por paso de integración (deshabilitado por defecto en los perfiles de JFR)
+ */
+@Name("com.simulation2.Step")
+@Label("Simulation Step")
+@Category("Simulation2")
+@StackTrace(false)
+public class StepEvent extends Event {
+    @Label("Step")
+    long step;
+
+    @Label("Simulation Time")
+    double simulationTime;
+
+    @Label("Pair Interactions")
+    long pairInteractions;
+}
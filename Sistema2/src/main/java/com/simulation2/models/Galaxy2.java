@@ -1,10 +1,13 @@
 package com.simulation2.models;
 
 import com.simulation2.integrators.IIntegrator;
+import com.simulation2.utils.FastTextWriter;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
@@ -14,7 +17,10 @@ public class Galaxy2 {
     private final String name;
     private int numberOfStars;
     private Vector3D centerPosition; // cambia cuando se mueve la galaxia
+    private Vector3D centerVelocity = Vector3D.ZERO; // la última calculada, por si se van todas las estrellas
     private Particle[] stars;
+    private final List<Particle> escapers = new ArrayList<>(); // estrellas sacadas del cálculo de fuerzas
+    private TracerSet tracers = new TracerSet(); // partículas sin masa, fuera del loop de pares
 
     private final double initialVelocity = 0.1; // velocidad inicial de las estrellas
     private final Random random = new Random();
@@ -51,8 +57,30 @@ public class Galaxy2 {
         return stars;
     }
 
+    /**
+     * Estrellas no ligadas que ya no participan del cálculo de fuerzas (ver removeEscapers)
+     */
+    public List<Particle> getEscapers() {
+        return escapers;
+    }
+
+    public TracerSet getTracers() {
+        return tracers;
+    }
+
     /** ----------------- Setters ----------------- **/
 
+    public void setTracers(TracerSet tracers) {
+        this.tracers = tracers;
+    }
+
+    /**
+     * Reemplaza las trazadoras por count partículas sin masa con la misma distribución inicial que las estrellas
+     */
+    public void initializeTracers(int count) {
+        this.tracers = TracerSet.sample(count, centerPosition, initialVelocity, random);
+    }
+
     public void setNumberOfStars(int numberOfStars) {
         this.numberOfStars = numberOfStars;
         initializeStars();
@@ -60,25 +88,141 @@ public class Galaxy2 {
 
     /** ----------------- Proper Methods ----------------- **/
 
+    /**
+     * Recalcula el centro de masa; si no quedan estrellas ligadas se mantiene el último
+     */
     public void calculateNewCenterPosition() {
+        if (stars.length == 0) {
+            return;
+        }
         Vector3D sumPositions = Vector3D.ZERO;
         for (Particle star : stars) {
             sumPositions = sumPositions.add(star.getPosition());
         }
-        this.centerPosition = sumPositions.scalarMultiply(1.0 / numberOfStars);
+        this.centerPosition = sumPositions.scalarMultiply(1.0 / stars.length);
     }
 
     /**
      * Calcula la velocidad del centro de masa de la galaxia
      * v_cm = (Σ m_i * v_i) / (Σ m_i)
      * Como todas las masas son unitarias: v_cm = (Σ v_i) / N
+     * Si no quedan estrellas ligadas retorna la última calculada.
      */
     public Vector3D getCenterVelocity() {
+        if (stars.length == 0) {
+            return centerVelocity;
+        }
         Vector3D sumVelocities = Vector3D.ZERO;
         for (Particle star : stars) {
             sumVelocities = sumVelocities.add(star.getVelocity());
         }
-        return sumVelocities.scalarMultiply(1.0 / numberOfStars);
+        centerVelocity = sumVelocities.scalarMultiply(1.0 / stars.length);
+        return centerVelocity;
+    }
+
+    /**
+     * Energía cinética total de las estrellas
+     */
+    public double getKineticEnergy() {
+        double kinetic = 0;
+        for (Particle star : stars) {
+            kinetic += star.getKineticEnergy();
+        }
+        return kinetic;
+    }
+
+    /**
+     * Energía potencial suavizada de todos los pares de estrellas
+     */
+    public double getPotentialEnergy(double G, double h) {
+        double potential = 0;
+        for (int i = 0; i < stars.length; i++) {
+            for (int j = i + 1; j < stars.length; j++) {
+                potential += stars[i].getPotentialEnergyWith(stars[j], G, h);
+            }
+        }
+        return potential;
+    }
+
+    public double getTotalEnergy(double G, double h) {
+        return getKineticEnergy() + getPotentialEnergy(G, h);
+    }
+
+    /**
+     * Masa total de las estrellas ligadas
+     */
+    public double getMass() {
+        double mass = 0;
+        for (Particle star : stars) {
+            mass += star.getMass();
+        }
+        return mass;
+    }
+
+    /** ----------------- Escapers ----------------- **/
+
+    /**
+     * Saca del arreglo de estrellas (y por lo tanto del cálculo de fuerzas entre pares) a las que
+     * están a más de radius del centro de masa y no están ligadas: energía positiva respecto de una
+     * masa puntual con el resto de la galaxia en el centro, con la velocidad relativa al centro de masa.
+     * Pasan a la lista de escapers, que se mueve con advanceEscapers.
+     * @return cantidad de estrellas que se sacaron
+     */
+    public int removeEscapers(double radius, double G, double h) {
+        calculateNewCenterPosition();
+        Vector3D centerVelocity = getCenterVelocity();
+        double mass = getMass();
+        List<Particle> bound = new ArrayList<>(stars.length);
+        int removed = 0;
+        for (Particle star : stars) {
+            Vector3D offset = star.getPosition().subtract(centerPosition);
+            double distance = offset.getNorm();
+            if (distance > radius) {
+                double speed2 = star.getVelocity().subtract(centerVelocity).getNormSq();
+                double energy = 0.5 * speed2 - G * (mass - star.getMass()) / Math.sqrt(distance * distance + h * h);
+                if (energy > 0) {
+                    escapers.add(star);
+                    removed++;
+                    continue;
+                }
+            }
+            bound.add(star);
+        }
+        if (removed > 0) {
+            stars = bound.toArray(new Particle[0]);
+            numberOfStars = stars.length;
+            calculateNewCenterPosition();
+            logger.debug(String.format("%s: %d escapers removed, %d bound stars left", name, removed, stars.length));
+        }
+        return removed;
+    }
+
+    /**
+     * Avanza los escapers un paso dt (kick-drift-kick) en el campo de una masa puntual con la masa
+     * de la galaxia en su centro de masa. Se llama después de avanzar las estrellas ligadas, así el
+     * primer kick usa el centro anterior y el segundo el nuevo. Es O(escapers) por paso.
+     */
+    public void advanceEscapers(double dt, double G, double h) {
+        if (escapers.isEmpty()) {
+            return;
+        }
+        Vector3D previousCenter = centerPosition;
+        calculateNewCenterPosition();
+        double mass = getMass();
+        for (Particle star : escapers) {
+            Vector3D velocity = star.getVelocity()
+                    .add(dt / 2, pointMassAcceleration(star.getPosition(), previousCenter, mass, G, h));
+            Vector3D position = star.getPosition().add(dt, velocity);
+            velocity = velocity.add(dt / 2, pointMassAcceleration(position, centerPosition, mass, G, h));
+            star.setPosition(position);
+            star.setVelocity(velocity);
+        }
+    }
+
+    private static Vector3D pointMassAcceleration(Vector3D position, Vector3D center, double mass, double G, double h) {
+        Vector3D offset = center.subtract(position);
+        double r2 = offset.getNormSq() + h * h;
+        return offset.scalarMultiply(G * mass / (r2 * Math.sqrt(r2)));
     }
 
     /**
@@ -172,6 +316,7 @@ public class Galaxy2 {
             Vector3D newPosition = star.getPosition().add(displacement);
             star.setPosition(newPosition);
         }
+        tracers.translate(displacement, Vector3D.ZERO);
     }
 
 
@@ -185,6 +330,7 @@ public class Galaxy2 {
             Vector3D newVelocity = star.getVelocity().add(galaxyVelocity);
             star.setVelocity(newVelocity);
         }
+        tracers.translate(Vector3D.ZERO, galaxyVelocity);
     }
 
     /** ----------------- Aux Methods ----------------- **/
@@ -201,6 +347,16 @@ public class Galaxy2 {
                 name, centerPosition.getX(), centerPosition.getY(), centerPosition.getZ());
     }
 
+    /**
+     * Escribe la misma línea que toFileGalaxyHeader (sin el salto de línea) sin pasar por String.format
+     */
+    public void writeFileGalaxyHeader(FastTextWriter out) throws IOException {
+        out.append(name)
+                .append(';').appendScientific(centerPosition.getX(), 5)
+                .append(';').appendScientific(centerPosition.getY(), 5)
+                .append(';').appendScientific(centerPosition.getZ(), 5);
+    }
+
     public String[] toFileGalaxyStars(){
         String[] starLines = new String[numberOfStars];
         for (int i = 0; i < numberOfStars; i++) {
@@ -1,6 +1,10 @@
 package com.simulation2.models;
+import java.io.IOException;
+
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
+import com.simulation2.utils.FastTextWriter;
+
 public class Particle {
     private Vector3D position;
     private Vector3D velocity;
@@ -65,6 +69,38 @@ public class Particle {
 
         return r12.scalarMultiply(forceMag);
     }
+
+    /**
+     * Energía potencial suavizada del par: -G m1 m2 / sqrt(r12^2 + h^2)
+     */
+    public double getPotentialEnergyWith(Particle other, double G, double h){
+        double r12_soft = position.distanceSq(other.getPosition()) + h * h;
+        return - G * mass * other.getMass() / Math.sqrt(r12_soft);
+    }
+
+    /**
+     * Copia completa del estado de la partícula (mismo id)
+     */
+    public Particle copy() {
+        Particle copy = new Particle(id, position, velocity);
+        copy.acceleration = acceleration;
+        copy.force = force;
+        copy.oldPosition = oldPosition;
+        copy.oldVelocity = oldVelocity;
+        copy.oldAcceleration = oldAcceleration;
+        return copy;
+    }
+
+    /**
+     * Copia completa de cada partícula del arreglo, en el mismo orden
+     */
+    public static Particle[] copyAll(Particle[] particles) {
+        Particle[] copies = new Particle[particles.length];
+        for (int i = 0; i < particles.length; i++) {
+            copies[i] = particles[i].copy();
+        }
+        return copies;
+    }
     
 
     // Getters
@@ -149,4 +185,20 @@ public class Particle {
                 velocity.getX(), velocity.getY(), velocity.getZ(),
                 force.getX(), force.getY(), force.getZ());
     }
+
+    /**
+     * Escribe la misma línea que toFileString (sin el salto de línea) sin pasar por String.format
+     */
+    public void writeFileString(FastTextWriter out) throws IOException {
+        out.append(id);
+        appendComponents(out, position);
+        appendComponents(out, velocity);
+        appendComponents(out, force);
+    }
+
+    private static void appendComponents(FastTextWriter out, Vector3D v) throws IOException {
+        out.append(';').appendScientific(v.getX(), 15)
+                .append(';').appendScientific(v.getY(), 15)
+                .append(';').appendScientific(v.getZ(), 15);
+    }
 }
\ No newline at end of file
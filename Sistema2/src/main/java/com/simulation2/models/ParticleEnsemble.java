@@ -0,0 +1,149 @@
+package com.simulation2.models;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+/**
+ * Conjunto de M sistemas pequeños e independientes (todos con la misma cantidad de partículas n)
+ * empaquetados en arreglos planos (SoA).
+ *
+ * La partícula i del sistema s vive en el índice i * M + s, de modo que para un par (i, j) fijo
+ * los M sistemas quedan contiguos en memoria y el kernel puede recorrerlos en un único loop vectorizable.
+ */
+public class ParticleEnsemble {
+    private final int numSystems;
+    private final int particlesPerSystem;
+
+    private final int[] ids;
+    private final double[] mass;
+    private final double[] x, y, z;
+    private final double[] vx, vy, vz;
+    private final double[] ax, ay, az;
+    private final double[] fx, fy, fz;
+
+    /**
+     * Empaqueta los sistemas recibidos copiando su estado (posición, velocidad y aceleración)
+     * @param systems arreglo de sistemas, todos con la misma cantidad de partículas
+     */
+    public ParticleEnsemble(Particle[][] systems) {
+        if (systems.length == 0) {
+            throw new IllegalArgumentException("The ensemble needs at least one system");
+        }
+        this.numSystems = systems.length;
+        this.particlesPerSystem = systems[0].length;
+
+        int size = numSystems * particlesPerSystem;
+        ids = new int[size];
+        mass = new double[size];
+        x = new double[size];
+        y = new double[size];
+        z = new double[size];
+        vx = new double[size];
+        vy = new double[size];
+        vz = new double[size];
+        ax = new double[size];
+        ay = new double[size];
+        az = new double[size];
+        fx = new double[size];
+        fy = new double[size];
+        fz = new double[size];
+
+        for (int s = 0; s < numSystems; s++) {
+            if (systems[s].length != particlesPerSystem) {
+                throw new IllegalArgumentException("All systems must have " + particlesPerSystem
+                        + " particles, system " + s + " has " + systems[s].length);
+            }
+            for (int i = 0; i < particlesPerSystem; i++) {
+                Particle p = systems[s][i];
+                int k = index(s, i);
+                ids[k] = p.getId();
+                mass[k] = p.getMass();
+                x[k] = p.getPosition().getX();
+                y[k] = p.getPosition().getY();
+                z[k] = p.getPosition().getZ();
+                vx[k] = p.getVelocity().getX();
+                vy[k] = p.getVelocity().getY();
+                vz[k] = p.getVelocity().getZ();
+                ax[k] = p.getAcceleration().getX();
+                ay[k] = p.getAcceleration().getY();
+                az[k] = p.getAcceleration().getZ();
+            }
+        }
+    }
+
+    /** ----------------- Getters ----------------- **/
+
+    public int getNumSystems() {
+        return numSystems;
+    }
+
+    public int getParticlesPerSystem() {
+        return particlesPerSystem;
+    }
+
+    /**
+     * Índice plano de la partícula i del sistema s
+     */
+    public int index(int system, int particle) {
+        return particle * numSystems + system;
+    }
+
+    public double[] getMass() { return mass; }
+    public double[] getX() { return x; }
+    public double[] getY() { return y; }
+    public double[] getZ() { return z; }
+    public double[] getVx() { return vx; }
+    public double[] getVy() { return vy; }
+    public double[] getVz() { return vz; }
+    public double[] getAx() { return ax; }
+    public double[] getAy() { return ay; }
+    public double[] getAz() { return az; }
+    public double[] getFx() { return fx; }
+    public double[] getFy() { return fy; }
+    public double[] getFz() { return fz; }
+
+    /** ----------------- Proper Methods ----------------- **/
+
+    /**
+     * Vuelca el estado del sistema s sobre las partículas recibidas (en el mismo orden en que se empaquetaron)
+     */
+    public void copyToParticles(int system, Particle[] target) {
+        for (int i = 0; i < particlesPerSystem; i++) {
+            int k = index(system, i);
+            Particle p = target[i];
+            p.setPosition(new Vector3D(x[k], y[k], z[k]));
+            p.setVelocity(new Vector3D(vx[k], vy[k], vz[k]));
+            p.setAcceleration(new Vector3D(ax[k], ay[k], az[k]));
+        }
+    }
+
+    public double getKineticEnergy(int system) {
+        double energy = 0;
+        for (int i = 0; i < particlesPerSystem; i++) {
+            int k = index(system, i);
+            energy += 0.5 * mass[k] * (vx[k] * vx[k] + vy[k] * vy[k] + vz[k] * vz[k]);
+        }
+        return energy;
+    }
+
+    /**
+     * Energía potencial suavizada del sistema s: Σ_{i<j} -G m_i m_j / sqrt(r_ij^2 + h^2)
+     */
+    public double getPotentialEnergy(int system, double G, double h) {
+        double energy = 0;
+        for (int i = 0; i < particlesPerSystem; i++) {
+            int ki = index(system, i);
+            for (int j = i + 1; j < particlesPerSystem; j++) {
+                int kj = index(system, j);
+                double dx = x[kj] - x[ki];
+                double dy = y[kj] - y[ki];
+                double dz = z[kj] - z[ki];
+                energy -= G * mass[ki] * mass[kj] / Math.sqrt(dx * dx + dy * dy + dz * dz + h * h);
+            }
+        }
+        return energy;
+    }
+
+    public double getTotalEnergy(int system, double G, double h) {
+        return getKineticEnergy(system) + getPotentialEnergy(system, G, h);
+    }
+}
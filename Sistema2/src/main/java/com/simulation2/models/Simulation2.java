@@ -1,13 +1,32 @@
 package com.simulation2.models;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.simulation2.analysis.InSituAnalysis;
+import com.simulation2.integrators.ForceEngineAutotuner;
+import com.simulation2.integrators.GalaxyInteraction;
 import com.simulation2.integrators.IIntegrator2;
+import com.simulation2.integrators.MixedPrecisionVelocityVerlet;
+import com.simulation2.integrators.ParallelVelocityVerlet;
+import com.simulation2.integrators.TiledVelocityVerlet;
+import com.simulation2.integrators.VelocityVerlet2;
+import com.simulation2.metrics.FrameEvent;
+import com.simulation2.metrics.SimulationMetrics;
+import com.simulation2.metrics.StepEvent;
+import com.simulation2.recorder.DenseOutput;
+import com.simulation2.recorder.FlightRecorder;
+import com.simulation2.stopping.StopCondition;
 import com.simulation2.utils.CSVWriter2;
+import com.simulation2.utils.FastTextWriter;
+import com.simulation2.utils.FrameSink;
+import com.simulation2.utils.SharedStateExporter;
 
 public class Simulation2 {
     private final double G = 1.0;
@@ -17,11 +36,30 @@ public class Simulation2 {
     private final double timeStep;
     private final double printingStep = 50.0;
 
-    private final IIntegrator2 integrator;
+    private IIntegrator2 integrator; // lo puede reemplazar el autotuner al comenzar run()
+    private ForceEngineAutotuner autotuner; // null = se usa el integrador recibido
     private final Galaxy2[] galaxies;
     private double totalTime = 0;
     private final String filename;
+    private boolean csvOutput = true;
+    private final List<FrameSink> frameSinks = new ArrayList<>();
+    private SimulationMetrics metrics; // null = métricas deshabilitadas
+    private SharedStateExporter liveExporter; // null = sin exportación en vivo
+    private int liveExportInterval = 1;
+    private FlightRecorder flightRecorder; // null = sin salida por eventos
+    private InSituAnalysis inSituAnalysis; // null = sin análisis durante la simulación
+    private final List<StopCondition> stopConditions = new ArrayList<>();
+    private int stopCheckInterval = 10;
+    private String stopReason; // null = llegó a maxTime
+    private double escaperRadius; // 0 = los escapers siguen en el cálculo de fuerzas
+    private int escaperCheckInterval = 100;
+    private FastTextWriter escaperWriter;
+    private FastTextWriter tracerWriter;
+    private GalaxyInteraction galaxyInteraction; // null = cada galaxia evoluciona aislada
+    private DenseOutput denseOutput; // null = se escribe cada printingStep pasos
     private static final Logger logger = LoggerFactory.getLogger(Simulation.class);
+    public static final String ESCAPERS_EXTENSION = ".escapers.csv";
+    public static final String TRACERS_EXTENSION = ".tracers.csv";
 
     public Simulation2(int n, int numGalaxies, double galaxyDistance, double maxTime, double timeStep, String filename, IIntegrator2 integrator) {
         this.N = n;
@@ -32,6 +70,158 @@ public class Simulation2 {
         this.timeStep = timeStep;
         initializeGalaxies(numGalaxies, galaxyDistance);
         initializeStarsAcceleration();
+        if (SimulationMetrics.enabledByProperty()) {
+            enableMetrics(10);
+        }
+    }
+
+    /** ----------------- Setters ----------------- **/
+
+    /**
+     * Habilita o deshabilita la escritura del CSV (por defecto habilitada)
+     */
+    public void setCsvOutput(boolean csvOutput) {
+        this.csvOutput = csvOutput;
+    }
+
+    /**
+     * Agrega un destino que recibe cada estado escrito. Se cierra al terminar run()
+     */
+    public void addFrameSink(FrameSink sink) {
+        frameSinks.add(sink);
+    }
+
+    /**
+     * Habilita la medición por fases de cada paso (ver SimulationMetrics)
+     * @param summaryIntervalSeconds cada cuánto se escribe un resumen en el log (0 = sólo al final)
+     */
+    public void enableMetrics(double summaryIntervalSeconds) {
+        this.metrics = new SimulationMetrics(filename, summaryIntervalSeconds);
+    }
+
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Publica las posiciones en un archivo mapeado en memoria cada everySteps pasos para verlas
+     * en vivo (ver SharedStateExporter y python/live_view.py)
+     */
+    public void enableLiveExport(String path, int everySteps) throws IOException {
+        int capacity = 0;
+        for (Galaxy2 galaxy : galaxies) {
+            capacity += galaxy.getStars().length;
+        }
+        this.liveExporter = new SharedStateExporter(Paths.get(path), capacity);
+        this.liveExportInterval = Math.max(1, everySteps);
+    }
+
+    /**
+     * Agrega una salida por eventos (ver FlightRecorder), que recibe el estado después de cada paso.
+     * Suele usarse junto con setCsvOutput(false). Se cierra al terminar run()
+     */
+    public void setFlightRecorder(FlightRecorder flightRecorder) {
+        this.flightRecorder = flightRecorder;
+    }
+
+    /**
+     * Agrega un análisis durante la simulación (ver InSituAnalysis), que recibe una copia del estado
+     * cada tantos pasos y la procesa en otro thread. Se cierra al terminar run()
+     */
+    public void setInSituAnalysis(InSituAnalysis inSituAnalysis) {
+        this.inSituAnalysis = inSituAnalysis;
+    }
+
+    /**
+     * Cada checkInterval pasos saca del cálculo de fuerzas a las estrellas no ligadas que están a más
+     * de radius del centro de su galaxia (ver Galaxy2.removeEscapers). Desde ahí se mueven en el campo
+     * de una masa puntual y se escriben aparte, en filename.escapers.csv, en los mismos instantes que el CSV.
+     */
+    public void enableEscaperRemoval(double radius, int checkInterval) {
+        this.escaperRadius = radius;
+        this.escaperCheckInterval = Math.max(1, checkInterval);
+    }
+
+    /**
+     * Agrega perGalaxy trazadoras sin masa a cada galaxia (ver TracerSet). Sienten a las estrellas
+     * pero no las afectan, y se escriben aparte en filename.tracers.csv en los mismos instantes que el CSV.
+     */
+    public void addTracers(int perGalaxy) {
+        for (Galaxy2 galaxy : galaxies) {
+            galaxy.initializeTracers(perGalaxy);
+        }
+    }
+
+    /**
+     * Hace que las galaxias se atraigan entre sí (ver GalaxyInteraction): mientras están lejos cada
+     * una ve a las otras como monopolo + cuadrupolo, y a menos de openingFactor veces la suma de sus
+     * radios se pasa a la interacción estrella por estrella
+     */
+    public void enableGalaxyInteraction(double openingFactor) {
+        this.galaxyInteraction = new GalaxyInteraction(openingFactor);
+    }
+
+    public GalaxyInteraction getGalaxyInteraction() {
+        return galaxyInteraction;
+    }
+
+    /**
+     * Escribe los estados en los instantes de denseOutput, interpolados dentro de cada paso (ver
+     * DenseOutput), en lugar de cada printingStep pasos. El estado final sólo se escribe si coincide
+     * con uno de esos instantes. Escapers y trazadoras se escriben sin interpolar, al final de cada
+     * paso que contiene algún instante.
+     */
+    public void setDenseOutput(DenseOutput denseOutput) {
+        this.denseOutput = denseOutput;
+    }
+
+    /**
+     * Equivale a setDenseOutput(DenseOutput.every(0, interval))
+     */
+    public void enableDenseOutput(double interval) {
+        setDenseOutput(DenseOutput.every(0, interval));
+    }
+
+    /**
+     * Al comenzar run() mide los motores de fuerzas sobre la galaxia más grande y reemplaza el
+     * integrador por el más rápido (ver ForceEngineAutotuner). Sólo se aplica si el integrador es uno
+     * de los candidatos (VelocityVerlet2 y sus variantes de kernel), que comparten el mismo paso.
+     */
+    public void enableAutotuning(ForceEngineAutotuner autotuner) {
+        this.autotuner = autotuner;
+    }
+
+    public IIntegrator2 getIntegrator() {
+        return integrator;
+    }
+
+    /**
+     * Agrega una condición para terminar la simulación antes de maxTime (ver StopConditions)
+     */
+    public void addStopCondition(StopCondition condition) {
+        stopConditions.add(condition);
+    }
+
+    /**
+     * Cada cuántos pasos se evalúan las condiciones de corte (por defecto 10)
+     */
+    public void setStopCheckInterval(int steps) {
+        this.stopCheckInterval = Math.max(1, steps);
+    }
+
+    /**
+     * Motivo por el que terminó la última corrida antes de maxTime, o null si llegó a maxTime
+     */
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    public Galaxy2[] getGalaxies() {
+        return galaxies;
     }
 
     /**
@@ -70,27 +260,340 @@ public class Simulation2 {
         logger.info("Starting simulation...");
         logger.debug("Total particles: " + N);
 
-        writeToFile(galaxies); // initial state
+        if (autotuner != null)
+            autotune();
+        if (metrics != null) {
+            metrics.start();
+        }
+        for (Galaxy2 galaxy : galaxies) {
+            if (galaxy.getTracers().size() > 0) {
+                galaxy.getTracers().calculateAccelerations(galaxy.getStars(), G, h);
+            }
+        }
+        if (denseOutput == null || denseOutput.skipTo(totalTime))
+            writeToFile(totalTime, galaxies, true); // initial state
+        publishLiveState();
+        recordFlight(0);
+        submitAnalysis(0);
+        stopReason = checkStopConditions();
+        if (galaxyInteraction != null)
+            galaxyInteraction.update(galaxies, G, h); // denseOutput.begin usa estas aceleraciones
         int current = 0;
-        while (totalTime < maxTime) {
-            totalTime += timeStep;
-            for (Galaxy2 galaxy : galaxies) {
-                integrator.step(galaxy.getStars(), timeStep, G, h);
+        while (stopReason == null && totalTime < maxTime) {
+            if (denseOutput != null)
+                denseOutput.begin(totalTime, galaxies, galaxyInteraction);
+            totalTime = (current + 1) * timeStep; // sin acumular redondeos de totalTime += timeStep
+            if (galaxyInteraction != null)
+                galaxyInteraction.halfKick(galaxies, timeStep, G, h);
+            if (metrics == null) {
+                for (Galaxy2 galaxy : galaxies) {
+                    integrator.step(galaxy.getStars(), timeStep, G, h);
+                }
+            } else {
+                measuredStep(current);
+            }
+            if (galaxyInteraction != null) {
+                galaxyInteraction.update(galaxies, G, h);
+                galaxyInteraction.halfKick(galaxies, timeStep, G, h);
             }
-            if(current++ % printingStep == 0)
-                writeToFile(galaxies);
+            boolean sampled = denseOutput != null && writeDenseOutput();
+            stepTracers();
+            if (escaperRadius > 0)
+                updateEscapers(current + 1);
+            if (liveExporter != null && (current + 1) % liveExportInterval == 0)
+                publishLiveState();
+            recordFlight(current + 1);
+            submitAnalysis(current + 1);
+            if (sampled)
+                writeExtras();
+            if(current++ % printingStep == 0 && denseOutput == null)
+                writeToFile(totalTime, galaxies, true);
+            if (current % stopCheckInterval == 0)
+                stopReason = checkStopConditions();
         }
+        if (stopReason != null)
+            logger.info("Simulation stopped at t=" + totalTime + ": " + stopReason);
         logger.info("Simulation finished.");
-        writeToFile(galaxies); // final state
+        if (denseOutput == null)
+            writeToFile(totalTime, galaxies, true); // final state
+        publishLiveState();
+        closeFrameSinks();
+        closeLiveExporter();
+        closeFlightRecorder();
+        closeInSituAnalysis();
+        closeEscaperWriter();
+        closeTracerWriter();
+        if (metrics != null) {
+            metrics.stop();
+        }
     }
 
-    private void writeToFile(Galaxy2[] galaxies) {
+    /**
+     * Escribe los instantes de denseOutput que cayeron en el último paso
+     * @return true si se escribió alguno
+     */
+    private boolean writeDenseOutput() {
+        try {
+            return denseOutput.emit(totalTime, galaxies, galaxyInteraction, t -> writeToFile(t, galaxies, false)) > 0;
+        } catch (IOException e) {
+            logger.error("Error writing dense output: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void autotune() {
+        Class<?> type = integrator.getClass();
+        if (type != VelocityVerlet2.class && type != TiledVelocityVerlet.class && type != ParallelVelocityVerlet.class
+                && type != MixedPrecisionVelocityVerlet.class) {
+            logger.warn("Autotuning skipped: " + type.getSimpleName() + " is not a force engine candidate");
+            return;
+        }
+        Galaxy2 largest = galaxies[0];
+        for (Galaxy2 galaxy : galaxies) {
+            if (galaxy.getStars().length > largest.getStars().length) {
+                largest = galaxy;
+            }
+        }
+        integrator = autotuner.select(largest.getStars(), G, h);
+    }
+
+    private void measuredStep(long step) {
+        long start = System.nanoTime();
+        StepEvent event = metrics.beginStep();
+        long pairs = 0;
+        for (Galaxy2 galaxy : galaxies) {
+            Particle[] stars = galaxy.getStars();
+            integrator.step(stars, timeStep, G, h, metrics);
+            pairs += (long) stars.length * (stars.length - 1) / 2;
+        }
+        metrics.endStep(event, step, totalTime, start, pairs);
+    }
+
+    private void publishLiveState() {
+        if (liveExporter != null) {
+            liveExporter.publish(totalTime, galaxies);
+        }
+    }
+
+    private void recordFlight(long step) {
+        if (flightRecorder == null) {
+            return;
+        }
+        try {
+            flightRecorder.record(step, totalTime, galaxies);
+        } catch (IOException e) {
+            logger.error("Error writing flight recorder state: " + e.getMessage());
+        }
+    }
+
+    private void closeFlightRecorder() {
+        if (flightRecorder == null) {
+            return;
+        }
+        try {
+            flightRecorder.close();
+        } catch (IOException e) {
+            logger.error("Error closing flight recorder: " + e.getMessage());
+        }
+    }
+
+    private void stepTracers() {
+        for (Galaxy2 galaxy : galaxies) {
+            galaxy.getTracers().step(galaxy.getStars(), timeStep, G, h);
+        }
+    }
+
+    private void writeTracers() {
+        try {
+            if (tracerWriter == null) {
+                tracerWriter = new FastTextWriter(Paths.get(filename + TRACERS_EXTENSION), false);
+                tracerWriter.append("t;galaxy;id;x;y;z;vx;vy;vz").newLine();
+            }
+            for (Galaxy2 galaxy : galaxies) {
+                galaxy.getTracers().writeTo(tracerWriter, totalTime, galaxy.getName());
+            }
+        } catch (IOException e) {
+            logger.error("Error writing tracers: " + e.getMessage());
+        }
+    }
+
+    private boolean hasTracers() {
+        for (Galaxy2 galaxy : galaxies) {
+            if (galaxy.getTracers().size() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void closeTracerWriter() {
+        if (tracerWriter == null) {
+            return;
+        }
+        try {
+            tracerWriter.close();
+        } catch (IOException e) {
+            logger.error("Error closing tracers file: " + e.getMessage());
+        }
+        tracerWriter = null;
+    }
+
+    private void updateEscapers(long step) {
+        boolean removedAny = false;
+        for (Galaxy2 galaxy : galaxies) {
+            galaxy.advanceEscapers(timeStep, G, h);
+            if (step % escaperCheckInterval == 0) {
+                int removed = galaxy.removeEscapers(escaperRadius, G, h);
+                if (removed > 0) {
+                    removedAny = true;
+                    logger.info(String.format("t=%.4f: %d stars of %s became escapers (%d escapers, %d bound)",
+                            totalTime, removed, galaxy.getName(), galaxy.getEscapers().size(), galaxy.getStars().length));
+                }
+            }
+        }
+        if (removedAny && galaxyInteraction != null)
+            galaxyInteraction.update(galaxies, G, h); // cambiaron los arreglos de estrellas
+    }
+
+    private void writeEscapers() {
+        try {
+            if (escaperWriter == null) {
+                escaperWriter = new FastTextWriter(Paths.get(filename + ESCAPERS_EXTENSION), false);
+                escaperWriter.append("t;galaxy;id;x;y;z;vx;vy;vz").newLine();
+            }
+            for (Galaxy2 galaxy : galaxies) {
+                for (Particle star : galaxy.getEscapers()) {
+                    escaperWriter.appendShortest(totalTime).append(';').append(galaxy.getName())
+                            .append(';').append(star.getId());
+                    appendVector(star.getPosition());
+                    appendVector(star.getVelocity());
+                    escaperWriter.newLine();
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error writing escapers: " + e.getMessage());
+        }
+    }
+
+    private void appendVector(Vector3D v) throws IOException {
+        escaperWriter.append(';').appendScientific(v.getX(), 15)
+                .append(';').appendScientific(v.getY(), 15)
+                .append(';').appendScientific(v.getZ(), 15);
+    }
+
+    private void closeEscaperWriter() {
+        if (escaperWriter == null) {
+            return;
+        }
+        try {
+            escaperWriter.close();
+        } catch (IOException e) {
+            logger.error("Error closing escapers file: " + e.getMessage());
+        }
+        escaperWriter = null;
+    }
+
+    private String checkStopConditions() {
+        for (StopCondition condition : stopConditions) {
+            String reason = condition.check(totalTime, galaxies);
+            if (reason != null) {
+                return reason;
+            }
+        }
+        return null;
+    }
+
+    private void submitAnalysis(long step) {
+        if (inSituAnalysis == null) {
+            return;
+        }
+        try {
+            inSituAnalysis.submit(step, totalTime, galaxies);
+        } catch (IOException e) {
+            logger.error("Error submitting state to in-situ analysis: " + e.getMessage());
+        }
+    }
+
+    private void closeInSituAnalysis() {
+        if (inSituAnalysis == null) {
+            return;
+        }
+        try {
+            inSituAnalysis.close();
+        } catch (IOException e) {
+            logger.error("Error closing in-situ analysis: " + e.getMessage());
+        }
+    }
+
+    private void closeLiveExporter() {
+        if (liveExporter == null) {
+            return;
+        }
+        try {
+            liveExporter.close();
+        } catch (IOException e) {
+            logger.error("Error closing live exporter: " + e.getMessage());
+        }
+        liveExporter = null;
+    }
+
+    private void closeFrameSinks() {
+        for (FrameSink sink : frameSinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                logger.error("Error closing frame sink: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param extras si es true también se escriben escapers y trazadoras (que no se interpolan)
+     */
+    private void writeToFile(double t, Galaxy2[] galaxies, boolean extras) {
+        if (metrics == null) {
+            writeFrame(t, galaxies, extras);
+            return;
+        }
+        long start = System.nanoTime();
+        FrameEvent event = metrics.beginFrame();
+        writeFrame(t, galaxies, extras);
+        int stars = 0;
+        for (Galaxy2 galaxy : galaxies) {
+            stars += galaxy.getStars().length;
+        }
+        metrics.endFrame(event, t, stars, start);
+    }
+
+    private void writeExtras() {
+        if (escaperRadius > 0) {
+            writeEscapers();
+        }
+        if (hasTracers()) {
+            writeTracers();
+        }
+    }
+
+    private void writeFrame(double t, Galaxy2[] galaxies, boolean extras) {
+        if (extras) {
+            writeExtras();
+        }
+        for (FrameSink sink : frameSinks) {
+            try {
+                sink.writeFrame(t, galaxies);
+            } catch (IOException e) {
+                logger.error("Error writing to frame sink: " + e.getMessage());
+            }
+        }
+        if (!csvOutput) {
+            return;
+        }
         logger.debug("Writing simulation state to file: " + filename);
         CSVWriter2 writer = null;
         try {
             for (Galaxy2 galaxy : galaxies) {
                 writer = new CSVWriter2(filename);
-                writer.writeData(totalTime, galaxy);
+                writer.writeData(t, galaxy);
                 writer.close();
             }
         } catch (IOException e) {
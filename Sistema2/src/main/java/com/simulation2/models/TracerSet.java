@@ -0,0 +1,211 @@
+package com.simulation2.models;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import com.simulation2.utils.FastTextWriter;
+
+/**
+ * Partículas trazadoras sin masa de una galaxia, guardadas en arreglos planos (SoA) y separadas de
+ * Galaxy2.getStars(): sienten la gravedad de las estrellas pero no ejercen ninguna, así que no
+ * entran al loop de pares. El costo por paso es N_estrellas x N_trazadoras en lugar de (N + M)^2.
+ *
+ * Se integran con Velocity Verlet, después de que el integrador avanzó las estrellas: drift con la
+ * aceleración anterior, aceleración nueva con las estrellas ya en t + dt y kick.
+ */
+public class TracerSet {
+    private static final int BLOCK_SIZE = 1024; // trazadoras por tarea del kernel paralelo
+    private static final int PARALLEL_THRESHOLD = 4 * BLOCK_SIZE;
+
+    private int size;
+    private int[] ids = new int[0];
+    private double[] x = new double[0], y = new double[0], z = new double[0];
+    private double[] vx = new double[0], vy = new double[0], vz = new double[0];
+    private double[] ax = new double[0], ay = new double[0], az = new double[0];
+    private boolean accelerationsValid;
+
+    /**
+     * Crea count trazadoras con la misma distribución que Galaxy2.initializeStars (dirección uniforme,
+     * radio |N(0, 1.5)| alrededor de center y velocidad de módulo speed en dirección aleatoria),
+     * sin el chequeo de superposición que no tiene sentido para partículas sin masa
+     */
+    public static TracerSet sample(int count, Vector3D center, double speed, Random random) {
+        TracerSet tracers = new TracerSet();
+        for (int i = 0; i < count; i++) {
+            Vector3D position = center.add(Math.abs(random.nextGaussian() * 1.5), randomUnitVector(random));
+            tracers.add(i, position, randomUnitVector(random).scalarMultiply(speed));
+        }
+        return tracers;
+    }
+
+    private static Vector3D randomUnitVector(Random random) {
+        return new Vector3D(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).normalize();
+    }
+
+    public void add(int id, Vector3D position, Vector3D velocity) {
+        if (size == ids.length) {
+            grow(Math.max(16, 2 * size));
+        }
+        ids[size] = id;
+        x[size] = position.getX();
+        y[size] = position.getY();
+        z[size] = position.getZ();
+        vx[size] = velocity.getX();
+        vy[size] = velocity.getY();
+        vz[size] = velocity.getZ();
+        size++;
+        accelerationsValid = false;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        z = Arrays.copyOf(z, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        vz = Arrays.copyOf(vz, capacity);
+        ax = Arrays.copyOf(ax, capacity);
+        ay = Arrays.copyOf(ay, capacity);
+        az = Arrays.copyOf(az, capacity);
+    }
+
+    /**
+     * Suma displacement a todas las posiciones y velocity a todas las velocidades
+     */
+    public void translate(Vector3D displacement, Vector3D velocity) {
+        for (int i = 0; i < size; i++) {
+            x[i] += displacement.getX();
+            y[i] += displacement.getY();
+            z[i] += displacement.getZ();
+            vx[i] += velocity.getX();
+            vy[i] += velocity.getY();
+            vz[i] += velocity.getZ();
+        }
+        accelerationsValid = false;
+    }
+
+    /** ----------------- Getters ----------------- **/
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int i) {
+        return ids[i];
+    }
+
+    public Vector3D getPosition(int i) {
+        return new Vector3D(x[i], y[i], z[i]);
+    }
+
+    public Vector3D getVelocity(int i) {
+        return new Vector3D(vx[i], vy[i], vz[i]);
+    }
+
+    public Vector3D getAcceleration(int i) {
+        return new Vector3D(ax[i], ay[i], az[i]);
+    }
+
+    /** ----------------- Integración ----------------- **/
+
+    /**
+     * Avanza las trazadoras dt. stars tiene que estar ya en el tiempo final del paso.
+     */
+    public void step(Particle[] stars, double dt, double G, double h) {
+        if (size == 0) {
+            return;
+        }
+        if (!accelerationsValid) {
+            // primera vez: se toman las estrellas actuales como aproximación del estado inicial
+            calculateAccelerations(stars, G, h);
+        }
+        double halfDt = 0.5 * dt;
+        double halfDt2 = 0.5 * dt * dt;
+        for (int i = 0; i < size; i++) {
+            x[i] += vx[i] * dt + ax[i] * halfDt2;
+            y[i] += vy[i] * dt + ay[i] * halfDt2;
+            z[i] += vz[i] * dt + az[i] * halfDt2;
+            vx[i] += ax[i] * halfDt;
+            vy[i] += ay[i] * halfDt;
+            vz[i] += az[i] * halfDt;
+        }
+        calculateAccelerations(stars, G, h);
+        for (int i = 0; i < size; i++) {
+            vx[i] += ax[i] * halfDt;
+            vy[i] += ay[i] * halfDt;
+            vz[i] += az[i] * halfDt;
+        }
+    }
+
+    /**
+     * Aceleración de cada trazadora por todas las estrellas (con el mismo suavizado h que las estrellas)
+     */
+    public void calculateAccelerations(Particle[] stars, double G, double h) {
+        int n = stars.length;
+        double[] sx = new double[n];
+        double[] sy = new double[n];
+        double[] sz = new double[n];
+        double[] gm = new double[n];
+        for (int j = 0; j < n; j++) {
+            Vector3D position = stars[j].getPosition();
+            sx[j] = position.getX();
+            sy[j] = position.getY();
+            sz[j] = position.getZ();
+            gm[j] = G * stars[j].getMass();
+        }
+        double h2 = h * h;
+        int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream range = IntStream.range(0, blocks);
+        if (size >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(b -> {
+            int end = Math.min(size, (b + 1) * BLOCK_SIZE);
+            for (int i = b * BLOCK_SIZE; i < end; i++) {
+                double xi = x[i];
+                double yi = y[i];
+                double zi = z[i];
+                double axi = 0;
+                double ayi = 0;
+                double azi = 0;
+                for (int j = 0; j < n; j++) {
+                    double dx = sx[j] - xi;
+                    double dy = sy[j] - yi;
+                    double dz = sz[j] - zi;
+                    double r2 = dx * dx + dy * dy + dz * dz + h2;
+                    double magnitude = gm[j] / (r2 * Math.sqrt(r2));
+                    axi += dx * magnitude;
+                    ayi += dy * magnitude;
+                    azi += dz * magnitude;
+                }
+                ax[i] = axi;
+                ay[i] = ayi;
+                az[i] = azi;
+            }
+        });
+        accelerationsValid = true;
+    }
+
+    /** ----------------- Salida ----------------- **/
+
+    /**
+     * Escribe una línea t;galaxy;id;x;y;z;vx;vy;vz por trazadora
+     */
+    public void writeTo(FastTextWriter out, double t, String galaxyName) throws IOException {
+        for (int i = 0; i < size; i++) {
+            out.appendShortest(t).append(';').append(galaxyName).append(';').append(ids[i])
+                    .append(';').appendScientific(x[i], 15)
+                    .append(';').appendScientific(y[i], 15)
+                    .append(';').appendScientific(z[i], 15)
+                    .append(';').appendScientific(vx[i], 15)
+                    .append(';').appendScientific(vy[i], 15)
+                    .append(';').appendScientific(vz[i], 15)
+                    .newLine();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.simulation2.recorder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import com.simulation2.integrators.GalaxyInteraction;
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+/**
+ * Salida en instantes fijos independientes del paso: el estado en cada instante pedido se obtiene
+ * interpolando entre los dos extremos del paso que lo contiene, con el polinomio de Hermite de grado
+ * 5 que respeta posición, velocidad y aceleración en ambos extremos. El error de posición es O(dt^6)
+ * por paso, por debajo del error del propio integrador, así que se puede correr con el dt más grande
+ * que sea estable y pedir la resolución temporal que haga falta en la salida.
+ *
+ * Los instantes son start + k * interval (calculados así, sin acumular) o una lista explícita.
+ * Para escribir un instante se ponen temporalmente los valores interpolados en las Particle, se
+ * llama al SampleWriter y después se restauran los valores reales del final del paso. La columna de
+ * fuerza queda como masa * aceleración interpolada.
+ *
+ * El estado inicial se guarda junto con el orden de las estrellas al comienzo del paso, por si un
+ * integrador externo no respeta el contrato de IIntegrator2.step y reordena el arreglo.
+ */
+public class DenseOutput {
+    /**
+     * Recibe cada instante interpolado; durante la llamada las estrellas tienen el estado en t
+     */
+    public interface SampleWriter {
+        void write(double t) throws IOException;
+    }
+
+    private final double start;
+    private final double interval;
+    private final double[] times; // null = instantes equiespaciados
+    private long next; // índice del próximo instante a escribir
+
+    // estado al comienzo del paso, por galaxia y estrella (los Vector3D son inmutables, se guardan las referencias)
+    private double t0;
+    private Particle[][] arrays = new Particle[0][]; // arreglo de cada galaxia, para detectar si se reemplazó
+    private Particle[][] stars = new Particle[0][]; // copia con el orden al comienzo del paso
+    private Vector3D[][] x0 = new Vector3D[0][];
+    private Vector3D[][] v0 = new Vector3D[0][];
+    private Vector3D[][] a0 = new Vector3D[0][];
+
+    private DenseOutput(double start, double interval, double[] times) {
+        this.start = start;
+        this.interval = interval;
+        this.times = times;
+    }
+
+    /**
+     * Instantes start, start + interval, start + 2 * interval...
+     */
+    public static DenseOutput every(double start, double interval) {
+        if (!(interval > 0)) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        return new DenseOutput(start, interval, null);
+    }
+
+    /**
+     * Instantes explícitos (se ordenan)
+     */
+    public static DenseOutput at(double... times) {
+        double[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return new DenseOutput(0, 0, sorted);
+    }
+
+    /**
+     * Próximo instante pendiente, o infinito si no quedan
+     */
+    public double nextTime() {
+        if (times == null) {
+            return start + next * interval;
+        }
+        return next < times.length ? times[(int) next] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Descarta los instantes anteriores a t y retorna true si el próximo es exactamente t (y lo consume),
+     * para escribir el estado inicial sin interpolar
+     */
+    public boolean skipTo(double t) {
+        while (nextTime() < t) {
+            next++;
+        }
+        if (nextTime() == t) {
+            next++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Guarda el estado al comienzo de un paso que empieza en t
+     * @param interaction fuerza entre galaxias, o null; su aceleración se suma a la de cada estrella
+     *                    sólo si su último update corresponde a los arreglos actuales (Simulation2
+     *                    lo actualiza antes del primer paso y cada vez que cambian las estrellas)
+     */
+    public void begin(double t, Galaxy2[] galaxies, GalaxyInteraction interaction) {
+        this.t0 = t;
+        if (interaction != null && !interaction.isCacheValid(galaxies)) {
+            interaction = null;
+        }
+        if (stars.length != galaxies.length) {
+            arrays = new Particle[galaxies.length][];
+            stars = new Particle[galaxies.length][];
+            x0 = new Vector3D[galaxies.length][];
+            v0 = new Vector3D[galaxies.length][];
+            a0 = new Vector3D[galaxies.length][];
+        }
+        for (int g = 0; g < galaxies.length; g++) {
+            Particle[] galaxyStars = galaxies[g].getStars();
+            int n = galaxyStars.length;
+            arrays[g] = galaxyStars;
+            stars[g] = galaxyStars.clone();
+            if (x0[g] == null || x0[g].length != n) {
+                x0[g] = new Vector3D[n];
+                v0[g] = new Vector3D[n];
+                a0[g] = new Vector3D[n];
+            }
+            for (int i = 0; i < n; i++) {
+                Particle star = galaxyStars[i];
+                x0[g][i] = star.getPosition();
+                v0[g][i] = star.getVelocity();
+                a0[g][i] = totalAcceleration(star, interaction, g, i);
+            }
+        }
+    }
+
+    /**
+     * Escribe los instantes en (t0, t1] interpolando entre el estado guardado en begin y el actual
+     * @return cantidad de instantes escritos
+     */
+    public int emit(double t1, Galaxy2[] galaxies, GalaxyInteraction interaction, SampleWriter writer) throws IOException {
+        if (nextTime() > t1) {
+            return 0;
+        }
+        if (interaction != null && !interaction.isCacheValid(galaxies)) {
+            interaction = null;
+        }
+        double dt = t1 - t0;
+        int written = 0;
+        Vector3D[][] x1 = new Vector3D[galaxies.length][];
+        Vector3D[][] v1 = new Vector3D[galaxies.length][];
+        Vector3D[][] a1 = new Vector3D[galaxies.length][];
+        Vector3D[][] f1 = new Vector3D[galaxies.length][];
+        for (int g = 0; g < galaxies.length; g++) {
+            if (galaxies[g].getStars() != arrays[g]) {
+                throw new IllegalStateException("Stars of " + galaxies[g].getName() + " changed during the step");
+            }
+            int[] current = currentIndices(arrays[g], stars[g]);
+            int n = stars[g].length;
+            x1[g] = new Vector3D[n];
+            v1[g] = new Vector3D[n];
+            a1[g] = new Vector3D[n];
+            f1[g] = new Vector3D[n];
+            for (int i = 0; i < n; i++) {
+                Particle star = stars[g][i];
+                x1[g][i] = star.getPosition();
+                v1[g][i] = star.getVelocity();
+                a1[g][i] = totalAcceleration(star, interaction, g, current[i]);
+                f1[g][i] = star.getForce();
+            }
+        }
+
+        try {
+            double t;
+            while ((t = nextTime()) <= t1) {
+                next++;
+                if (t <= t0) {
+                    continue;
+                }
+                double[] w = weights((t - t0) / dt, dt);
+                for (int g = 0; g < stars.length; g++) {
+                    for (int i = 0; i < stars[g].length; i++) {
+                        interpolate(stars[g][i], w, x0[g][i], v0[g][i], a0[g][i], x1[g][i], v1[g][i], a1[g][i]);
+                    }
+                }
+                writer.write(t);
+                written++;
+            }
+        } finally {
+            for (int g = 0; g < stars.length; g++) {
+                for (int i = 0; i < stars[g].length; i++) {
+                    Particle star = stars[g][i];
+                    star.setPosition(x1[g][i]);
+                    star.setVelocity(v1[g][i]);
+                    star.resetForce();
+                    star.addForce(f1[g][i]);
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Posición actual en array de cada estrella de saved (el orden puede haber cambiado en el paso)
+     */
+    private static int[] currentIndices(Particle[] array, Particle[] saved) {
+        int n = saved.length;
+        int[] current = new int[n];
+        boolean sameOrder = true;
+        for (int i = 0; i < n; i++) {
+            current[i] = i;
+            sameOrder &= array[i] == saved[i];
+        }
+        if (sameOrder) {
+            return current;
+        }
+        Map<Particle, Integer> positions = new IdentityHashMap<>(2 * n);
+        for (int i = 0; i < n; i++) {
+            positions.put(array[i], i);
+        }
+        for (int i = 0; i < n; i++) {
+            Integer position = positions.get(saved[i]);
+            if (position == null) {
+                throw new IllegalStateException("A star was replaced during the step");
+            }
+            current[i] = position;
+        }
+        return current;
+    }
+
+    private static Vector3D totalAcceleration(Particle star, GalaxyInteraction interaction, int g, int i) {
+        return interaction == null ? star.getAcceleration() : star.getAcceleration().add(interaction.getAcceleration(g, i));
+    }
+
+    /**
+     * Pesos del polinomio de Hermite de grado 5 en s = (t - t0) / dt para x, v y a: las filas son
+     * posición, velocidad y aceleración, y las columnas x0, v0, a0, x1, v1, a1
+     */
+    static double[] weights(double s, double dt) {
+        double s2 = s * s;
+        double s3 = s2 * s;
+        double s4 = s3 * s;
+        double s5 = s4 * s;
+        double dt2 = dt * dt;
+        return new double[]{
+                // posición
+                1 - 10 * s3 + 15 * s4 - 6 * s5,
+                (s - 6 * s3 + 8 * s4 - 3 * s5) * dt,
+                (s2 - 3 * s3 + 3 * s4 - s5) / 2 * dt2,
+                10 * s3 - 15 * s4 + 6 * s5,
+                (-4 * s3 + 7 * s4 - 3 * s5) * dt,
+                (s3 - 2 * s4 + s5) / 2 * dt2,
+                // velocidad
+                (-30 * s2 + 60 * s3 - 30 * s4) / dt,
+                1 - 18 * s2 + 32 * s3 - 15 * s4,
+                (2 * s - 9 * s2 + 12 * s3 - 5 * s4) / 2 * dt,
+                (30 * s2 - 60 * s3 + 30 * s4) / dt,
+                -12 * s2 + 28 * s3 - 15 * s4,
+                (3 * s2 - 8 * s3 + 5 * s4) / 2 * dt,
+                // aceleración
+                (-60 * s + 180 * s2 - 120 * s3) / dt2,
+                (-36 * s + 96 * s2 - 60 * s3) / dt,
+                (2 - 18 * s + 36 * s2 - 20 * s3) / 2,
+                (60 * s - 180 * s2 + 120 * s3) / dt2,
+                (-24 * s + 84 * s2 - 60 * s3) / dt,
+                (6 * s - 24 * s2 + 20 * s3) / 2
+        };
+    }
+
+    private static void interpolate(Particle star, double[] w, Vector3D x0, Vector3D v0, Vector3D a0,
+                                    Vector3D x1, Vector3D v1, Vector3D a1) {
+        star.setPosition(combine(w, 0, x0, v0, a0, x1, v1, a1));
+        star.setVelocity(combine(w, 6, x0, v0, a0, x1, v1, a1));
+        star.resetForce();
+        star.addForce(combine(w, 12, x0, v0, a0, x1, v1, a1).scalarMultiply(star.getMass()));
+    }
+
+    private static Vector3D combine(double[] w, int row, Vector3D x0, Vector3D v0, Vector3D a0,
+                                    Vector3D x1, Vector3D v1, Vector3D a1) {
+        return new Vector3D(
+                w[row] * x0.getX() + w[row + 1] * v0.getX() + w[row + 2] * a0.getX()
+                        + w[row + 3] * x1.getX() + w[row + 4] * v1.getX() + w[row + 5] * a1.getX(),
+                w[row] * x0.getY() + w[row + 1] * v0.getY() + w[row + 2] * a0.getY()
+                        + w[row + 3] * x1.getY() + w[row + 4] * v1.getY() + w[row + 5] * a1.getY(),
+                w[row] * x0.getZ() + w[row + 1] * v0.getZ() + w[row + 2] * a0.getZ()
+                        + w[row + 3] * x1.getZ() + w[row + 4] * v1.getZ() + w[row + 5] * a1.getZ());
+    }
+}
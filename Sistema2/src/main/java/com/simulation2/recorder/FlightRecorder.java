@@ -0,0 +1,173 @@
+package com.simulation2.recorder;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.utils.CSVWriter2;
+
+/**
+ * Salida por eventos de Simulation2: guarda en memoria un anillo con los últimos K estados completos
+ * y sólo los escribe cuando se dispara algún Trigger. Después de un disparo sigue escribiendo cada
+ * estado durante postTriggerSteps pasos; el resto del tiempo escribe un estado cada periodicInterval
+ * pasos.
+ *
+ * Los estados van al mismo formato CSV que CSVWriter2 (con su índice), así que las herramientas de
+ * análisis funcionan igual, y cada disparo se anota en filename.events.csv (t;event).
+ */
+public class FlightRecorder implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorder.class);
+    public static final String EVENTS_EXTENSION = ".events.csv";
+
+    private final String filename;
+    private final StateSnapshot[] ring;
+    private final int recordInterval;
+    private final int periodicInterval;
+    private final int postTriggerSteps;
+    private final int checkInterval;
+    private final List<Trigger> triggers = new ArrayList<>();
+
+    private int head; // posición donde va el próximo snapshot
+    private int size;
+    private long remainingPostTrigger;
+    private double lastWrittenTime = Double.NEGATIVE_INFINITY;
+    private long framesWritten;
+    private long triggerCount;
+    private CSVWriter2 writer;
+    private BufferedWriter eventsWriter;
+
+    /**
+     * @param capacity cantidad de estados en el anillo (K)
+     * @param recordInterval cada cuántos pasos se guarda un estado en el anillo
+     * @param periodicInterval cada cuántos pasos se escribe un estado sin disparo (0 = nunca)
+     * @param postTriggerSteps cuántos pasos después de un disparo se siguen escribiendo todos los estados
+     * @param checkInterval cada cuántos pasos se evalúan los triggers
+     */
+    public FlightRecorder(String filename, int capacity, int recordInterval, int periodicInterval,
+                          int postTriggerSteps, int checkInterval) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.filename = filename;
+        this.ring = new StateSnapshot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new StateSnapshot();
+        }
+        this.recordInterval = Math.max(1, recordInterval);
+        this.periodicInterval = periodicInterval;
+        this.postTriggerSteps = postTriggerSteps;
+        this.checkInterval = Math.max(1, checkInterval);
+    }
+
+    public FlightRecorder addTrigger(Trigger trigger) {
+        triggers.add(trigger);
+        return this;
+    }
+
+    /**
+     * Se llama después de cada paso (step = 0 para el estado inicial)
+     */
+    public void record(long step, double t, Galaxy2[] galaxies) throws IOException {
+        boolean captured = step % recordInterval == 0;
+        if (captured) {
+            capture(t, galaxies);
+        }
+
+        boolean fired = false;
+        if (step % checkInterval == 0) {
+            for (Trigger trigger : triggers) {
+                String event = trigger.check(t, galaxies);
+                if (event != null) {
+                    writeEvent(t, event);
+                    fired = true;
+                }
+            }
+        }
+
+        if (fired) {
+            triggerCount++;
+            if (!captured) {
+                capture(t, galaxies);
+            }
+            flushRing();
+            remainingPostTrigger = postTriggerSteps;
+        } else if (remainingPostTrigger > 0) {
+            remainingPostTrigger--;
+            if (captured) {
+                writeSnapshot(latest());
+            }
+        } else if (periodicInterval > 0 && step % periodicInterval == 0) {
+            if (!captured) {
+                capture(t, galaxies);
+            }
+            writeSnapshot(latest());
+        }
+    }
+
+    private void capture(double t, Galaxy2[] galaxies) {
+        ring[head].capture(t, galaxies);
+        head = (head + 1) % ring.length;
+        size = Math.min(size + 1, ring.length);
+    }
+
+    private StateSnapshot latest() {
+        return ring[(head - 1 + ring.length) % ring.length];
+    }
+
+    /**
+     * Escribe los estados del anillo que todavía no están en disco, del más viejo al más nuevo
+     */
+    private void flushRing() throws IOException {
+        for (int i = size; i >= 1; i--) {
+            writeSnapshot(ring[(head - i + ring.length) % ring.length]);
+        }
+    }
+
+    private void writeSnapshot(StateSnapshot snapshot) throws IOException {
+        if (snapshot.getTime() <= lastWrittenTime) {
+            return;
+        }
+        if (writer == null) {
+            writer = new CSVWriter2(filename);
+        }
+        snapshot.writeTo(writer);
+        lastWrittenTime = snapshot.getTime();
+        framesWritten++;
+    }
+
+    private void writeEvent(double t, String event) throws IOException {
+        logger.info("Flight recorder trigger at t=" + t + ": " + event);
+        if (eventsWriter == null) {
+            eventsWriter = new BufferedWriter(new FileWriter(filename + EVENTS_EXTENSION));
+            eventsWriter.write("t;event\n");
+        }
+        eventsWriter.write(t + ";" + event + "\n");
+    }
+
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    public long getTriggerCount() {
+        return triggerCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        logger.info(String.format("Flight recorder wrote %d states to %s (%d triggers)", framesWritten, filename, triggerCount));
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (eventsWriter != null) {
+            eventsWriter.close();
+            eventsWriter = null;
+        }
+    }
+}
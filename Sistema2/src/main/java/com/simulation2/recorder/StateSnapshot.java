@@ -0,0 +1,88 @@
+package com.simulation2.recorder;
+
+import java.io.IOException;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+import com.simulation2.utils.CSVWriter2;
+import com.simulation2.utils.TrajectoryFrame;
+
+/**
+ * Copia completa del estado de todas las galaxias en un instante. Los arreglos se reutilizan entre
+ * capturas, así que el anillo de FlightRecorder no genera basura por paso.
+ */
+public class StateSnapshot {
+    private double time;
+    private int galaxyCount;
+    private String[] names = new String[0];
+    private double[][] centers = new double[0][];
+    private int[][] ids = new int[0][];
+    // por galaxia: x, y, z, vx, vy, vz, fx, fy, fz
+    private double[][][] columns = new double[0][][];
+
+    /**
+     * Copia el estado actual de las galaxias en este snapshot
+     */
+    public void capture(double t, Galaxy2[] galaxies) {
+        this.time = t;
+        this.galaxyCount = galaxies.length;
+        if (names.length < galaxyCount) {
+            names = new String[galaxyCount];
+            centers = new double[galaxyCount][3];
+            ids = new int[galaxyCount][];
+            columns = new double[galaxyCount][][];
+        }
+        for (int g = 0; g < galaxyCount; g++) {
+            Galaxy2 galaxy = galaxies[g];
+            Particle[] stars = galaxy.getStars();
+            int n = stars.length;
+            names[g] = galaxy.getName();
+            centers[g][0] = galaxy.getCenterPosition().getX();
+            centers[g][1] = galaxy.getCenterPosition().getY();
+            centers[g][2] = galaxy.getCenterPosition().getZ();
+            if (ids[g] == null || ids[g].length != n) {
+                ids[g] = new int[n];
+                columns[g] = new double[9][n];
+            }
+            double[][] c = columns[g];
+            for (int i = 0; i < n; i++) {
+                Particle star = stars[i];
+                ids[g][i] = star.getId();
+                put(c, 0, i, star.getPosition());
+                put(c, 3, i, star.getVelocity());
+                put(c, 6, i, star.getForce());
+            }
+        }
+    }
+
+    private static void put(double[][] c, int column, int i, Vector3D v) {
+        c[column][i] = v.getX();
+        c[column + 1][i] = v.getY();
+        c[column + 2][i] = v.getZ();
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public int getGalaxyCount() {
+        return galaxyCount;
+    }
+
+    /**
+     * Vista del estado de la galaxia g como TrajectoryFrame (comparte los arreglos del snapshot)
+     */
+    public TrajectoryFrame getFrame(int g) {
+        double[][] c = columns[g];
+        return new TrajectoryFrame(time, names[g], centers[g][0], centers[g][1], centers[g][2], ids[g],
+                c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7], c[8]);
+    }
+
+    public void writeTo(CSVWriter2 writer) throws IOException {
+        for (int g = 0; g < galaxyCount; g++) {
+            writer.writeFrame(getFrame(g));
+        }
+    }
+}
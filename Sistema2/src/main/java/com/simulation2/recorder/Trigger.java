@@ -0,0 +1,13 @@
+package com.simulation2.recorder;
+
+import com.simulation2.models.Galaxy2;
+
+/**
+ * Condición que hace que FlightRecorder guarde en disco los últimos estados a resolución completa
+ */
+public interface Trigger {
+    /**
+     * @return null si no se disparó, o una descripción del evento para el archivo de eventos
+     */
+    String check(double t, Galaxy2[] galaxies);
+}
@@ -0,0 +1,176 @@
+package com.simulation2.recorder;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+/**
+ * Triggers de FlightRecorder. Los que vigilan una condición (par cercano, galaxias cercanas) se
+ * disparan sólo cuando la condición empieza a cumplirse, no en cada chequeo mientras dura.
+ */
+public final class Triggers {
+
+    private Triggers() {
+    }
+
+    /**
+     * Algún par de estrellas de una misma galaxia a menos de factor * h
+     */
+    public static Trigger closePair(double factor, double h) {
+        double threshold = factor * h;
+        return new Trigger() {
+            private boolean active;
+
+            @Override
+            public String check(double t, Galaxy2[] galaxies) {
+                String event = null;
+                for (Galaxy2 galaxy : galaxies) {
+                    Particle[] stars = galaxy.getStars();
+                    int[] pair = closestPairWithin(stars, threshold);
+                    if (pair != null) {
+                        event = String.format("close pair %d-%d in %s at distance %.4e",
+                                stars[pair[0]].getId(), stars[pair[1]].getId(), galaxy.getName(),
+                                stars[pair[0]].distanceTo(stars[pair[1]]));
+                        break;
+                    }
+                }
+                boolean fire = event != null && !active;
+                active = event != null;
+                return fire ? event : null;
+            }
+        };
+    }
+
+    /**
+     * Índices del par más cercano a menos de threshold, o null. Recorre las estrellas ordenadas por x
+     * y sólo compara las que están a menos de threshold en x.
+     */
+    static int[] closestPairWithin(Particle[] stars, double threshold) {
+        Integer[] order = new Integer[stars.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> stars[i].getPosition().getX()));
+
+        int[] best = null;
+        double bestDistance = threshold;
+        for (int a = 0; a < order.length; a++) {
+            Vector3D pa = stars[order[a]].getPosition();
+            for (int b = a + 1; b < order.length; b++) {
+                Vector3D pb = stars[order[b]].getPosition();
+                if (pb.getX() - pa.getX() >= bestDistance) {
+                    break;
+                }
+                double distance = pa.distance(pb);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = new int[]{order[a], order[b]};
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * La energía total de alguna galaxia cambió más que relativeJump (relativo) desde el chequeo anterior
+     */
+    public static Trigger energyJump(double relativeJump, double G, double h) {
+        return new Trigger() {
+            private double[] previous;
+
+            @Override
+            public String check(double t, Galaxy2[] galaxies) {
+                if (previous == null || previous.length != galaxies.length) {
+                    previous = new double[galaxies.length];
+                    for (int g = 0; g < galaxies.length; g++) {
+                        previous[g] = galaxies[g].getTotalEnergy(G, h);
+                    }
+                    return null;
+                }
+                String event = null;
+                for (int g = 0; g < galaxies.length; g++) {
+                    double energy = galaxies[g].getTotalEnergy(G, h);
+                    double jump = Math.abs((energy - previous[g]) / previous[g]);
+                    if (event == null && jump > relativeJump) {
+                        event = String.format("energy jump %.3e in %s (E=%.6e)", jump, galaxies[g].getName(), energy);
+                    }
+                    previous[g] = energy;
+                }
+                return event;
+            }
+        };
+    }
+
+    /**
+     * Aumentó la cantidad de estrellas a más de radius del centro de masa de su galaxia
+     */
+    public static Trigger escaper(double radius) {
+        return new Trigger() {
+            private int[] previous;
+
+            @Override
+            public String check(double t, Galaxy2[] galaxies) {
+                if (previous == null || previous.length != galaxies.length) {
+                    previous = new int[galaxies.length];
+                }
+                String event = null;
+                for (int g = 0; g < galaxies.length; g++) {
+                    Vector3D center = centerOfMass(galaxies[g].getStars());
+                    int escaped = 0;
+                    for (Particle star : galaxies[g].getStars()) {
+                        if (star.getPosition().distance(center) > radius) {
+                            escaped++;
+                        }
+                    }
+                    if (event == null && escaped > previous[g]) {
+                        event = String.format("%d stars beyond r=%.3e in %s", escaped, radius, galaxies[g].getName());
+                    }
+                    previous[g] = escaped;
+                }
+                return event;
+            }
+        };
+    }
+
+    /**
+     * Los centros de masa de dos galaxias quedan a menos de distance
+     */
+    public static Trigger galaxyApproach(double distance) {
+        return new Trigger() {
+            private boolean active;
+
+            @Override
+            public String check(double t, Galaxy2[] galaxies) {
+                String event = null;
+                for (int a = 0; a < galaxies.length && event == null; a++) {
+                    Vector3D ca = centerOfMass(galaxies[a].getStars());
+                    for (int b = a + 1; b < galaxies.length; b++) {
+                        double separation = ca.distance(centerOfMass(galaxies[b].getStars()));
+                        if (separation < distance) {
+                            event = String.format("%s and %s at distance %.4e",
+                                    galaxies[a].getName(), galaxies[b].getName(), separation);
+                            break;
+                        }
+                    }
+                }
+                boolean fire = event != null && !active;
+                active = event != null;
+                return fire ? event : null;
+            }
+        };
+    }
+
+    static Vector3D centerOfMass(Particle[] stars) {
+        double x = 0, y = 0, z = 0;
+        for (Particle star : stars) {
+            x += star.getPosition().getX();
+            y += star.getPosition().getY();
+            z += star.getPosition().getZ();
+        }
+        return stars.length == 0 ? Vector3D.ZERO : new Vector3D(x / stars.length, y / stars.length, z / stars.length);
+    }
+}
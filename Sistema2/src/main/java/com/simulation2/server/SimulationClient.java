@@ -0,0 +1,104 @@
+package com.simulation2.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Cliente de SimulationServer: manda trabajos por el socket de localhost y recibe sus estados
+ * hasta que terminan todos.
+ *
+ * Uso: SimulationClient puerto "integrator=tiled n=500 dt=0.001 maxTime=1 output=a.csv" ...
+ * (sin trabajos se lee uno por línea de la entrada estándar)
+ */
+public class SimulationClient implements AutoCloseable {
+    private final Socket socket;
+    private final BufferedReader in;
+    private final PrintWriter out;
+
+    public SimulationClient(int port) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+    }
+
+    /**
+     * Manda los trabajos y pasa cada línea de estado a status hasta que todos terminan
+     * @return la línea final de cada trabajo (DONE, CANCELLED, FAILED o ERROR), en el orden de llegada
+     */
+    public List<String> run(List<String> jobs, Consumer<String> status) throws IOException {
+        for (String job : jobs) {
+            out.println(job);
+        }
+        List<String> results = new ArrayList<>();
+        while (results.size() < jobs.size()) {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("Server closed the connection with " + (jobs.size() - results.size())
+                        + " jobs pending");
+            }
+            status.accept(line);
+            if (isFinal(line)) {
+                results.add(line);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Manda un comando de una sola respuesta (STATUS, CANCEL id) y retorna la primera línea que no
+     * es el estado de un trabajo
+     */
+    public String command(String command) throws IOException {
+        out.println(command);
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("STATUS") || line.startsWith("ERROR") || line.startsWith("BYE")) {
+                return line;
+            }
+        }
+        throw new IOException("Server closed the connection");
+    }
+
+    static boolean isFinal(String line) {
+        return line.startsWith("DONE ") || line.startsWith("CANCELLED ") || line.startsWith("FAILED ")
+                || line.startsWith("ERROR ");
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SimulationClient port [job ...]");
+            System.exit(1);
+        }
+        List<String> jobs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            jobs.add(args[i]);
+        }
+        if (jobs.isEmpty()) {
+            BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = stdin.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    jobs.add(line.trim());
+                }
+            }
+        }
+        try (SimulationClient client = new SimulationClient(Integer.parseInt(args[0]))) {
+            List<String> results = client.run(jobs, System.out::println);
+            System.exit(results.stream().allMatch(r -> r.startsWith("DONE ")) ? 0 : 2);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.simulation2.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.simulation2.integrators.ForceEngineAutotuner;
+import com.simulation2.integrators.IIntegrator2;
+import com.simulation2.integrators.RespaVelocityVerlet;
+import com.simulation2.models.Simulation2;
+
+/**
+ * Descripción de una corrida enviada a SimulationServer: una línea de pares clave=valor separados
+ * por espacios, por ejemplo
+ *   integrator=tiled n=2000 galaxies=2 distance=100 dt=0.001 maxTime=5 output=sim.csv
+ *
+ * Claves (todas opcionales):
+ * - system: sólo "galaxies" (Simulation2)
+ * - integrator: serial, tiled, mixed, parallel-k (ver ForceEngineAutotuner.createEngine), respa o auto
+ *   (el autotuner elige el motor al comenzar)
+ * - n, galaxies, distance, dt, maxTime: los parámetros de Simulation2
+ * - output: CSV de salida, relativo al directorio de salida del servidor (no se aceptan rutas
+ *   absolutas ni ".."); se reemplaza si existe, y sin output no se escribe CSV
+ */
+public class SimulationJob {
+    public static final String SYSTEM_GALAXIES = "galaxies";
+
+    private final String system;
+    private final String integrator;
+    private final int n;
+    private final int galaxies;
+    private final double distance;
+    private final double dt;
+    private final double maxTime;
+    private final String output; // null = sin CSV
+
+    public SimulationJob(String integrator, int n, int galaxies, double distance, double dt, double maxTime,
+                         String output) {
+        this(SYSTEM_GALAXIES, integrator, n, galaxies, distance, dt, maxTime, output);
+    }
+
+    private SimulationJob(String system, String integrator, int n, int galaxies, double distance, double dt,
+                          double maxTime, String output) {
+        if (!system.equals(SYSTEM_GALAXIES)) {
+            throw new IllegalArgumentException("Unsupported system: " + system);
+        }
+        if (n < 1 || galaxies < 1 || n < galaxies) {
+            throw new IllegalArgumentException("n and galaxies must be positive and n >= galaxies");
+        }
+        if (!(dt > 0) || !(maxTime >= 0)) {
+            throw new IllegalArgumentException("dt must be positive and maxTime non-negative");
+        }
+        if (!integrator.matches("serial|tiled|mixed|respa|auto|parallel-[1-9][0-9]*")) {
+            throw new IllegalArgumentException("Unknown integrator: " + integrator);
+        }
+        if (output != null) {
+            checkOutput(output);
+        }
+        this.system = system;
+        this.integrator = integrator;
+        this.n = n;
+        this.galaxies = galaxies;
+        this.distance = distance;
+        this.dt = dt;
+        this.maxTime = maxTime;
+        this.output = output;
+    }
+
+    /**
+     * Interpreta una línea clave=valor; las claves desconocidas o los valores inválidos son errores
+     */
+    public static SimulationJob parse(String line) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String token : line.trim().split("\\s+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            int equals = token.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got '" + token + "'");
+            }
+            values.put(token.substring(0, equals), token.substring(equals + 1));
+        }
+        for (String key : values.keySet()) {
+            if (!key.matches("system|integrator|n|galaxies|distance|dt|maxTime|output")) {
+                throw new IllegalArgumentException("Unknown key: " + key);
+            }
+        }
+        try {
+            return new SimulationJob(
+                    values.getOrDefault("system", SYSTEM_GALAXIES),
+                    values.getOrDefault("integrator", "serial"),
+                    Integer.parseInt(values.getOrDefault("n", "1000")),
+                    Integer.parseInt(values.getOrDefault("galaxies", "1")),
+                    Double.parseDouble(values.getOrDefault("distance", "100")),
+                    Double.parseDouble(values.getOrDefault("dt", "0.001")),
+                    Double.parseDouble(values.getOrDefault("maxTime", "5")),
+                    values.get("output"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Los trabajos llegan de cualquier proceso local: output no puede salir del directorio de salida
+     */
+    private static void checkOutput(String output) {
+        Path path;
+        try {
+            path = Paths.get(output);
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Invalid output: " + output);
+        }
+        if (output.isEmpty() || path.isAbsolute() || path.getRoot() != null) {
+            throw new IllegalArgumentException("output must be a relative path: " + output);
+        }
+        for (Path element : path) {
+            if (element.toString().equals("..")) {
+                throw new IllegalArgumentException("output must not contain '..': " + output);
+            }
+        }
+    }
+
+    private static IIntegrator2 createIntegrator(String name) {
+        if (name.equals("respa")) {
+            return new RespaVelocityVerlet();
+        }
+        if (name.equals("auto")) {
+            return ForceEngineAutotuner.createEngine("serial");
+        }
+        return ForceEngineAutotuner.createEngine(name);
+    }
+
+    /**
+     * Arma la simulación; si hay output, el CSV va a outputDir/output y se borra el de una corrida
+     * anterior
+     */
+    public Simulation2 createSimulation(Path outputDir) throws IOException {
+        String filename = "job";
+        if (output != null) {
+            Path path = outputDir.resolve(output);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.deleteIfExists(path); // CSVWriter2 borra el índice viejo al crear el CSV
+            filename = path.toString();
+        }
+        Simulation2 simulation = new Simulation2(n, galaxies, distance, maxTime, dt, filename,
+                createIntegrator(integrator));
+        simulation.setCsvOutput(output != null);
+        if (integrator.equals("auto")) {
+            simulation.enableAutotuning(new ForceEngineAutotuner());
+        }
+        return simulation;
+    }
+
+    /** ----------------- Getters ----------------- **/
+
+    public String getSystem() { return system; }
+    public String getIntegrator() { return integrator; }
+    public int getN() { return n; }
+    public int getGalaxies() { return galaxies; }
+    public double getDistance() { return distance; }
+    public double getDt() { return dt; }
+    public double getMaxTime() { return maxTime; }
+    public String getOutput() { return output; }
+
+    /**
+     * La línea que describe este trabajo (parse(toString()) es equivalente)
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "system=%s integrator=%s n=%d galaxies=%d distance=%s dt=%s maxTime=%s%s",
+                system, integrator, n, galaxies, distance, dt, maxTime, output != null ? " output=" + output : "");
+    }
+}
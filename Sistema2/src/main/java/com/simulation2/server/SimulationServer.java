@@ -0,0 +1,435 @@
+package com.simulation2.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Simulation2;
+import com.simulation2.stopping.StopCondition;
+
+/**
+ * Proceso de larga duración que corre simulaciones cortas sin pagar en cada una el arranque de la
+ * JVM ni la compilación JIT: al iniciar corre unas simulaciones chicas con cada motor de fuerzas
+ * para que los lazos calientes ya estén compilados, y después atiende trabajos (ver SimulationJob)
+ * en un pool compartido de threads.
+ *
+ * Los trabajos llegan por dos vías:
+ * - un socket TCP en localhost, con un comando por línea (ver SimulationClient):
+ *   una línea de SimulationJob, CANCEL id, STATUS o SHUTDOWN
+ * - un directorio spool: cada archivo nombre.job (un trabajo por línea) se renombra a
+ *   nombre.running, el estado se va agregando a nombre.status y al terminar queda como
+ *   nombre.done (o nombre.failed si falló algún trabajo). Conviene escribir el archivo con otro
+ *   nombre y renombrarlo a .job al terminar, para que no se lea a medias
+ *
+ * El estado se informa con una línea por evento: ACCEPTED id trabajo, STARTED id,
+ * PROGRESS id t=... maxTime=..., y al final DONE id, CANCELLED id o FAILED id motivo. Un comando
+ * inválido responde ERROR motivo.
+ *
+ * Las salidas de los trabajos se escriben dentro de outputDir.
+ *
+ * Uso: SimulationServer [--port p] [--spool dir] [--output dir] [--threads n] [--no-warmup]
+ */
+public class SimulationServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SimulationServer.class);
+    public static final int DEFAULT_PORT = 5150;
+    public static final String JOB_EXTENSION = ".job";
+    public static final String RUNNING_EXTENSION = ".running";
+    public static final String STATUS_EXTENSION = ".status";
+    public static final String DONE_EXTENSION = ".done";
+    public static final String FAILED_EXTENSION = ".failed";
+    static final long PROGRESS_INTERVAL_MS = 500;
+    private static final long SPOOL_POLL_MS = 200;
+    private static final String[] WARMUP_ENGINES = {"serial", "tiled", "mixed"};
+
+    private final ServerSocket server;
+    private final Path spoolDir; // null = sin directorio spool
+    private final Path outputDir;
+    private final ExecutorService jobs;
+    private final ExecutorService connections = Executors.newCachedThreadPool(daemon("simulation-connection"));
+    private final ScheduledExecutorService spool = Executors.newSingleThreadScheduledExecutor(daemon("simulation-spool"));
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Map<Integer, RunningJob> active = new ConcurrentHashMap<>();
+    private final AtomicInteger finished = new AtomicInteger();
+    private final CompletableFuture<Void> stopped = new CompletableFuture<>();
+
+    /**
+     * @param port puerto en localhost (0 = cualquiera libre)
+     * @param spoolDir directorio de trabajos, o null
+     * @param outputDir directorio contra el que se resuelve el output de cada trabajo
+     * @param threads trabajos simultáneos
+     */
+    public SimulationServer(int port, Path spoolDir, Path outputDir, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.spoolDir = spoolDir;
+        this.outputDir = outputDir;
+        this.jobs = Executors.newFixedThreadPool(threads, daemon("simulation-job"));
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Calienta los motores (si warmUp) y empieza a aceptar trabajos
+     */
+    public void start(boolean warmUp) throws IOException {
+        if (warmUp) {
+            warmUp();
+        }
+        if (spoolDir != null) {
+            Files.createDirectories(spoolDir);
+            spool.scheduleWithFixedDelay(this::pollSpool, 0, SPOOL_POLL_MS, TimeUnit.MILLISECONDS);
+        }
+        Thread acceptor = new Thread(this::acceptLoop, "simulation-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Simulation server listening on localhost:" + getPort()
+                + (spoolDir != null ? ", spool " + spoolDir : ""));
+    }
+
+    /**
+     * Corre cada motor en el pool el tiempo suficiente para que el JIT compile el cálculo de fuerzas
+     */
+    private void warmUp() {
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (String engine : WARMUP_ENGINES) {
+            SimulationJob job = new SimulationJob(engine, 200, 1, 100, 0.001, 0.5, null);
+            runs.add(CompletableFuture.runAsync(() -> {
+                try {
+                    job.createSimulation(outputDir).run();
+                } catch (IOException e) {
+                    logger.warn("Warm-up with " + engine + " failed: " + e.getMessage());
+                }
+            }, jobs));
+        }
+        CompletableFuture.allOf(runs.toArray(new CompletableFuture<?>[0])).join();
+        logger.info(String.format(Locale.US, "Warm-up finished in %.2f s", (System.nanoTime() - start) * 1e-9));
+    }
+
+    /** ----------------- Trabajos ----------------- **/
+
+    /**
+     * Encola un trabajo. status recibe cada línea de estado (desde los threads del pool)
+     * @return la línea final (DONE, CANCELLED o FAILED)
+     */
+    public CompletableFuture<String> submit(SimulationJob job, Consumer<String> status) {
+        RunningJob run = new RunningJob(nextId.getAndIncrement(), job, outputDir, status);
+        active.put(run.id, run);
+        status.accept("ACCEPTED " + run.id + " " + job);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                String line = run.execute();
+                active.remove(run.id);
+                finished.incrementAndGet();
+                status.accept(line);
+                return line;
+            }, jobs);
+        } catch (RejectedExecutionException e) {
+            active.remove(run.id);
+            String line = "FAILED " + run.id + " server is shutting down";
+            status.accept(line);
+            return CompletableFuture.completedFuture(line);
+        }
+    }
+
+    /**
+     * @return false si no hay un trabajo activo con ese id
+     */
+    public boolean cancel(int id) {
+        RunningJob run = active.get(id);
+        if (run == null) {
+            return false;
+        }
+        run.cancelled = true;
+        return true;
+    }
+
+    /**
+     * Ejecución de un trabajo. Se registra en la simulación como StopCondition, que se evalúa cada
+     * pocos pasos: así informa el progreso y corta la corrida si se cancela.
+     */
+    private static class RunningJob implements StopCondition {
+        private final int id;
+        private final SimulationJob job;
+        private final Path outputDir;
+        private final Consumer<String> status;
+        private volatile boolean cancelled;
+        private volatile boolean started;
+        private long lastReport;
+
+        RunningJob(int id, SimulationJob job, Path outputDir, Consumer<String> status) {
+            this.id = id;
+            this.job = job;
+            this.outputDir = outputDir;
+            this.status = status;
+        }
+
+        /**
+         * @return la línea final, que envía submit después de sacar el trabajo de los activos
+         */
+        String execute() {
+            String result;
+            if (cancelled) {
+                result = "CANCELLED " + id;
+            } else {
+                started = true;
+                status.accept("STARTED " + id);
+                long start = System.nanoTime();
+                try {
+                    Simulation2 simulation = job.createSimulation(outputDir);
+                    simulation.addStopCondition(this);
+                    lastReport = System.nanoTime();
+                    simulation.run();
+                    double millis = (System.nanoTime() - start) * 1e-6;
+                    result = cancelled
+                            ? "CANCELLED " + id
+                            : String.format(Locale.US, "DONE %d t=%s elapsed_ms=%.1f", id, simulation.getTotalTime(), millis);
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Job " + id + " failed", e);
+                    result = "FAILED " + id + " " + e;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String check(double t, Galaxy2[] galaxies) {
+            if (cancelled) {
+                return "cancelled";
+            }
+            long now = System.nanoTime();
+            if (now - lastReport >= PROGRESS_INTERVAL_MS * 1_000_000) {
+                lastReport = now;
+                status.accept("PROGRESS " + id + " t=" + t + " maxTime=" + job.getMaxTime());
+            }
+            return null;
+        }
+    }
+
+    private String statusLine() {
+        long running = active.values().stream().filter(run -> run.started).count();
+        return "STATUS running=" + running + " queued=" + (active.size() - running) + " finished=" + finished.get();
+    }
+
+    /** ----------------- Socket ----------------- **/
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    logger.warn("Error accepting connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8), true)) {
+            List<CompletableFuture<String>> pending = new ArrayList<>();
+            Consumer<String> reply = line -> {
+                synchronized (out) {
+                    out.println(line);
+                }
+            };
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.equals("STATUS")) {
+                    reply.accept(statusLine());
+                } else if (line.equals("SHUTDOWN")) {
+                    reply.accept("BYE");
+                    close();
+                    return;
+                } else if (line.startsWith("CANCEL ")) {
+                    String id = line.substring("CANCEL ".length()).trim();
+                    try {
+                        if (!cancel(Integer.parseInt(id))) {
+                            reply.accept("ERROR no active job " + id);
+                        }
+                    } catch (NumberFormatException e) {
+                        reply.accept("ERROR invalid job id " + id);
+                    }
+                } else {
+                    try {
+                        pending.add(submit(SimulationJob.parse(line), reply));
+                    } catch (IllegalArgumentException e) {
+                        reply.accept("ERROR " + e.getMessage());
+                    }
+                }
+            }
+            // el cliente cerró su lado: se le siguen mandando los estados hasta que terminen sus trabajos
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        } catch (IOException e) {
+            logger.warn("Connection error: " + e.getMessage());
+        }
+    }
+
+    /** ----------------- Spool ----------------- **/
+
+    private void pollSpool() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir, "*" + JOB_EXTENSION)) {
+            List<Path> sorted = new ArrayList<>();
+            files.forEach(sorted::add);
+            sorted.sort(null);
+            for (Path file : sorted) {
+                claim(file);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Error reading spool directory " + spoolDir + ": " + e.getMessage());
+        }
+    }
+
+    private void claim(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String base = name.substring(0, name.length() - JOB_EXTENSION.length());
+        Path running = spoolDir.resolve(base + RUNNING_EXTENSION);
+        Files.move(file, running, StandardCopyOption.ATOMIC_MOVE);
+        Path statusFile = spoolDir.resolve(base + STATUS_EXTENSION);
+        Files.deleteIfExists(statusFile);
+
+        Consumer<String> status = line -> {
+            synchronized (statusFile) {
+                try {
+                    Files.write(statusFile, (line + "\n").getBytes(StandardCharsets.UTF_8),
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                } catch (IOException e) {
+                    logger.warn("Error writing " + statusFile + ": " + e.getMessage());
+                }
+            }
+        };
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        boolean invalid = false;
+        for (String line : Files.readAllLines(running, StandardCharsets.UTF_8)) {
+            if (line.trim().isEmpty() || line.trim().startsWith("#")) {
+                continue;
+            }
+            try {
+                results.add(submit(SimulationJob.parse(line), status));
+            } catch (IllegalArgumentException e) {
+                status.accept("ERROR " + e.getMessage());
+                invalid = true;
+            }
+        }
+        boolean anyInvalid = invalid;
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            boolean failed = anyInvalid || results.stream().anyMatch(r -> !r.join().startsWith("DONE"));
+            Path target = spoolDir.resolve(base + (failed ? FAILED_EXTENSION : DONE_EXTENSION));
+            try {
+                Files.move(running, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                logger.warn("Error moving " + running + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /** ----------------- Cierre ----------------- **/
+
+    /**
+     * Bloquea hasta que el servidor se cierre (por close o por un SHUTDOWN)
+     */
+    public void awaitShutdown() {
+        stopped.join();
+    }
+
+    /**
+     * Deja de aceptar trabajos, cancela los activos y espera a que terminen
+     */
+    @Override
+    public void close() throws IOException {
+        if (server.isClosed()) {
+            return;
+        }
+        server.close();
+        spool.shutdownNow();
+        for (RunningJob run : active.values()) {
+            run.cancelled = true;
+        }
+        jobs.shutdown();
+        try {
+            jobs.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        connections.shutdown();
+        stopped.complete(null);
+        logger.info("Simulation server stopped after " + finished.get() + " jobs");
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        Path spoolDir = null;
+        Path outputDir = Paths.get(".");
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean warmUp = true;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port")) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--spool")) {
+                spoolDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--output")) {
+                outputDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--no-warmup")) {
+                warmUp = false;
+            } else {
+                System.err.println("Usage: SimulationServer [--port p] [--spool dir] [--output dir] [--threads n] [--no-warmup]");
+                System.exit(1);
+            }
+        }
+        SimulationServer server = new SimulationServer(port, spoolDir, outputDir, threads);
+        server.start(warmUp);
+        server.awaitShutdown();
+    }
+}
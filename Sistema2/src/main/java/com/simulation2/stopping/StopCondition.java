@@ -0,0 +1,14 @@
+package com.simulation2.stopping;
+
+import com.simulation2.models.Galaxy2;
+
+/**
+ * Condición que corta Simulation2.run antes de maxTime, porque el resultado buscado ya se conoce
+ * o porque la corrida dejó de ser válida
+ */
+public interface StopCondition {
+    /**
+     * @return null si la simulación sigue, o el motivo por el que se detiene
+     */
+    String check(double t, Galaxy2[] galaxies);
+}
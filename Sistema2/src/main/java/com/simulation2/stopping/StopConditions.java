@@ -0,0 +1,134 @@
+package com.simulation2.stopping;
+
+import java.util.function.ToDoubleFunction;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import com.simulation2.analysis.HalfMassRadiusPlugin;
+import com.simulation2.analysis.Reductions;
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+/**
+ * Condiciones de corte de Simulation2. Todas son O(N) por chequeo, salvo energyError que calcula la
+ * energía potencial (O(N^2)), así que conviene chequearla con menos frecuencia que el paso.
+ */
+public final class StopConditions {
+
+    private StopConditions() {
+    }
+
+    /**
+     * Una reducción por galaxia (por ejemplo el radio de media masa) superó threshold después de
+     * minTime en todas las galaxias. Es lo que busca find_crossing_time: con el cruce ya medido
+     * no hace falta seguir integrando.
+     */
+    public static StopCondition thresholdCrossing(String quantity, ToDoubleFunction<Galaxy2> reduction,
+                                                  double threshold, double minTime) {
+        return (t, galaxies) -> {
+            if (t <= minTime) {
+                return null;
+            }
+            for (Galaxy2 galaxy : galaxies) {
+                if (!(reduction.applyAsDouble(galaxy) > threshold)) {
+                    return null;
+                }
+            }
+            return String.format("%s above %.4e at t=%s", quantity, threshold, t);
+        };
+    }
+
+    /**
+     * El radio de media masa de todas las galaxias superó threshold después de minTime
+     */
+    public static StopCondition halfMassRadiusAbove(double threshold, double minTime) {
+        return thresholdCrossing("half-mass radius", StopConditions::halfMassRadius, threshold, minTime);
+    }
+
+    public static StopCondition halfMassRadiusAbove() {
+        return halfMassRadiusAbove(HalfMassRadiusPlugin.DEFAULT_THRESHOLD, HalfMassRadiusPlugin.DEFAULT_MIN_TIME);
+    }
+
+    static double halfMassRadius(Galaxy2 galaxy) {
+        Particle[] stars = galaxy.getStars();
+        double[] x = new double[stars.length];
+        double[] y = new double[stars.length];
+        double[] z = new double[stars.length];
+        for (int i = 0; i < stars.length; i++) {
+            Vector3D position = stars[i].getPosition();
+            x[i] = position.getX();
+            y[i] = position.getY();
+            z[i] = position.getZ();
+        }
+        return Reductions.halfMassRadius(x, y, z, Reductions.centerOfMass(x, y, z));
+    }
+
+    /**
+     * El error relativo de la energía total de alguna galaxia respecto del primer chequeo superó maxRelativeError
+     */
+    public static StopCondition energyError(double maxRelativeError, double G, double h) {
+        return new StopCondition() {
+            private double[] initial;
+
+            @Override
+            public String check(double t, Galaxy2[] galaxies) {
+                if (initial == null || initial.length != galaxies.length) {
+                    initial = new double[galaxies.length];
+                    for (int g = 0; g < galaxies.length; g++) {
+                        initial[g] = galaxies[g].getTotalEnergy(G, h);
+                    }
+                    return null;
+                }
+                for (int g = 0; g < galaxies.length; g++) {
+                    double error = Math.abs((galaxies[g].getTotalEnergy(G, h) - initial[g]) / initial[g]);
+                    if (!(error <= maxRelativeError)) {
+                        return String.format("relative energy error %.3e in %s", error, galaxies[g].getName());
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Alguna estrella tiene posición o velocidad NaN o infinita
+     */
+    public static StopCondition nonFinite() {
+        return (t, galaxies) -> {
+            for (Galaxy2 galaxy : galaxies) {
+                for (Particle star : galaxy.getStars()) {
+                    if (!isFinite(star.getPosition()) || !isFinite(star.getVelocity())) {
+                        return String.format("non-finite state of star %d in %s", star.getId(), galaxy.getName());
+                    }
+                }
+            }
+            return null;
+        };
+    }
+
+    private static boolean isFinite(Vector3D v) {
+        return Double.isFinite(v.getX()) && Double.isFinite(v.getY()) && Double.isFinite(v.getZ());
+    }
+
+    /**
+     * Pasaron más de seconds segundos de reloj desde el primer chequeo
+     */
+    public static StopCondition wallClock(double seconds) {
+        return new StopCondition() {
+            private boolean started; // System.nanoTime() puede ser negativo: no sirve como marca
+            private long start;
+
+            @Override
+            public String check(double t, Galaxy2[] galaxies) {
+                long now = System.nanoTime();
+                if (!started) {
+                    started = true;
+                    start = now;
+                    return null;
+                }
+                double elapsed = (now - start) * 1e-9;
+                return elapsed > seconds ? String.format("wall-clock budget of %.1f s exhausted", seconds) : null;
+            }
+        };
+    }
+}
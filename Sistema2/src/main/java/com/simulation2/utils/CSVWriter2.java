@@ -2,29 +2,93 @@ package com.simulation2.utils;
 
 import com.simulation2.models.Galaxy;
 import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
 
 import java.io.BufferedWriter;
 import java.io.Closeable;
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class CSVWriter2 implements AutoCloseable {
-    private final BufferedWriter writer;
+    private final FastTextWriter writer;
+    private final BufferedWriter indexWriter;
+    private final long initialOffset; // largo del archivo al abrirlo
+
     public CSVWriter2(String filename) throws IOException {
-        this.writer = new BufferedWriter(new FileWriter(filename, true));
+        this(filename, true);
+    }
 
+    /**
+     * @param writeIndex si es true, por cada bloque se agrega una entrada t;galaxy;offset;stars
+     *                   al índice filename.idx (ver FrameIndex). Si el CSV es nuevo, o si se escribe
+     *                   sin índice, se borra el filename.idx que haya quedado: ya no describiría al CSV.
+     *                   Si se agrega a un CSV con datos que no tiene índice, antes se arma el índice de
+     *                   los bloques que ya tiene (ver FrameIndex.build).
+     */
+    public CSVWriter2(String filename, boolean writeIndex) throws IOException {
+        this.initialOffset = new File(filename).length();
+        Path csv = Paths.get(filename);
+        Path index = FrameIndex.indexPathFor(csv);
+        if (initialOffset == 0 || !writeIndex) {
+            Files.deleteIfExists(index);
+        } else if (!Files.exists(index)) {
+            FrameIndex.build(csv).write(index);
+        }
+        this.writer = new FastTextWriter(Paths.get(filename), true);
+        this.indexWriter = writeIndex ? FrameIndex.openForAppend(filename) : null;
     }
 
     public void writeData(double t, Galaxy2 g) throws IOException {
-        String[] starLines = g.toFileGalaxyStars();
-        writer.write(t + ";" + g.toFileGalaxyHeader() + "\n");
-        for (String line : starLines) {
-            writer.write(line + "\n");
+        Particle[] stars = g.getStars();
+        if (indexWriter != null) {
+            long offset = initialOffset + writer.getBytesWritten();
+            indexWriter.write(FrameIndex.entryLine(t, g.getName(), offset, g.getNumberOfStars()));
+        }
+
+        writer.appendShortest(t).append(';');
+        g.writeFileGalaxyHeader(writer);
+        writer.newLine();
+        for (int i = 0; i < g.getNumberOfStars(); i++) {
+            stars[i].writeFileString(writer);
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Escribe un bloque guardado (por ejemplo un TrajectoryFrame leído o un StateSnapshot) con el mismo formato
+     */
+    public void writeFrame(TrajectoryFrame frame) throws IOException {
+        int n = frame.getStarCount();
+        if (indexWriter != null) {
+            long offset = initialOffset + writer.getBytesWritten();
+            indexWriter.write(FrameIndex.entryLine(frame.getTime(), frame.getGalaxyName(), offset, n));
+        }
+
+        writer.appendShortest(frame.getTime()).append(';').append(frame.getGalaxyName())
+                .append(';').appendScientific(frame.getCenterX(), 5)
+                .append(';').appendScientific(frame.getCenterY(), 5)
+                .append(';').appendScientific(frame.getCenterZ(), 5)
+                .newLine();
+        double[][] columns = {frame.getX(), frame.getY(), frame.getZ(), frame.getVx(), frame.getVy(), frame.getVz(),
+                frame.getFx(), frame.getFy(), frame.getFz()};
+        int[] ids = frame.getIds();
+        for (int i = 0; i < n; i++) {
+            writer.append(ids[i]);
+            for (double[] column : columns) {
+                writer.append(';').appendScientific(column[i], 15);
+            }
+            writer.newLine();
         }
     }
 
     @Override
     public void close() throws IOException {
         writer.close();
+        if (indexWriter != null) {
+            indexWriter.close();
+        }
     }
 }
@@ -0,0 +1,124 @@
+package com.simulation2.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lee el archivo binario escrito por TrajectoryConverter. Los bloques se mapean en memoria a pedido,
+ * así que ir a un bloque cualquiera (o leer sólo los tiempos) no recorre el resto del archivo.
+ */
+public class ColumnarTrajectoryReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final int kind;
+    private final long count;
+    private final ByteBuffer index;
+
+    public ColumnarTrajectoryReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = map(0, TrajectoryConverter.HEADER_SIZE);
+            if (header.getInt(0) != TrajectoryConverter.MAGIC) {
+                throw new IOException(path + " is not a converted trajectory");
+            }
+            if (header.getInt(4) != TrajectoryConverter.VERSION) {
+                throw new IOException("Unsupported trajectory version " + header.getInt(4));
+            }
+            this.kind = header.getInt(8);
+            this.count = header.getLong(16);
+            long indexOffset = header.getLong(24);
+            this.index = kind == TrajectoryConverter.KIND_GALAXIES
+                    ? map(indexOffset, count * TrajectoryConverter.INDEX_ENTRY_SIZE)
+                    : null;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private ByteBuffer map(long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * TrajectoryConverter.KIND_GALAXIES o TrajectoryConverter.KIND_OSCILLATOR
+     */
+    public int getKind() {
+        return kind;
+    }
+
+    /**
+     * Cantidad de bloques (Sistema 2) o de filas (Sistema 1)
+     */
+    public int getFrameCount() {
+        return (int) count;
+    }
+
+    public double getTime(int frame) throws IOException {
+        if (kind == TrajectoryConverter.KIND_OSCILLATOR) {
+            return map(TrajectoryConverter.HEADER_SIZE + 8L * frame, 8).getDouble(0);
+        }
+        return index.getDouble(frame * TrajectoryConverter.INDEX_ENTRY_SIZE + 8);
+    }
+
+    public int getStarCount(int frame) {
+        requireGalaxies();
+        return index.getInt(frame * TrajectoryConverter.INDEX_ENTRY_SIZE + 16);
+    }
+
+    public TrajectoryFrame readFrame(int frame) throws IOException {
+        requireGalaxies();
+        long offset = index.getLong(frame * TrajectoryConverter.INDEX_ENTRY_SIZE);
+        int stars = getStarCount(frame);
+        ByteBuffer block = map(offset, 40);
+        int nameLength = block.getInt(36);
+        block = map(offset, TrajectoryConverter.frameSize(nameLength, stars));
+
+        byte[] name = new byte[nameLength];
+        block.position(40);
+        block.get(name);
+        int idsStart = (int) (40 + TrajectoryConverter.align8(nameLength));
+        int columnsStart = (int) (idsStart + TrajectoryConverter.align8(4L * stars));
+        int[] ids = new int[stars];
+        block.position(idsStart);
+        block.asIntBuffer().get(ids);
+        double[][] columns = new double[TrajectoryConverter.STAR_COLUMNS][stars];
+        for (int c = 0; c < columns.length; c++) {
+            block.position(columnsStart + 8 * c * stars);
+            block.asDoubleBuffer().get(columns[c]);
+        }
+        return new TrajectoryFrame(block.getDouble(0), new String(name, StandardCharsets.UTF_8),
+                block.getDouble(8), block.getDouble(16), block.getDouble(24), ids,
+                columns[0], columns[1], columns[2],
+                columns[3], columns[4], columns[5],
+                columns[6], columns[7], columns[8]);
+    }
+
+    /**
+     * Columna completa de un archivo del Sistema 1: 0 = t, 1 = pos, 2 = vel
+     */
+    public double[] readColumn(int column) throws IOException {
+        if (kind != TrajectoryConverter.KIND_OSCILLATOR) {
+            throw new IllegalStateException("Columns are only available for oscillator trajectories");
+        }
+        double[] values = new double[(int) count];
+        ByteBuffer data = map(TrajectoryConverter.HEADER_SIZE + 8L * column * count, 8L * count);
+        data.asDoubleBuffer().get(values);
+        return values;
+    }
+
+    private void requireGalaxies() {
+        if (kind != TrajectoryConverter.KIND_GALAXIES) {
+            throw new IllegalStateException("Frames are only available for galaxy trajectories");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
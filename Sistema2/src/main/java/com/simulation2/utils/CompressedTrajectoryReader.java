@@ -0,0 +1,136 @@
+package com.simulation2.utils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Lee los bloques escritos por CompressedTrajectoryWriter. Las fuerzas no se guardan,
+ * así que los TrajectoryFrame devueltos las tienen en cero.
+ */
+public class CompressedTrajectoryReader implements AutoCloseable {
+    private final DataInputStream in;
+    private final double errorBound;
+    private final double quantum;
+    private final Inflater inflater = new Inflater();
+
+    private final Map<String, long[][]> previousQuantized = new HashMap<>();
+
+    private byte[] compressed = new byte[1 << 12];
+    private byte[] raw = new byte[1 << 12];
+    private int rawPosition;
+
+    public CompressedTrajectoryReader(String filename) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename), 1 << 16));
+        if (in.readInt() != CompressedTrajectoryWriter.MAGIC) {
+            in.close();
+            throw new IOException("Not a compressed trajectory file: " + filename);
+        }
+        this.errorBound = in.readDouble();
+        this.quantum = CompressedTrajectoryWriter.quantumFor(errorBound);
+        in.readInt(); // keyframeInterval, sólo informativo
+    }
+
+    public double getErrorBound() {
+        return errorBound;
+    }
+
+    /**
+     * @return el siguiente bloque, o null al final del archivo
+     */
+    public TrajectoryFrame next() throws IOException {
+        double t;
+        try {
+            t = in.readDouble();
+        } catch (EOFException e) {
+            return null;
+        }
+        String galaxy = in.readUTF();
+        double cx = in.readDouble();
+        double cy = in.readDouble();
+        double cz = in.readDouble();
+        int rawLength = in.readInt();
+        int compressedLength = in.readInt();
+
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+        in.readFully(compressed, 0, compressedLength);
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                inflated += inflater.inflate(raw, inflated, rawLength - inflated);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted block at t=" + t, e);
+        }
+
+        rawPosition = 0;
+        boolean keyframe = raw[rawPosition++] == 1;
+        int n = (int) readVarLong();
+        int[] ids = new int[n];
+        int previousId = 0;
+        for (int i = 0; i < n; i++) {
+            previousId += (int) unZigZag(readVarLong());
+            ids[i] = previousId;
+        }
+
+        long[][] previous = previousQuantized.get(galaxy);
+        if (!keyframe && (previous == null || previous[0].length != n)) {
+            throw new IOException("Delta block without previous keyframe for " + galaxy + " at t=" + t);
+        }
+        long[][] quantized = new long[CompressedTrajectoryWriter.CHANNELS][n];
+        double[][] channels = new double[CompressedTrajectoryWriter.CHANNELS][n];
+        for (int c = 0; c < CompressedTrajectoryWriter.CHANNELS; c++) {
+            for (int i = 0; i < n; i++) {
+                long q = unZigZag(readVarLong());
+                if (!keyframe) {
+                    q += previous[c][i];
+                }
+                quantized[c][i] = q;
+                channels[c][i] = q * quantum;
+            }
+        }
+        previousQuantized.put(galaxy, quantized);
+
+        double[] zeros = new double[n];
+        return new TrajectoryFrame(t, galaxy, cx, cy, cz, ids,
+                channels[0], channels[1], channels[2],
+                channels[3], channels[4], channels[5],
+                zeros, Arrays.copyOf(zeros, n), Arrays.copyOf(zeros, n));
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = raw[rawPosition++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+        inflater.end();
+    }
+}
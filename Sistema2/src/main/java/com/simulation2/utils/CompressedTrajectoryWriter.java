@@ -0,0 +1,209 @@
+package com.simulation2.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+/**
+ * Escribe trayectorias comprimidas: posiciones y velocidades se cuantizan con un error absoluto
+ * máximo elegido por el usuario, cada valor se guarda como diferencia contra el mismo valor de la
+ * misma estrella en el bloque anterior de esa galaxia, y cada bloque se comprime con Deflater.
+ * Las fuerzas no se guardan. Se lee con CompressedTrajectoryReader.
+ *
+ * Formato: encabezado (MAGIC, errorBound, keyframeInterval) y luego por bloque
+ * t, galaxia, cx, cy, cz, largo sin comprimir, largo comprimido y los bytes comprimidos.
+ * El contenido de un bloque es: keyframe (1 byte), n, ids y los 6 canales x y z vx vy vz,
+ * todo como varints zigzag.
+ *
+ * Uso como herramienta: CompressedTrajectoryWriter sim.csv sim.qtr errorBound
+ */
+public class CompressedTrajectoryWriter implements FrameSink {
+    static final int MAGIC = 0x51545231; // "QTR1"
+    static final int CHANNELS = 6;
+
+    private final DataOutputStream out;
+    private final double errorBound;
+    private final double quantum;
+    private final int keyframeInterval;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    // estado cuantizado del bloque anterior de cada galaxia
+    private final Map<String, long[][]> previousQuantized = new HashMap<>();
+    private final Map<String, int[]> previousIds = new HashMap<>();
+    private final Map<String, Integer> blocksSinceKeyframe = new HashMap<>();
+
+    private byte[] raw = new byte[1 << 12];
+    private int rawLength;
+    private byte[] compressed = new byte[1 << 12];
+
+    /**
+     * @param errorBound error absoluto máximo de cada posición y velocidad reconstruida
+     * @param keyframeInterval cada cuántos bloques de una galaxia se escribe uno sin diferencias
+     */
+    public CompressedTrajectoryWriter(String filename, double errorBound, int keyframeInterval) throws IOException {
+        if (errorBound <= 0) {
+            throw new IllegalArgumentException("errorBound must be positive");
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16));
+        this.errorBound = errorBound;
+        this.quantum = quantumFor(errorBound);
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+
+        out.writeInt(MAGIC);
+        out.writeDouble(errorBound);
+        out.writeInt(this.keyframeInterval);
+    }
+
+    public CompressedTrajectoryWriter(String filename, double errorBound) throws IOException {
+        this(filename, errorBound, 100);
+    }
+
+    /**
+     * Paso de cuantización: un poco menor que 2 * errorBound para que el redondeo de
+     * q * quantum nunca supere la cota
+     */
+    static double quantumFor(double errorBound) {
+        return 1.99 * errorBound;
+    }
+
+    public double getErrorBound() {
+        return errorBound;
+    }
+
+    @Override
+    public void writeFrame(double t, Galaxy2[] galaxies) throws IOException {
+        for (Galaxy2 galaxy : galaxies) {
+            Particle[] stars = galaxy.getStars();
+            int n = stars.length;
+            int[] ids = new int[n];
+            double[][] channels = new double[CHANNELS][n];
+            for (int i = 0; i < n; i++) {
+                Particle p = stars[i];
+                ids[i] = p.getId();
+                channels[0][i] = p.getPosition().getX();
+                channels[1][i] = p.getPosition().getY();
+                channels[2][i] = p.getPosition().getZ();
+                channels[3][i] = p.getVelocity().getX();
+                channels[4][i] = p.getVelocity().getY();
+                channels[5][i] = p.getVelocity().getZ();
+            }
+            writeBlock(t, galaxy.getName(), galaxy.getCenterPosition().getX(), galaxy.getCenterPosition().getY(),
+                    galaxy.getCenterPosition().getZ(), ids, channels);
+        }
+    }
+
+    /**
+     * Escribe un bloque leído de un CSV existente
+     */
+    public void writeFrame(TrajectoryFrame frame) throws IOException {
+        double[][] channels = {frame.getX(), frame.getY(), frame.getZ(), frame.getVx(), frame.getVy(), frame.getVz()};
+        writeBlock(frame.getTime(), frame.getGalaxyName(), frame.getCenterX(), frame.getCenterY(), frame.getCenterZ(),
+                frame.getIds(), channels);
+    }
+
+    private void writeBlock(double t, String galaxy, double cx, double cy, double cz,
+                            int[] ids, double[][] channels) throws IOException {
+        int n = ids.length;
+        long[][] previous = previousQuantized.get(galaxy);
+        int sinceKeyframe = blocksSinceKeyframe.getOrDefault(galaxy, 0);
+        boolean keyframe = previous == null || sinceKeyframe >= keyframeInterval
+                || !Arrays.equals(previousIds.get(galaxy), ids);
+        if (keyframe || previous[0].length != n) {
+            previous = new long[CHANNELS][n];
+            keyframe = true;
+        }
+
+        // 1. cuantización y diferencias contra el bloque anterior
+        rawLength = 0;
+        writeRawByte(keyframe ? 1 : 0);
+        writeVarLong(n);
+        int previousId = 0;
+        for (int id : ids) {
+            writeVarLong(zigZag(id - previousId));
+            previousId = id;
+        }
+        long[][] quantized = new long[CHANNELS][n];
+        for (int c = 0; c < CHANNELS; c++) {
+            for (int i = 0; i < n; i++) {
+                long q = Math.round(channels[c][i] / quantum);
+                quantized[c][i] = q;
+                writeVarLong(zigZag(keyframe ? q : q - previous[c][i]));
+            }
+        }
+
+        // 2. compresión del bloque
+        deflater.reset();
+        deflater.setInput(raw, 0, rawLength);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        out.writeDouble(t);
+        out.writeUTF(galaxy);
+        out.writeDouble(cx);
+        out.writeDouble(cy);
+        out.writeDouble(cz);
+        out.writeInt(rawLength);
+        out.writeInt(compressedLength);
+        out.write(compressed, 0, compressedLength);
+
+        previousQuantized.put(galaxy, quantized);
+        previousIds.put(galaxy, ids.clone());
+        blocksSinceKeyframe.put(galaxy, keyframe ? 1 : sinceKeyframe + 1);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeRawByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeRawByte((int) value);
+    }
+
+    private void writeRawByte(int b) {
+        if (rawLength == raw.length) {
+            raw = Arrays.copyOf(raw, raw.length * 2);
+        }
+        raw[rawLength++] = (byte) b;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+        deflater.end();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Uso: CompressedTrajectoryWriter sim.csv sim.qtr errorBound");
+            System.exit(1);
+        }
+        Path input = Paths.get(args[0]);
+        try (TrajectoryParser parser = new TrajectoryParser(input);
+             CompressedTrajectoryWriter writer = new CompressedTrajectoryWriter(args[1], Double.parseDouble(args[2]))) {
+            TrajectoryFrame frame;
+            while ((frame = parser.next()) != null) {
+                writer.writeFrame(frame);
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.simulation2.utils;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Formatea doubles como texto ASCII directamente en un byte[], sin crear objetos por valor.
+ *
+ * Los dígitos son los más cortos que vuelven al mismo double (algoritmo Schubfach de R. Giulietti,
+ * con enteros de 64 bits y una tabla de potencias de 10 de 126 bits que se arma una sola vez).
+ * Sobre esos dígitos:
+ * - appendShortest reproduce Double.toString
+ * - appendScientific reproduce String.format("%.Ne"), que redondea esos mismos dígitos hacia arriba
+ *   en la mitad y completa con ceros
+ * Para |v| >= 2^53 el JDK imprime todos los dígitos del entero en lugar de los más cortos, así que
+ * en ese rango (que no aparece en las simulaciones) se delega en el JDK para seguir siendo idénticos.
+ * El separador decimal es siempre '.'.
+ *
+ * No es thread-safe: cada escritor usa su propia instancia.
+ *
+ * Es la misma clase que simulation1.utils.DoubleFormatter (Sistema1): los dos sistemas se compilan
+ * por separado y ninguno depende del otro, así que cada uno tiene su copia. Los cambios se hacen en
+ * las dos.
+ */
+public final class DoubleFormatter {
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+    private static final long C_MIN = 1L << 52;
+    private static final int Q_MIN = -1074;
+    private static final int C_TINY = 3;
+    private static final long MASK_63 = (1L << 63) - 1;
+    private static final double EXACT_INTEGER_LIMIT = 0x1p53;
+
+    private static final long[] POW10 = new long[19];
+    // g = floor(10^-k 2^-r) + 1 con 2^125 <= 10^-k 2^-r < 2^126, guardado como g1 (63 bits altos) y g0
+    private static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+        BigInteger mask63 = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            BigInteger floor;
+            if (k <= 0) {
+                BigInteger n = BigInteger.TEN.pow(-k);
+                int shift = 126 - n.bitLength();
+                floor = shift >= 0 ? n.shiftLeft(shift) : n.shiftRight(-shift);
+            } else {
+                BigInteger d = BigInteger.TEN.pow(k);
+                floor = BigInteger.ONE.shiftLeft(125 + d.bitLength()).divide(d);
+            }
+            BigInteger g = floor.add(BigInteger.ONE);
+            G[2 * (k - K_MIN)] = g.shiftRight(63).longValueExact();
+            G[2 * (k - K_MIN) + 1] = g.and(mask63).longValueExact();
+        }
+    }
+
+    // resultado de decompose: |v| = digits * 10^exponent, digits con length cifras y sin ceros al final
+    private long digits;
+    private int length;
+    private int exponent;
+
+    /** ----------------- Formatos ----------------- **/
+
+    /**
+     * Escribe v como String.format("%.{fractionDigits}e", v) a partir de out[position].
+     * Necesita lugar para fractionDigits + 10 bytes. Retorna la posición siguiente.
+     */
+    public int appendScientific(byte[] out, int position, double v, int fractionDigits) {
+        if (Double.isNaN(v) || Double.isInfinite(v) || Math.abs(v) >= EXACT_INTEGER_LIMIT) {
+            return appendAscii(out, position, String.format(Locale.US, "%." + fractionDigits + "e", v));
+        }
+        if (Double.doubleToRawLongBits(v) < 0) {
+            out[position++] = '-';
+        }
+
+        long significand;
+        int decimalExponent;
+        int precision = fractionDigits + 1;
+        if (v == 0) {
+            significand = 0;
+            decimalExponent = 0;
+        } else {
+            decompose(Math.abs(v));
+            decimalExponent = exponent + length - 1;
+            if (length <= precision) {
+                significand = digits;
+            } else {
+                // redondeo hacia arriba en la mitad sobre los dígitos más cortos, como Formatter
+                long divisor = POW10[length - precision];
+                significand = digits / divisor;
+                if ((digits / POW10[length - precision - 1]) % 10 >= 5) {
+                    significand++;
+                    if (significand == POW10[precision]) {
+                        significand = POW10[precision - 1];
+                        decimalExponent++;
+                    }
+                }
+            }
+        }
+
+        // mantisa: primera cifra, punto y fractionDigits cifras (completando con ceros)
+        int significandLength = significand == 0 ? 1 : digitCount(significand);
+        int end = position + 1 + (fractionDigits > 0 ? 1 + fractionDigits : 0);
+        for (int i = position; i < end; i++) {
+            out[i] = '0';
+        }
+        long rest = significand;
+        for (int d = significandLength - 1; d >= 0; d--) {
+            int index = d == 0 ? position : position + 1 + d;
+            out[index] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        if (fractionDigits > 0) {
+            out[position + 1] = '.';
+        }
+        position = end;
+
+        out[position++] = 'e';
+        out[position++] = (byte) (decimalExponent < 0 ? '-' : '+');
+        int absExponent = Math.abs(decimalExponent);
+        if (absExponent >= 100) {
+            out[position++] = (byte) ('0' + absExponent / 100);
+        }
+        out[position++] = (byte) ('0' + absExponent / 10 % 10);
+        out[position++] = (byte) ('0' + absExponent % 10);
+        return position;
+    }
+
+    /**
+     * Escribe v como Double.toString(v). Necesita lugar para 26 bytes. Retorna la posición siguiente.
+     */
+    public int appendShortest(byte[] out, int position, double v) {
+        if (Double.isNaN(v) || Double.isInfinite(v) || Math.abs(v) >= EXACT_INTEGER_LIMIT) {
+            return appendAscii(out, position, Double.toString(v));
+        }
+        if (Double.doubleToRawLongBits(v) < 0) {
+            out[position++] = '-';
+        }
+        if (v == 0) {
+            out[position++] = '0';
+            out[position++] = '.';
+            out[position++] = '0';
+            return position;
+        }
+
+        decompose(Math.abs(v));
+        // posición del punto decimal contando desde la primera cifra (|v| = 0.d1d2... * 10^pointPosition)
+        int pointPosition = exponent + length;
+        if (pointPosition > 0 && pointPosition <= 7) {
+            for (int i = 0; i < pointPosition; i++) {
+                out[position++] = i < length ? digitAt(i) : (byte) '0';
+            }
+            out[position++] = '.';
+            if (pointPosition >= length) {
+                out[position++] = '0';
+            } else {
+                for (int i = pointPosition; i < length; i++) {
+                    out[position++] = digitAt(i);
+                }
+            }
+        } else if (pointPosition <= 0 && pointPosition > -3) {
+            out[position++] = '0';
+            out[position++] = '.';
+            for (int i = pointPosition; i < 0; i++) {
+                out[position++] = '0';
+            }
+            for (int i = 0; i < length; i++) {
+                out[position++] = digitAt(i);
+            }
+        } else {
+            out[position++] = digitAt(0);
+            out[position++] = '.';
+            if (length == 1) {
+                out[position++] = '0';
+            } else {
+                for (int i = 1; i < length; i++) {
+                    out[position++] = digitAt(i);
+                }
+            }
+            out[position++] = 'E';
+            int e = pointPosition - 1;
+            if (e < 0) {
+                out[position++] = '-';
+                e = -e;
+            }
+            if (e >= 100) {
+                out[position++] = (byte) ('0' + e / 100);
+            }
+            if (e >= 10) {
+                out[position++] = (byte) ('0' + e / 10 % 10);
+            }
+            out[position++] = (byte) ('0' + e % 10);
+        }
+        return position;
+    }
+
+    private byte digitAt(int index) {
+        return (byte) ('0' + (digits / POW10[length - 1 - index]) % 10);
+    }
+
+    private static int appendAscii(byte[] out, int position, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, out, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    static int digitCount(long value) {
+        int count = 1;
+        while (count < POW10.length && value >= POW10[count]) {
+            count++;
+        }
+        return count;
+    }
+
+    /** ----------------- Dígitos más cortos (Schubfach) ----------------- **/
+
+    /**
+     * Descompone v > 0 finito en digits * 10^exponent con los dígitos más cortos
+     */
+    void decompose(double v) {
+        long bits = Double.doubleToRawLongBits(v);
+        long t = bits & (C_MIN - 1);
+        int bq = (int) (bits >>> 52) & 0x7FF;
+        if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            if (0 < mq && mq < 53) {
+                long f = c >> mq;
+                if (f << mq == c) {
+                    setResult(f, 0);
+                    return;
+                }
+            }
+            toDecimal(-mq, c, 0);
+        } else if (t < C_TINY) {
+            toDecimal(Q_MIN, 10 * t, -1);
+        } else {
+            toDecimal(Q_MIN, t, 0);
+        }
+    }
+
+    private void toDecimal(int q, long c, int dk) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = G[2 * (k - K_MIN)];
+        long g0 = G[2 * (k - K_MIN) + 1];
+
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                setResult(upin ? sp10 : tp10, k);
+                return;
+            }
+        }
+
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            setResult(uin ? s : t, k + dk);
+            return;
+        }
+        long cmp = vb - (s + t << 1);
+        setResult(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk);
+    }
+
+    private void setResult(long f, int e) {
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        digits = f;
+        exponent = e;
+        length = digitCount(f);
+    }
+
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+}
@@ -0,0 +1,208 @@
+package com.simulation2.utils;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parsea números decimales ASCII directamente desde un ByteBuffer, sin crear Strings, con el mismo
+ * resultado que Double.parseDouble (redondeo correcto al double más cercano).
+ *
+ * - Si el significando entra en 53 bits y el exponente decimal en [-22, 22], alcanza una
+ *   multiplicación o división exacta (camino rápido de Clinger)
+ * - Si no, se usa el algoritmo de Eisel-Lemire con una tabla de 5^q de 128 bits que se arma una sola
+ *   vez con BigInteger
+ * - En los pocos casos que Eisel-Lemire no puede decidir (mitades exactas, subnormales, más de 19
+ *   dígitos, NaN, Infinity) se delega en Double.parseDouble
+ */
+public final class FastDoubleParser {
+    private static final int SMALLEST_POWER = -342;
+    private static final int LARGEST_POWER = 308;
+    private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+
+    // 5^q normalizado a 128 bits: HIGH tiene los 64 bits altos y LOW los bajos
+    private static final long[] HIGH = new long[LARGEST_POWER - SMALLEST_POWER + 1];
+    private static final long[] LOW = new long[LARGEST_POWER - SMALLEST_POWER + 1];
+    private static final double[] EXACT_POWERS = new double[23];
+
+    static {
+        BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+        BigInteger two127 = BigInteger.ONE.shiftLeft(127);
+        BigInteger mask64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int q = SMALLEST_POWER; q <= LARGEST_POWER; q++) {
+            BigInteger c;
+            if (q < 0) {
+                BigInteger power5 = BigInteger.valueOf(5).pow(-q);
+                int z = power5.bitLength();
+                if (power5.equals(BigInteger.ONE.shiftLeft(z - 1))) {
+                    z--;
+                }
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                c = BigInteger.ONE.shiftLeft(b).divide(power5).add(BigInteger.ONE);
+                while (c.compareTo(two128) >= 0) {
+                    c = c.shiftRight(1);
+                }
+            } else {
+                c = BigInteger.valueOf(5).pow(q);
+                while (c.compareTo(two127) < 0) {
+                    c = c.shiftLeft(1);
+                }
+                while (c.compareTo(two128) >= 0) {
+                    c = c.shiftRight(1);
+                }
+            }
+            HIGH[q - SMALLEST_POWER] = c.shiftRight(64).longValue();
+            LOW[q - SMALLEST_POWER] = c.and(mask64).longValue();
+        }
+        EXACT_POWERS[0] = 1;
+        for (int i = 1; i < EXACT_POWERS.length; i++) {
+            EXACT_POWERS[i] = EXACT_POWERS[i - 1] * 10;
+        }
+    }
+
+    private FastDoubleParser() {
+    }
+
+    /**
+     * Parsea buffer[from, to) (índices absolutos, sin espacios)
+     * @throws NumberFormatException si el texto no es un número
+     */
+    public static double parse(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long significand = 0; // sin signo: con 19 dígitos puede pasar de Long.MAX_VALUE
+        int digits = 0; // dígitos significativos acumulados (sin ceros a la izquierda)
+        int exponent = 0;
+        boolean anyDigit = false;
+        while (i < to) {
+            byte c = buffer.get(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            anyDigit = true;
+            if (digits > 0 || c != '0') {
+                if (digits < 19) {
+                    significand = significand * 10 + (c - '0');
+                } else {
+                    return slowPath(buffer, from, to);
+                }
+                digits++;
+            }
+            i++;
+        }
+        if (i < to && buffer.get(i) == '.') {
+            i++;
+            while (i < to) {
+                byte c = buffer.get(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                anyDigit = true;
+                if (digits > 0 || c != '0') {
+                    if (digits < 19) {
+                        significand = significand * 10 + (c - '0');
+                    } else {
+                        return slowPath(buffer, from, to);
+                    }
+                    digits++;
+                }
+                exponent--;
+                i++;
+            }
+        }
+        if (!anyDigit) {
+            return slowPath(buffer, from, to);
+        }
+        if (i < to && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negativeExponent = buffer.get(i) == '-';
+                i++;
+            }
+            int start = i;
+            int value = 0;
+            while (i < to && buffer.get(i) >= '0' && buffer.get(i) <= '9') {
+                if (value < 100_000) {
+                    value = value * 10 + (buffer.get(i) - '0');
+                }
+                i++;
+            }
+            if (i == start) {
+                return slowPath(buffer, from, to);
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if (i != to) {
+            return slowPath(buffer, from, to);
+        }
+        return toDouble(negative, significand, exponent, buffer, from, to);
+    }
+
+    private static double toDouble(boolean negative, long w, int q, ByteBuffer buffer, int from, int to) {
+        if (w == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (w > 0 && w <= MAX_EXACT_SIGNIFICAND && q >= -22 && q <= 22) {
+            double value = q < 0 ? w / EXACT_POWERS[-q] : w * EXACT_POWERS[q];
+            return negative ? -value : value;
+        }
+        if (q < SMALLEST_POWER || q > LARGEST_POWER) {
+            return slowPath(buffer, from, to);
+        }
+
+        int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+        long factorHigh = HIGH[q - SMALLEST_POWER];
+        long lower = w * factorHigh;
+        long upper = Math.multiplyHigh(w, factorHigh) + ((factorHigh >> 63) & w) + ((w >> 63) & factorHigh);
+        if ((upper & 0x1FF) == 0x1FF && Long.compareUnsigned(lower + w, lower) < 0) {
+            long factorLow = LOW[q - SMALLEST_POWER];
+            long productLow = w * factorLow;
+            long productMiddle2 = Math.multiplyHigh(w, factorLow) + ((factorLow >> 63) & w) + ((w >> 63) & factorLow);
+            long productMiddle = lower + productMiddle2;
+            long productHigh = upper;
+            if (Long.compareUnsigned(productMiddle, lower) < 0) {
+                productHigh++;
+            }
+            if (productMiddle + 1 == 0 && (productHigh & 0x1FF) == 0x1FF
+                    && Long.compareUnsigned(productLow + w, productLow) < 0) {
+                return slowPath(buffer, from, to);
+            }
+            upper = productHigh;
+            lower = productMiddle;
+        }
+        long upperBit = upper >>> 63;
+        long mantissa = upper >>> (upperBit + 9);
+        lz += (int) (1 ^ upperBit);
+        if (lower == 0 && (upper & 0x1FF) == 0 && (mantissa & 3) == 1) {
+            // justo en la mitad entre dos doubles: hace falta más precisión
+            return slowPath(buffer, from, to);
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (1L << 53)) {
+            mantissa = 1L << 52;
+            lz--;
+        }
+        mantissa &= ~(1L << 52);
+        long realExponent = ((((152170L + 65536L) * q) >> 16) + 1024 + 63) - lz;
+        if (realExponent < 1 || realExponent > 2046) {
+            return slowPath(buffer, from, to);
+        }
+        long bits = mantissa | realExponent << 52 | (negative ? 1L << 63 : 0);
+        return Double.longBitsToDouble(bits);
+    }
+
+    private static double slowPath(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(from + i);
+        }
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+    }
+}
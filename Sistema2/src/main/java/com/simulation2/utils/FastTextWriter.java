@@ -0,0 +1,153 @@
+package com.simulation2.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Escritor de texto sobre un FileChannel que formatea números directamente en un buffer de bytes
+ * (ver DoubleFormatter). Los buffers se reutilizan entre escritores, así que abrir uno por bloque,
+ * como hace Simulation2, tampoco genera basura.
+ *
+ * Sólo escribe ASCII/UTF-8, que es lo que tienen los CSV de la simulación.
+ *
+ * Es la misma clase que simulation1.utils.FastTextWriter (Sistema1): los dos sistemas se compilan
+ * por separado y ninguno depende del otro, así que cada uno tiene su copia. Los cambios se hacen en
+ * las dos.
+ */
+public class FastTextWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_NUMBER_LENGTH = 64;
+    private static final ConcurrentLinkedQueue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+
+    private final FileChannel channel;
+    private final DoubleFormatter formatter = new DoubleFormatter();
+    private ByteBuffer buffer;
+    private byte[] bytes;
+    private int position;
+    private long bytesWritten;
+
+    /**
+     * @param append si es true se escribe al final del archivo; si no, se lo reemplaza
+     */
+    public FastTextWriter(Path path, boolean append) throws IOException {
+        this.channel = append
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+                : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer pooled = POOL.poll();
+        this.buffer = pooled != null ? pooled : ByteBuffer.allocate(BUFFER_SIZE);
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Bytes agregados desde que se abrió el escritor (incluye los que siguen en el buffer)
+     */
+    public long getBytesWritten() {
+        return bytesWritten + position;
+    }
+
+    private void ensure(int length) throws IOException {
+        if (position + length > bytes.length) {
+            flush();
+        }
+    }
+
+    public FastTextWriter append(char c) throws IOException {
+        if (c < 0x80) {
+            ensure(1);
+            bytes[position++] = (byte) c;
+        } else {
+            append(String.valueOf(c));
+        }
+        return this;
+    }
+
+    public FastTextWriter append(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                ensure(1);
+                bytes[position++] = (byte) c;
+            } else if (c < 0x800) {
+                ensure(2);
+                bytes[position++] = (byte) (0xC0 | c >> 6);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            } else {
+                ensure(3);
+                bytes[position++] = (byte) (0xE0 | c >> 12);
+                bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return this;
+    }
+
+    public FastTextWriter append(long value) throws IOException {
+        ensure(20);
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return append(Long.toString(value));
+            }
+            bytes[position++] = '-';
+            value = -value;
+        }
+        int end = position + DoubleFormatter.digitCount(value);
+        for (int i = end - 1; i >= position; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+        return this;
+    }
+
+    /**
+     * Igual que String.format("%.{fractionDigits}e", v) con '.' como separador decimal
+     */
+    public FastTextWriter appendScientific(double v, int fractionDigits) throws IOException {
+        ensure(fractionDigits + MAX_NUMBER_LENGTH);
+        position = formatter.appendScientific(bytes, position, v, fractionDigits);
+        return this;
+    }
+
+    /**
+     * Igual que Double.toString(v)
+     */
+    public FastTextWriter appendShortest(double v) throws IOException {
+        ensure(MAX_NUMBER_LENGTH);
+        position = formatter.appendShortest(bytes, position, v);
+        return this;
+    }
+
+    public FastTextWriter newLine() throws IOException {
+        return append('\n');
+    }
+
+    public void flush() throws IOException {
+        buffer.clear();
+        buffer.limit(position);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        bytesWritten += position;
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+            buffer.clear();
+            POOL.offer(buffer);
+            buffer = null;
+            bytes = null;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.simulation2.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice de bloques de un archivo de CSVWriter2. Se guarda al lado del CSV como sim.csv.idx con una
+ * línea t;galaxy;offset;stars por bloque, donde offset es la posición en bytes del encabezado del bloque.
+ *
+ * Uso como herramienta para archivos ya escritos: FrameIndex sim_1.csv sim_2.csv ...
+ */
+public class FrameIndex {
+    public static final String EXTENSION = ".idx";
+    private static final String HEADER = "t;galaxy;offset;stars";
+
+    private final double[] times;
+    private final String[] galaxies;
+    private final long[] offsets;
+    private final int[] starCounts;
+
+    public FrameIndex(double[] times, String[] galaxies, long[] offsets, int[] starCounts) {
+        this.times = times;
+        this.galaxies = galaxies;
+        this.offsets = offsets;
+        this.starCounts = starCounts;
+    }
+
+    public static Path indexPathFor(Path csv) {
+        return Paths.get(csv.toString() + EXTENSION);
+    }
+
+    /**
+     * Abre el índice de filename para agregar entradas, escribiendo el encabezado si el índice es nuevo
+     */
+    static BufferedWriter openForAppend(String filename) throws IOException {
+        File index = new File(filename + EXTENSION);
+        boolean isNew = index.length() == 0;
+        BufferedWriter writer = new BufferedWriter(new FileWriter(index, true));
+        if (isNew) {
+            writer.write(HEADER + "\n");
+        }
+        return writer;
+    }
+
+    static String entryLine(double t, String galaxy, long offset, int stars) {
+        return t + ";" + galaxy + ";" + offset + ";" + stars + "\n";
+    }
+
+    /** ----------------- Lectura y construcción ----------------- **/
+
+    public static FrameIndex load(Path index) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.equals(HEADER)) {
+                    continue;
+                }
+                rows.add(line.split(";"));
+            }
+        }
+        int n = rows.size();
+        double[] times = new double[n];
+        String[] galaxies = new String[n];
+        long[] offsets = new long[n];
+        int[] starCounts = new int[n];
+        for (int i = 0; i < n; i++) {
+            String[] row = rows.get(i);
+            times[i] = Double.parseDouble(row[0]);
+            galaxies[i] = row[1];
+            offsets[i] = Long.parseLong(row[2]);
+            starCounts[i] = Integer.parseInt(row[3]);
+        }
+        return new FrameIndex(times, galaxies, offsets, starCounts);
+    }
+
+    /**
+     * Construye el índice de un CSV ya escrito recorriéndolo una vez a nivel de bytes
+     */
+    public static FrameIndex build(Path csv) throws IOException {
+        List<Double> times = new ArrayList<>();
+        List<String> galaxies = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        List<Integer> starCounts = new ArrayList<>();
+
+        try (InputStream in = Files.newInputStream(csv)) {
+            byte[] buffer = new byte[1 << 16];
+            StringBuilder line = new StringBuilder();
+            long position = 0;
+            long lineStart = 0;
+            int stars = 0;
+            int read;
+            boolean endOfFile = false;
+            while (!endOfFile) {
+                read = in.read(buffer);
+                endOfFile = read < 0;
+                int limit = endOfFile ? 1 : read;
+                for (int i = 0; i < limit; i++) {
+                    // al final del archivo se procesa la última línea aunque no termine en '\n'
+                    boolean endOfLine = endOfFile || buffer[i] == '\n';
+                    if (!endOfLine) {
+                        line.append((char) buffer[i]);
+                        position++;
+                        continue;
+                    }
+                    if (line.length() > 0) {
+                        String[] parts = line.toString().trim().split(";");
+                        if (TrajectoryParser.isHeader(parts)) {
+                            if (!offsets.isEmpty()) {
+                                starCounts.add(stars);
+                            }
+                            times.add(Double.parseDouble(parts[0]));
+                            galaxies.add(parts[1]);
+                            offsets.add(lineStart);
+                            stars = 0;
+                        } else if (parts.length == 10) {
+                            stars++;
+                        }
+                    }
+                    line.setLength(0);
+                    position++;
+                    lineStart = position;
+                }
+            }
+            if (!offsets.isEmpty()) {
+                starCounts.add(stars);
+            }
+        }
+
+        int n = offsets.size();
+        double[] t = new double[n];
+        long[] o = new long[n];
+        int[] s = new int[n];
+        for (int i = 0; i < n; i++) {
+            t[i] = times.get(i);
+            o[i] = offsets.get(i);
+            s[i] = starCounts.get(i);
+        }
+        return new FrameIndex(t, galaxies.toArray(new String[0]), o, s);
+    }
+
+    public void write(Path index) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(index, StandardCharsets.UTF_8)) {
+            writer.write(HEADER + "\n");
+            for (int i = 0; i < size(); i++) {
+                writer.write(entryLine(times[i], galaxies[i], offsets[i], starCounts[i]));
+            }
+        }
+    }
+
+    /** ----------------- Consultas ----------------- **/
+
+    public int size() {
+        return offsets.length;
+    }
+
+    public double getTime(int frame) {
+        return times[frame];
+    }
+
+    public String getGalaxy(int frame) {
+        return galaxies[frame];
+    }
+
+    public long getOffset(int frame) {
+        return offsets[frame];
+    }
+
+    public int getStarCount(int frame) {
+        return starCounts[frame];
+    }
+
+    /**
+     * Primer bloque con tiempo >= t (los tiempos del archivo son no decrecientes), o size() si no hay
+     */
+    public int firstFrameAtOrAfter(double t) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] < t) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Índices de los bloques con tiempo en [from, to]
+     */
+    public int[] framesInRange(double from, double to) {
+        int start = firstFrameAtOrAfter(from);
+        int end = start;
+        while (end < size() && times[end] <= to) {
+            end++;
+        }
+        int[] frames = new int[end - start];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = start + i;
+        }
+        return frames;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FrameIndex{frames=%d, firstTime=%s, lastTime=%s}",
+                size(), size() > 0 ? times[0] : "-", size() > 0 ? times[size() - 1] : "-");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof FrameIndex)) {
+            return false;
+        }
+        FrameIndex other = (FrameIndex) o;
+        return Arrays.equals(times, other.times) && Arrays.equals(galaxies, other.galaxies)
+                && Arrays.equals(offsets, other.offsets) && Arrays.equals(starCounts, other.starCounts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(offsets);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: FrameIndex sim.csv [sim2.csv ...]");
+            System.exit(1);
+        }
+        for (String file : args) {
+            Path csv = Paths.get(file);
+            FrameIndex index = build(csv);
+            index.write(indexPathFor(csv));
+            System.out.println(file + ": " + index);
+        }
+    }
+}
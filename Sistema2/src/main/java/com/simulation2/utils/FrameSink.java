@@ -0,0 +1,18 @@
+package com.simulation2.utils;
+
+import com.simulation2.models.Galaxy2;
+
+import java.io.IOException;
+
+/**
+ * Destino adicional para los estados que escribe Simulation2 (además del CSV)
+ */
+public interface FrameSink extends AutoCloseable {
+    /**
+     * Recibe el estado de todas las galaxias en el tiempo t
+     */
+    void writeFrame(double t, Galaxy2[] galaxies) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
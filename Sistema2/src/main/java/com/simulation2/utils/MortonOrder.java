@@ -0,0 +1,102 @@
+package com.simulation2.utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.simulation2.models.Particle;
+
+/**
+ * Orden de Morton (curva Z): se cuantiza cada coordenada a 21 bits dentro de la caja que contiene
+ * a todas las partículas y se intercalan los bits de x, y, z. Partículas con claves cercanas están
+ * cerca en el espacio, así que cortar el orden en tramos contiguos da dominios compactos.
+ */
+public final class MortonOrder {
+    private static final int BITS = 21;
+    private static final long MAX_CELL = (1L << BITS) - 1;
+
+    private MortonOrder() {
+    }
+
+    /**
+     * Intercala los 21 bits bajos de v dejando dos ceros entre cada bit
+     */
+    static long spread(long v) {
+        v &= MAX_CELL;
+        v = (v | (v << 32)) & 0x1F00000000FFFFL;
+        v = (v | (v << 16)) & 0x1F0000FF0000FFL;
+        v = (v | (v << 8)) & 0x100F00F00F00F00FL;
+        v = (v | (v << 4)) & 0x10C30C30C30C30C3L;
+        v = (v | (v << 2)) & 0x1249249249249249L;
+        return v;
+    }
+
+    private static long cell(double value, double min, double scale) {
+        long cell = (long) ((value - min) * scale);
+        return Math.max(0, Math.min(MAX_CELL, cell));
+    }
+
+    /**
+     * Clave de Morton de todas las posiciones dentro de su caja contenedora
+     */
+    public static long[] keys(double[] x, double[] y, double[] z) {
+        int n = x.length;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            minZ = Math.min(minZ, z[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+            maxZ = Math.max(maxZ, z[i]);
+        }
+        double extent = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        double scale = extent > 0 ? MAX_CELL / extent : 0;
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = spread(cell(x[i], minX, scale))
+                    | (spread(cell(y[i], minY, scale)) << 1)
+                    | (spread(cell(z[i], minZ, scale)) << 2);
+        }
+        return keys;
+    }
+
+    /**
+     * Permutación que ordena las posiciones según su clave de Morton (order[k] = índice original)
+     */
+    public static int[] order(double[] x, double[] y, double[] z) {
+        long[] keys = keys(x, y, z);
+        Integer[] indices = new Integer[keys.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, Comparator.comparingLong(i -> keys[i]));
+        int[] order = new int[indices.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = indices[i];
+        }
+        return order;
+    }
+
+    public static int[] order(Particle[] particles) {
+        int n = particles.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = particles[i].getPosition().getX();
+            y[i] = particles[i].getPosition().getY();
+            z[i] = particles[i].getPosition().getZ();
+        }
+        return order(x, y, z);
+    }
+
+    /**
+     * Primer elemento del tramo part cuando n elementos se reparten en parts tramos contiguos
+     * (el tramo part es [start(n, parts, part), start(n, parts, part + 1)))
+     */
+    public static int partStart(int n, int parts, int part) {
+        return (int) ((long) n * part / parts);
+    }
+}
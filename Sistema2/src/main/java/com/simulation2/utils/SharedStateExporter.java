@@ -0,0 +1,128 @@
+package com.simulation2.utils;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+/**
+ * Publica las últimas posiciones de la simulación en un archivo mapeado en memoria para que un
+ * visor local (python/live_view.py) las lea mientras la simulación corre.
+ *
+ * Hay dos buffers y un contador de secuencia (seqlock). Para publicar se pone la secuencia en impar,
+ * se escribe el buffer que no está activo, se lo marca como activo y se vuelve a una secuencia par.
+ * El que escribe nunca espera a los lectores. Un lector lee la secuencia, el índice del buffer activo,
+ * ese buffer, y otra vez la secuencia: si no cambió la lectura es consistente (el buffer activo no se
+ * toca hasta la publicación siguiente).
+ *
+ * Layout (little endian):
+ *   0 magic (int), 4 versión (int), 8 capacidad en estrellas (int), 16 secuencia (long), 24 buffer activo (int)
+ *   buffer b en HEADER_SIZE + b * bufferSize: t (double), cantidad de estrellas (int), relleno (int),
+ *   y luego x, y, z de cada estrella (double)
+ */
+public class SharedStateExporter implements AutoCloseable {
+    public static final int MAGIC = 0x4C495645; // "LIVE"
+    public static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int CAPACITY_OFFSET = 8;
+    static final int SEQUENCE_OFFSET = 16;
+    static final int ACTIVE_OFFSET = 24;
+    static final int BUFFER_HEADER_SIZE = 16;
+
+    static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int bufferSize;
+    private final double[] positions;
+    private long sequence;
+    private int active;
+
+    /**
+     * @param capacity cantidad máxima de estrellas que se publican (las que sobran se ignoran)
+     */
+    public SharedStateExporter(Path path, int capacity) throws IOException {
+        this.capacity = capacity;
+        this.bufferSize = bufferSize(capacity);
+        this.positions = new double[capacity * 3];
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + 2L * bufferSize);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        LONG_VIEW.setRelease(buffer, SEQUENCE_OFFSET, 0L);
+        INT_VIEW.setRelease(buffer, ACTIVE_OFFSET, 0);
+    }
+
+    static int bufferSize(int capacity) {
+        return BUFFER_HEADER_SIZE + capacity * 3 * Double.BYTES;
+    }
+
+    static int bufferOffset(int index, int capacity) {
+        return HEADER_SIZE + index * bufferSize(capacity);
+    }
+
+    /**
+     * Publica las posiciones de todas las estrellas de las galaxias (en orden de galaxia)
+     */
+    public void publish(double t, Galaxy2[] galaxies) {
+        int count = 0;
+        for (Galaxy2 galaxy : galaxies) {
+            for (Particle star : galaxy.getStars()) {
+                if (count == capacity) {
+                    break;
+                }
+                positions[3 * count] = star.getPosition().getX();
+                positions[3 * count + 1] = star.getPosition().getY();
+                positions[3 * count + 2] = star.getPosition().getZ();
+                count++;
+            }
+        }
+        publish(t, positions, count);
+    }
+
+    /**
+     * Publica count estrellas con coordenadas xyz intercaladas en positions
+     */
+    public void publish(double t, double[] positions, int count) {
+        int back = 1 - active;
+        int offset = bufferOffset(back, capacity);
+
+        // secuencia impar: hay una escritura en curso
+        LONG_VIEW.setVolatile(buffer, SEQUENCE_OFFSET, ++sequence);
+        VarHandle.storeStoreFence();
+
+        buffer.putDouble(offset, t);
+        buffer.putInt(offset + 8, count);
+        for (int i = 0; i < count * 3; i++) {
+            buffer.putDouble(offset + BUFFER_HEADER_SIZE + i * Double.BYTES, positions[i]);
+        }
+
+        INT_VIEW.setRelease(buffer, ACTIVE_OFFSET, back);
+        active = back;
+        // secuencia par: buffer activo completo
+        LONG_VIEW.setRelease(buffer, SEQUENCE_OFFSET, ++sequence);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
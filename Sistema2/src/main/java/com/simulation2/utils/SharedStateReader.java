@@ -0,0 +1,85 @@
+package com.simulation2.utils;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lee el estado publicado por SharedStateExporter sin bloquear al que escribe: repite la lectura
+ * mientras la secuencia cambie entre el principio y el final.
+ */
+public class SharedStateReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    public SharedStateReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != SharedStateExporter.MAGIC) {
+            channel.close();
+            throw new IOException("Not a shared state file: " + path);
+        }
+        this.capacity = buffer.getInt(SharedStateExporter.CAPACITY_OFFSET);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Estado publicado más reciente. positions debe tener lugar para 3 * capacidad valores
+     */
+    public Snapshot read(double[] positions) {
+        while (true) {
+            long before = (long) SharedStateExporter.LONG_VIEW.getAcquire(buffer, SharedStateExporter.SEQUENCE_OFFSET);
+            int active = (int) SharedStateExporter.INT_VIEW.getAcquire(buffer, SharedStateExporter.ACTIVE_OFFSET);
+            int offset = SharedStateExporter.bufferOffset(active, capacity);
+            double t = buffer.getDouble(offset);
+            int count = Math.min(buffer.getInt(offset + 8), capacity);
+            for (int i = 0; i < count * 3; i++) {
+                positions[i] = buffer.getDouble(offset + SharedStateExporter.BUFFER_HEADER_SIZE + i * Double.BYTES);
+            }
+            VarHandle.loadLoadFence();
+            long after = (long) SharedStateExporter.LONG_VIEW.getAcquire(buffer, SharedStateExporter.SEQUENCE_OFFSET);
+            if (before == after) {
+                return new Snapshot(after, t, count);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static class Snapshot {
+        private final long sequence;
+        private final double time;
+        private final int starCount;
+
+        public Snapshot(long sequence, double time, int starCount) {
+            this.sequence = sequence;
+            this.time = time;
+            this.starCount = starCount;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public double getTime() {
+            return time;
+        }
+
+        public int getStarCount() {
+            return starCount;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.simulation2.utils;
+
+/**
+ * Historia de una estrella leída con StarTrackReader: un valor por paso en cada columna, con NaN en
+ * los pasos en los que la estrella no estaba.
+ */
+public class StarTrack {
+    private final String galaxyName;
+    private final int id;
+    private final double[] times;
+    private final double[] x, y, z;
+    private final double[] vx, vy, vz;
+    private final double[] fx, fy, fz;
+
+    public StarTrack(String galaxyName, int id, double[] times, double[] x, double[] y, double[] z,
+                     double[] vx, double[] vy, double[] vz,
+                     double[] fx, double[] fy, double[] fz) {
+        this.galaxyName = galaxyName;
+        this.id = id;
+        this.times = times;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.vx = vx;
+        this.vy = vy;
+        this.vz = vz;
+        this.fx = fx;
+        this.fy = fy;
+        this.fz = fz;
+    }
+
+    /** ----------------- Getters ----------------- **/
+
+    public String getGalaxyName() { return galaxyName; }
+    public int getId() { return id; }
+    public int getStepCount() { return times.length; }
+    public double[] getTimes() { return times; }
+    public double[] getX() { return x; }
+    public double[] getY() { return y; }
+    public double[] getZ() { return z; }
+    public double[] getVx() { return vx; }
+    public double[] getVy() { return vy; }
+    public double[] getVz() { return vz; }
+    public double[] getFx() { return fx; }
+    public double[] getFy() { return fy; }
+    public double[] getFz() { return fz; }
+
+    @Override
+    public String toString() {
+        return String.format("StarTrack{galaxy='%s', id=%d, steps=%d}", galaxyName, id, times.length);
+    }
+}
@@ -0,0 +1,211 @@
+package com.simulation2.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lee el archivo escrito por StarTrackWriter. Leer un rango de estrellas consecutivas mapea un solo
+ * tramo contiguo por ventana, y las ventanas fuera del intervalo de tiempo pedido no se tocan.
+ */
+public class StarTrackReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final int trackCount;
+    private final int windowCount;
+    private final long stepCount;
+    private final long[] windowOffsets;
+    private final double[] windowStarts;
+    private final int[] windowSteps;
+    private final int[] windowTracks;
+    private final int[] trackGalaxies;
+    private final int[] trackIds;
+    private final String[] galaxyNames;
+
+    public StarTrackReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = map(0, StarTrackWriter.HEADER_SIZE);
+            if (header.getInt(0) != StarTrackWriter.MAGIC) {
+                throw new IOException(path + " is not a star track file");
+            }
+            if (header.getInt(4) != StarTrackWriter.VERSION) {
+                throw new IOException("Unsupported star track version " + header.getInt(4));
+            }
+            this.trackCount = header.getInt(8);
+            this.windowCount = header.getInt(12);
+            this.stepCount = header.getLong(16);
+            long indexOffset = header.getLong(24);
+
+            ByteBuffer index = map(indexOffset, channel.size() - indexOffset);
+            windowOffsets = new long[windowCount];
+            windowStarts = new double[windowCount];
+            windowSteps = new int[windowCount];
+            windowTracks = new int[windowCount];
+            for (int w = 0; w < windowCount; w++) {
+                windowOffsets[w] = index.getLong();
+                windowStarts[w] = index.getDouble();
+                windowSteps[w] = index.getInt();
+                windowTracks[w] = index.getInt();
+            }
+            trackGalaxies = new int[trackCount];
+            trackIds = new int[trackCount];
+            for (int k = 0; k < trackCount; k++) {
+                trackGalaxies[k] = index.getInt();
+                trackIds[k] = index.getInt();
+            }
+            galaxyNames = new String[index.getInt()];
+            for (int g = 0; g < galaxyNames.length; g++) {
+                byte[] name = new byte[index.getInt()];
+                index.get(name);
+                galaxyNames[g] = new String(name, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private ByteBuffer map(long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** ----------------- Índice ----------------- **/
+
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public int getWindowCount() {
+        return windowCount;
+    }
+
+    public String getGalaxyName(int track) {
+        return galaxyNames[trackGalaxies[track]];
+    }
+
+    public int getId(int track) {
+        return trackIds[track];
+    }
+
+    /**
+     * @return número de la estrella id de la galaxia, o -1 si no está en el archivo
+     */
+    public int findTrack(String galaxy, int id) {
+        for (int k = 0; k < trackCount; k++) {
+            if (trackIds[k] == id && galaxyNames[trackGalaxies[k]].equals(galaxy)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tiempos de todos los pasos
+     */
+    public double[] readTimes() throws IOException {
+        double[] times = new double[(int) stepCount];
+        int step = 0;
+        for (int w = 0; w < windowCount; w++) {
+            map(windowOffsets[w], 8L * windowSteps[w]).asDoubleBuffer().get(times, step, windowSteps[w]);
+            step += windowSteps[w];
+        }
+        return times;
+    }
+
+    /** ----------------- Trayectorias ----------------- **/
+
+    public StarTrack readTrack(int track) throws IOException {
+        return readTracks(track, 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY)[0];
+    }
+
+    public StarTrack readTrack(String galaxy, int id) throws IOException {
+        int track = findTrack(galaxy, id);
+        if (track < 0) {
+            throw new IllegalArgumentException("No star " + id + " in " + galaxy);
+        }
+        return readTrack(track);
+    }
+
+    /**
+     * Historia de las estrellas first .. first + count - 1 en los pasos con t en [from, to]
+     */
+    public StarTrack[] readTracks(int first, int count, double from, double to) throws IOException {
+        if (first < 0 || count < 0 || first + count > trackCount) {
+            throw new IndexOutOfBoundsException("Tracks " + first + ".." + (first + count) + " of " + trackCount);
+        }
+        // 1. pasos elegidos de cada ventana; se saltean las que empiezan después de to
+        int[] selectedStart = new int[windowCount];
+        int[] selectedEnd = new int[windowCount];
+        double[][] windowTimes = new double[windowCount][];
+        int total = 0;
+        for (int w = 0; w < windowCount && windowStarts[w] <= to; w++) {
+            double[] times = new double[windowSteps[w]];
+            map(windowOffsets[w], 8L * times.length).asDoubleBuffer().get(times);
+            int start = 0;
+            while (start < times.length && times[start] < from) {
+                start++;
+            }
+            int end = start;
+            while (end < times.length && times[end] <= to) {
+                end++;
+            }
+            windowTimes[w] = times;
+            selectedStart[w] = start;
+            selectedEnd[w] = end;
+            total += end - start;
+        }
+
+        double[] times = new double[total];
+        double[][][] values = new double[count][StarTrackWriter.STAR_COLUMNS][total];
+        int step = 0;
+        for (int w = 0; w < windowCount; w++) {
+            int selected = selectedEnd[w] - selectedStart[w];
+            if (selected <= 0) {
+                continue;
+            }
+            System.arraycopy(windowTimes[w], selectedStart[w], times, step, selected);
+
+            // 2. un solo tramo con las estrellas pedidas que ya existían en la ventana
+            int steps = windowSteps[w];
+            int stored = Math.max(0, Math.min(count, windowTracks[w] - first));
+            long trackSize = 8L * StarTrackWriter.STAR_COLUMNS * steps;
+            DoubleBuffer block = stored > 0
+                    ? map(windowOffsets[w] + 8L * steps + first * trackSize, stored * trackSize).asDoubleBuffer()
+                    : null;
+            for (int k = 0; k < count; k++) {
+                for (int c = 0; c < StarTrackWriter.STAR_COLUMNS; c++) {
+                    if (k < stored) {
+                        block.position((k * StarTrackWriter.STAR_COLUMNS + c) * steps + selectedStart[w]);
+                        block.get(values[k][c], step, selected);
+                    } else {
+                        Arrays.fill(values[k][c], step, step + selected, Double.NaN);
+                    }
+                }
+            }
+            step += selected;
+        }
+
+        StarTrack[] tracks = new StarTrack[count];
+        for (int k = 0; k < count; k++) {
+            double[][] v = values[k];
+            tracks[k] = new StarTrack(getGalaxyName(first + k), getId(first + k), times.clone(),
+                    v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8]);
+        }
+        return tracks;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,333 @@
+package com.simulation2.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+/**
+ * Escribe las trayectorias transpuestas, estrella por estrella: el archivo se corta en ventanas de
+ * windowSteps pasos y dentro de cada ventana la historia de cada estrella (sus 9 columnas) queda
+ * contigua. Así la trayectoria de una estrella, o de un rango de estrellas, es una lectura
+ * secuencial por ventana en lugar de recorrer todos los bloques del CSV (ver StarTrackReader y
+ * python/star_tracks.py).
+ *
+ * Se puede usar como FrameSink de Simulation2 o para transponer un CSV ya escrito. Una estrella se
+ * identifica por su galaxia y su id (los ids se repiten entre galaxias). Los bloques consecutivos
+ * con el mismo t forman un paso. Las estrellas que faltan en un paso (por ejemplo después de una
+ * colisión) quedan en NaN.
+ *
+ * Formato (little endian, alineado a 8 bytes salvo los nombres del final; el archivo se completa
+ * con ceros hasta un múltiplo de 8 bytes):
+ *   encabezado: MAGIC, VERSION, estrellas, ventanas (ints), pasos, offset del índice (longs)
+ *   por ventana: los t de sus pasos y, por estrella, las columnas x, y, z, vx, vy, vz, fx, fy, fz
+ *     de esos pasos una detrás de la otra
+ *   índice: por ventana offset (long), primer t (double), pasos, estrellas (ints); por estrella
+ *     galaxia (número) e id (ints); cantidad de galaxias y por galaxia largo y nombre UTF-8
+ * Una ventana sólo guarda las estrellas vistas hasta ese momento.
+ *
+ * Uso como herramienta: StarTrackWriter sim.csv [sim.tracks] [--window pasos]
+ */
+public class StarTrackWriter implements FrameSink {
+    private static final Logger logger = LoggerFactory.getLogger(StarTrackWriter.class);
+
+    public static final int MAGIC = 0x54524B53; // "TRKS"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".tracks";
+    public static final int DEFAULT_WINDOW_STEPS = 256;
+    static final int HEADER_SIZE = 32;
+    static final int WINDOW_ENTRY_SIZE = 24;
+    static final int TRACK_ENTRY_SIZE = 8;
+    static final int STAR_COLUMNS = 9;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final int windowSteps;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long position = HEADER_SIZE;
+
+    // estrellas: galaxia e id de cada una, y la estrella de cada (galaxia, id)
+    private final List<String> galaxyNames = new ArrayList<>();
+    private final Map<String, Integer> galaxyOrdinals = new HashMap<>();
+    private final List<long[]> trackKeys = new ArrayList<>();
+    private final Map<Long, Integer> trackOrdinals = new HashMap<>();
+    // último arreglo de ids de cada galaxia y sus estrellas, para no buscar en el mapa en cada bloque
+    private final Map<String, int[]> lastIds = new HashMap<>();
+    private final Map<String, int[]> lastTracks = new HashMap<>();
+
+    // ventana actual: por estrella las 9 columnas de windowSteps valores
+    private final double[] times;
+    private final List<double[]> columns = new ArrayList<>();
+    private int steps;
+
+    // índice de ventanas
+    private final List<long[]> windows = new ArrayList<>(); // offset, bits del primer t, pasos, estrellas
+    private long totalSteps;
+
+    public StarTrackWriter(String filename) throws IOException {
+        this(Paths.get(filename), DEFAULT_WINDOW_STEPS);
+    }
+
+    /**
+     * @param windowSteps pasos por ventana; la memoria usada es windowSteps * estrellas * 72 bytes
+     */
+    public StarTrackWriter(Path path, int windowSteps) throws IOException {
+        if (windowSteps < 1) {
+            throw new IllegalArgumentException("windowSteps must be positive");
+        }
+        this.windowSteps = windowSteps;
+        this.times = new double[windowSteps];
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public static Path defaultOutputFor(Path csv) {
+        String name = csv.toString();
+        return Paths.get((name.endsWith(".csv") ? name.substring(0, name.length() - 4) : name) + EXTENSION);
+    }
+
+    /** ----------------- Entrada ----------------- **/
+
+    @Override
+    public void writeFrame(double t, Galaxy2[] galaxies) throws IOException {
+        beginStep(t);
+        for (Galaxy2 galaxy : galaxies) {
+            Particle[] stars = galaxy.getStars();
+            int[] ids = new int[stars.length];
+            for (int i = 0; i < stars.length; i++) {
+                ids[i] = stars[i].getId();
+            }
+            int[] tracks = tracksOf(galaxy.getName(), ids);
+            int step = steps - 1;
+            for (int i = 0; i < stars.length; i++) {
+                Particle star = stars[i];
+                double[] values = columns.get(tracks[i]);
+                values[step] = star.getPosition().getX();
+                values[windowSteps + step] = star.getPosition().getY();
+                values[2 * windowSteps + step] = star.getPosition().getZ();
+                values[3 * windowSteps + step] = star.getVelocity().getX();
+                values[4 * windowSteps + step] = star.getVelocity().getY();
+                values[5 * windowSteps + step] = star.getVelocity().getZ();
+                values[6 * windowSteps + step] = star.getForce().getX();
+                values[7 * windowSteps + step] = star.getForce().getY();
+                values[8 * windowSteps + step] = star.getForce().getZ();
+            }
+        }
+    }
+
+    /**
+     * Agrega un bloque leído de un CSV existente; los bloques seguidos con el mismo t van al mismo paso
+     */
+    public void writeFrame(TrajectoryFrame frame) throws IOException {
+        if (steps == 0 || times[steps - 1] != frame.getTime()) {
+            beginStep(frame.getTime());
+        }
+        int[] tracks = tracksOf(frame.getGalaxyName(), frame.getIds());
+        double[][] source = {frame.getX(), frame.getY(), frame.getZ(), frame.getVx(), frame.getVy(),
+                frame.getVz(), frame.getFx(), frame.getFy(), frame.getFz()};
+        int step = steps - 1;
+        for (int i = 0; i < tracks.length; i++) {
+            double[] values = columns.get(tracks[i]);
+            for (int c = 0; c < STAR_COLUMNS; c++) {
+                values[c * windowSteps + step] = source[c][i];
+            }
+        }
+    }
+
+    private void beginStep(double t) throws IOException {
+        if (steps == windowSteps) {
+            flushWindow();
+        }
+        times[steps++] = t;
+        totalSteps++;
+    }
+
+    private int[] tracksOf(String galaxy, int[] ids) {
+        if (Arrays.equals(lastIds.get(galaxy), ids)) {
+            return lastTracks.get(galaxy);
+        }
+        Integer galaxyOrdinal = galaxyOrdinals.get(galaxy);
+        if (galaxyOrdinal == null) {
+            galaxyOrdinal = galaxyNames.size();
+            galaxyNames.add(galaxy);
+            galaxyOrdinals.put(galaxy, galaxyOrdinal);
+        }
+        int[] tracks = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            long key = (long) galaxyOrdinal << 32 | ids[i] & 0xFFFFFFFFL;
+            Integer track = trackOrdinals.get(key);
+            if (track == null) {
+                track = trackKeys.size();
+                trackKeys.add(new long[]{galaxyOrdinal, ids[i]});
+                trackOrdinals.put(key, track);
+                double[] values = new double[STAR_COLUMNS * windowSteps];
+                Arrays.fill(values, Double.NaN);
+                columns.add(values);
+            }
+            tracks[i] = track;
+        }
+        lastIds.put(galaxy, ids.clone());
+        lastTracks.put(galaxy, tracks);
+        return tracks;
+    }
+
+    /** ----------------- Salida ----------------- **/
+
+    private void flushWindow() throws IOException {
+        windows.add(new long[]{position + buffer.position(), Double.doubleToRawLongBits(times[0]), steps, columns.size()});
+        for (int s = 0; s < steps; s++) {
+            putDouble(times[s]);
+        }
+        for (double[] values : columns) {
+            for (int c = 0; c < STAR_COLUMNS; c++) {
+                for (int s = 0; s < steps; s++) {
+                    putDouble(values[c * windowSteps + s]);
+                }
+            }
+            Arrays.fill(values, Double.NaN);
+        }
+        steps = 0;
+    }
+
+    private void putDouble(double value) throws IOException {
+        if (buffer.remaining() < Double.BYTES) {
+            drain();
+        }
+        buffer.putDouble(value);
+    }
+
+    private void putInt(int value) throws IOException {
+        if (buffer.remaining() < Integer.BYTES) {
+            drain();
+        }
+        buffer.putInt(value);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+
+    public long getStepCount() {
+        return totalSteps;
+    }
+
+    public int getTrackCount() {
+        return trackKeys.size();
+    }
+
+    /**
+     * Escribe la última ventana, el índice y el encabezado
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            if (steps > 0) {
+                flushWindow();
+            }
+            drain();
+            long indexOffset = position;
+            for (long[] window : windows) {
+                if (buffer.remaining() < WINDOW_ENTRY_SIZE) {
+                    drain();
+                }
+                buffer.putLong(window[0]);
+                buffer.putLong(window[1]);
+                buffer.putInt((int) window[2]);
+                buffer.putInt((int) window[3]);
+            }
+            for (long[] key : trackKeys) {
+                putInt((int) key[0]);
+                putInt((int) key[1]);
+            }
+            putInt(galaxyNames.size());
+            for (String name : galaxyNames) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                putInt(bytes.length);
+                for (byte b : bytes) {
+                    if (!buffer.hasRemaining()) {
+                        drain();
+                    }
+                    buffer.put(b);
+                }
+            }
+            // el archivo termina alineado a 8 bytes, para poder mapearlo entero como doubles
+            while ((position + buffer.position()) % 8 != 0) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                buffer.put((byte) 0);
+            }
+            drain();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(trackKeys.size()).putInt(windows.size())
+                    .putLong(totalSteps).putLong(indexOffset).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            logger.info(String.format("Wrote %d star tracks of %d steps in %d windows", trackKeys.size(), totalSteps,
+                    windows.size()));
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** ----------------- Herramienta ----------------- **/
+
+    /**
+     * Transpone un CSV de CSVWriter2 leyéndolo una sola vez
+     * @return cantidad de pasos escritos
+     */
+    public static long transpose(Path csv, Path out, int windowSteps) throws IOException {
+        try (TrajectoryParser parser = new TrajectoryParser(csv);
+             StarTrackWriter writer = new StarTrackWriter(out, windowSteps)) {
+            TrajectoryFrame frame;
+            while ((frame = parser.next()) != null) {
+                writer.writeFrame(frame);
+            }
+            return writer.getStepCount();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path csv = null;
+        Path out = null;
+        int windowSteps = DEFAULT_WINDOW_STEPS;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--window")) {
+                windowSteps = Integer.parseInt(args[++i]);
+            } else if (csv == null) {
+                csv = Paths.get(args[i]);
+            } else {
+                out = Paths.get(args[i]);
+            }
+        }
+        if (csv == null) {
+            System.err.println("Usage: StarTrackWriter sim.csv [sim.tracks] [--window steps]");
+            System.exit(1);
+        }
+        transpose(csv, out != null ? out : defaultOutputFor(csv), windowSteps);
+    }
+}
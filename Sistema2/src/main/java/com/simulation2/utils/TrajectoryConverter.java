@@ -0,0 +1,612 @@
+package com.simulation2.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Convierte trayectorias CSV ya escritas a un archivo binario columnar que se lee sin parsear texto
+ * (ver ColumnarTrajectoryReader). Acepta los dos formatos de salida del proyecto:
+ * - CSVWriter2 (Sistema 2): bloques "t;Galaxy_k;cx;cy;cz" seguidos de una línea por estrella
+ * - simulation1.utils.CSVWriter (Sistema 1): encabezado "t;pos;vel" y una fila por paso
+ *
+ * El CSV se mapea en memoria y se procesa en dos pasadas paralelas: la primera corta el archivo en
+ * tramos y ubica los encabezados de bloque (y cuenta las estrellas de cada uno), con lo que se conoce
+ * la posición de cada bloque en el archivo de salida; la segunda parsea los bloques con
+ * FastDoubleParser y los escribe directamente en su posición. Las líneas que no tienen la forma
+ * esperada se ignoran, con el mismo criterio que TrajectoryParser.
+ *
+ * Formato de salida (little endian, todo alineado a 8 bytes):
+ *   encabezado: MAGIC, VERSION, kind, 0 (ints), cantidad de bloques o filas, offset del índice (longs)
+ *   KIND_GALAXIES, por bloque: t, cx, cy, cz (doubles), estrellas, largo del nombre (ints), nombre UTF-8,
+ *     ids (ints) y las columnas x, y, z, vx, vy, vz, fx, fy, fz (doubles) una detrás de la otra
+ *   KIND_GALAXIES, índice al final: por bloque offset (long), t (double), estrellas (int), 0 (int)
+ *   KIND_OSCILLATOR: las columnas t, pos y vel completas; no hay índice (offset 0)
+ *
+ * Uso: TrajectoryConverter sim.csv [sim.trj] [--verify] [--threads n]
+ */
+public class TrajectoryConverter {
+    private static final Logger logger = LoggerFactory.getLogger(TrajectoryConverter.class);
+
+    public static final int MAGIC = 0x54524A43; // "TRJC"
+    public static final int VERSION = 1;
+    public static final int KIND_GALAXIES = 0;
+    public static final int KIND_OSCILLATOR = 1;
+    public static final String EXTENSION = ".trj";
+    static final int HEADER_SIZE = 32;
+    static final int INDEX_ENTRY_SIZE = 24;
+    static final int STAR_COLUMNS = 9;
+    static final int OSCILLATOR_COLUMNS = 3;
+    private static final String OSCILLATOR_HEADER = "t;pos;vel";
+
+    private static final long CHUNK_SIZE = 64L << 20;
+    private static final int LINE_MARGIN = 1 << 16; // largo máximo de una línea que cruza el final de un tramo
+
+    private final int threads;
+    private final long chunkSize;
+
+    public TrajectoryConverter(int threads) {
+        this(threads, CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize tamaño máximo en bytes de cada tramo de la primera pasada
+     */
+    TrajectoryConverter(int threads, long chunkSize) {
+        this.threads = Math.max(1, threads);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public TrajectoryConverter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public static Path defaultOutputFor(Path csv) {
+        String name = csv.toString();
+        return Paths.get((name.endsWith(".csv") ? name.substring(0, name.length() - 4) : name) + EXTENSION);
+    }
+
+    /** ----------------- Conversión ----------------- **/
+
+    /**
+     * Convierte csv en out
+     * @return cantidad de bloques (Sistema 2) o filas (Sistema 1) escritos
+     */
+    public long convert(Path csv, Path out) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel in = FileChannel.open(csv, StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long count = isOscillator(in)
+                    ? convertOscillator(in, size, output, executor)
+                    : convertGalaxies(in, size, output, executor);
+            double seconds = (System.nanoTime() - start) * 1e-9;
+            logger.info(String.format("Converted %s -> %s: %d entries, %.1f MB in %.2f s (%.1f MB/s)",
+                    csv, out, count, size / 1e6, seconds, size / 1e6 / seconds));
+            return count;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean isOscillator(FileChannel in) throws IOException {
+        ByteBuffer first = ByteBuffer.allocate(OSCILLATOR_HEADER.length());
+        in.read(first, 0);
+        return new String(first.array(), 0, first.position(), StandardCharsets.US_ASCII).equals(OSCILLATOR_HEADER);
+    }
+
+    private long convertGalaxies(FileChannel in, long size, FileChannel output, ExecutorService executor) throws IOException {
+        // 1. encabezados de bloque y estrellas por bloque
+        List<ChunkScan> scans = run(executor, chunkTasks(size, (from, to) -> scanGalaxies(in, size, from, to)));
+        List<Long> headerOffsets = new ArrayList<>();
+        List<Integer> starCounts = new ArrayList<>();
+        List<byte[]> names = new ArrayList<>();
+        for (ChunkScan scan : scans) {
+            if (!starCounts.isEmpty()) {
+                int last = starCounts.size() - 1;
+                starCounts.set(last, starCounts.get(last) + scan.leadingRows);
+            }
+            headerOffsets.addAll(scan.headerOffsets);
+            starCounts.addAll(scan.rowsAfterHeader);
+            names.addAll(scan.names);
+        }
+        int frames = headerOffsets.size();
+
+        // 2. posición de cada bloque en la salida
+        long[] outputOffsets = new long[frames + 1];
+        outputOffsets[0] = HEADER_SIZE;
+        for (int k = 0; k < frames; k++) {
+            outputOffsets[k + 1] = outputOffsets[k] + frameSize(names.get(k).length, starCounts.get(k));
+        }
+
+        // 3. parseo y escritura en paralelo, por rangos contiguos de bloques
+        double[] times = new double[frames];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        int perTask = Math.max(1, (frames + 4 * threads - 1) / (4 * threads));
+        for (int first = 0; first < frames; first += perTask) {
+            int from = first;
+            int to = Math.min(frames, first + perTask);
+            tasks.add(() -> {
+                for (int k = from; k < to; k++) {
+                    long begin = headerOffsets.get(k);
+                    long end = k + 1 < frames ? headerOffsets.get(k + 1) : size;
+                    times[k] = writeFrame(in, begin, end, starCounts.get(k), names.get(k), output, outputOffsets[k]);
+                }
+                return null;
+            });
+        }
+        run(executor, tasks);
+
+        // 4. índice y encabezado
+        ByteBuffer index = ByteBuffer.allocate(frames * INDEX_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int k = 0; k < frames; k++) {
+            index.putLong(outputOffsets[k]).putDouble(times[k]).putInt(starCounts.get(k)).putInt(0);
+        }
+        index.flip();
+        writeFully(output, index, outputOffsets[frames]);
+        writeFully(output, header(KIND_GALAXIES, frames, outputOffsets[frames]), 0);
+        return frames;
+    }
+
+    static long frameSize(int nameLength, int stars) {
+        return 32 + 8 + align8(nameLength) + align8(4L * stars) + 8L * STAR_COLUMNS * stars;
+    }
+
+    static long align8(long value) {
+        return (value + 7) & ~7L;
+    }
+
+    private static ByteBuffer header(int kind, long count, long indexOffset) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(kind).putInt(0).putLong(count).putLong(indexOffset);
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Parsea el bloque csv[begin, end) y lo escribe en output a partir de offset. Retorna su t.
+     */
+    private static double writeFrame(FileChannel in, long begin, long end, int stars, byte[] name,
+                                     FileChannel output, long offset) throws IOException {
+        MappedByteBuffer text = in.map(FileChannel.MapMode.READ_ONLY, begin, end - begin);
+        int limit = text.limit();
+        ByteBuffer block = ByteBuffer.allocate((int) frameSize(name.length, stars)).order(ByteOrder.LITTLE_ENDIAN);
+        int idsStart = (int) (40 + align8(name.length));
+        int columnsStart = (int) (idsStart + align8(4L * stars));
+        int[] fields = new int[11];
+
+        // encabezado del bloque
+        int lineEnd = lineEnd(text, 0, limit);
+        split(text, 0, trimEnd(text, 0, lineEnd), fields);
+        double t = FastDoubleParser.parse(text, fields[0], fields[1] - 1);
+        block.putDouble(0, t);
+        for (int c = 0; c < 3; c++) {
+            block.putDouble(8 + 8 * c, FastDoubleParser.parse(text, fields[2 + c], fields[3 + c] - 1));
+        }
+        block.putInt(32, stars);
+        block.putInt(36, name.length);
+        for (int i = 0; i < name.length; i++) {
+            block.put(40 + i, name[i]);
+        }
+
+        int star = 0;
+        int position = lineEnd + 1;
+        while (position < limit && star < stars) {
+            lineEnd = lineEnd(text, position, limit);
+            int contentEnd = trimEnd(text, position, lineEnd);
+            if (split(text, position, contentEnd, fields) == 10) {
+                block.putInt(idsStart + 4 * star, (int) parseLong(text, fields[0], fields[1] - 1));
+                for (int c = 0; c < STAR_COLUMNS; c++) {
+                    double value = FastDoubleParser.parse(text, fields[1 + c], fields[2 + c] - 1);
+                    block.putDouble(columnsStart + 8 * (c * stars + star), value);
+                }
+                star++;
+            }
+            position = lineEnd + 1;
+        }
+        if (star != stars) {
+            throw new IOException("Frame at byte " + begin + " has " + star + " stars, expected " + stars);
+        }
+        writeFully(output, block, offset);
+        return t;
+    }
+
+    private long convertOscillator(FileChannel in, long size, FileChannel output, ExecutorService executor) throws IOException {
+        List<ChunkScan> scans = run(executor, chunkTasks(size, (from, to) -> scanOscillator(in, size, from, to)));
+        long rows = 0;
+        long[] firstRow = new long[scans.size()];
+        for (int c = 0; c < scans.size(); c++) {
+            firstRow[c] = rows;
+            rows += scans.get(c).leadingRows;
+        }
+        long totalRows = rows;
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int c = 0; c < scans.size(); c++) {
+            ChunkScan scan = scans.get(c);
+            long row0 = firstRow[c];
+            tasks.add(() -> {
+                writeOscillatorRows(in, size, scan, output, totalRows, row0);
+                return null;
+            });
+        }
+        run(executor, tasks);
+        writeFully(output, header(KIND_OSCILLATOR, totalRows, 0), 0);
+        return totalRows;
+    }
+
+    private static void writeOscillatorRows(FileChannel in, long size, ChunkScan scan, FileChannel output,
+                                            long totalRows, long firstRow) throws IOException {
+        int rows = scan.leadingRows;
+        if (rows == 0) {
+            return;
+        }
+        long base = Math.max(0, scan.from - 1);
+        MappedByteBuffer text = mapChunk(in, size, base, scan.to);
+        ByteBuffer[] columns = new ByteBuffer[OSCILLATOR_COLUMNS];
+        for (int c = 0; c < OSCILLATOR_COLUMNS; c++) {
+            columns[c] = ByteBuffer.allocate(8 * rows).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        int[] fields = new int[4];
+        int position = firstLineStart(text, scan.from);
+        int rangeEnd = (int) (scan.to - base);
+        int row = 0;
+        while (position < rangeEnd && position < text.limit()) {
+            int lineEnd = chunkLineEnd(text, position, base, size);
+            int contentEnd = trimEnd(text, position, lineEnd);
+            if (isOscillatorRow(text, position, contentEnd) && split(text, position, contentEnd, fields) == 3) {
+                for (int c = 0; c < OSCILLATOR_COLUMNS; c++) {
+                    columns[c].putDouble(8 * row, FastDoubleParser.parse(text, fields[c], fields[c + 1] - 1));
+                }
+                row++;
+            }
+            position = lineEnd + 1;
+        }
+        for (int c = 0; c < OSCILLATOR_COLUMNS; c++) {
+            writeFully(output, columns[c], HEADER_SIZE + 8 * (c * totalRows + firstRow));
+        }
+    }
+
+    /** ----------------- Primera pasada ----------------- **/
+
+    /**
+     * Resultado de recorrer las líneas que empiezan en [from, to): filas antes del primer encabezado,
+     * y por cada encabezado su posición, nombre y filas hasta el siguiente encabezado o el final del tramo
+     */
+    private static final class ChunkScan {
+        long from;
+        long to;
+        int leadingRows;
+        final List<Long> headerOffsets = new ArrayList<>();
+        final List<Integer> rowsAfterHeader = new ArrayList<>();
+        final List<byte[]> names = new ArrayList<>();
+    }
+
+    private interface ChunkTask {
+        ChunkScan scan(long from, long to) throws IOException;
+    }
+
+    private List<Callable<ChunkScan>> chunkTasks(long size, ChunkTask task) {
+        long chunks = Math.max(threads, (size + chunkSize - 1) / chunkSize);
+        long length = Math.max(1, (size + chunks - 1) / chunks);
+        List<Callable<ChunkScan>> tasks = new ArrayList<>();
+        for (long from = 0; from < size; from += length) {
+            long start = from;
+            long end = Math.min(size, from + length);
+            tasks.add(() -> task.scan(start, end));
+        }
+        return tasks;
+    }
+
+    private static ChunkScan scanGalaxies(FileChannel in, long size, long from, long to) throws IOException {
+        ChunkScan scan = new ChunkScan();
+        scan.from = from;
+        scan.to = to;
+        long base = Math.max(0, from - 1);
+        MappedByteBuffer text = mapChunk(in, size, base, to);
+        int[] fields = new int[11];
+        int position = firstLineStart(text, from);
+        int rangeEnd = (int) (to - base);
+        while (position < rangeEnd && position < text.limit()) {
+            int lineEnd = chunkLineEnd(text, position, base, size);
+            int contentEnd = trimEnd(text, position, lineEnd);
+            int count = split(text, position, contentEnd, fields);
+            if (count == 5 && isGalaxyName(text, fields[1], fields[2] - 1)) {
+                scan.headerOffsets.add(base + position);
+                scan.rowsAfterHeader.add(0);
+                byte[] name = new byte[fields[2] - 1 - fields[1]];
+                for (int i = 0; i < name.length; i++) {
+                    name[i] = text.get(fields[1] + i);
+                }
+                scan.names.add(name);
+            } else if (count == 10) {
+                if (scan.rowsAfterHeader.isEmpty()) {
+                    scan.leadingRows++;
+                } else {
+                    int last = scan.rowsAfterHeader.size() - 1;
+                    scan.rowsAfterHeader.set(last, scan.rowsAfterHeader.get(last) + 1);
+                }
+            }
+            position = lineEnd + 1;
+        }
+        return scan;
+    }
+
+    private static ChunkScan scanOscillator(FileChannel in, long size, long from, long to) throws IOException {
+        ChunkScan scan = new ChunkScan();
+        scan.from = from;
+        scan.to = to;
+        long base = Math.max(0, from - 1);
+        MappedByteBuffer text = mapChunk(in, size, base, to);
+        int[] fields = new int[4];
+        int position = firstLineStart(text, from);
+        int rangeEnd = (int) (to - base);
+        while (position < rangeEnd && position < text.limit()) {
+            int lineEnd = chunkLineEnd(text, position, base, size);
+            int contentEnd = trimEnd(text, position, lineEnd);
+            if (isOscillatorRow(text, position, contentEnd) && split(text, position, contentEnd, fields) == 3) {
+                scan.leadingRows++;
+            }
+            position = lineEnd + 1;
+        }
+        return scan;
+    }
+
+    /** ----------------- Líneas y campos ----------------- **/
+
+    /**
+     * Mapea el tramo desde base (un byte antes de su comienzo, para saber si arranca en una línea nueva)
+     * hasta to más un margen para terminar la última línea
+     */
+    private static MappedByteBuffer mapChunk(FileChannel in, long size, long base, long to) throws IOException {
+        return in.map(FileChannel.MapMode.READ_ONLY, base, Math.min(size, to + LINE_MARGIN) - base);
+    }
+
+    /**
+     * Primera línea que empieza dentro del tramo: la que sigue al primer '\n' desde base. Si el tramo
+     * empieza en 0 no hay byte anterior.
+     */
+    private static int firstLineStart(ByteBuffer text, long from) {
+        if (from == 0) {
+            return 0;
+        }
+        return lineEnd(text, 0, text.limit()) + 1;
+    }
+
+    private static int chunkLineEnd(ByteBuffer text, int position, long base, long size) throws IOException {
+        int end = lineEnd(text, position, text.limit());
+        if (end == text.limit() && base + end < size) {
+            throw new IOException("Line at byte " + (base + position) + " is longer than " + LINE_MARGIN + " bytes");
+        }
+        return end;
+    }
+
+    private static int lineEnd(ByteBuffer text, int position, int limit) {
+        while (position < limit && text.get(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    private static int trimEnd(ByteBuffer text, int start, int end) {
+        while (end > start && (text.get(end - 1) == '\r' || text.get(end - 1) == ' ')) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Separa text[start, end) por ';'. fields[k] queda con el comienzo del campo k y fields[count] con
+     * end + 1, así el campo k es [fields[k], fields[k + 1] - 1). Retorna la cantidad de campos
+     * (o fields.length si hay más de los que entran).
+     */
+    private static int split(ByteBuffer text, int start, int end, int[] fields) {
+        if (end <= start) {
+            return 0;
+        }
+        int count = 0;
+        fields[count++] = start;
+        for (int i = start; i < end; i++) {
+            if (text.get(i) == ';') {
+                if (count == fields.length - 1) {
+                    return fields.length;
+                }
+                fields[count++] = i + 1;
+            }
+        }
+        fields[count] = end + 1;
+        return count;
+    }
+
+    private static boolean isGalaxyName(ByteBuffer text, int start, int end) {
+        byte[] galaxy = {'G', 'a', 'l', 'a', 'x', 'y'};
+        for (int i = start; i + galaxy.length <= end; i++) {
+            int k = 0;
+            while (k < galaxy.length && text.get(i + k) == galaxy[k]) {
+                k++;
+            }
+            if (k == galaxy.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOscillatorRow(ByteBuffer text, int start, int end) {
+        // el encabezado "t;pos;vel" es la única línea que no empieza con un número
+        return end > start && text.get(start) != 't';
+    }
+
+    private static long parseLong(ByteBuffer text, int start, int end) {
+        boolean negative = text.get(start) == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            byte c = text.get(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid star id at " + i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /** ----------------- Auxiliares ----------------- **/
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.rewind();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static <T> List<T> run(ExecutorService executor, List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Conversion interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Conversion failed", e.getCause());
+        }
+        return results;
+    }
+
+    /** ----------------- Verificación ----------------- **/
+
+    /**
+     * Compara bit a bit el archivo convertido con el CSV releído con los parsers de texto del JDK
+     * (TrajectoryParser para el Sistema 2)
+     * @throws IOException en la primera diferencia
+     */
+    public static void verify(Path csv, Path converted) throws IOException {
+        try (ColumnarTrajectoryReader reader = new ColumnarTrajectoryReader(converted)) {
+            if (reader.getKind() == KIND_OSCILLATOR) {
+                verifyOscillator(csv, reader);
+                return;
+            }
+            int frame = 0;
+            try (TrajectoryParser parser = new TrajectoryParser(csv)) {
+                TrajectoryFrame expected;
+                while ((expected = parser.next()) != null) {
+                    if (frame >= reader.getFrameCount()) {
+                        throw new IOException("Converted file has only " + reader.getFrameCount() + " frames");
+                    }
+                    compare(expected, reader.readFrame(frame), frame);
+                    frame++;
+                }
+            }
+            if (frame != reader.getFrameCount()) {
+                throw new IOException("Converted file has " + reader.getFrameCount() + " frames, CSV has " + frame);
+            }
+        }
+    }
+
+    private static void compare(TrajectoryFrame expected, TrajectoryFrame actual, int frame) throws IOException {
+        if (!expected.getGalaxyName().equals(actual.getGalaxyName()) || expected.getStarCount() != actual.getStarCount()
+                || !same(expected.getTime(), actual.getTime()) || !same(expected.getCenterX(), actual.getCenterX())
+                || !same(expected.getCenterY(), actual.getCenterY()) || !same(expected.getCenterZ(), actual.getCenterZ())
+                || !java.util.Arrays.equals(expected.getIds(), actual.getIds())) {
+            throw new IOException("Frame " + frame + " differs: " + expected + " vs " + actual);
+        }
+        double[][] a = {expected.getX(), expected.getY(), expected.getZ(), expected.getVx(), expected.getVy(),
+                expected.getVz(), expected.getFx(), expected.getFy(), expected.getFz()};
+        double[][] b = {actual.getX(), actual.getY(), actual.getZ(), actual.getVx(), actual.getVy(),
+                actual.getVz(), actual.getFx(), actual.getFy(), actual.getFz()};
+        for (int c = 0; c < a.length; c++) {
+            for (int i = 0; i < a[c].length; i++) {
+                if (!same(a[c][i], b[c][i])) {
+                    throw new IOException("Frame " + frame + ", star " + i + ", column " + c + ": "
+                            + a[c][i] + " vs " + b[c][i]);
+                }
+            }
+        }
+    }
+
+    private static void verifyOscillator(Path csv, ColumnarTrajectoryReader reader) throws IOException {
+        double[][] columns = new double[OSCILLATOR_COLUMNS][];
+        for (int c = 0; c < OSCILLATOR_COLUMNS; c++) {
+            columns[c] = reader.readColumn(c);
+        }
+        int row = 0;
+        try (BufferedReader in = Files.newBufferedReader(csv, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.trim().split(";");
+                if (parts.length != OSCILLATOR_COLUMNS || line.startsWith("t")) {
+                    continue;
+                }
+                for (int c = 0; c < OSCILLATOR_COLUMNS; c++) {
+                    if (row >= columns[c].length || !same(Double.parseDouble(parts[c]), columns[c][row])) {
+                        throw new IOException("Row " + row + ", column " + c + " differs");
+                    }
+                }
+                row++;
+            }
+        }
+        if (row != columns[0].length) {
+            throw new IOException("Converted file has " + columns[0].length + " rows, CSV has " + row);
+        }
+    }
+
+    private static boolean same(double a, double b) {
+        return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+    }
+
+    /** ----------------- Herramienta ----------------- **/
+
+    public static void main(String[] args) throws IOException {
+        Path csv = null;
+        Path out = null;
+        boolean verify = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--verify")) {
+                verify = true;
+            } else if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (csv == null) {
+                csv = Paths.get(args[i]);
+            } else {
+                out = Paths.get(args[i]);
+            }
+        }
+        if (csv == null) {
+            System.err.println("Usage: TrajectoryConverter sim.csv [sim.trj] [--verify] [--threads n]");
+            System.exit(1);
+        }
+        if (out == null) {
+            out = defaultOutputFor(csv);
+        }
+        new TrajectoryConverter(threads).convert(csv, out);
+        if (verify) {
+            verify(csv, out);
+            System.out.println("Verified " + out + " against " + csv);
+        }
+    }
+}
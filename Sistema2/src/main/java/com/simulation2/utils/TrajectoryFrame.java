@@ -0,0 +1,60 @@
+package com.simulation2.utils;
+
+/**
+ * Un bloque del archivo de salida de Simulation2: el encabezado t;Galaxy_k;cx;cy;cz
+ * seguido de las líneas id;x;y;z;vx;vy;vz;fx;fy;fz de sus estrellas.
+ */
+public class TrajectoryFrame {
+    private final double time;
+    private final String galaxyName;
+    private final double centerX, centerY, centerZ;
+    private final int[] ids;
+    private final double[] x, y, z;
+    private final double[] vx, vy, vz;
+    private final double[] fx, fy, fz;
+
+    public TrajectoryFrame(double time, String galaxyName, double centerX, double centerY, double centerZ,
+                           int[] ids, double[] x, double[] y, double[] z,
+                           double[] vx, double[] vy, double[] vz,
+                           double[] fx, double[] fy, double[] fz) {
+        this.time = time;
+        this.galaxyName = galaxyName;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.centerZ = centerZ;
+        this.ids = ids;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.vx = vx;
+        this.vy = vy;
+        this.vz = vz;
+        this.fx = fx;
+        this.fy = fy;
+        this.fz = fz;
+    }
+
+    /** ----------------- Getters ----------------- **/
+
+    public double getTime() { return time; }
+    public String getGalaxyName() { return galaxyName; }
+    public double getCenterX() { return centerX; }
+    public double getCenterY() { return centerY; }
+    public double getCenterZ() { return centerZ; }
+    public int getStarCount() { return ids.length; }
+    public int[] getIds() { return ids; }
+    public double[] getX() { return x; }
+    public double[] getY() { return y; }
+    public double[] getZ() { return z; }
+    public double[] getVx() { return vx; }
+    public double[] getVy() { return vy; }
+    public double[] getVz() { return vz; }
+    public double[] getFx() { return fx; }
+    public double[] getFy() { return fy; }
+    public double[] getFz() { return fz; }
+
+    @Override
+    public String toString() {
+        return String.format("TrajectoryFrame{t=%s, galaxy='%s', stars=%d}", time, galaxyName, ids.length);
+    }
+}
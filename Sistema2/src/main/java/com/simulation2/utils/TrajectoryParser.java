@@ -0,0 +1,126 @@
+package com.simulation2.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Lee de a un bloque por vez el archivo escrito por CSVWriter2, sin cargar la corrida entera en memoria.
+ * Usa los mismos criterios que los parsers de Python: un encabezado tiene 5 campos con "Galaxy"
+ * en el segundo, una estrella tiene 10 campos, y las líneas mal formadas se ignoran.
+ */
+public class TrajectoryParser implements AutoCloseable {
+    private static final int STAR_FIELDS = 10;
+    private static final int HEADER_FIELDS = 5;
+
+    private final BufferedReader reader;
+    private String[] pendingHeader;
+
+    // buffers reutilizados entre bloques
+    private int[] ids = new int[64];
+    private double[] values = new double[64 * (STAR_FIELDS - 1)];
+
+    public TrajectoryParser(Path path) throws IOException {
+        this(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+    }
+
+    public TrajectoryParser(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * @return el siguiente bloque, o null si se llegó al final del archivo
+     */
+    public TrajectoryFrame next() throws IOException {
+        String[] header = pendingHeader != null ? pendingHeader : readNextHeader();
+        pendingHeader = null;
+        if (header == null) {
+            return null;
+        }
+
+        double time = Double.parseDouble(header[0]);
+        String galaxyName = header[1];
+        double cx = Double.parseDouble(header[2]);
+        double cy = Double.parseDouble(header[3]);
+        double cz = Double.parseDouble(header[4]);
+
+        int count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] parts = line.trim().split(";");
+            if (isHeader(parts)) {
+                pendingHeader = parts;
+                break;
+            }
+            if (parts.length != STAR_FIELDS) {
+                continue;
+            }
+            try {
+                ensureCapacity(count + 1);
+                int base = count * (STAR_FIELDS - 1);
+                for (int f = 1; f < STAR_FIELDS; f++) {
+                    values[base + f - 1] = Double.parseDouble(parts[f]);
+                }
+                ids[count] = Integer.parseInt(parts[0]);
+                count++;
+            } catch (NumberFormatException e) {
+                // línea mal formada, se ignora
+            }
+        }
+        return buildFrame(time, galaxyName, cx, cy, cz, count);
+    }
+
+    private String[] readNextHeader() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] parts = line.trim().split(";");
+            if (isHeader(parts)) {
+                return parts;
+            }
+        }
+        return null;
+    }
+
+    static boolean isHeader(String[] parts) {
+        if (parts.length != HEADER_FIELDS || !parts[1].contains("Galaxy")) {
+            return false;
+        }
+        try {
+            Double.parseDouble(parts[0]);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private void ensureCapacity(int stars) {
+        if (stars > ids.length) {
+            int capacity = Math.max(stars, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            values = Arrays.copyOf(values, capacity * (STAR_FIELDS - 1));
+        }
+    }
+
+    private TrajectoryFrame buildFrame(double time, String galaxyName, double cx, double cy, double cz, int count) {
+        double[][] columns = new double[STAR_FIELDS - 1][count];
+        for (int i = 0; i < count; i++) {
+            int base = i * (STAR_FIELDS - 1);
+            for (int c = 0; c < STAR_FIELDS - 1; c++) {
+                columns[c][i] = values[base + c];
+            }
+        }
+        return new TrajectoryFrame(time, galaxyName, cx, cy, cz, Arrays.copyOf(ids, count),
+                columns[0], columns[1], columns[2],
+                columns[3], columns[4], columns[5],
+                columns[6], columns[7], columns[8]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,94 @@
+package com.simulation2.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acceso aleatorio a los bloques de un CSV de CSVWriter2 usando su FrameIndex: se posiciona
+ * directamente en el offset del bloque pedido en lugar de recorrer el archivo desde el principio.
+ */
+public class TrajectoryReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final FrameIndex index;
+
+    /**
+     * Abre el CSV con el índice csv.idx; si no existe lo construye y lo guarda
+     */
+    public TrajectoryReader(Path csv) throws IOException {
+        this(csv, loadOrBuildIndex(csv));
+    }
+
+    public TrajectoryReader(Path csv, FrameIndex index) throws IOException {
+        this.channel = FileChannel.open(csv, StandardOpenOption.READ);
+        this.index = index;
+    }
+
+    private static FrameIndex loadOrBuildIndex(Path csv) throws IOException {
+        Path indexPath = FrameIndex.indexPathFor(csv);
+        if (Files.exists(indexPath)) {
+            return FrameIndex.load(indexPath);
+        }
+        FrameIndex index = FrameIndex.build(csv);
+        index.write(indexPath);
+        return index;
+    }
+
+    public FrameIndex getIndex() {
+        return index;
+    }
+
+    public int getFrameCount() {
+        return index.size();
+    }
+
+    /**
+     * Lee el bloque número frame (en el orden del archivo)
+     */
+    public TrajectoryFrame readFrame(int frame) throws IOException {
+        long start = index.getOffset(frame);
+        long end = frame + 1 < index.size() ? index.getOffset(frame + 1) : channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        try (TrajectoryParser parser = new TrajectoryParser(new InputStreamReader(
+                new ByteArrayInputStream(buffer.array(), 0, buffer.position()), StandardCharsets.UTF_8))) {
+            return parser.next();
+        }
+    }
+
+    /**
+     * Primer bloque con tiempo >= t, o null si no hay
+     */
+    public TrajectoryFrame readFrameAt(double t) throws IOException {
+        int frame = index.firstFrameAtOrAfter(t);
+        return frame < index.size() ? readFrame(frame) : null;
+    }
+
+    /**
+     * Todos los bloques con tiempo en [from, to]
+     */
+    public List<TrajectoryFrame> readFrames(double from, double to) throws IOException {
+        List<TrajectoryFrame> frames = new ArrayList<>();
+        for (int frame : index.framesInRange(from, to)) {
+            frames.add(readFrame(frame));
+        }
+        return frames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
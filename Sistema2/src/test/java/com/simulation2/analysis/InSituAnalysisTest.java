@@ -0,0 +1,132 @@
+package com.simulation2.analysis;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.recorder.StateSnapshot;
+
+class InSituAnalysisTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSelectMatchesSort() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            int n = 1 + random.nextInt(300);
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                // con repetidos para probar los empates
+                values[i] = random.nextInt(50) * 0.5;
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int k = random.nextInt(n);
+            assertEquals(sorted[k], Reductions.select(values.clone(), 0, n, k));
+        }
+    }
+
+    @Test
+    void testLagrangianRadiiMatchSortedDistances() {
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 500, Vector3D.ZERO);
+        StateSnapshot snapshot = new StateSnapshot();
+        snapshot.capture(0, new Galaxy2[]{galaxy});
+        double[] x = snapshot.getFrame(0).getX();
+        double[] y = snapshot.getFrame(0).getY();
+        double[] z = snapshot.getFrame(0).getZ();
+        double[] center = Reductions.centerOfMass(x, y, z);
+
+        double[] sorted = Reductions.distancesTo(x, y, z, center);
+        Arrays.sort(sorted);
+        double[] fractions = {0.1, 0.5, 0.5, 0.9, 1.0};
+        double[] radii = Reductions.lagrangianRadii(x, y, z, center, fractions);
+        for (int f = 0; f < fractions.length; f++) {
+            assertEquals(sorted[Math.min(499, (int) (fractions[f] * 500))], radii[f]);
+        }
+        assertEquals(sorted[250], Reductions.halfMassRadius(x, y, z, center));
+    }
+
+    @Test
+    void testPluginsWriteOneRowPerAnalyzedState() throws Exception {
+        Galaxy2[] galaxies = {
+                new Galaxy2("Galaxy_1", 50, Vector3D.ZERO),
+                new Galaxy2("Galaxy_2", 50, new Vector3D(10, 0, 0))
+        };
+        String base = tempDir.resolve("run.csv").toString();
+        HalfMassRadiusPlugin halfMass = new HalfMassRadiusPlugin(0.0, 0.5);
+        InSituAnalysis analysis = new InSituAnalysis(base, 5, 2);
+        try (analysis) {
+            analysis.addPlugin(halfMass)
+                    .addPlugin(new LagrangianRadiiPlugin(0.5, 0.1))
+                    .addPlugin(new VelocityDispersionPlugin())
+                    .addPlugin(new CenterTrackingPlugin())
+                    .addPlugin(new CenterSeparationPlugin());
+            for (int step = 0; step <= 100; step++) {
+                analysis.submit(step, step * 0.01, galaxies);
+            }
+        }
+        assertEquals(21, analysis.getSubmitted());
+        assertEquals(21, analysis.getProcessed());
+
+        List<String> halfMassRows = Files.readAllLines(tempDir.resolve("run_half_mass.csv"));
+        assertEquals("t;galaxy;r_hm", halfMassRows.get(0));
+        assertEquals(1 + 21 * 2, halfMassRows.size());
+        assertTrue(halfMassRows.get(4).startsWith((5 * 0.01) + ";Galaxy_2;"));
+
+        List<String> lagrangian = Files.readAllLines(tempDir.resolve("run_lagrangian.csv"));
+        assertEquals("t;galaxy;r_10;r_50", lagrangian.get(0));
+        // la columna r_50 es el radio de media masa
+        assertEquals(halfMassRows.get(1).split(";")[2], lagrangian.get(1).split(";")[3]);
+
+        assertEquals(1 + 21 * 2, Files.readAllLines(tempDir.resolve("run_dispersion.csv")).size());
+        assertEquals(1 + 21 * 2, Files.readAllLines(tempDir.resolve("run_centers.csv")).size());
+
+        List<String> separation = Files.readAllLines(tempDir.resolve("run_separation.csv"));
+        assertEquals(1 + 21, separation.size());
+        assertEquals(10.0, Double.parseDouble(separation.get(1).split(";")[3]), 1.0);
+
+        // con umbral 0 todas las galaxias cruzan en el primer estado analizado después de minTime
+        double expected = 55 * 0.01;
+        assertEquals(expected, halfMass.getCrossingTime("Galaxy_1"));
+        List<String> crossing = Files.readAllLines(tempDir.resolve("run_crossing.csv"));
+        assertEquals(List.of("galaxy;t_star", "Galaxy_1;" + expected, "Galaxy_2;" + expected), crossing);
+    }
+
+    @Test
+    void testPluginFailureIsReportedOnClose() {
+        Galaxy2[] galaxies = {new Galaxy2("Galaxy_1", 10, Vector3D.ZERO)};
+        InSituAnalysis analysis = new InSituAnalysis(tempDir.resolve("fail.csv").toString(), 1, 1);
+        analysis.addPlugin(new InSituPlugin() {
+            @Override
+            public void open(String baseFilename) {
+            }
+
+            @Override
+            public void process(StateSnapshot snapshot) {
+                throw new IllegalStateException("boom");
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        assertThrows(IOException.class, () -> {
+            for (int step = 0; step < 10; step++) {
+                analysis.submit(step, step, galaxies);
+            }
+            analysis.close();
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package com.simulation2.analysis;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+import com.simulation2.utils.CSVWriter2;
+
+class TrajectoryAnalyzerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testStatsAndTracks() throws Exception {
+        Path csv = tempDir.resolve("sim.csv");
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 20, Vector3D.ZERO);
+        int frames = 5;
+        for (int k = 0; k < frames; k++) {
+            try (CSVWriter2 writer = new CSVWriter2(csv.toString())) {
+                writer.writeData(k * 0.5, galaxy);
+            }
+            galaxy.moveGalaxy(new Vector3D(1, 0, 0));
+        }
+
+        double expectedKe = 0;
+        for (Particle p : galaxy.getStars()) {
+            expectedKe += p.getKineticEnergy();
+        }
+
+        Path stats = tempDir.resolve("sim_stats.csv");
+        Path tracks = tempDir.resolve("sim_tracks.csv");
+        long analyzed = new TrajectoryAnalyzer(3, false, Set.of(0, 7)).analyze(csv, stats, tracks);
+
+        assertEquals(frames, analyzed);
+        List<String> statLines = Files.readAllLines(stats);
+        assertEquals(frames + 1, statLines.size());
+        for (int k = 0; k < frames; k++) {
+            String[] parts = statLines.get(k + 1).split(";");
+            assertEquals(k * 0.5, Double.parseDouble(parts[0]), 1e-12);
+            assertEquals("Galaxy_1", parts[1]);
+            assertEquals(20, Integer.parseInt(parts[2]));
+            assertEquals(expectedKe, Double.parseDouble(parts[3]), 1e-8);
+        }
+        // el centro de masa se desplaza 1 en x entre bloques
+        double cm0 = Double.parseDouble(statLines.get(1).split(";")[6]);
+        double cm1 = Double.parseDouble(statLines.get(2).split(";")[6]);
+        assertEquals(1.0, cm1 - cm0, 1e-8);
+
+        List<String> trackLines = Files.readAllLines(tracks);
+        assertEquals(frames * 2 + 1, trackLines.size());
+    }
+}
@@ -0,0 +1,70 @@
+package com.simulation2.distributed;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+
+import com.simulation2.integrators.IntegratorTestSupport;
+import com.simulation2.integrators.VelocityVerlet2;
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+import com.simulation2.utils.MortonOrder;
+
+class DistributedIntegratorTest {
+
+    private final double G = 1.0;
+    private final double h = 0.05;
+
+    @Test
+    void testMortonOrderIsAPermutation() {
+        Particle[] stars = new Galaxy2("Galaxy_1", 200, Vector3D.ZERO).getStars();
+        int[] order = MortonOrder.order(stars);
+        Set<Integer> seen = new HashSet<>();
+        for (int i : order) {
+            seen.add(i);
+        }
+        assertEquals(stars.length, seen.size());
+        assertEquals(0, MortonOrder.partStart(10, 3, 0));
+        assertEquals(10, MortonOrder.partStart(10, 3, 3));
+    }
+
+    @Test
+    void testMultiProcessRunMatchesSingleProcess() throws Exception {
+        Particle[][] galaxies = {
+                new Galaxy2("Galaxy_1", 40, Vector3D.ZERO).getStars(),
+                new Galaxy2("Galaxy_2", 25, new Vector3D(10, 0, 0)).getStars()
+        };
+        Particle[][] reference = {Particle.copyAll(galaxies[0]), Particle.copyAll(galaxies[1])};
+        VelocityVerlet2 single = new VelocityVerlet2();
+        double dt = 0.001;
+
+        try (DistributedIntegrator distributed = DistributedIntegrator.launchLocal(3)) {
+            assertEquals(3, distributed.getWorkerCount());
+            for (int g = 0; g < galaxies.length; g++) {
+                IntegratorTestSupport.initializeAccelerations(distributed, galaxies[g], G, h);
+                IntegratorTestSupport.initializeAccelerations(single, reference[g], G, h);
+            }
+            for (int step = 0; step < 50; step++) {
+                for (int g = 0; g < galaxies.length; g++) {
+                    distributed.step(galaxies[g], dt, G, h);
+                    single.step(reference[g], dt, G, h);
+                }
+            }
+        }
+
+        for (int g = 0; g < galaxies.length; g++) {
+            for (int i = 0; i < galaxies[g].length; i++) {
+                Particle p = galaxies[g][i];
+                Particle q = reference[g][i];
+                assertEquals(q.getId(), p.getId());
+                assertEquals(0, p.getPosition().distance(q.getPosition()), 1e-9);
+                assertEquals(0, p.getVelocity().distance(q.getVelocity()), 1e-9);
+                assertEquals(0, p.getAcceleration().distance(q.getAcceleration()), 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.simulation2.integrators;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+class BinaryVelocityVerletTest {
+
+    private final double G = 1.0;
+    private final double h = 0.05;
+
+    private double energy(Particle[] particles) {
+        double energy = 0;
+        for (int i = 0; i < particles.length; i++) {
+            energy += particles[i].getKineticEnergy();
+            for (int j = i + 1; j < particles.length; j++) {
+                energy += particles[i].getPotentialEnergyWith(particles[j], G, h);
+            }
+        }
+        return energy;
+    }
+
+    /**
+     * Binario circular de separación separation en el origen y una estrella en órbita circular a distancia 3
+     */
+    private Particle[] binaryWithPerturber(double separation) {
+        double speed = Math.sqrt(G * 2 * separation * separation / Math.pow(separation * separation + h * h, 1.5));
+        return new Particle[]{
+                new Particle(0, new Vector3D(-separation / 2, 0, 0), new Vector3D(0, -speed / 2, 0)),
+                new Particle(1, new Vector3D(separation / 2, 0, 0), new Vector3D(0, speed / 2, 0)),
+                new Particle(2, new Vector3D(0, 3, 0), new Vector3D(Math.sqrt(G * 2 / 3), 0, 0))
+        };
+    }
+
+    @Test
+    void testWithoutPairsMatchesVelocityVerlet() {
+        Particle[] stars = new Galaxy2("Galaxy_1", 100, Vector3D.ZERO).getStars();
+        Particle[] reference = Particle.copyAll(stars);
+        BinaryVelocityVerlet binary = new BinaryVelocityVerlet(1e-6);
+        VelocityVerlet2 plain = new VelocityVerlet2();
+        IntegratorTestSupport.initializeAccelerations(binary, stars, G, h);
+        IntegratorTestSupport.initializeAccelerations(plain, reference, G, h);
+        for (int step = 0; step < 50; step++) {
+            assertTrue(binary.findPairs(stars, G, h).isEmpty());
+            binary.step(stars, 0.001, G, h);
+            plain.step(reference, 0.001, G, h);
+        }
+        for (int i = 0; i < stars.length; i++) {
+            assertEquals(0, stars[i].getPosition().distance(reference[i].getPosition()), 1e-12);
+            assertEquals(0, stars[i].getVelocity().distance(reference[i].getVelocity()), 1e-12);
+        }
+    }
+
+    @Test
+    void testTightBinaryWithCoarseStep() {
+        double dt = 0.01; // del orden del período interno del binario
+        Particle[] stars = binaryWithPerturber(0.005);
+        Particle[] reference = Particle.copyAll(stars);
+        BinaryVelocityVerlet binary = new BinaryVelocityVerlet(h);
+        VelocityVerlet2 plain = new VelocityVerlet2();
+        IntegratorTestSupport.initializeAccelerations(binary, stars, G, h);
+        IntegratorTestSupport.initializeAccelerations(plain, reference, G, h);
+        double initialEnergy = energy(stars);
+
+        assertEquals(1, binary.findPairs(stars, G, h).size());
+        for (int step = 0; step < 500; step++) {
+            binary.step(stars, dt, G, h);
+            plain.step(reference, dt, G, h);
+        }
+        double binaryError = Math.abs((energy(stars) - initialEnergy) / initialEnergy);
+        double plainError = Math.abs((energy(reference) - initialEnergy) / initialEnergy);
+        assertTrue(binaryError < 1e-4, "binary error " + binaryError);
+        assertTrue(binaryError * 100 < plainError, "binary " + binaryError + " vs plain " + plainError);
+        // el binario sigue ligado y con la separación original
+        assertEquals(0.005, stars[0].distanceTo(stars[1]), 1e-4);
+    }
+
+    @Test
+    void testUnboundFlybyIsNotPaired() {
+        Particle[] stars = {
+                new Particle(0, new Vector3D(0, 0, 0), new Vector3D(-50, 0, 0)),
+                new Particle(1, new Vector3D(0.01, 0, 0), new Vector3D(50, 0, 0))
+        };
+        assertTrue(new BinaryVelocityVerlet(h).findPairs(stars, G, h).isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package com.simulation2.integrators;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+import com.simulation2.models.ParticleEnsemble;
+
+class EnsembleVelocityVerletTest {
+
+    private static final double G = 1.0;
+    private static final double H = 0.05;
+
+    /**
+     * Cada sistema del ensamble debe evolucionar igual que si se integrara solo con VelocityVerlet2
+     */
+    @Test
+    void testMatchesVelocityVerlet2() {
+        int numSystems = 8;
+        Particle[][] reference = new Particle[numSystems][];
+        Particle[][] packed = new Particle[numSystems][];
+        for (int s = 0; s < numSystems; s++) {
+            Galaxy2 galaxy = new Galaxy2("Galaxy_" + s, 3, Vector3D.ZERO);
+            reference[s] = galaxy.getStars();
+            packed[s] = Particle.copyAll(galaxy.getStars());
+        }
+
+        VelocityVerlet2 verlet = new VelocityVerlet2();
+        for (Particle[] system : reference) {
+            IntegratorTestSupport.initializeAccelerations(verlet, system, G, H);
+        }
+
+        ParticleEnsemble ensemble = new ParticleEnsemble(packed);
+        EnsembleVelocityVerlet ensembleVerlet = new EnsembleVelocityVerlet();
+        ensembleVerlet.initializeAccelerations(ensemble, G, H);
+
+        double dt = 1e-3;
+        for (int step = 0; step < 500; step++) {
+            for (Particle[] system : reference) {
+                verlet.step(system, dt, G, H);
+            }
+            ensembleVerlet.step(ensemble, dt, G, H);
+        }
+
+        for (int s = 0; s < numSystems; s++) {
+            ensemble.copyToParticles(s, packed[s]);
+            for (int i = 0; i < packed[s].length; i++) {
+                assertEquals(0.0, reference[s][i].getPosition().distance(packed[s][i].getPosition()), 1e-9);
+                assertEquals(0.0, reference[s][i].getVelocity().distance(packed[s][i].getVelocity()), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testSystemsDoNotInteract() {
+        Particle[][] systems = {
+                {new Particle(0, new Vector3D(0, 0, 0), Vector3D.ZERO), new Particle(1, new Vector3D(1, 0, 0), Vector3D.ZERO)},
+                {new Particle(0, new Vector3D(0.5, 0, 0), Vector3D.ZERO), new Particle(1, new Vector3D(0.5, 1, 0), Vector3D.ZERO)}
+        };
+        ParticleEnsemble ensemble = new ParticleEnsemble(systems);
+        new EnsembleVelocityVerlet().calculateForces(ensemble, G, H);
+
+        double expectedForce = 0.9962616;
+        assertEquals(expectedForce, ensemble.getFx()[ensemble.index(0, 0)], 1e-5);
+        assertEquals(0.0, ensemble.getFy()[ensemble.index(0, 0)], 1e-12);
+        assertEquals(0.0, ensemble.getFx()[ensemble.index(1, 0)], 1e-12);
+        assertEquals(expectedForce, ensemble.getFy()[ensemble.index(1, 0)], 1e-5);
+        assertEquals(-expectedForce, ensemble.getFy()[ensemble.index(1, 1)], 1e-5);
+    }
+
+    @Test
+    void testRejectsSystemsOfDifferentSize() {
+        Particle[][] systems = {
+                {new Particle(0), new Particle(1)},
+                {new Particle(0)}
+        };
+        assertThrows(IllegalArgumentException.class, () -> new ParticleEnsemble(systems));
+    }
+}
@@ -0,0 +1,98 @@
+package com.simulation2.integrators;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+import com.simulation2.models.Simulation2;
+
+class ForceEngineAutotunerTest {
+
+    private final double G = 1.0;
+    private final double h = 0.05;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParallelForcesMatchPairLoop() {
+        Particle[] stars = new Galaxy2("Galaxy_1", 500, Vector3D.ZERO).getStars();
+        Particle[] reference = Particle.copyAll(stars);
+        Particle[] single = Particle.copyAll(stars);
+
+        new ParallelVelocityVerlet(3).calculateForcesBetweenParticles(stars, G, h);
+        new ParallelVelocityVerlet(1).calculateForcesBetweenParticles(single, G, h);
+        new VelocityVerlet2().calculateForcesBetweenParticles(reference, G, h);
+
+        for (int i = 0; i < stars.length; i++) {
+            Vector3D expected = reference[i].getForce();
+            assertEquals(0, stars[i].getForce().distance(expected), 1e-10 * (1 + expected.getNorm()));
+            // el resultado no depende de la cantidad de threads
+            assertEquals(single[i].getForce(), stars[i].getForce());
+        }
+    }
+
+    @Test
+    void testParallelEnginesShareTheirPool() {
+        assertSame(new ParallelVelocityVerlet(3).getPool(), new ParallelVelocityVerlet(3).getPool());
+        assertNotSame(new ParallelVelocityVerlet(3).getPool(), new ParallelVelocityVerlet(2).getPool());
+        assertNull(new ParallelVelocityVerlet(1).getPool());
+    }
+
+    @Test
+    void testSelectionIsCachedPerSize() throws IOException {
+        Path cache = tempDir.resolve("engines.csv");
+        Particle[] stars = new Galaxy2("Galaxy_1", 200, Vector3D.ZERO).getStars();
+        ForceEngineAutotuner tuner = new ForceEngineAutotuner(cache, 1e-9, 2_000_000L, "test-hardware");
+
+        VelocityVerlet2 engine = tuner.select(stars, G, h);
+        String chosen = tuner.getLastEngine();
+        assertFalse(tuner.isLastFromCache());
+        assertNotEquals("mixed", chosen); // float32 no cumple 1e-9
+        assertEquals(ForceEngineAutotuner.createEngine(chosen).getClass(), engine.getClass());
+
+        List<String> lines = Files.readAllLines(cache);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).startsWith("200;test-hardware;"));
+
+        tuner.select(stars, G, h);
+        assertTrue(tuner.isLastFromCache());
+        assertEquals(chosen, tuner.getLastEngine());
+        assertEquals(2, Files.readAllLines(cache).size());
+
+        // otro N u otra máquina vuelven a medir
+        ForceEngineAutotuner other = new ForceEngineAutotuner(cache, 1e-9, 2_000_000L, "other-hardware");
+        other.select(stars, G, h);
+        assertFalse(other.isLastFromCache());
+        tuner.select(new Galaxy2("Galaxy_1", 50, Vector3D.ZERO).getStars(), G, h);
+        assertFalse(tuner.isLastFromCache());
+        assertEquals(4, Files.readAllLines(cache).size());
+    }
+
+    @Test
+    void testLooseToleranceAllowsMixedPrecision() {
+        Particle[] stars = new Galaxy2("Galaxy_1", 100, Vector3D.ZERO).getStars();
+        ForceEngineAutotuner tuner = new ForceEngineAutotuner(null, 1e-3, 2_000_000L, "test-hardware");
+        tuner.select(stars, G, h);
+        assertTrue(ForceEngineAutotuner.candidates().contains(tuner.getLastEngine()));
+    }
+
+    @Test
+    void testSimulationUsesSelectedEngine() {
+        Simulation2 simulation = new Simulation2(60, 1, 100, 0.01, 0.001, tempDir.resolve("sim.csv").toString(), new VelocityVerlet2());
+        simulation.setCsvOutput(false);
+        ForceEngineAutotuner tuner = new ForceEngineAutotuner(tempDir.resolve("engines.csv"), 1e-9, 2_000_000L, "test-hardware");
+        simulation.enableAutotuning(tuner);
+        simulation.run();
+        assertEquals(ForceEngineAutotuner.createEngine(tuner.getLastEngine()).getClass(), simulation.getIntegrator().getClass());
+    }
+}
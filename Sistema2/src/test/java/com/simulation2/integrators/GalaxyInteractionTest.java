@@ -0,0 +1,106 @@
+package com.simulation2.integrators;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+import com.simulation2.models.Simulation2;
+
+class GalaxyInteractionTest {
+
+    private final double G = 1.0;
+    private final double h = 0.05;
+
+    @TempDir
+    Path tempDir;
+
+    private Vector3D directAcceleration(Particle star, Galaxy2 other) {
+        Vector3D acceleration = Vector3D.ZERO;
+        for (Particle source : other.getStars()) {
+            Vector3D r = source.getPosition().subtract(star.getPosition());
+            double r2 = r.getNormSq() + h * h;
+            acceleration = acceleration.add(G * source.getMass() / (r2 * Math.sqrt(r2)), r);
+        }
+        return acceleration;
+    }
+
+    @Test
+    void testQuadrupoleImprovesOnMonopoleFarAway() {
+        Galaxy2 a = new Galaxy2("Galaxy_1", 300, Vector3D.ZERO);
+        Galaxy2 b = new Galaxy2("Galaxy_2", 300, new Vector3D(30, 10, 0));
+        GalaxyInteraction interaction = new GalaxyInteraction(1.0);
+        interaction.update(new Galaxy2[]{a, b}, G, h);
+        assertFalse(interaction.isDirect(0, 1));
+
+        a.calculateNewCenterPosition();
+        b.calculateNewCenterPosition();
+        double mass = b.getMass();
+        double quadrupoleError = 0;
+        double monopoleError = 0;
+        for (int i = 0; i < a.getStars().length; i++) {
+            Particle star = a.getStars()[i];
+            Vector3D expected = directAcceleration(star, b);
+            Vector3D r = star.getPosition().subtract(b.getCenterPosition());
+            Vector3D monopole = r.scalarMultiply(-G * mass / Math.pow(r.getNorm(), 3));
+            quadrupoleError = Math.max(quadrupoleError, interaction.getAcceleration(0, i).distance(expected) / expected.getNorm());
+            monopoleError = Math.max(monopoleError, monopole.distance(expected) / expected.getNorm());
+        }
+        assertTrue(quadrupoleError < 2e-3, "quadrupole error " + quadrupoleError);
+        assertTrue(quadrupoleError * 3 < monopoleError, quadrupoleError + " vs " + monopoleError);
+    }
+
+    @Test
+    void testSwitchesToDirectWhenClose() {
+        Galaxy2 a = new Galaxy2("Galaxy_1", 50, Vector3D.ZERO);
+        Galaxy2 b = new Galaxy2("Galaxy_2", 60, new Vector3D(2, 0, 0));
+        GalaxyInteraction interaction = new GalaxyInteraction(2.0);
+        interaction.update(new Galaxy2[]{a, b}, G, h);
+        assertTrue(interaction.isDirect(0, 1));
+        assertEquals(50 * 60, interaction.getDirectPairs());
+        for (int i = 0; i < b.getStars().length; i += 7) {
+            Vector3D expected = directAcceleration(b.getStars()[i], a);
+            assertEquals(0, interaction.getAcceleration(1, i).distance(expected), 1e-12 * expected.getNorm());
+        }
+
+        b.moveGalaxy(new Vector3D(100, 0, 0));
+        interaction.update(new Galaxy2[]{a, b}, G, h);
+        assertFalse(interaction.isDirect(0, 1));
+        assertEquals(110, interaction.getMultipoleEvaluations());
+    }
+
+    @Test
+    void testOutlierStarsDoNotForceDirectMode() {
+        Galaxy2 a = new Galaxy2("Galaxy_1", 100, Vector3D.ZERO);
+        Galaxy2 b = new Galaxy2("Galaxy_2", 100, new Vector3D(30, 0, 0));
+        // una estrella eyectada muy lejos y otra que pasa por el centro de la otra galaxia
+        a.getStars()[0].setPosition(new Vector3D(-1000, 0, 0));
+        a.getStars()[1].setPosition(new Vector3D(30, 0.1, 0));
+        GalaxyInteraction interaction = new GalaxyInteraction(2.0);
+        interaction.update(new Galaxy2[]{a, b}, G, h);
+
+        assertFalse(interaction.isDirect(0, 1));
+        assertEquals(100, interaction.getDirectPairs());
+        assertEquals(199, interaction.getMultipoleEvaluations());
+        Vector3D expected = directAcceleration(a.getStars()[1], b);
+        assertEquals(0, interaction.getAcceleration(0, 1).distance(expected), 1e-12 * expected.getNorm());
+    }
+
+    @Test
+    void testGalaxiesAttractEachOther() {
+        Simulation2 sim = new Simulation2(40, 2, 20, 1, 0.01, tempDir.resolve("pair.csv").toString(), new VelocityVerlet2());
+        sim.setCsvOutput(false);
+        sim.enableGalaxyInteraction(GalaxyInteraction.DEFAULT_OPENING_FACTOR);
+        Galaxy2[] galaxies = sim.getGalaxies();
+        Vector3D before = galaxies[1].getCenterVelocity().subtract(galaxies[0].getCenterVelocity());
+        sim.run();
+        Vector3D after = galaxies[1].getCenterVelocity().subtract(galaxies[0].getCenterVelocity());
+        // a distancia 20 con M = 20 cada una: dv relativa ~ 2 G M t / d^2 = 0.1 hacia la otra galaxia
+        assertEquals(-0.1, after.getX() - before.getX(), 0.01);
+    }
+}
@@ -0,0 +1,24 @@
+package com.simulation2.integrators;
+
+import com.simulation2.models.Particle;
+
+/**
+ * Utilidades compartidas por los tests de integradores
+ */
+public final class IntegratorTestSupport {
+
+    private IntegratorTestSupport() {
+    }
+
+    /**
+     * Calcula las fuerzas iniciales con integrator y deja a(t) como aceleración actual y anterior,
+     * igual que Simulation2.initializeStarsAcceleration
+     */
+    public static void initializeAccelerations(IIntegrator2 integrator, Particle[] particles, double G, double h) {
+        integrator.calculateForcesBetweenParticles(particles, G, h);
+        for (Particle p : particles) {
+            p.updateAcceleration();
+            p.setOldAcceleration(p.getAcceleration());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.simulation2.integrators;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+class MixedPrecisionVelocityVerletTest {
+
+    private static final double G = 1.0;
+    private static final double H = 0.05;
+
+    /**
+     * Las fuerzas en float32 deben coincidir con las de VelocityVerlet2 salvo error de redondeo de float,
+     * incluso con la galaxia lejos del origen
+     */
+    @Test
+    void testForcesMatchDoublePrecision() {
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 200, new Vector3D(100, 0, 0));
+        Particle[] reference = galaxy.getStars();
+        Particle[] mixed = Particle.copyAll(reference);
+
+        new VelocityVerlet2().calculateForcesBetweenParticles(reference, G, H);
+        new MixedPrecisionVelocityVerlet().calculateForcesBetweenParticles(mixed, G, H);
+
+        for (int i = 0; i < reference.length; i++) {
+            Vector3D expected = reference[i].getForce();
+            double error = expected.distance(mixed[i].getForce());
+            assertTrue(error <= 1e-4 * Math.max(1.0, expected.getNorm()),
+                    "star " + i + " force error " + error);
+        }
+    }
+
+    @Test
+    void testReportComparesEnergyDrift() {
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 50, Vector3D.ZERO);
+        Particle[] stars = galaxy.getStars();
+        IntegratorTestSupport.initializeAccelerations(new VelocityVerlet2(), stars, G, H);
+        Vector3D initialPosition = stars[0].getPosition();
+
+        PrecisionReport report = PrecisionReport.compare(stars, 1e-3, 200, G, H);
+
+        assertTrue(report.getDoubleDrift() < 1e-2);
+        assertTrue(report.getMixedDrift() < 1e-2);
+        assertEquals(report.getDoubleDrift(), report.getMixedDrift(), 1e-3);
+        assertTrue(report.getPositionDeviation() < 1e-3);
+        // las partículas originales no se modifican
+        assertEquals(initialPosition, stars[0].getPosition());
+    }
+}
@@ -0,0 +1,83 @@
+package com.simulation2.integrators;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+class Parareal2Test {
+
+    private final double G = 1.0;
+    private final double h = 0.05;
+
+    /**
+     * Nube sin pares cercanos: con encuentros a distancias del orden de h el paso grueso no resuelve
+     * la órbita y Parareal necesita tantas iteraciones como tramos
+     */
+    private static Particle[] sparseCloud(int n) {
+        Random random = new Random(3);
+        Particle[] stars = new Particle[n];
+        for (int i = 0; i < n; i++) {
+            Vector3D position;
+            boolean valid;
+            do {
+                position = new Vector3D(4 * random.nextDouble(), 4 * random.nextDouble(), 4 * random.nextDouble());
+                valid = true;
+                for (int j = 0; j < i; j++) {
+                    valid &= position.distance(stars[j].getPosition()) > 0.5;
+                }
+            } while (!valid);
+            stars[i] = new Particle(i, position, new Vector3D(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).scalarMultiply(0.1));
+        }
+        return stars;
+    }
+
+    @Test
+    void testConvergesToSerialFineRun() throws Exception {
+        Particle[] stars = sparseCloud(30);
+        Particle[] serial = Particle.copyAll(stars);
+        VelocityVerlet2 fine = new VelocityVerlet2();
+        double dt = 0.001;
+        long steps = 400;
+
+        IntegratorTestSupport.initializeAccelerations(fine, serial, G, h);
+        for (long s = 0; s < steps; s++) {
+            fine.step(serial, dt, G, h);
+        }
+
+        Parareal2 parareal = new Parareal2(fine, dt, steps, new VelocityVerlet2(), 5, 8, 1e-10, 4, G, h);
+        double[][] boundaries = parareal.solve(stars);
+        assertEquals(9, boundaries.length);
+        assertTrue(parareal.getIterations() < parareal.getSlices(), "iterations " + parareal.getIterations());
+        for (int i = 0; i < stars.length; i++) {
+            assertEquals(serial[i].getId(), stars[i].getId());
+            assertEquals(0, stars[i].getPosition().distance(serial[i].getPosition()), 1e-9);
+            assertEquals(0, stars[i].getVelocity().distance(serial[i].getVelocity()), 1e-9);
+            assertEquals(0, stars[i].getAcceleration().distance(serial[i].getAcceleration()), 1e-6);
+        }
+    }
+
+    @Test
+    void testFineSliceObserverSeesEveryStep() throws Exception {
+        Particle[] stars = new Galaxy2("Galaxy_1", 10, Vector3D.ZERO).getStars();
+        Parareal2 parareal = new Parareal2(new VelocityVerlet2(), 0.001, 100, new VelocityVerlet2(), 2, 3, 1e-12, 2, G, h);
+        double[][] boundaries = parareal.solve(stars);
+
+        long[] count = new long[1];
+        double[] lastTime = new double[1];
+        double[] end = parareal.propagateFine(1, boundaries[1], (t, particles) -> {
+            count[0]++;
+            lastTime[0] = t;
+        });
+        assertEquals(parareal.sliceStart(2) - parareal.sliceStart(1), count[0]);
+        assertEquals(parareal.sliceStart(2) * 0.001, lastTime[0]);
+        for (int c = 0; c < end.length; c++) {
+            assertEquals(boundaries[2][c], end[c], 1e-10);
+        }
+    }
+}
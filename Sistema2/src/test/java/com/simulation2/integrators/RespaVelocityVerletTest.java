@@ -0,0 +1,101 @@
+package com.simulation2.integrators;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+class RespaVelocityVerletTest {
+
+    private final double G = 1.0;
+    private final double h = 0.05;
+
+    @Test
+    void testNearPlusFarIsFullForce() {
+        Particle[] stars = new Galaxy2("Galaxy_1", 400, Vector3D.ZERO).getStars();
+        Particle[] reference = Particle.copyAll(stars);
+        new RespaVelocityVerlet().calculateForcesBetweenParticles(stars, G, h);
+        new VelocityVerlet2().calculateForcesBetweenParticles(reference, G, h);
+        for (int i = 0; i < stars.length; i++) {
+            Vector3D expected = reference[i].getForce();
+            assertEquals(0, stars[i].getForce().distance(expected), 1e-10 * (1 + expected.getNorm()));
+        }
+        RespaVelocityVerlet respa = new RespaVelocityVerlet();
+        assertEquals(1, respa.switchFunction(0.3));
+        assertEquals(0, respa.switchFunction(0.5));
+        assertEquals(0.5, respa.switchFunction(0.45), 1e-12);
+    }
+
+    @Test
+    void testTimeReversible() {
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 200, Vector3D.ZERO);
+        Particle[] stars = galaxy.getStars();
+        Particle[] initial = Particle.copyAll(stars);
+        RespaVelocityVerlet respa = new RespaVelocityVerlet(0.5, 0.1, 4, 0.05);
+        IntegratorTestSupport.initializeAccelerations(respa, stars, G, h);
+        for (int step = 0; step < 50; step++) {
+            respa.step(stars, 0.004, G, h);
+        }
+        assertTrue(respa.getNeighbourRebuilds(stars) > 1);
+        for (Particle p : stars) {
+            p.setVelocity(p.getVelocity().negate());
+        }
+        for (int step = 0; step < 50; step++) {
+            respa.step(stars, 0.004, G, h);
+        }
+        for (int i = 0; i < stars.length; i++) {
+            assertEquals(0, stars[i].getPosition().distance(initial[i].getPosition()), 1e-9);
+        }
+    }
+
+    /**
+     * Nube fija (con semilla) sin pares más cerca que minDistance
+     */
+    private static Particle[] cloud(int n, double size, double minDistance) {
+        Random random = new Random(11);
+        Particle[] stars = new Particle[n];
+        for (int i = 0; i < n; i++) {
+            Vector3D position;
+            boolean valid;
+            do {
+                position = new Vector3D(size * random.nextDouble(), size * random.nextDouble(), size * random.nextDouble());
+                valid = true;
+                for (int j = 0; j < i; j++) {
+                    valid &= position.distance(stars[j].getPosition()) > minDistance;
+                }
+            } while (!valid);
+            stars[i] = new Particle(i, position, new Vector3D(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).scalarMultiply(0.1));
+        }
+        return stars;
+    }
+
+    private double energyError(IIntegrator2 integrator, Particle[] stars, double dt, int steps) {
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 0, Vector3D.ZERO);
+        galaxy.setStars(Particle.copyAll(stars));
+        double initialEnergy = galaxy.getTotalEnergy(G, h);
+        IntegratorTestSupport.initializeAccelerations(integrator, galaxy.getStars(), G, h);
+        for (int step = 0; step < steps; step++) {
+            integrator.step(galaxy.getStars(), dt, G, h);
+        }
+        return Math.abs(galaxy.getTotalEnergy(G, h) / initialEnergy - 1);
+    }
+
+    @Test
+    void testEnergyBetweenCoarseAndFineVerlet() {
+        Particle[] stars = cloud(200, 3, 0.15);
+        double dt = 0.01;
+        int steps = 200;
+        RespaVelocityVerlet respa = new RespaVelocityVerlet();
+        double respaError = energyError(respa, stars, dt, steps);
+        double coarseError = energyError(new VelocityVerlet2(), stars, dt, steps);
+        double fineError = energyError(new VelocityVerlet2(), stars, dt / respa.getInnerSteps(), steps * respa.getInnerSteps());
+        // la fuerza lejana cada dt alcanza para quedar cerca de Verlet con dt / innerSteps
+        assertTrue(respaError * 5 < coarseError, "RESPA " + respaError + " coarse Verlet " + coarseError);
+        assertTrue(respaError < 3 * fineError, "RESPA " + respaError + " fine Verlet " + fineError);
+    }
+}
@@ -0,0 +1,66 @@
+package com.simulation2.integrators;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+class TiledVelocityVerletTest {
+
+    private final double G = 1.0;
+    private final double h = 0.05;
+
+    @Test
+    void testTiledForcesMatchPairLoop() {
+        Particle[] stars = new Galaxy2("Galaxy_1", 700, Vector3D.ZERO).getStars();
+        Particle[] reference = Particle.copyAll(stars);
+
+        new TiledVelocityVerlet(64).calculateForcesBetweenParticles(stars, G, h);
+        new VelocityVerlet2().calculateForcesBetweenParticles(reference, G, h);
+
+        for (int i = 0; i < stars.length; i++) {
+            Vector3D expected = reference[i].getForce();
+            assertEquals(0, stars[i].getForce().distance(expected), 1e-10 * (1 + expected.getNorm()));
+        }
+    }
+
+    @Test
+    void testBuffersAreReusedAcrossSizes() {
+        TiledVelocityVerlet tiled = new TiledVelocityVerlet(16);
+        tiled.calculateForcesBetweenParticles(new Galaxy2("Galaxy_1", 200, Vector3D.ZERO).getStars(), G, h);
+        Particle[] stars = new Galaxy2("Galaxy_2", 50, Vector3D.ZERO).getStars();
+        Particle[] reference = Particle.copyAll(stars);
+        tiled.calculateForcesBetweenParticles(stars, G, h);
+        new VelocityVerlet2().calculateForcesBetweenParticles(reference, G, h);
+
+        for (int i = 0; i < stars.length; i++) {
+            Vector3D expected = reference[i].getForce();
+            assertEquals(0, stars[i].getForce().distance(expected), 1e-10 * (1 + expected.getNorm()));
+        }
+    }
+
+    @Test
+    void testStepsMatchReference() {
+        Particle[] stars = new Galaxy2("Galaxy_1", 300, Vector3D.ZERO).getStars();
+        Particle[] reference = Particle.copyAll(stars);
+        TiledVelocityVerlet tiled = new TiledVelocityVerlet(32);
+        VelocityVerlet2 plain = new VelocityVerlet2();
+        for (Particle[] particles : new Particle[][]{stars, reference}) {
+            IntegratorTestSupport.initializeAccelerations(plain, particles, G, h);
+        }
+
+        for (int step = 0; step < 20; step++) {
+            tiled.step(stars, 0.001, G, h);
+            plain.step(reference, 0.001, G, h);
+        }
+
+        for (int i = 0; i < reference.length; i++) {
+            assertEquals(reference[i].getId(), stars[i].getId());
+            assertEquals(0, stars[i].getPosition().distance(reference[i].getPosition()), 1e-9);
+            assertEquals(0, stars[i].getVelocity().distance(reference[i].getVelocity()), 1e-9);
+        }
+    }
+}
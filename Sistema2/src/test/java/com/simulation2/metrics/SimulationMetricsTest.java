@@ -0,0 +1,83 @@
+package com.simulation2.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.integrators.VelocityVerlet2;
+import com.simulation2.models.Simulation2;
+
+class SimulationMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSimulationRecordsPhases() {
+        Simulation2 simulation = new Simulation2(20, 1, 100, 0.1, 0.001, tempDir.resolve("sim.csv").toString(),
+                new VelocityVerlet2());
+        simulation.setCsvOutput(false);
+        simulation.enableMetrics(0);
+        simulation.run();
+
+        SimulationMetrics metrics = simulation.getMetrics();
+        assertTrue(metrics.getSteps() >= 100 && metrics.getSteps() <= 101);
+        assertEquals(metrics.getSteps(), Arrays.stream(metrics.getStepTimeHistogram()).sum());
+        assertTrue(metrics.getForceSeconds() > 0);
+        assertTrue(metrics.getDriftSeconds() > 0);
+        assertTrue(metrics.getKickSeconds() > 0);
+        assertTrue(metrics.getFrames() > 0);
+        assertTrue(metrics.getPairInteractionsPerSecond() > 0);
+    }
+
+    @Test
+    void testMBeanRegistration() throws Exception {
+        SimulationMetrics metrics = new SimulationMetrics("mbean-test", 0);
+        metrics.start();
+        StepEvent event = metrics.beginStep();
+        metrics.endStep(event, 0, 0.001, System.nanoTime() - 1500, 10);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.simulation2:type=SimulationMetrics,name=" + ObjectName.quote("mbean-test"));
+        assertTrue(server.isRegistered(name));
+        assertEquals(1L, server.getAttribute(name, "Steps"));
+
+        metrics.stop();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    void testRunsWithTheSameNameKeepTheirOwnMBean() throws Exception {
+        SimulationMetrics first = new SimulationMetrics("same-name", 0);
+        SimulationMetrics second = new SimulationMetrics("same-name", 0);
+        first.start();
+        second.start();
+        ObjectName firstName = first.getObjectName();
+        ObjectName secondName = second.getObjectName();
+        assertNotEquals(firstName, secondName);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        second.stop();
+        assertTrue(server.isRegistered(firstName));
+        assertFalse(server.isRegistered(secondName));
+        first.stop();
+        assertFalse(server.isRegistered(firstName));
+    }
+
+    @Test
+    void testHistogramBuckets() {
+        assertEquals(0, SimulationMetrics.bucketFor(0));
+        assertEquals(0, SimulationMetrics.bucketFor(1));
+        assertEquals(10, SimulationMetrics.bucketFor(1024));
+        assertEquals(10, SimulationMetrics.bucketFor(2047));
+        assertEquals(11, SimulationMetrics.bucketFor(2048));
+    }
+}
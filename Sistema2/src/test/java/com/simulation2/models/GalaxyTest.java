@@ -4,7 +4,10 @@ import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GalaxyTest {
 
@@ -51,4 +54,59 @@ public class GalaxyTest {
 //        assertEquals(0.0, p2.getForce().getY());
 //        assertEquals(0.0, p2.getForce().getZ());
     }
+
+    @Test
+    public void testRemoveEscapers_OnlyUnboundStarsBeyondRadius(){
+        Galaxy2 g = new Galaxy2(GALAXY_NAME, 100, CENTER_POSITION);
+        Particle fastFar = g.getStars()[0];
+        fastFar.setPosition(new Vector3D(50, 0, 0));
+        fastFar.setVelocity(new Vector3D(5, 0, 0));
+        Particle slowFar = g.getStars()[1];
+        slowFar.setPosition(new Vector3D(-50, 0, 0));
+        slowFar.setVelocity(g.getCenterVelocity());
+        Particle fastNear = g.getStars()[2];
+        fastNear.setVelocity(new Vector3D(0, 5, 0));
+
+        assertEquals(1, g.removeEscapers(10, 1.0, 0.05));
+        assertEquals(99, g.getStars().length);
+        assertEquals(99, g.getNumberOfStars());
+        assertEquals(List.of(fastFar), g.getEscapers());
+        assertTrue(List.of(g.getStars()).contains(slowFar));
+        assertTrue(List.of(g.getStars()).contains(fastNear));
+    }
+
+    @Test
+    public void testAdvanceEscapers_MovesAwayFromGalaxy(){
+        Galaxy2 g = new Galaxy2(GALAXY_NAME, 100, CENTER_POSITION);
+        Particle star = g.getStars()[0];
+        star.setPosition(new Vector3D(50, 0, 0));
+        star.setVelocity(new Vector3D(5, 0, 0));
+        g.removeEscapers(10, 1.0, 0.05);
+
+        for (int i = 0; i < 100; i++) {
+            g.advanceEscapers(0.01, 1.0, 0.05);
+        }
+        // se frena un poco por la atracción de la galaxia, pero sigue alejándose
+        assertTrue(star.getPosition().getX() > 54.9 && star.getPosition().getX() < 55);
+        assertTrue(star.getVelocity().getX() < 5 && star.getVelocity().getX() > 4.9);
+    }
+
+    @Test
+    public void testRemoveEscapers_AllStarsKeepsLastCenter(){
+        Galaxy2 g = new Galaxy2(GALAXY_NAME, 2, CENTER_POSITION);
+        g.getStars()[0].setPosition(new Vector3D(50, 0, 0));
+        g.getStars()[0].setVelocity(new Vector3D(5, 0, 0));
+        g.getStars()[1].setPosition(new Vector3D(-50, 0, 0));
+        g.getStars()[1].setVelocity(new Vector3D(-5, 0, 0));
+        g.calculateNewCenterPosition();
+        Vector3D center = g.getCenterPosition();
+        Vector3D velocity = g.getCenterVelocity();
+
+        assertEquals(2, g.removeEscapers(10, 1.0, 0.05));
+        assertEquals(0, g.getStars().length);
+        assertEquals(center, g.getCenterPosition());
+        assertEquals(velocity, g.getCenterVelocity());
+        g.advanceEscapers(0.01, 1.0, 0.05);
+        assertEquals(50.05, g.getEscapers().get(0).getPosition().getX(), 1e-12);
+    }
 }
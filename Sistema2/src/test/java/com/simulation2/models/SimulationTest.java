@@ -4,8 +4,14 @@ import com.simulation2.integrators.IIntegrator;
 import com.simulation2.integrators.IIntegrator2;
 import com.simulation2.integrators.VelocityVerlet;
 import com.simulation2.integrators.VelocityVerlet2;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,4 +36,21 @@ public class SimulationTest {
     public void testInitializeGalaxies(){
         sim.initializeGalaxies(NUM_GALAXIES, GALAXY_DISTANCE);
     }
+
+    @Test
+    public void testSimulationWritesEscapers(@TempDir Path tempDir) throws Exception {
+        Path csv = tempDir.resolve("escapers.csv");
+        Simulation2 simulation = new Simulation2(50, 1, 0, 0.2, 0.001, csv.toString(), new VelocityVerlet2());
+        Particle star = simulation.getGalaxies()[0].getStars()[0];
+        star.setPosition(new Vector3D(50, 0, 0));
+        star.setVelocity(new Vector3D(5, 0, 0));
+        simulation.enableEscaperRemoval(10, 10);
+        simulation.run();
+
+        assertEquals(49, simulation.getGalaxies()[0].getStars().length);
+        List<String> lines = Files.readAllLines(Path.of(csv + Simulation2.ESCAPERS_EXTENSION));
+        assertEquals("t;galaxy;id;x;y;z;vx;vy;vz", lines.get(0));
+        assertTrue(lines.size() > 1);
+        assertTrue(lines.get(lines.size() - 1).contains(";Galaxy_1;" + star.getId() + ";"));
+    }
 }
@@ -0,0 +1,75 @@
+package com.simulation2.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.integrators.VelocityVerlet2;
+
+class TracerSetTest {
+    private static final double G = 1.0;
+    private static final double H = 0.05;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAccelerationMatchesDirectSum() {
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 200, Vector3D.ZERO);
+        // más trazadoras que el umbral del kernel paralelo
+        TracerSet tracers = TracerSet.sample(5000, Vector3D.ZERO, 0.1, new Random(3));
+        tracers.calculateAccelerations(galaxy.getStars(), G, H);
+
+        for (int i = 0; i < tracers.size(); i += 499) {
+            Vector3D expected = Vector3D.ZERO;
+            for (Particle star : galaxy.getStars()) {
+                Vector3D r = star.getPosition().subtract(tracers.getPosition(i));
+                double r2 = r.getNormSq() + H * H;
+                expected = expected.add(G * star.getMass() / (r2 * Math.sqrt(r2)), r);
+            }
+            assertEquals(0, expected.distance(tracers.getAcceleration(i)), 1e-12 * expected.getNorm());
+        }
+    }
+
+    @Test
+    void testCircularOrbitAroundSingleStar() {
+        Particle star = new Particle(0, Vector3D.ZERO, Vector3D.ZERO);
+        Particle[] stars = {star};
+        double r = 1.0;
+        double speed = Math.sqrt(G * star.getMass() * r * r / Math.pow(r * r + H * H, 1.5));
+        TracerSet tracers = new TracerSet();
+        tracers.add(0, new Vector3D(r, 0, 0), new Vector3D(0, speed, 0));
+
+        VelocityVerlet2 integrator = new VelocityVerlet2();
+        integrator.calculateForcesBetweenParticles(stars, G, H);
+        for (int step = 0; step < 10_000; step++) {
+            integrator.step(stars, 0.001, G, H);
+            tracers.step(stars, 0.001, G, H);
+            assertEquals(r, tracers.getPosition(0).getNorm(), 1e-5);
+        }
+        // la estrella no siente a la trazadora
+        assertEquals(Vector3D.ZERO, star.getPosition());
+    }
+
+    @Test
+    void testSimulationWritesTracers() throws Exception {
+        Path csv = tempDir.resolve("tracers.csv");
+        Simulation2 sim = new Simulation2(20, 1, 0, 0.1, 0.001, csv.toString(), new VelocityVerlet2());
+        sim.setCsvOutput(false);
+        sim.addTracers(30);
+        sim.run();
+
+        List<String> lines = Files.readAllLines(Path.of(csv + Simulation2.TRACERS_EXTENSION));
+        assertEquals("t;galaxy;id;x;y;z;vx;vy;vz", lines.get(0));
+        assertEquals(0, (lines.size() - 1) % 30);
+        assertTrue(lines.size() > 30);
+        assertEquals(20, sim.getGalaxies()[0].getStars().length);
+    }
+}
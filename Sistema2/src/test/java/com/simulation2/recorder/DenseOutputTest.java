@@ -0,0 +1,313 @@
+package com.simulation2.recorder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.integrators.IIntegrator2;
+import com.simulation2.integrators.VelocityVerlet2;
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+import com.simulation2.models.Simulation2;
+import com.simulation2.utils.FrameSink;
+import com.simulation2.utils.TrajectoryFrame;
+import com.simulation2.utils.TrajectoryParser;
+
+class DenseOutputTest {
+
+    @TempDir
+    Path tempDir;
+
+    // x(t) = 1 + 2t - t^2 + 0.5t^3 - 3t^4 + t^5 en cada coordenada
+    private static double x(double t) {
+        return 1 + 2 * t - t * t + 0.5 * t * t * t - 3 * Math.pow(t, 4) + Math.pow(t, 5);
+    }
+
+    private static double v(double t) {
+        return 2 - 2 * t + 1.5 * t * t - 12 * Math.pow(t, 3) + 5 * Math.pow(t, 4);
+    }
+
+    private static double a(double t) {
+        return -2 + 3 * t - 36 * t * t + 20 * Math.pow(t, 3);
+    }
+
+    private static void setState(Particle p, double t) {
+        p.setPosition(new Vector3D(x(t), x(t), x(t)));
+        p.setVelocity(new Vector3D(v(t), v(t), v(t)));
+        p.setAcceleration(new Vector3D(a(t), a(t), a(t)));
+        p.resetForce();
+        p.addForce(p.getAcceleration());
+    }
+
+    @Test
+    void testQuinticIsReproducedExactly() throws IOException {
+        Particle p = new Particle(0);
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 1, Vector3D.ZERO);
+        galaxy.setStars(new Particle[]{p});
+        Galaxy2[] galaxies = {galaxy};
+
+        double t0 = 0.5;
+        double t1 = 0.8;
+        setState(p, t0);
+        DenseOutput output = DenseOutput.at(0.55, 0.7, 0.8, 0.9);
+        output.begin(t0, galaxies, null);
+        setState(p, t1);
+        Vector3D endPosition = p.getPosition();
+
+        List<Double> written = new ArrayList<>();
+        int count = output.emit(t1, galaxies, null, t -> {
+            written.add(t);
+            assertEquals(x(t), p.getPosition().getX(), 1e-12);
+            assertEquals(v(t), p.getVelocity().getY(), 1e-11);
+            assertEquals(a(t), p.getForce().getZ(), 1e-10);
+        });
+        assertEquals(3, count);
+        assertEquals(List.of(0.55, 0.7, 0.8), written);
+        assertEquals(endPosition, p.getPosition());
+        assertEquals(0.9, output.nextTime());
+    }
+
+    @Test
+    void testFramesAtRequestedTimes() throws IOException {
+        Path csv = tempDir.resolve("dense.csv");
+        double dt = 1.0 / 64;
+        double interval = 1.0 / 256;
+        Simulation2 simulation = new Simulation2(40, 2, 100, 4 * dt, dt, csv.toString(), new VelocityVerlet2());
+        simulation.enableDenseOutput(interval);
+        simulation.run();
+
+        List<TrajectoryFrame> frames = new ArrayList<>();
+        try (TrajectoryParser parser = new TrajectoryParser(csv)) {
+            TrajectoryFrame frame;
+            while ((frame = parser.next()) != null) {
+                frames.add(frame);
+            }
+        }
+        assertEquals(2 * 17, frames.size());
+        for (int k = 0; k <= 16; k++) {
+            assertEquals(k * interval, frames.get(2 * k).getTime());
+            assertEquals(k * interval, frames.get(2 * k + 1).getTime());
+        }
+
+        // el último instante coincide con el final del paso: es el estado real, sin interpolar
+        Particle[] stars = simulation.getGalaxies()[1].getStars();
+        TrajectoryFrame last = frames.get(frames.size() - 1);
+        for (int i = 0; i < stars.length; i++) {
+            assertEquals(Double.parseDouble(String.format(Locale.US, "%.15e", stars[i].getPosition().getX())),
+                    last.getX()[i]);
+        }
+    }
+
+    /**
+     * Binaria circular (con el mismo suavizado h = 0.05 que la simulación)
+     */
+    private static Particle[] binary() {
+        double r = 1;
+        double h = 0.05;
+        double relativeAcceleration = 2 * r / Math.pow(r * r + h * h, 1.5);
+        double speed = Math.sqrt(relativeAcceleration * r) / 2;
+        return new Particle[]{
+                new Particle(0, new Vector3D(-r / 2, 0, 0), new Vector3D(0, -speed, 0)),
+                new Particle(1, new Vector3D(r / 2, 0, 0), new Vector3D(0, speed, 0))};
+    }
+
+    /**
+     * Corre la binaria con paso dt hasta maxTime y retorna las posiciones en cada instante pedido
+     */
+    private List<Vector3D[]> runBinary(double dt, double maxTime, double... times) {
+        Simulation2 simulation = new Simulation2(2, 1, 100, maxTime, dt, tempDir.resolve("binary.csv").toString(), new VelocityVerlet2());
+        simulation.setCsvOutput(false);
+        simulation.getGalaxies()[0].setStars(binary());
+        simulation.initializeStarsAcceleration();
+        simulation.setDenseOutput(DenseOutput.at(times));
+        List<Vector3D[]> positions = new ArrayList<>();
+        simulation.addFrameSink(new FrameSink() {
+            @Override
+            public void writeFrame(double t, Galaxy2[] galaxies) {
+                Particle[] stars = galaxies[0].getStars();
+                positions.add(new Vector3D[]{stars[0].getPosition(), stars[1].getPosition()});
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        simulation.run();
+        return positions;
+    }
+
+    @Test
+    void testInterpolationMatchesFineStep() {
+        double coarse = 1.0 / 16;
+        double sample = 3.0 / 64; // dentro del primer paso grueso
+        List<Vector3D[]> reference = runBinary(1.0 / 4096, coarse, sample, coarse);
+        List<Vector3D[]> dense = runBinary(coarse, coarse, sample, coarse);
+        assertEquals(2, reference.size());
+        assertEquals(2, dense.size());
+
+        // el error del interpolante no agrega nada visible al error propio del paso grueso
+        double s = sample / coarse;
+        Particle[] start = binary();
+        for (int i = 0; i < 2; i++) {
+            double stepError = dense.get(1)[i].distance(reference.get(1)[i]);
+            double interpolationError = dense.get(0)[i].distance(reference.get(0)[i]);
+            Vector3D lerp = start[i].getPosition().scalarMultiply(1 - s).add(dense.get(1)[i].scalarMultiply(s));
+            double linearError = lerp.distance(reference.get(0)[i]);
+            assertTrue(interpolationError <= stepError, "interpolation " + interpolationError + " step " + stepError);
+            assertTrue(interpolationError * 5 < linearError, "interpolation " + interpolationError + " linear " + linearError);
+        }
+    }
+
+    /**
+     * La binaria con cada estrella en su propia galaxia: toda la aceleración viene de GalaxyInteraction
+     */
+    private List<Vector3D[]> runInteractingPair(double dt, double maxTime, double... times) {
+        Simulation2 simulation = new Simulation2(2, 2, 100, maxTime, dt, tempDir.resolve("pair.csv").toString(), new VelocityVerlet2());
+        simulation.setCsvOutput(false);
+        Particle[] pair = binary();
+        simulation.getGalaxies()[0].setStars(new Particle[]{pair[0]});
+        simulation.getGalaxies()[1].setStars(new Particle[]{pair[1]});
+        simulation.enableGalaxyInteraction(2.0);
+        simulation.setDenseOutput(DenseOutput.at(times));
+        List<Vector3D[]> positions = new ArrayList<>();
+        simulation.addFrameSink(new FrameSink() {
+            @Override
+            public void writeFrame(double t, Galaxy2[] galaxies) {
+                positions.add(new Vector3D[]{galaxies[0].getStars()[0].getPosition(), galaxies[1].getStars()[0].getPosition()});
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        simulation.run();
+        return positions;
+    }
+
+    @Test
+    void testInterpolationIncludesGalaxyInteraction() {
+        double coarse = 1.0 / 16;
+        double sample = 3.0 / 64;
+        List<Vector3D[]> reference = runInteractingPair(1.0 / 4096, coarse, sample, coarse);
+        List<Vector3D[]> dense = runInteractingPair(coarse, coarse, sample, coarse);
+        assertEquals(2, reference.size());
+        assertEquals(2, dense.size());
+        for (int i = 0; i < 2; i++) {
+            double stepError = dense.get(1)[i].distance(reference.get(1)[i]);
+            double interpolationError = dense.get(0)[i].distance(reference.get(0)[i]);
+            assertTrue(interpolationError <= stepError, "interpolation " + interpolationError + " step " + stepError);
+        }
+    }
+
+    @Test
+    void testEscapersWithGalaxyInteraction() {
+        Simulation2 simulation = new Simulation2(40, 2, 3, 0.1, 0.01, tempDir.resolve("escape.csv").toString(), new VelocityVerlet2());
+        simulation.setCsvOutput(false);
+        simulation.enableGalaxyInteraction(2.0);
+        simulation.enableEscaperRemoval(10, 5);
+        simulation.enableDenseOutput(0.005);
+        Galaxy2 galaxy = simulation.getGalaxies()[0];
+        galaxy.calculateNewCenterPosition();
+        Particle runaway = galaxy.getStars()[0];
+        runaway.setPosition(galaxy.getCenterPosition().add(new Vector3D(0, 30, 0)));
+        runaway.setVelocity(new Vector3D(0, 50, 0));
+        List<Double> times = new ArrayList<>();
+        simulation.addFrameSink(new FrameSink() {
+            @Override
+            public void writeFrame(double t, Galaxy2[] galaxies) {
+                times.add(t);
+                for (Galaxy2 g : galaxies) {
+                    for (Particle star : g.getStars()) {
+                        assertTrue(Double.isFinite(star.getPosition().getNorm()));
+                    }
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        simulation.run();
+
+        assertEquals(21, times.size());
+        assertEquals(19, galaxy.getStars().length);
+        assertEquals(List.of(runaway), galaxy.getEscapers());
+    }
+
+    /**
+     * Nube fija de estrellas separadas, para que las dos corridas partan del mismo estado
+     */
+    private static Particle[] cloud(int n) {
+        Random random = new Random(5);
+        Particle[] stars = new Particle[n];
+        for (int i = 0; i < n; i++) {
+            stars[i] = new Particle(i, new Vector3D(4 * random.nextDouble(), 4 * random.nextDouble(), 4 * random.nextDouble()),
+                    new Vector3D(random.nextGaussian() * 0.1, random.nextGaussian() * 0.1, random.nextGaussian() * 0.1));
+        }
+        return stars;
+    }
+
+    /**
+     * Posiciones de cada estrella (por id) en cada instante interpolado
+     */
+    private List<Map<Integer, Vector3D>> runCloud(IIntegrator2 integrator, double dt, double maxTime, double interval) {
+        Simulation2 simulation = new Simulation2(30, 1, 100, maxTime, dt, tempDir.resolve("cloud.csv").toString(), integrator);
+        simulation.setCsvOutput(false);
+        simulation.getGalaxies()[0].setStars(cloud(30));
+        simulation.initializeStarsAcceleration();
+        simulation.enableDenseOutput(interval);
+        List<Map<Integer, Vector3D>> samples = new ArrayList<>();
+        simulation.addFrameSink(new FrameSink() {
+            @Override
+            public void writeFrame(double t, Galaxy2[] galaxies) {
+                Map<Integer, Vector3D> positions = new HashMap<>();
+                for (Particle star : galaxies[0].getStars()) {
+                    positions.put(star.getId(), star.getPosition());
+                }
+                samples.add(positions);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        simulation.run();
+        return samples;
+    }
+
+    @Test
+    void testSamplesFollowStarsWhenIntegratorReorders() {
+        // un integrador que invierte el arreglo en cada paso: cada muestra tiene que seguir a su estrella
+        IIntegrator2 reordering = new VelocityVerlet2() {
+            @Override
+            public void step(Particle[] particles, double dt, double G, double h) {
+                Collections.reverse(Arrays.asList(particles));
+                super.step(particles, dt, G, h);
+            }
+        };
+        double dt = 1.0 / 32;
+        List<Map<Integer, Vector3D>> expected = runCloud(new VelocityVerlet2(), dt, 8 * dt, dt / 4);
+        List<Map<Integer, Vector3D>> reordered = runCloud(reordering, dt, 8 * dt, dt / 4);
+        assertEquals(33, expected.size());
+        assertEquals(expected.size(), reordered.size());
+        for (int k = 0; k < expected.size(); k++) {
+            for (Map.Entry<Integer, Vector3D> entry : expected.get(k).entrySet()) {
+                assertEquals(0, entry.getValue().distance(reordered.get(k).get(entry.getKey())), 1e-10,
+                        "sample " + k + ", star " + entry.getKey());
+            }
+        }
+    }
+}
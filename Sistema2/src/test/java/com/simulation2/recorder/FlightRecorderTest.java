@@ -0,0 +1,90 @@
+package com.simulation2.recorder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+import com.simulation2.utils.FrameIndex;
+
+class FlightRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path csv;
+    private Galaxy2[] galaxies;
+
+    @BeforeEach
+    void setUp() {
+        csv = tempDir.resolve("flight.csv");
+        galaxies = new Galaxy2[]{new Galaxy2("Galaxy_1", 10, Vector3D.ZERO)};
+    }
+
+    private static double time(int step) {
+        return step * 0.01;
+    }
+
+    @Test
+    void testOnlyPeriodicFramesWithoutTriggers() throws Exception {
+        try (FlightRecorder recorder = new FlightRecorder(csv.toString(), 5, 1, 100, 3, 1)) {
+            for (int step = 0; step <= 300; step++) {
+                recorder.record(step, time(step), galaxies);
+            }
+            assertEquals(4, recorder.getFramesWritten());
+        }
+        FrameIndex index = FrameIndex.load(FrameIndex.indexPathFor(csv));
+        assertEquals(4, index.size());
+        assertEquals(time(200), index.getTime(2));
+        assertFalse(Files.exists(Path.of(csv + FlightRecorder.EVENTS_EXTENSION)));
+    }
+
+    @Test
+    void testTriggerFlushesRingAndFollowingSteps() throws Exception {
+        try (FlightRecorder recorder = new FlightRecorder(csv.toString(), 5, 1, 100, 3, 1)) {
+            recorder.addTrigger((t, g) -> Math.abs(t - time(150)) < 1e-9 ? "test event" : null);
+            for (int step = 0; step <= 199; step++) {
+                recorder.record(step, time(step), galaxies);
+            }
+            assertEquals(1, recorder.getTriggerCount());
+        }
+
+        FrameIndex index = FrameIndex.load(FrameIndex.indexPathFor(csv));
+        int[] expectedSteps = {0, 100, 146, 147, 148, 149, 150, 151, 152, 153};
+        assertEquals(expectedSteps.length, index.size());
+        for (int i = 0; i < expectedSteps.length; i++) {
+            assertEquals(time(expectedSteps[i]), index.getTime(i), 1e-12);
+        }
+        List<String> events = Files.readAllLines(Path.of(csv + FlightRecorder.EVENTS_EXTENSION));
+        assertEquals(2, events.size());
+        assertTrue(events.get(1).endsWith(";test event"));
+    }
+
+    @Test
+    void testClosePairTriggerFiresOnceWhenPairApproaches() {
+        Particle a = new Particle(1, new Vector3D(0, 0, 0), Vector3D.ZERO);
+        Particle b = new Particle(2, new Vector3D(5, 0, 0), Vector3D.ZERO);
+        Particle c = new Particle(3, new Vector3D(-5, 1, 0), Vector3D.ZERO);
+        galaxies[0].setStars(new Particle[]{a, b, c});
+        Trigger trigger = Triggers.closePair(2, 0.05);
+
+        assertNull(trigger.check(0, galaxies));
+        b.setPosition(new Vector3D(0.05, 0.01, 0));
+        String event = trigger.check(1, galaxies);
+        assertNotNull(event);
+        assertTrue(event.contains("1-2"));
+        assertNull(trigger.check(2, galaxies));
+        b.setPosition(new Vector3D(3, 0, 0));
+        assertNull(trigger.check(3, galaxies));
+        b.setPosition(new Vector3D(0, 0.02, 0));
+        assertNotNull(trigger.check(4, galaxies));
+    }
+}
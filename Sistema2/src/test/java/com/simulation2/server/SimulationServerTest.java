@@ -0,0 +1,127 @@
+package com.simulation2.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.utils.TrajectoryParser;
+
+class SimulationServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testJobsOverSocket() throws Exception {
+        Path output = tempDir.resolve("a.csv");
+        try (SimulationServer server = new SimulationServer(0, null, tempDir, 2)) {
+            server.start(false);
+            try (SimulationClient client = new SimulationClient(server.getPort())) {
+                List<String> status = new CopyOnWriteArrayList<>();
+                List<String> results = client.run(Arrays.asList(
+                        "integrator=tiled n=20 dt=0.001 maxTime=0.2 output=a.csv",
+                        "integrator=nope n=20"), status::add);
+
+                assertEquals(2, results.size());
+                assertTrue(results.stream().anyMatch(r -> r.startsWith("ERROR Unknown integrator")), results.toString());
+                assertTrue(results.stream().anyMatch(r -> r.startsWith("DONE ")), results.toString());
+                assertTrue(status.stream().anyMatch(s -> s.startsWith("ACCEPTED ") && s.contains("integrator=tiled")));
+                assertTrue(status.stream().anyMatch(s -> s.startsWith("STARTED ")));
+
+                // la misma salida se reemplaza, no se agrega al final
+                int frames = countFrames(output);
+                assertTrue(frames > 0);
+                client.run(Collections.singletonList("integrator=tiled n=20 dt=0.001 maxTime=0.2 output=a.csv"), s -> { });
+                assertEquals(frames, countFrames(output));
+
+                assertEquals("STATUS running=0 queued=0 finished=2", client.command("STATUS"));
+            }
+        }
+    }
+
+    private static int countFrames(Path csv) throws IOException {
+        int frames = 0;
+        try (TrajectoryParser parser = new TrajectoryParser(csv)) {
+            while (parser.next() != null) {
+                frames++;
+            }
+        }
+        return frames;
+    }
+
+    @Test
+    void testCancel() throws Exception {
+        try (SimulationServer server = new SimulationServer(0, null, tempDir, 1)) {
+            server.start(false);
+            List<String> status = new CopyOnWriteArrayList<>();
+            CompletableFuture<String> running = server.submit(SimulationJob.parse("n=200 dt=0.001 maxTime=1000"), status::add);
+            CompletableFuture<String> queued = server.submit(SimulationJob.parse("n=200 dt=0.001 maxTime=1000"), status::add);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (status.stream().noneMatch(s -> s.startsWith("PROGRESS 1 ")) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(status.stream().anyMatch(s -> s.startsWith("PROGRESS 1 ")), status.toString());
+
+            assertTrue(server.cancel(2));
+            assertTrue(server.cancel(1));
+            assertFalse(server.cancel(99));
+            assertEquals("CANCELLED 1", running.get(30, TimeUnit.SECONDS));
+            assertEquals("CANCELLED 2", queued.get(30, TimeUnit.SECONDS));
+            assertFalse(status.contains("STARTED 2"));
+        }
+    }
+
+    @Test
+    void testSpoolDirectory() throws Exception {
+        Path spool = tempDir.resolve("spool");
+        Path output = tempDir.resolve("spooled.csv");
+        try (SimulationServer server = new SimulationServer(0, spool, tempDir, 2)) {
+            server.start(false);
+            Path partial = spool.resolve("batch.tmp");
+            Files.write(partial, Arrays.asList("# barrido chico",
+                    "integrator=serial n=10 dt=0.002 maxTime=0.1 output=spooled.csv",
+                    "integrator=mixed n=10 dt=0.002 maxTime=0.1"), StandardCharsets.UTF_8);
+            Files.move(partial, spool.resolve("batch" + SimulationServer.JOB_EXTENSION));
+
+            Path done = spool.resolve("batch" + SimulationServer.DONE_EXTENSION);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!Files.exists(done) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(Files.exists(done));
+            List<String> status = Files.readAllLines(spool.resolve("batch" + SimulationServer.STATUS_EXTENSION));
+            assertEquals(2, status.stream().filter(s -> s.startsWith("DONE ")).count(), status.toString());
+            assertTrue(countFrames(output) > 0);
+
+            Path bad = spool.resolve("bad.tmp");
+            Files.write(bad, Collections.singletonList("n=abc"));
+            Files.move(bad, spool.resolve("bad" + SimulationServer.JOB_EXTENSION));
+            Path failed = spool.resolve("bad" + SimulationServer.FAILED_EXTENSION);
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!Files.exists(failed) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(Files.exists(failed));
+        }
+    }
+
+    @Test
+    void testOutputStaysInOutputDirectory() {
+        for (String output : new String[]{"/tmp/x.csv", "../x.csv", "runs/../../x.csv", ""}) {
+            assertThrows(IllegalArgumentException.class, () -> SimulationJob.parse("n=10 output=" + output), output);
+        }
+        assertEquals("runs/a.csv", SimulationJob.parse("n=10 output=runs/a.csv").getOutput());
+    }
+}
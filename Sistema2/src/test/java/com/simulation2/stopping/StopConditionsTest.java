@@ -0,0 +1,63 @@
+package com.simulation2.stopping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.integrators.VelocityVerlet2;
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Simulation2;
+
+class StopConditionsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRunStopsAtFirstCheckAfterCondition() {
+        Simulation2 sim = new Simulation2(20, 1, 0, 10, 0.001, tempDir.resolve("stop.csv").toString(), new VelocityVerlet2());
+        sim.setCsvOutput(false);
+        sim.setStopCheckInterval(5);
+        sim.addStopCondition((t, galaxies) -> t > 0.0125 ? "test condition" : null);
+        sim.run();
+        assertEquals("test condition", sim.getStopReason());
+        assertEquals(0.015, sim.getTotalTime(), 1e-9);
+    }
+
+    @Test
+    void testRunWithoutConditionsReachesMaxTime() {
+        Simulation2 sim = new Simulation2(10, 1, 0, 0.01, 0.001, tempDir.resolve("full.csv").toString(), new VelocityVerlet2());
+        sim.setCsvOutput(false);
+        sim.addStopCondition(StopConditions.nonFinite());
+        sim.run();
+        assertNull(sim.getStopReason());
+        assertTrue(sim.getTotalTime() >= 0.01);
+    }
+
+    @Test
+    void testNonFiniteAndThresholdCrossing() {
+        Galaxy2[] galaxies = {new Galaxy2("Galaxy_1", 50, Vector3D.ZERO)};
+        assertNull(StopConditions.nonFinite().check(0, galaxies));
+        galaxies[0].getStars()[3].setVelocity(new Vector3D(Double.NaN, 0, 0));
+        assertNotNull(StopConditions.nonFinite().check(0, galaxies));
+
+        double radius = StopConditions.halfMassRadius(galaxies[0]);
+        assertNull(StopConditions.halfMassRadiusAbove(radius / 2, 0.2).check(0.1, galaxies));
+        assertNotNull(StopConditions.halfMassRadiusAbove(radius / 2, 0.2).check(0.3, galaxies));
+        assertNull(StopConditions.halfMassRadiusAbove(radius * 2, 0.2).check(0.3, galaxies));
+    }
+
+    @Test
+    void testEnergyErrorComparesWithFirstCheck() {
+        Galaxy2[] galaxies = {new Galaxy2("Galaxy_1", 50, Vector3D.ZERO)};
+        StopCondition condition = StopConditions.energyError(1e-3, 1.0, 0.05);
+        assertNull(condition.check(0, galaxies));
+        assertNull(condition.check(1, galaxies));
+        galaxies[0].addGalaxyVelocity(new Vector3D(1, 0, 0));
+        assertNotNull(condition.check(2, galaxies));
+    }
+}
@@ -0,0 +1,92 @@
+package com.simulation2.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.integrators.VelocityVerlet2;
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+import com.simulation2.models.Simulation2;
+
+class CompressedTrajectoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Guarda en memoria los valores exactos de cada estado escrito
+     */
+    private static class RecordingSink implements FrameSink {
+        private final List<double[][]> frames = new ArrayList<>();
+
+        @Override
+        public void writeFrame(double t, Galaxy2[] galaxies) {
+            for (Galaxy2 galaxy : galaxies) {
+                Particle[] stars = galaxy.getStars();
+                double[][] values = new double[stars.length][];
+                for (int i = 0; i < stars.length; i++) {
+                    Particle p = stars[i];
+                    values[i] = new double[]{t, p.getId(),
+                            p.getPosition().getX(), p.getPosition().getY(), p.getPosition().getZ(),
+                            p.getVelocity().getX(), p.getVelocity().getY(), p.getVelocity().getZ()};
+                }
+                frames.add(values);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    void testErrorBoundAndCompression() throws IOException {
+        double errorBound = 1e-6;
+        Path csv = tempDir.resolve("sim.csv");
+        Path compressed = tempDir.resolve("sim.qtr");
+
+        Simulation2 simulation = new Simulation2(100, 1, 100, 1, 0.001, csv.toString(), new VelocityVerlet2());
+        RecordingSink recording = new RecordingSink();
+        simulation.addFrameSink(recording);
+        simulation.addFrameSink(new CompressedTrajectoryWriter(compressed.toString(), errorBound, 5));
+        simulation.run();
+
+        int frames = 0;
+        try (CompressedTrajectoryReader reader = new CompressedTrajectoryReader(compressed.toString())) {
+            TrajectoryFrame frame;
+            while ((frame = reader.next()) != null) {
+                double[][] expected = recording.frames.get(frames++);
+                assertEquals(expected.length, frame.getStarCount());
+                double[][] decoded = {frame.getX(), frame.getY(), frame.getZ(), frame.getVx(), frame.getVy(), frame.getVz()};
+                for (int i = 0; i < expected.length; i++) {
+                    assertEquals(expected[i][0], frame.getTime());
+                    assertEquals((int) expected[i][1], frame.getIds()[i]);
+                    for (int c = 0; c < decoded.length; c++) {
+                        assertTrue(Math.abs(decoded[c][i] - expected[i][c + 2]) <= errorBound,
+                                "frame " + frames + " star " + i + " channel " + c);
+                    }
+                }
+            }
+        }
+        assertEquals(recording.frames.size(), frames);
+
+        long csvSize = Files.size(csv);
+        long compressedSize = Files.size(compressed);
+        assertTrue(compressedSize * 8 < csvSize, "csv=" + csvSize + " compressed=" + compressedSize);
+    }
+
+    @Test
+    void testZigZag() {
+        for (long value : new long[]{0, 1, -1, 123456789L, -987654321012L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(value, CompressedTrajectoryReader.unZigZag(CompressedTrajectoryWriter.zigZag(value)));
+        }
+    }
+}
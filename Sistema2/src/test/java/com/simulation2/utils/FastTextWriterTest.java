@@ -0,0 +1,74 @@
+package com.simulation2.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.models.Galaxy2;
+
+class FastTextWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static double randomValue(Random random, int i) {
+        switch (i % 4) {
+            case 0:
+                return random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20);
+            case 1:
+                return Double.longBitsToDouble(random.nextLong());
+            case 2:
+                return random.nextInt(1000) * 0.001 * random.nextInt(100);
+            default:
+                return i * 0.001;
+        }
+    }
+
+    @Test
+    void testFormatterMatchesJdk() {
+        DoubleFormatter formatter = new DoubleFormatter();
+        byte[] out = new byte[64];
+        double[] special = {0.0, -0.0, 1.0, -1.5, Double.NaN, Double.POSITIVE_INFINITY, Double.MIN_VALUE,
+                Double.MAX_VALUE, 1e7, 1e-3, 9.999999999999999e-4, 0.30000000000000004, 9.9999999999999995e-1};
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            double v = i < special.length ? special[i] : randomValue(random, i);
+            for (int digits : new int[]{0, 5, 15, 17}) {
+                String expected = String.format(Locale.US, "%." + digits + "e", v);
+                int length = formatter.appendScientific(out, 0, v, digits);
+                assertEquals(expected, new String(out, 0, length, StandardCharsets.US_ASCII));
+            }
+            int length = formatter.appendShortest(out, 0, v);
+            assertEquals(Double.toString(v), new String(out, 0, length, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void testCsvMatchesStringFormatOutput() throws Exception {
+        Path csv = tempDir.resolve("sim.csv");
+        Galaxy2 galaxy = new Galaxy2("Galaxy_1", 50, new Vector3D(1.25, -3, 0.5));
+        StringBuilder expected = new StringBuilder();
+        for (int k = 0; k < 3; k++) {
+            double t = k * 0.1;
+            try (CSVWriter2 writer = new CSVWriter2(csv.toString())) {
+                writer.writeData(t, galaxy);
+            }
+            expected.append(t).append(';').append(galaxy.toFileGalaxyHeader()).append('\n');
+            for (String line : galaxy.toFileGalaxyStars()) {
+                expected.append(line).append('\n');
+            }
+            galaxy.moveGalaxy(new Vector3D(0.5, 0, 0));
+        }
+
+        assertEquals(expected.toString(), Files.readString(csv));
+        assertEquals(FrameIndex.build(csv), FrameIndex.load(FrameIndex.indexPathFor(csv)));
+    }
+}
@@ -0,0 +1,108 @@
+package com.simulation2.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.models.Galaxy2;
+
+class FrameIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path csv;
+    private Galaxy2[] galaxies;
+    private final int times = 4;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        csv = tempDir.resolve("sim.csv");
+        galaxies = new Galaxy2[]{
+                new Galaxy2("Galaxy_1", 10, Vector3D.ZERO),
+                new Galaxy2("Galaxy_2", 7, new Vector3D(100, 0, 0))
+        };
+        // igual que Simulation2.writeToFile: un CSVWriter2 por galaxia y por bloque
+        for (int k = 0; k < times; k++) {
+            for (Galaxy2 galaxy : galaxies) {
+                try (CSVWriter2 writer = new CSVWriter2(csv.toString())) {
+                    writer.writeData(k * 0.25, galaxy);
+                }
+                galaxy.moveGalaxy(new Vector3D(0, 1, 0));
+            }
+        }
+    }
+
+    @Test
+    void testWriterIndexMatchesRebuiltIndex() throws Exception {
+        FrameIndex written = FrameIndex.load(FrameIndex.indexPathFor(csv));
+        FrameIndex rebuilt = FrameIndex.build(csv);
+
+        assertEquals(times * galaxies.length, written.size());
+        assertEquals(rebuilt, written);
+        assertEquals(0, written.getOffset(0));
+        assertEquals("Galaxy_2", written.getGalaxy(1));
+        assertEquals(7, written.getStarCount(1));
+    }
+
+    @Test
+    void testStaleIndexIsDroppedWhenCsvIsRecreated() throws Exception {
+        Path index = FrameIndex.indexPathFor(csv);
+        Files.delete(csv);
+        try (CSVWriter2 writer = new CSVWriter2(csv.toString())) {
+            writer.writeData(0, galaxies[0]);
+        }
+        assertEquals(1, FrameIndex.load(index).size());
+        assertEquals(FrameIndex.build(csv), FrameIndex.load(index));
+
+        Files.delete(csv);
+        try (CSVWriter2 writer = new CSVWriter2(csv.toString(), false)) {
+            writer.writeData(0, galaxies[0]);
+        }
+        assertFalse(Files.exists(index));
+    }
+
+    @Test
+    void testMissingIndexIsRebuiltBeforeAppending() throws Exception {
+        Path index = FrameIndex.indexPathFor(csv);
+        Files.delete(index);
+        try (CSVWriter2 writer = new CSVWriter2(csv.toString())) {
+            writer.writeData(times * 0.25, galaxies[0]);
+        }
+        FrameIndex written = FrameIndex.load(index);
+        assertEquals(times * galaxies.length + 1, written.size());
+        assertEquals(FrameIndex.build(csv), written);
+    }
+
+    @Test
+    void testRandomAccess() throws Exception {
+        String[] lines = Files.readAllLines(csv).toArray(new String[0]);
+        try (TrajectoryReader reader = new TrajectoryReader(csv)) {
+            // bloque 5: t = 0.5, Galaxy_2
+            TrajectoryFrame frame = reader.readFrame(5);
+            assertEquals(0.5, frame.getTime());
+            assertEquals("Galaxy_2", frame.getGalaxyName());
+            assertEquals(7, frame.getStarCount());
+
+            // primera estrella del bloque 5 = línea 2*(10+1) + (7+1) + 10 + 1 + 1 del archivo
+            int headerLine = 2 * (10 + 1 + 7 + 1) + 10 + 1;
+            assertTrue(lines[headerLine].startsWith("0.5;Galaxy_2"));
+            String[] star = lines[headerLine + 1].split(";");
+            assertEquals(Double.parseDouble(star[1]), frame.getX()[0]);
+
+            List<TrajectoryFrame> range = reader.readFrames(0.25, 0.5);
+            assertEquals(4, range.size());
+            assertEquals(0.25, range.get(0).getTime());
+
+            assertEquals(0.75, reader.readFrameAt(0.6).getTime());
+            assertNull(reader.readFrameAt(10));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.simulation2.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.models.Galaxy2;
+import com.simulation2.models.Particle;
+
+class SharedStateExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPublishedGalaxiesAreReadBack() throws Exception {
+        Path file = tempDir.resolve("live.bin");
+        Galaxy2[] galaxies = {
+                new Galaxy2("Galaxy_1", 5, Vector3D.ZERO),
+                new Galaxy2("Galaxy_2", 3, new Vector3D(10, 0, 0))
+        };
+        try (SharedStateExporter exporter = new SharedStateExporter(file, 8);
+             SharedStateReader reader = new SharedStateReader(file)) {
+            exporter.publish(1.5, galaxies);
+            double[] positions = new double[3 * reader.getCapacity()];
+            SharedStateReader.Snapshot snapshot = reader.read(positions);
+
+            assertEquals(2, snapshot.getSequence());
+            assertEquals(1.5, snapshot.getTime());
+            assertEquals(8, snapshot.getStarCount());
+            Particle last = galaxies[1].getStars()[2];
+            assertEquals(last.getPosition().getX(), positions[21]);
+            assertEquals(last.getPosition().getZ(), positions[23]);
+        }
+    }
+
+    @Test
+    void testConcurrentReaderNeverSeesTornState() throws Exception {
+        Path file = tempDir.resolve("live.bin");
+        int stars = 2000;
+        int publications = 2000;
+        AtomicBoolean done = new AtomicBoolean();
+
+        try (SharedStateExporter exporter = new SharedStateExporter(file, stars);
+             SharedStateReader reader = new SharedStateReader(file)) {
+            // cada publicación k escribe el valor k en todas las coordenadas y en t
+            Thread writer = new Thread(() -> {
+                double[] positions = new double[3 * stars];
+                for (int k = 1; k <= publications; k++) {
+                    Arrays.fill(positions, k);
+                    exporter.publish(k, positions, stars);
+                }
+                done.set(true);
+            });
+            writer.start();
+
+            double[] positions = new double[3 * stars];
+            int reads = 0;
+            while (!done.get() || reads == 0) {
+                SharedStateReader.Snapshot snapshot = reader.read(positions);
+                for (int i = 0; i < 3 * snapshot.getStarCount(); i++) {
+                    assertEquals(snapshot.getTime(), positions[i]);
+                }
+                reads++;
+            }
+            writer.join();
+
+            SharedStateReader.Snapshot last = reader.read(positions);
+            assertEquals(publications, last.getTime());
+            assertEquals(2L * publications, last.getSequence());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.simulation2.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.integrators.VelocityVerlet2;
+import com.simulation2.models.Simulation2;
+
+class StarTrackTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static double[][] columnsOf(TrajectoryFrame frame) {
+        return new double[][]{frame.getX(), frame.getY(), frame.getZ(), frame.getVx(), frame.getVy(),
+                frame.getVz(), frame.getFx(), frame.getFy(), frame.getFz()};
+    }
+
+    private static double[][] columnsOf(StarTrack track) {
+        return new double[][]{track.getX(), track.getY(), track.getZ(), track.getVx(), track.getVy(),
+                track.getVz(), track.getFx(), track.getFy(), track.getFz()};
+    }
+
+    @Test
+    void testTransposeMatchesCsv() throws IOException {
+        Path csv = tempDir.resolve("sim.csv");
+        Path direct = tempDir.resolve("direct.tracks");
+        Path transposed = tempDir.resolve("sim.tracks");
+        Simulation2 simulation = new Simulation2(60, 2, 100, 1, 0.01, csv.toString(), new VelocityVerlet2());
+        simulation.addFrameSink(new StarTrackWriter(direct, 7));
+        simulation.run();
+        long steps = StarTrackWriter.transpose(csv, transposed, 5);
+        // dos galaxias: los nombres del índice no son múltiplo de 8 bytes, el archivo sí
+        assertEquals(0, Files.size(transposed) % 8);
+        assertEquals(0, Files.size(direct) % 8);
+
+        try (StarTrackReader fromCsv = new StarTrackReader(transposed);
+             StarTrackReader fromSink = new StarTrackReader(direct);
+             TrajectoryParser parser = new TrajectoryParser(csv)) {
+            assertEquals(steps, fromCsv.getStepCount());
+            assertEquals(steps, fromSink.getStepCount());
+            assertEquals(fromCsv.getTrackCount(), fromSink.getTrackCount());
+            assertEquals(60, fromCsv.getTrackCount());
+            assertEquals((steps + 4) / 5, fromCsv.getWindowCount());
+
+            StarTrack[] tracks = fromCsv.readTracks(0, fromCsv.getTrackCount(),
+                    Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            // cada valor del CSV está, sin cambios, en la historia de su estrella
+            int step = -1;
+            double lastTime = Double.NaN;
+            TrajectoryFrame frame;
+            while ((frame = parser.next()) != null) {
+                if (frame.getTime() != lastTime) {
+                    step++;
+                    lastTime = frame.getTime();
+                }
+                double[][] expected = columnsOf(frame);
+                for (int i = 0; i < frame.getStarCount(); i++) {
+                    int track = fromCsv.findTrack(frame.getGalaxyName(), frame.getIds()[i]);
+                    assertTrue(track >= 0);
+                    assertEquals(frame.getTime(), tracks[track].getTimes()[step]);
+                    double[][] actual = columnsOf(tracks[track]);
+                    for (int c = 0; c < expected.length; c++) {
+                        assertEquals(Double.doubleToLongBits(expected[c][i]), Double.doubleToLongBits(actual[c][step]));
+                    }
+                }
+            }
+            assertEquals(steps - 1, step);
+
+            // el sink guarda los valores sin redondear, el CSV con 16 cifras
+            for (int k = 0; k < fromSink.getTrackCount(); k++) {
+                StarTrack exact = fromSink.readTrack(k);
+                StarTrack rounded = fromCsv.readTrack(exact.getGalaxyName(), exact.getId());
+                assertArrayEquals(rounded.getTimes(), exact.getTimes());
+                double[][] a = columnsOf(rounded);
+                double[][] b = columnsOf(exact);
+                for (int c = 0; c < a.length; c++) {
+                    for (int s = 0; s < a[c].length; s++) {
+                        assertEquals(a[c][s], b[c][s], 1e-14 * Math.max(1, Math.abs(a[c][s])));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTimeRangeAndMissingStars() throws IOException {
+        Path path = tempDir.resolve("synthetic.tracks");
+        try (StarTrackWriter writer = new StarTrackWriter(path, 3)) {
+            for (int s = 0; s < 10; s++) {
+                // la estrella 2 aparece en el paso 4 y la 1 desaparece en el paso 6
+                int[] ids = s < 4 ? new int[]{0, 1} : s < 6 ? new int[]{0, 1, 2} : new int[]{0, 2};
+                double[][] columns = new double[StarTrackWriter.STAR_COLUMNS][ids.length];
+                for (int c = 0; c < columns.length; c++) {
+                    for (int i = 0; i < ids.length; i++) {
+                        columns[c][i] = 1000 * ids[i] + 10 * s + c;
+                    }
+                }
+                writer.writeFrame(new TrajectoryFrame(0.5 * s, "Galaxy_1", 0, 0, 0, ids,
+                        columns[0], columns[1], columns[2], columns[3], columns[4], columns[5],
+                        columns[6], columns[7], columns[8]));
+                // la misma estrella en otra galaxia es otra historia
+                writer.writeFrame(new TrajectoryFrame(0.5 * s, "Galaxy_2", 0, 0, 0, new int[]{1},
+                        new double[]{-s}, new double[1], new double[1], new double[1], new double[1],
+                        new double[1], new double[1], new double[1], new double[1]));
+            }
+        }
+
+        try (StarTrackReader reader = new StarTrackReader(path)) {
+            assertEquals(10, reader.getStepCount());
+            assertEquals(4, reader.getWindowCount());
+            assertEquals(4, reader.getTrackCount());
+            assertEquals(-1, reader.findTrack("Galaxy_3", 0));
+            assertArrayEquals(new double[]{0, 0.5, 1, 1.5, 2, 2.5, 3, 3.5, 4, 4.5}, reader.readTimes());
+            assertArrayEquals(new double[]{0, -1, -2, -3, -4, -5, -6, -7, -8, -9},
+                    reader.readTrack("Galaxy_2", 1).getX());
+
+            int first = reader.findTrack("Galaxy_1", 1);
+            assertEquals(first + 2, reader.findTrack("Galaxy_1", 2));
+            StarTrack[] tracks = reader.readTracks(first, 3, 1.5, 3.2);
+            assertArrayEquals(new double[]{1.5, 2, 2.5, 3}, tracks[0].getTimes());
+            assertArrayEquals(new double[]{1030, 1040, 1050, Double.NaN}, tracks[0].getX());
+            assertArrayEquals(new double[]{1038, 1048, 1058, Double.NaN}, tracks[0].getFz());
+            assertEquals("Galaxy_2", tracks[1].getGalaxyName());
+            assertArrayEquals(new double[]{-3, -4, -5, -6}, tracks[1].getX());
+            assertArrayEquals(new double[]{Double.NaN, 2041, 2051, 2061}, tracks[2].getY());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.simulation2.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.simulation2.integrators.VelocityVerlet2;
+import com.simulation2.models.Simulation2;
+
+class TrajectoryConverterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParserMatchesJdk() {
+        Random random = new Random(7);
+        for (int k = 0; k < 200_000; k++) {
+            double v = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(v) || Double.isInfinite(v)) {
+                continue;
+            }
+            for (String text : new String[]{Double.toString(v), String.format(Locale.US, "%.15e", v),
+                    String.format(Locale.US, "%.17e", v), String.format(Locale.US, "%.3f", random.nextGaussian() * 100)}) {
+                byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+                double parsed = FastDoubleParser.parse(ByteBuffer.wrap(bytes), 0, bytes.length);
+                assertEquals(Double.doubleToLongBits(Double.parseDouble(text)), Double.doubleToLongBits(parsed), text);
+            }
+        }
+        for (String text : new String[]{"0", "-0.0", "4.9e-324", "1.7976931348623157e308", "2.2250738585072014E-308",
+                "9007199254740993", "1e23", "-1.000000000000000e+00"}) {
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+            assertEquals(Double.doubleToLongBits(Double.parseDouble(text)),
+                    Double.doubleToLongBits(FastDoubleParser.parse(ByteBuffer.wrap(bytes), 0, bytes.length)), text);
+        }
+    }
+
+    @Test
+    void testGalaxyRoundTrip() throws IOException {
+        Path csv = tempDir.resolve("sim.csv");
+        new Simulation2(50, 2, 100, 1, 0.01, csv.toString(), new VelocityVerlet2()).run();
+
+        Path single = tempDir.resolve("single.trj");
+        Path chunked = tempDir.resolve("chunked.trj");
+        long frames = new TrajectoryConverter(1).convert(csv, single);
+        // tramos chicos para que los cortes caigan en medio de los bloques
+        assertEquals(frames, new TrajectoryConverter(4, 997).convert(csv, chunked));
+        assertTrue(frames > 2);
+
+        TrajectoryConverter.verify(csv, single);
+        TrajectoryConverter.verify(csv, chunked);
+        assertArrayEquals(Files.readAllBytes(single), Files.readAllBytes(chunked));
+
+        try (ColumnarTrajectoryReader reader = new ColumnarTrajectoryReader(chunked);
+             TrajectoryParser parser = new TrajectoryParser(csv)) {
+            assertEquals(TrajectoryConverter.KIND_GALAXIES, reader.getKind());
+            assertEquals(frames, reader.getFrameCount());
+            TrajectoryFrame expected = parser.next();
+            TrajectoryFrame last = reader.readFrame(reader.getFrameCount() - 1);
+            assertEquals(expected.getGalaxyName(), reader.readFrame(0).getGalaxyName());
+            assertEquals(expected.getStarCount(), last.getStarCount());
+            assertEquals(last.getTime(), reader.getTime(reader.getFrameCount() - 1));
+        }
+    }
+
+    @Test
+    void testOscillatorRoundTrip() throws IOException {
+        Path csv = tempDir.resolve("oscillator.csv");
+        int rows = 5000;
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("t;pos;vel\n");
+            for (int i = 0; i < rows; i++) {
+                double t = i * 1e-3;
+                writer.write(String.format(Locale.US, "%.17e;%.17e;%.17e\n", t, Math.exp(-t) * Math.cos(t), -Math.sin(t)));
+            }
+        }
+        Path out = tempDir.resolve("oscillator.trj");
+        assertEquals(rows, new TrajectoryConverter(3, 4096).convert(csv, out));
+        TrajectoryConverter.verify(csv, out);
+
+        try (ColumnarTrajectoryReader reader = new ColumnarTrajectoryReader(out)) {
+            assertEquals(TrajectoryConverter.KIND_OSCILLATOR, reader.getKind());
+            double[] t = reader.readColumn(0);
+            assertEquals(rows, t.length);
+            assertEquals(Double.parseDouble(String.format(Locale.US, "%.17e", 1234 * 1e-3)), t[1234]);
+            assertEquals(t[4321], reader.getTime(4321));
+        }
+    }
+
+    @Test
+    void testVerifyDetectsDifferences() throws IOException {
+        Path csv = tempDir.resolve("sim.csv");
+        new Simulation2(20, 1, 100, 0.5, 0.01, csv.toString(), new VelocityVerlet2()).run();
+        Path out = tempDir.resolve("sim.trj");
+        new TrajectoryConverter(2).convert(csv, out);
+
+        Path altered = tempDir.resolve("altered.csv");
+        String text = new String(Files.readAllBytes(csv), StandardCharsets.UTF_8);
+        int star = text.indexOf('\n', text.indexOf("Galaxy")) + 1;
+        int field = text.indexOf(';', star) + 1;
+        char digit = text.charAt(field + 2) == '1' ? '2' : '1';
+        Files.write(altered, (text.substring(0, field + 2) + digit + text.substring(field + 3)).getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> TrajectoryConverter.verify(altered, out));
+    }
+}